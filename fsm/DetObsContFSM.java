@@ -3,13 +3,17 @@ package fsm;
 import support.attribute.EventControllability;
 import support.attribute.EventObservability;
 import support.map.TransitionFunction;
+import support.map.ImageTransitionFunction;
+import support.map.ImageStateMap;
 import support.DisabledEvents;
 import support.map.StateMap;
 import support.map.EventMap;
 import support.transition.*;
 import support.ReadWrite;
+import support.MachineImage;
 import fsm.attribute.*;
 import support.Event;
+import support.StateSpaceExplorer;
 import support.State;
 import java.io.File;
 import java.util.*;
@@ -161,6 +165,25 @@ public class DetObsContFSM extends FSM<DetTransition> implements Deterministic<D
 		}
 	} // DetFSM(FSM, String)
 	
+	/**
+	 * Constructor for a DetObsContFSM object which reads a binary file in place, for exploring machines too large
+	 * to load: the States and Transitions stay in the memory-mapped MachineImage and are only made as they are
+	 * used. The FSM is read-only; any attempt to change its States or Transitions throws an UnsupportedOperationException.
+	 * 
+	 * @param image - MachineImage object holding the FSM, as written by toBinaryFile.
+	 * @param inId - String object representing the id for the FSM.
+	 */
+	
+	public DetObsContFSM(MachineImage image, String inId) {
+		id = inId;
+		ImageStateMap imageStates = new ImageStateMap(image);
+		states = imageStates;
+		events = new EventMap();
+		transitions = new ImageTransitionFunction<DetTransition>(new DetTransition(), image, imageStates, events);
+		ArrayList<State> initial = imageStates.getInitialStates();
+		initialState = initial.isEmpty() ? null : initial.get(0);
+	} // DetObsContFSM(MachineImage, String)
+	
 	/**
 	 * Constructor for an FSM object that contains no transitions or states, allowing the
 	 * user to add those elements themselves.
@@ -200,20 +223,12 @@ public class DetObsContFSM extends FSM<DetTransition> implements Deterministic<D
 		for(State s : getStates()) {
 			
 			HashSet<State> reach = new HashSet<State>();
-			LinkedList<State> queue = new LinkedList<State>();
-			queue.add(s);
-			
-			while(!queue.isEmpty()) {
-				State top = queue.poll();
-				if(reach.contains(top))
-					continue;
+			new StateSpaceExplorer<State>((top, next) -> {
 				reach.add(top);
-			    for(DetTransition t : getTransitions().getTransitions(top)) {
-				   if(!t.getTransitionEvent().getEventObservability()) {
-					  queue.add(t.getTransitionState());
-			 	  }
-			  }
-			}
+				for(DetTransition t : getTransitions().getTransitions(top))
+					if(!t.getTransitionEvent().getEventObservability())
+						next.accept(t.getTransitionState());
+			}).explore(s);
 			ArrayList<State> composite = new ArrayList<State>(reach);
 			Collections.sort(composite);
 			State made = new State(composite.toArray(new State[composite.size()]));
@@ -221,17 +236,12 @@ public class DetObsContFSM extends FSM<DetTransition> implements Deterministic<D
 			map.put(s, made);
 		}
 		
-		LinkedList<State> queue = new LinkedList<State>();
-		HashSet<String> visited = new HashSet<String>();
-		
-		queue.add(map.get(getInitialState()));
 		newFSM.addState(map.get(getInitialState()));
 		
-		while(!queue.isEmpty()) {
-			State top = queue.poll();
-			if(visited.contains(top.getStateName()))
-				continue;
-			visited.add(top.getStateName());
+		// The Transitions are gathered as they are found and added in bulk at the end
+		ArrayList<State> addedFrom = new ArrayList<State>(), addedTo = new ArrayList<State>();
+		ArrayList<Event> addedEvents = new ArrayList<Event>();
+		new StateSpaceExplorer<State>((top, next) -> {
 			HashMap<Event, HashSet<State>> tran = new HashMap<Event, HashSet<State>>();
 			for(State s : newFSM.getStateComposition(top)) {
 				for(DetTransition t : getTransitions().getTransitions(s)) {
@@ -246,12 +256,13 @@ public class DetObsContFSM extends FSM<DetTransition> implements Deterministic<D
 			for(Event e : tran.keySet()) {
 				State bot = newFSM.addState(tran.get(e).toArray(new State[tran.get(e).size()]));
 				newFSM.setStateComposition(bot, tran.get(e).toArray(new State[tran.get(e).size()]));
-				queue.add(bot);
-				newFSM.addTransition(top, e, bot);
-				newFSM.addState(top);
-				newFSM.addState(bot);
+				next.accept(bot);
+				addedFrom.add(newFSM.addState(top));
+				addedEvents.add(newFSM.getEventMap().addEvent(e));
+				addedTo.add(newFSM.addState(bot));
 			}
-		}
+		}).setEncoder(State::getStateName).explore(map.get(getInitialState()));
+		newFSM.getTransitions().addTransitions(addedFrom, addedEvents, addedTo);
 		newFSM.addInitialState(map.get(getInitialState()));
 		return newFSM;
 		
@@ -264,7 +275,6 @@ public class DetObsContFSM extends FSM<DetTransition> implements Deterministic<D
 			name = id;
 		String truePath = "";
 		truePath = filePath + (filePath.charAt(filePath.length()-1) == '/' ? "" : "/") + name;
-		String special = "6\n";
 		ArrayList<String> init = new ArrayList<String>();
 		ArrayList<String> mark = new ArrayList<String>();
 		ArrayList<String> priv = new ArrayList<String>();
@@ -287,24 +297,8 @@ public class DetObsContFSM extends FSM<DetTransition> implements Deterministic<D
 			if(!e.getEventAttackerObservability())
 				atta.add(e.getEventName());
 		}
-		special += init.size() + "\n";
-		for(String s : init)
-			special += s + "\n";
-		special += mark.size() + "\n";
-		for(String s : mark)
-			special += s + "\n";
-		special += priv.size() + "\n";
-		for(String s : priv)
-			special += s + "\n";
-		special += unob.size() + "\n";
-		for(String s : unob)
-			special += s + "\n";
-		special += atta.size() + "\n";
-		for(String s : atta)
-			special += s + "\n";
-		special += cont.size() + "\n";
-		for(String s : cont)
-			special += s + "\n";
+		// Written in the order the file constructor reads the batches back
+		ArrayList<ArrayList<String>> special = new ArrayList<ArrayList<String>>(Arrays.asList(init, mark, priv, unob, atta, cont));
 		ReadWrite<DetTransition> rdWrt = new ReadWrite<DetTransition>();
 		rdWrt.writeToFile(truePath,  special, this.getTransitions(), FSM_EXTENSION);
 	}
@@ -0,0 +1,615 @@
+package fsm;
+
+import fsm.attribute.Controllability;
+import fsm.attribute.Observability;
+import support.State;
+import support.transition.Transition;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.*;
+import java.io.*;
+
+/**
+ * This class keeps an append-only journal of the edits made to a transition system since it was last written
+ * to its text file, so that saving after a small edit costs as much as the edit rather than rewriting the whole
+ * file. The journal sits next to the text file (with JOURNAL_EXTENSION added to its name) and holds one edit per
+ * line, such as "addTransition s1 e s2"; the edits are replayed when the file is read back in.
+ *
+ * The first line of a journal records the length and CRC-32 checksum of the text file it applies to, so a journal
+ * left behind by an older version of the file (or one whose file was changed by something else) is ignored rather
+ * than replayed onto the wrong machine. A line cut short by a crash is likewise ignored.
+ *
+ * Once the journal grows past a fraction of the text file, it is compacted on a background thread: the file is read
+ * back in, the edits journalled so far are replayed, and the result is written over the file, after which only the
+ * edits saved in the meantime are kept in the journal. The new file and journal are written beside the old ones and
+ * a marker file (with COMMIT_EXTENSION added to the journal's name) is made before either is moved into place, so
+ * after a crash between the two moves the next replay or compaction can tell which pair is whole. Edits
+ * which touch the whole machine (such as renaming every State) are not journalled; recording one marks the journal
+ * as stale, and the next save rewrites the whole file. The text file holds only the States with an attribute or a
+ * Transition, so each journal written with a new text file starts by adding back any other States.
+ *
+ * If the text file or journal is changed by anything else, such as a second tab editing the same file, the next
+ * save notices that their sizes or the file's time no longer match and rewrites the whole file rather than adding
+ * to a journal which may hold someone else's edits; as with an ordinary file, the last save wins.
+ *
+ * This class is a part of the fsm package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class EditJournal {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** String constant appended to the name of a text file to name its journal.*/
+	public static final String JOURNAL_EXTENSION = ".journal";
+	/** String constant appended to the name of a journal to name the marker of a compaction being moved into place.*/
+	public static final String COMMIT_EXTENSION = ".commit";
+	/** String constants naming the edits which can be journalled, as they are written at the start of each line.*/
+	public static final String ADD_STATE = "addState", REMOVE_STATE = "removeState", ADD_INITIAL_STATE = "addInitialState",
+			REMOVE_INITIAL_STATE = "removeInitialState", SET_MARKED = "setMarked", SET_PRIVATE = "setPrivate",
+			MARK_ALL_STATES = "markAllStates", UNMARK_ALL_STATES = "unmarkAllStates", ADD_TRANSITION = "addTransition",
+			ADD_MUST_TRANSITION = "addMustTransition", REMOVE_TRANSITION = "removeTransition", SET_OBSERVABLE = "setObservable",
+			SET_ATTACKER_OBSERVABLE = "setAttackerObservable", SET_CONTROLLABLE = "setControllable";
+	/** String constant starting the first line of every journal.*/
+	private static final String HEADER = "journal";
+	/** int value representing the fraction of the text file's size the journal may reach before it is compacted.*/
+	private static final int COMPACT_FRACTION = 4;
+	/** long value representing the size below which a journal is never compacted.*/
+	private static final long MIN_COMPACT_SIZE = 1 << 16;
+	/** ExecutorService object running the compactions of every journal, one at a time, on a daemon thread.*/
+	private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "EditJournal compactor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** File object representing the text file the journal applies to.*/
+	private File base;
+	/** File object representing the journal.*/
+	private File journal;
+	/** Function<<r>File, TransitionSystem<<r>?>> object which reads the text file back in for compaction.*/
+	private Function<File, TransitionSystem<?>> loader;
+	/** ArrayList<<r>String> object holding the edits recorded since the last save, one line each.*/
+	private ArrayList<String> pending;
+	/** boolean value representing whether an edit which cannot be journalled was made, so the next save rewrites the file.*/
+	private boolean stale;
+	/** boolean value representing whether the journal on disk applies to the text file as it is now.*/
+	private boolean journalValid;
+	/** long values representing the length and checksum of the text file, or -1 if it has not been checked.*/
+	private long baseLength, baseChecksum;
+	/** long values representing the time the text file was last written and the length of the journal, as this object left them.*/
+	private long baseModified, journalLength;
+	/** int value counting the times the text file has been rewritten in full, so a compaction begun before one is abandoned.*/
+	private int generation;
+	/** boolean value representing whether a compaction is underway.*/
+	private boolean compacting;
+	/** Object which a compaction holds throughout, so that two never run at once.*/
+	private final Object compactLock = new Object();
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for an EditJournal object for the text file of a transition system. The file need not exist yet;
+	 * until the journal has been replayed (or the file written by save), the first save rewrites the whole file.
+	 *
+	 * @param inBase - File object representing the text file, whose extension must be the one toTextFile gives the transition system.
+	 * @param ts - TransitionSystem object being journalled, whose class is used to read the file back in.
+	 */
+
+	public EditJournal(File inBase, TransitionSystem<?> ts) {
+		base = inBase;
+		journal = new File(base.getPath() + JOURNAL_EXTENSION);
+		if(ts instanceof ModalSpecification)
+			loader = file -> new ModalSpecification(file, "compact");
+		else if(ts instanceof NonDetObsContFSM)
+			loader = file -> new NonDetObsContFSM(file, "compact");
+		else
+			loader = file -> new DetObsContFSM(file, "compact");
+		pending = new ArrayList<String>();
+		stale = true;
+		baseLength = -1;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method gives the name of the text file toTextFile writes for a transition system, so that a journal
+	 * may be made for it.
+	 *
+	 * @param filePath - String object representing the path to the folder holding the text file.
+	 * @param name - String object representing the name given to toTextFile.
+	 * @param ts - TransitionSystem object being written.
+	 * @return - Returns a File object representing the text file.
+	 */
+
+	public static File getTextFile(String filePath, String name, TransitionSystem<?> ts) {
+		return new File(filePath, name + getTextExtension(ts));
+	}
+
+	/**
+	 * This method gives the extension toTextFile adds to the name of a transition system's text file.
+	 *
+	 * @param ts - TransitionSystem object being written.
+	 * @return - Returns a String object holding the extension, including its dot.
+	 */
+
+	public static String getTextExtension(TransitionSystem<?> ts) {
+		return ts instanceof ModalSpecification ? ModalSpecification.MODAL_EXTENSION : FSM.FSM_EXTENSION;
+	}
+
+	/**
+	 * This method replays the journal of the text file onto a transition system just read from it. A journal
+	 * which does not apply to the file as it is now is left alone, and is replaced at the next save. A compaction
+	 * cut short by a crash is tidied up first, keeping the journal which applies to the file as it was read.
+	 *
+	 * @param ts - TransitionSystem object read from the text file.
+	 * @return - Returns an int value representing the number of edits replayed.
+	 * @throws IOException - Thrown if the file or journal cannot be read, or the journal holds an edit which cannot be replayed.
+	 */
+
+	public int replay(TransitionSystem<?> ts) throws IOException {
+		synchronized(compactLock) {
+			synchronized(this) {
+				finishCompaction();
+				long[] check = checksum(base);
+				baseLength = check[0];
+				baseChecksum = check[1];
+				baseModified = base.lastModified();
+				journalLength = journal.length();
+				stale = false;
+				journalValid = false;
+				if(!journal.exists())
+					return 0;
+				int count = replay(ts, journal, baseLength, baseChecksum, journalLength);
+				journalValid = count != -1;
+				return Math.max(count, 0);
+			}
+		}
+	}
+
+	/**
+	 * This method records an edit made to the transition system, to be written to the journal at the next save.
+	 *
+	 * @param operation - String object naming the edit, one of this class's constants.
+	 * @param arguments - String[] object holding the edit's arguments: the names of its States and Events, and any boolean value.
+	 */
+
+	public synchronized void record(String operation, String ... arguments) {
+		StringBuilder line = new StringBuilder(operation);
+		for(String argument : arguments)
+			line.append(' ').append(argument);
+		pending.add(line.toString());
+	}
+
+	/**
+	 * This method records that an edit which cannot be journalled was made, so the next save rewrites the whole file.
+	 */
+
+	public synchronized void invalidate() {
+		stale = true;
+		pending.clear();
+	}
+
+	/**
+	 * This method saves the transition system. If the journal applies to the text file, only the edits recorded
+	 * since the last save are appended to it, and a compaction is started if it has grown large; otherwise, or if
+	 * the file or journal was changed by something else since this object last wrote them, the whole text file is
+	 * written and the journal is emptied.
+	 *
+	 * @param ts - TransitionSystem object being saved, holding every edit recorded.
+	 * @throws IOException - Thrown if the file or journal cannot be written.
+	 */
+
+	public synchronized void save(TransitionSystem<?> ts) throws IOException {
+		boolean changedElsewhere = base.length() != baseLength || base.lastModified() != baseModified || (journalValid && journal.length() != journalLength);
+		if(stale || !base.exists() || changedElsewhere) {
+			// A compaction left unfinished would otherwise move an older file over the one written here
+			getCommitFile().delete();
+			new File(journal.getPath() + ".compact").delete();
+			String name = base.getName();
+			ts.toTextFile(base.getAbsoluteFile().getParent(), name.substring(0, name.lastIndexOf('.')));
+			long[] check = checksum(base);
+			if(check[0] == -1)
+				throw new IOException("could not write " + base.getPath());
+			baseLength = check[0];
+			baseChecksum = check[1];
+			generation++;
+			stale = false;
+			pending.clear();
+			writeJournal(journal, baseLength + " " + baseChecksum, getUnwrittenStates(ts));
+			baseModified = base.lastModified();
+			journalLength = journal.length();
+			journalValid = true;
+			return;
+		}
+		if(!journalValid) {
+			writeJournal(journal, baseLength + " " + baseChecksum, new byte[0]);
+			journalLength = journal.length();
+			journalValid = true;
+		}
+		if(!pending.isEmpty()) {
+			StringBuilder lines = new StringBuilder();
+			for(String line : pending)
+				lines.append(line).append('\n');
+			try(OutputStream out = Files.newOutputStream(journal.toPath(), StandardOpenOption.APPEND)) {
+				out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+			}
+			journalLength = journal.length();
+			pending.clear();
+		}
+		if(!compacting && journal.length() > Math.max(MIN_COMPACT_SIZE, baseLength / COMPACT_FRACTION)) {
+			compacting = true;
+			COMPACTOR.execute(() -> {
+				try {
+					compact();
+				}
+				catch(IOException e) {
+					e.printStackTrace();
+				}
+			});
+		}
+	} // save(TransitionSystem<?>)
+
+	/**
+	 * This method folds the journal into the text file: the file is read back in, the edits journalled so far are
+	 * replayed, and the result is written over the file. Edits saved while this happens stay in the journal. save
+	 * calls this method on a background thread; it may also be called directly, and then finishes before returning.
+	 *
+	 * The new file and journal are written in full beside the old ones, and then the marker file is made, in one
+	 * step, before the two are moved into place and it is deleted. Until the new file is moved, the old file and
+	 * journal are whole; once it is, the new journal is too, so a crash at any point loses nothing (see finishCompaction).
+	 *
+	 * @return - Returns a boolean value; true if the journal was compacted, false if there was nothing to do or the file was rewritten meanwhile.
+	 * @throws IOException - Thrown if the file or journal cannot be read or written.
+	 */
+
+	public boolean compact() throws IOException {
+		synchronized(compactLock) {
+			long length, checksum, upTo;
+			int startGeneration;
+			synchronized(this) {
+				finishCompaction();
+				if(!journalValid || !journal.exists()) {
+					compacting = false;
+					return false;
+				}
+				length = baseLength;
+				checksum = baseChecksum;
+				upTo = journal.length();
+				startGeneration = generation;
+				compacting = true;
+			}
+			String name = base.getName();
+			String stem = "." + name.substring(0, name.lastIndexOf('.')) + ".compact";
+			File compacted = getCompactedFile();
+			boolean committed = false;
+			try {
+				// The file is read and rewritten without holding the lock, so edits can go on being saved meanwhile
+				TransitionSystem<?> ts = loader.apply(base);
+				if(replay(ts, journal, length, checksum, upTo) == -1)
+					return false;
+				ts.toTextFile(base.getAbsoluteFile().getParent(), stem);
+				long[] check = checksum(compacted);
+				if(check[0] == -1)
+					throw new IOException("could not write " + compacted.getPath());
+				synchronized(this) {
+					if(generation != startGeneration)
+						return false;
+					byte[] rest = new byte[(int)(journal.length() - upTo)];
+					try(FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.READ)) {
+						ByteBuffer buffer = ByteBuffer.wrap(rest);
+						while(buffer.hasRemaining() && channel.read(buffer, upTo + buffer.position()) > 0);
+					}
+					File newJournal = new File(journal.getPath() + ".compact");
+					byte[] unwritten = getUnwrittenStates(ts);
+					byte[] edits = Arrays.copyOf(unwritten, unwritten.length + rest.length);
+					System.arraycopy(rest, 0, edits, unwritten.length, rest.length);
+					writeJournal(newJournal, check[0] + " " + check[1], edits);
+					force(compacted);
+					force(newJournal);
+					// From here on the side files are left for finishCompaction if this thread stops partway
+					Files.write(getCommitFile().toPath(), new byte[0]);
+					committed = true;
+					Files.move(compacted.toPath(), base.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					Files.move(newJournal.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					getCommitFile().delete();
+					baseLength = check[0];
+					baseChecksum = check[1];
+					baseModified = base.lastModified();
+					journalLength = journal.length();
+					return true;
+				}
+			}
+			finally {
+				if(!committed)
+					compacted.delete();
+				synchronized(this) {
+					compacting = false;
+				}
+			}
+		}
+	} // compact()
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the text file the journal applies to.
+	 *
+	 * @return - Returns a File object representing the text file.
+	 */
+
+	public File getBaseFile() {
+		return base;
+	}
+
+	/**
+	 * Getter method that returns the journal's file.
+	 *
+	 * @return - Returns a File object representing the journal.
+	 */
+
+	public File getJournalFile() {
+		return journal;
+	}
+
+	/**
+	 * Getter method that returns whether a compaction is underway.
+	 *
+	 * @return - Returns a boolean value; true if the journal is being compacted, false otherwise.
+	 */
+
+	public synchronized boolean isCompacting() {
+		return compacting;
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that tidies up after a compaction which stopped partway, as after a crash, so that the journal
+	 * matches the text file as it is now, which is the one a transition system being replayed onto was read from.
+	 * If the new text file was not yet moved into place, the old file and journal are whole and the new ones are
+	 * deleted; if it was, the new journal is moved into place after it, unless that was done too.
+	 *
+	 * @throws IOException - Thrown if the new journal cannot be moved into place.
+	 */
+
+	private void finishCompaction() throws IOException {
+		File commit = getCommitFile();
+		File compacted = getCompactedFile();
+		File newJournal = new File(journal.getPath() + ".compact");
+		if(commit.exists() && !compacted.exists() && newJournal.exists())
+			Files.move(newJournal.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		// The new journal goes before the new file, and the marker last, so a crash here is tidied up the same way again
+		newJournal.delete();
+		compacted.delete();
+		commit.delete();
+	}
+
+	/**
+	 * Helper method that gives the file a compaction writes the new text file to, beside the text file.
+	 *
+	 * @return - Returns a File object representing the compacted text file.
+	 */
+
+	private File getCompactedFile() {
+		String name = base.getName();
+		return new File(base.getAbsoluteFile().getParent(), "." + name.substring(0, name.lastIndexOf('.')) + ".compact" + name.substring(name.lastIndexOf('.')));
+	}
+
+	/**
+	 * Helper method that gives the marker file made once a compaction's new file and journal are both written.
+	 *
+	 * @return - Returns a File object representing the marker file.
+	 */
+
+	private File getCommitFile() {
+		return new File(journal.getPath() + COMMIT_EXTENSION);
+	}
+
+	/**
+	 * Helper method that waits until a file's contents are on the disk, so that a crash after it is moved into
+	 * place cannot leave it empty.
+	 *
+	 * @param file - File object representing the file.
+	 * @throws IOException - Thrown if the file cannot be opened.
+	 */
+
+	private static void force(File file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Helper method that replays part of a journal onto a transition system, if the journal applies to the
+	 * text file with the provided length and checksum.
+	 *
+	 * @param ts - TransitionSystem object to apply the edits to.
+	 * @param file - File object representing the journal.
+	 * @param length - long value representing the length of the text file.
+	 * @param checksum - long value representing the checksum of the text file.
+	 * @param upTo - long value representing the number of bytes of the journal to replay.
+	 * @return - Returns an int value representing the number of edits replayed, or -1 if the journal does not apply to the file.
+	 * @throws IOException - Thrown if the journal cannot be read or holds an edit which cannot be replayed.
+	 */
+
+	private static int replay(TransitionSystem<?> ts, File file, long length, long checksum, long upTo) throws IOException {
+		byte[] bytes = new byte[(int)Math.min(upTo, file.length())];
+		try(InputStream in = new FileInputStream(file)) {
+			int read = 0;
+			while(read < bytes.length) {
+				int got = in.read(bytes, read, bytes.length - read);
+				if(got < 0)
+					break;
+				read += got;
+			}
+		}
+		String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n", -1);
+		if(lines.length < 2 || !lines[0].equals(HEADER + " " + length + " " + checksum))
+			return -1;
+		// The last element follows the final line separator, so it is empty unless a crash cut that line short
+		int count = 0;
+		for(int i = 1; i < lines.length - 1; i++) {
+			if(lines[i].isEmpty())
+				continue;
+			apply(ts, lines[i].split(" "), i + 1);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Helper method that applies one journalled edit to a transition system, through the same methods the edit
+	 * was first made with.
+	 *
+	 * @param ts - TransitionSystem object to apply the edit to.
+	 * @param edit - String[] object holding the name of the edit followed by its arguments.
+	 * @param lineNumber - int value representing the line of the journal holding the edit, for the error message.
+	 * @throws IOException - Thrown if the edit is not one this class records, has the wrong arguments, or does not apply to this kind of transition system.
+	 */
+
+	private static void apply(TransitionSystem<?> ts, String[] edit, int lineNumber) throws IOException {
+		String op = edit[0];
+		int arguments = op.equals(MARK_ALL_STATES) || op.equals(UNMARK_ALL_STATES) ? 0
+				: op.equals(ADD_TRANSITION) || op.equals(ADD_MUST_TRANSITION) || op.equals(REMOVE_TRANSITION) ? 3
+				: op.equals(SET_MARKED) || op.equals(SET_PRIVATE) || op.equals(SET_OBSERVABLE) || op.equals(SET_ATTACKER_OBSERVABLE) || op.equals(SET_CONTROLLABLE) ? 2 : 1;
+		if(edit.length != arguments + 1)
+			throw new IOException("Line " + lineNumber + " of journal: expected " + arguments + " arguments for " + op);
+		switch(op) {
+			case ADD_STATE:
+				ts.addState(edit[1]);
+				break;
+			case REMOVE_STATE:
+				ts.removeState(edit[1]);
+				break;
+			case ADD_INITIAL_STATE:
+				ts.addInitialState(edit[1]);
+				break;
+			case REMOVE_INITIAL_STATE:
+				ts.removeInitialState(edit[1]);
+				break;
+			case SET_MARKED:
+			case SET_PRIVATE:
+				// A State the text file could not hold is made again rather than failing the whole file
+				State state = ts.addState(edit[1]);
+				if(op.equals(SET_MARKED))
+					state.setStateMarked(Boolean.parseBoolean(edit[2]));
+				else
+					state.setStatePrivate(Boolean.parseBoolean(edit[2]));
+				break;
+			case MARK_ALL_STATES:
+				ts.markAllStates();
+				break;
+			case UNMARK_ALL_STATES:
+				ts.unmarkAllStates();
+				break;
+			case ADD_TRANSITION:
+				ts.addTransition(edit[1], edit[2], edit[3]);
+				break;
+			case ADD_MUST_TRANSITION:
+				if(!(ts instanceof ModalSpecification))
+					throw new IOException("Line " + lineNumber + " of journal: must Transitions need a ModalSpecification");
+				((ModalSpecification)ts).addMustTransition(edit[1], edit[2], edit[3]);
+				break;
+			case REMOVE_TRANSITION:
+				ts.removeTransition(edit[1], edit[2], edit[3]);
+				break;
+			case SET_OBSERVABLE:
+			case SET_ATTACKER_OBSERVABLE:
+				if(!(ts instanceof Observability<?>))
+					throw new IOException("Line " + lineNumber + " of journal: " + op + " needs Events with observability");
+				ts.getEventMap().addEvent(edit[1]);
+				if(op.equals(SET_OBSERVABLE))
+					((Observability<?>)ts).setEventObservability(edit[1], Boolean.parseBoolean(edit[2]));
+				else
+					((Observability<?>)ts).setEventAttackerObservability(edit[1], Boolean.parseBoolean(edit[2]));
+				break;
+			case SET_CONTROLLABLE:
+				if(!(ts instanceof Controllability<?>))
+					throw new IOException("Line " + lineNumber + " of journal: " + op + " needs Events with controllability");
+				ts.getEventMap().addEvent(edit[1]);
+				((Controllability<?>)ts).setEventControllability(edit[1], Boolean.parseBoolean(edit[2]));
+				break;
+			default:
+				throw new IOException("Line " + lineNumber + " of journal: unknown edit " + op);
+		}
+	} // apply(TransitionSystem<?>, String[], int)
+
+	/**
+	 * Helper method that makes an addState edit for each State the text file does not hold: toTextFile writes
+	 * only the States with an attribute or a Transition, so one with neither would otherwise be lost, and any
+	 * later edit naming it would not apply. These edits start the journal written with a new text file.
+	 *
+	 * @param ts - TransitionSystem object just written to the text file.
+	 * @return - Returns a byte[] object holding the lines of edits.
+	 */
+
+	private static byte[] getUnwrittenStates(TransitionSystem<?> ts) {
+		HashSet<String> written = new HashSet<String>();
+		for(State s : ts.getStates()) {
+			ArrayList<? extends Transition> transitions = ts.getTransitions().getTransitions(s);
+			if(transitions == null || transitions.isEmpty())
+				continue;
+			written.add(s.getStateName());
+			for(Transition t : transitions)
+				for(State to : t.getTransitionStates())
+					written.add(to.getStateName());
+		}
+		StringBuilder lines = new StringBuilder();
+		for(State s : ts.getStates())
+			if(!written.contains(s.getStateName()) && !s.getStateInitial() && !s.getStateMarked() && !s.getStatePrivate())
+				lines.append(ADD_STATE).append(' ').append(s.getStateName()).append('\n');
+		return lines.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Helper method that writes a journal with the provided header values and edits.
+	 *
+	 * @param file - File object representing the journal to write.
+	 * @param check - String object holding the length and checksum of the text file, separated by a space.
+	 * @param edits - byte[] object holding the lines of edits to follow the header.
+	 * @throws IOException - Thrown if the journal cannot be written.
+	 */
+
+	private static void writeJournal(File file, String check, byte[] edits) throws IOException {
+		try(OutputStream out = new FileOutputStream(file)) {
+			out.write((HEADER + " " + check + "\n").getBytes(StandardCharsets.UTF_8));
+			out.write(edits);
+		}
+	}
+
+	/**
+	 * Helper method that finds the length and CRC-32 checksum of a file.
+	 *
+	 * @param file - File object representing the file.
+	 * @return - Returns a long[] object holding the length and the checksum, or -1 for both if the file does not exist.
+	 * @throws IOException - Thrown if the file cannot be read.
+	 */
+
+	private static long[] checksum(File file) throws IOException {
+		if(!file.exists())
+			return new long[] {-1, -1};
+		CRC32 crc = new CRC32();
+		long length = 0;
+		try(InputStream in = new FileInputStream(file)) {
+			byte[] buffer = new byte[1 << 16];
+			for(int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+				crc.update(buffer, 0, read);
+				length += read;
+			}
+		}
+		return new long[] {length, crc.getValue()};
+	}
+
+}
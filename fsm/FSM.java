@@ -5,6 +5,9 @@ import support.transition.Transition;
 import fsm.attribute.Deterministic;
 import fsm.attribute.Observability;
 import fsm.attribute.OpacityTest;
+import support.StateSpaceExplorer;
+import support.ReadWrite;
+import support.map.StateMap;
 import support.Event;
 import support.State;
 import java.util.*;
@@ -29,6 +32,8 @@ public abstract class FSM<T extends Transition> extends TransitionSystem<T> impl
 	public static final String FSM_TYPE = "FSM";
 	/** String constant designating the file extension to append to the file name when writing to the system*/
 	public static final String FSM_EXTENSION = ".fsm";
+	/** String constant designating the file extension to append to the file name when writing an FSM in the binary format*/
+	public static final String FSM_BINARY_EXTENSION = ".fsmb";
 	/** String value describing the prefix assigned to all States in an FSM to differentiate it from another FSM*/
 	public static final String STATE_PREFIX_1 = "a";
 	/** String value describing the prefix assigned to all States in an FSM to differentiate it from another FSM*/
@@ -50,6 +55,14 @@ public abstract class FSM<T extends Transition> extends TransitionSystem<T> impl
 	
 	public abstract FSM buildObserver();
 	
+	@Override
+	public void toBinaryFile(String filePath, String name, boolean compress) {
+		if(name == null)
+			name = id;
+		String truePath = filePath + (filePath.charAt(filePath.length()-1) == '/' ? "" : "/") + name;
+		new ReadWrite<T>().writeToBinaryFile(truePath, states, events, transitions, FSM_BINARY_EXTENSION, compress);
+	}
+	
 //---  Multi-FSM Operations   -----------------------------------------------------------------
 
 	/**
@@ -76,56 +89,53 @@ public abstract class FSM<T extends Transition> extends TransitionSystem<T> impl
 		} // for thisEvent
 		
 		// Go through all the initial states and add everything they connect to with shared events.
-		for(State thisInitial : this.getInitialStates()) {
-			for(State otherInitial : other.getInitialStates()) {
-				// Now, start going through the paths leading out from this new initial state.
-				LinkedList<State> thisNextState = new LinkedList<State>();
-				thisNextState.add(thisInitial);
-				LinkedList<State> otherNextState = new LinkedList<State>();
-				otherNextState.add(otherInitial);
-				
-				while(!thisNextState.isEmpty() && !otherNextState.isEmpty()) { // Go through all the states connected
-					State thisState = thisNextState.poll();
-					State otherState = otherNextState.poll();
-					State newState = newFSM.states.addState(thisState, otherState); // Add the new state
-					if(thisState.getStateInitial() && otherState.getStateInitial())
-						newFSM.addInitialState(newState);
-					
-					newFSM.setStateComposition(newState, thisState, (State)otherState);
-					
-					// Go through all the transitions in each, see what they have in common
-					ArrayList<T> thisTransitions = this.transitions.getTransitions(thisState);
-					ArrayList<T1> otherTransitions = other.transitions.getTransitions(otherState);
-					if(thisTransitions != null && otherTransitions != null) {
-						for(T thisTrans : thisTransitions) {
-							for(T1 otherTrans : otherTransitions) {
-								
-								// If they share the same event
-								Event thisEvent = thisTrans.getTransitionEvent();
-								if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
+		ArrayList<State[]> initials = new ArrayList<State[]>();
+		for(State thisInitial : this.getInitialStates())
+			for(State otherInitial : other.getInitialStates())
+				initials.add(new State[] {thisInitial, otherInitial});
+		// The Transitions are gathered as they are found and added in bulk at the end
+		ArrayList<State> addedFrom = new ArrayList<State>(), addedTo = new ArrayList<State>();
+		ArrayList<Event> addedEvents = new ArrayList<Event>();
+		new StateSpaceExplorer<State[]>((pair, next) -> { // Go through all the states connected
+			State thisState = pair[0];
+			State otherState = pair[1];
+			State newState = newFSM.states.addState(thisState, otherState); // Add the new state
+			if(thisState.getStateInitial() && otherState.getStateInitial())
+				newFSM.addInitialState(newState);
+			
+			newFSM.setStateComposition(newState, thisState, (State)otherState);
+			
+			// Go through all the transitions in each, see what they have in common
+			ArrayList<T> thisTransitions = this.transitions.getTransitions(thisState);
+			ArrayList<T1> otherTransitions = other.transitions.getTransitions(otherState);
+			if(thisTransitions != null && otherTransitions != null) {
+				for(T thisTrans : thisTransitions) {
+					for(T1 otherTrans : otherTransitions) {
+						
+						// If they share the same event
+						Event thisEvent = thisTrans.getTransitionEvent();
+						if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
+							
+							// Then create transitions to all the combined neighbours
+							for(State thisToState : thisTrans.getTransitionStates()) {
+								for(State otherToState : otherTrans.getTransitionStates()) {
+									
+									// Queue the state; the explorer skips it if already handled
+									next.accept(new State[] {thisToState, otherToState});
 									
-									// Then create transitions to all the combined neighbours
-									for(State thisToState : thisTrans.getTransitionStates()) {
-										for(State otherToState : otherTrans.getTransitionStates()) {
-											
-											// If the state doesn't exist, add to queue
-											if(!newFSM.stateExists("(" + thisToState.getStateName() + "," + otherToState.getStateName() + ")")) {
-												thisNextState.add(thisToState);
-												otherNextState.add(otherToState);
-											} // if state doesn't exist
-											
-											// Add the state, then add the transition
-											State newToState = newFSM.states.addState(thisToState, otherToState);
-											newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-										} // for every state in other transition
-									} // for every state in this transition
-								} // if they share the event
-							} // for other transitions
-						} // for this transitions
-					} // if transitions not null
-				} // while there are more states connected to the 2-tuple of initial states
-			} // for otherInitial
-		} // for thisInitial
+									// Add the state, then add the transition
+									State newToState = newFSM.states.addState(thisToState, otherToState);
+									addedFrom.add(newState);
+									addedEvents.add(newFSM.events.addEvent(thisEvent.getEventName()));
+									addedTo.add(newToState);
+								} // for every state in other transition
+							} // for every state in this transition
+						} // if they share the event
+					} // for other transitions
+				} // for this transitions
+			} // if transitions not null
+		}).setEncoder(pair -> StateMap.getPairName(pair[0], pair[1])).explore(initials);
+		newFSM.transitions.addTransitions(addedFrom, addedEvents, addedTo);
 		newFSM.addStateComposition(this.getComposedStates());
 		newFSM.addStateComposition(other.getComposedStates());
 	} // productHelper(FSM)
@@ -164,100 +174,94 @@ public abstract class FSM<T extends Transition> extends TransitionSystem<T> impl
 				newFSM.events.addEvent(otherEvent);
 		
 		// Go through all the initial states and add everything they connect to.
-		for(State thisInitial : this.getInitialStates()) {
-			for(State otherInitial : other.getInitialStates()) {
-				
-				// Now, start going through the paths leading out from this new initial state.
-				LinkedList<State> thisNextState = new LinkedList<State>();
-				thisNextState.add(thisInitial);
-				LinkedList<State> otherNextState = new LinkedList<State>();
-				otherNextState.add(otherInitial);
-				
-				while(!thisNextState.isEmpty() && !otherNextState.isEmpty()) { // Go through all the states connected
-					State thisState = thisNextState.poll();
-					State otherState = otherNextState.poll();
-					State newState = newFSM.states.addState(thisState, otherState); // Add the new state
-					if(newState.getStateInitial())
-						newFSM.addInitialState(newState);
-					
-					newFSM.setStateComposition(newState, thisState, (State)otherState);
-					
-					// Go through all the transitions in each, see what they have in common
-					ArrayList<T> thisTransitions = this.transitions.getTransitions(thisState);
-					ArrayList<T1> otherTransitions = other.transitions.getTransitions(otherState);
-					if(thisTransitions != null && otherTransitions != null) {
-						for(T thisTrans : thisTransitions) {
-							for(T1 otherTrans : otherTransitions) {
-								
-								// If they share the same event
-								Event thisEvent = thisTrans.getTransitionEvent();
-								if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
-									
-									// Then create transitions to all the combined neighbours
-									for(State thisToState : thisTrans.getTransitionStates()) {
-										for(State otherToState : otherTrans.getTransitionStates()) {
-											
-											// If the state doesn't exist, add to queue
-											if(!newFSM.stateExists("(" + thisToState.getStateName() + "," + otherToState.getStateName() + ")")) {
-												thisNextState.add(thisToState);
-												otherNextState.add(otherToState);
-											} // if state doesn't exist
-											
-											// Add the state, then add the transition
-											State newToState = newFSM.states.addState(thisToState, otherToState);
-											newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-										} // for every state in other transition
-									} // for every state in this transition
-								} // if they share the event
-							} // for other transitions
-						} // for this transitions
-					} // if transitions are not null
-					// Go through all the transitions and see what is unique
-					if(thisTransitions != null) {
-						for(T thisTrans : thisTransitions) {
-							// If it's NOT a common event
-							Event thisEvent = thisTrans.getTransitionEvent();
-							if(!commonEvents.contains(thisTrans.getTransitionEvent().getEventName())) {
-								// Then, add all the transitions
-								for(State thisToState : thisTrans.getTransitionStates()) {
-									
-									// If it doesn't exist, add it to the queue
-									if(!newFSM.stateExists("(" + thisToState.getStateName() + "," + otherState.getStateName() + ")")) {
-										thisNextState.add(thisToState);
-										otherNextState.add(otherState);
-									} // if state doesn't exist
-									
-									// Add the state, then add the transition
-									State newToState = newFSM.states.addState(thisToState, otherState);
-									newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-								} // for the toStates
-							} // if not a common event
-						} // for this transitions
-					} // if transitions are not null
-					if(otherTransitions != null) {
-						for(T1 otherTrans : other.transitions.getTransitions(otherState)) {
-							// If it's NOT a common event
-							Event thisEvent = otherTrans.getTransitionEvent();
-							if(!commonEvents.contains(otherTrans.getTransitionEvent().getEventName())) {
-								// Then, add all the transitions
+		ArrayList<State[]> initials = new ArrayList<State[]>();
+		for(State thisInitial : this.getInitialStates())
+			for(State otherInitial : other.getInitialStates())
+				initials.add(new State[] {thisInitial, otherInitial});
+		// The Transitions are gathered as they are found and added in bulk at the end
+		ArrayList<State> addedFrom = new ArrayList<State>(), addedTo = new ArrayList<State>();
+		ArrayList<Event> addedEvents = new ArrayList<Event>();
+		new StateSpaceExplorer<State[]>((pair, next) -> { // Go through all the states connected
+			State thisState = pair[0];
+			State otherState = pair[1];
+			State newState = newFSM.states.addState(thisState, otherState); // Add the new state
+			if(newState.getStateInitial())
+				newFSM.addInitialState(newState);
+			
+			newFSM.setStateComposition(newState, thisState, (State)otherState);
+			
+			// Go through all the transitions in each, see what they have in common
+			ArrayList<T> thisTransitions = this.transitions.getTransitions(thisState);
+			ArrayList<T1> otherTransitions = other.transitions.getTransitions(otherState);
+			if(thisTransitions != null && otherTransitions != null) {
+				for(T thisTrans : thisTransitions) {
+					for(T1 otherTrans : otherTransitions) {
+						
+						// If they share the same event
+						Event thisEvent = thisTrans.getTransitionEvent();
+						if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
+							
+							// Then create transitions to all the combined neighbours
+							for(State thisToState : thisTrans.getTransitionStates()) {
 								for(State otherToState : otherTrans.getTransitionStates()) {
 									
-									// If it doesn't exist, add it to the queue
-									if(!newFSM.stateExists("(" + thisState.getStateName() + "," + otherToState.getStateName() + ")")) {
-										thisNextState.add(thisState);
-										otherNextState.add(otherToState);
-									} // if state doesn't exist
+									// Queue the state; the explorer skips it if already handled
+									next.accept(new State[] {thisToState, otherToState});
 									
 									// Add the state, then add the transition
-									State newToState = newFSM.states.addState(thisState, otherToState);
-									newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-								} // for the toStates
-							} // if not a common event
-						} // for other transitions
-					} // if transitions are not null
-				} // while there are more states connected to the 2-tuple of initial states
-			} // for otherInitial
-		} // for thisInitial
+									State newToState = newFSM.states.addState(thisToState, otherToState);
+									addedFrom.add(newState);
+									addedEvents.add(newFSM.events.addEvent(thisEvent.getEventName()));
+									addedTo.add(newToState);
+								} // for every state in other transition
+							} // for every state in this transition
+						} // if they share the event
+					} // for other transitions
+				} // for this transitions
+			} // if transitions are not null
+			// Go through all the transitions and see what is unique
+			if(thisTransitions != null) {
+				for(T thisTrans : thisTransitions) {
+					// If it's NOT a common event
+					Event thisEvent = thisTrans.getTransitionEvent();
+					if(!commonEvents.contains(thisTrans.getTransitionEvent().getEventName())) {
+						// Then, add all the transitions
+						for(State thisToState : thisTrans.getTransitionStates()) {
+							
+							// Queue the state; the explorer skips it if already handled
+							next.accept(new State[] {thisToState, otherState});
+							
+							// Add the state, then add the transition
+							State newToState = newFSM.states.addState(thisToState, otherState);
+							addedFrom.add(newState);
+							addedEvents.add(newFSM.events.addEvent(thisEvent.getEventName()));
+							addedTo.add(newToState);
+						} // for the toStates
+					} // if not a common event
+				} // for this transitions
+			} // if transitions are not null
+			if(otherTransitions != null) {
+				for(T1 otherTrans : other.transitions.getTransitions(otherState)) {
+					// If it's NOT a common event
+					Event thisEvent = otherTrans.getTransitionEvent();
+					if(!commonEvents.contains(otherTrans.getTransitionEvent().getEventName())) {
+						// Then, add all the transitions
+						for(State otherToState : otherTrans.getTransitionStates()) {
+							
+							// Queue the state; the explorer skips it if already handled
+							next.accept(new State[] {thisState, otherToState});
+							
+							// Add the state, then add the transition
+							State newToState = newFSM.states.addState(thisState, otherToState);
+							addedFrom.add(newState);
+							addedEvents.add(newFSM.events.addEvent(thisEvent.getEventName()));
+							addedTo.add(newToState);
+						} // for the toStates
+					} // if not a common event
+				} // for other transitions
+			} // if transitions are not null
+		}).setEncoder(pair -> StateMap.getPairName(pair[0], pair[1])).explore(initials);
+		newFSM.transitions.addTransitions(addedFrom, addedEvents, addedTo);
 	} // parallelCompositionHelper(FSM)
 
 	/**
@@ -280,4 +284,189 @@ public abstract class FSM<T extends Transition> extends TransitionSystem<T> impl
 	
 	public abstract FSM<? extends Transition> parallelComposition(FSM<?> ... other);
 	
+//---  Language Comparison   ------------------------------------------------------------------
+	
+	/**
+	 * This method checks if the language of the provided FSM is included in the language of the calling FSM,
+	 * and returns a shortest word showing that it is not. Neither FSM is determinized: the calling FSM is tracked
+	 * by the set of its States reached by a word, explored on the fly alongside each State of the other FSM. Pairs
+	 * whose set is a superset of one already explored for the same State are pruned (they form an antichain), as
+	 * any counterexample from them is also one from the smaller set.
+	 * 
+	 * @param other - FSM object whose language must be included in the language of the calling FSM.
+	 * @param marked - boolean value; true to compare the marked languages, false to compare the generated languages.
+	 * @return - Returns an ArrayList<<r>Event> object holding a shortest word of the other FSM's language that is not
+	 * in the calling FSM's language, or null if the other FSM's language is included in the calling FSM's language.
+	 */
+	
+	public ArrayList<Event> getInclusionCounterexample(FSM<?> other, boolean marked) {
+		// Index the calling FSM's states so that the sets of them can be BitSets
+		ArrayList<State> indexed = new ArrayList<State>(this.getStates());
+		HashMap<State, Integer> index = new HashMap<State, Integer>();
+		BitSet markedStates = new BitSet(indexed.size());
+		for(int i = 0; i < indexed.size(); i++) {
+			index.put(indexed.get(i), i);
+			if(indexed.get(i).getStateMarked())
+				markedStates.set(i);
+		}
+		BitSet initial = new BitSet(indexed.size());
+		for(State s : this.getInitialStates())
+			initial.set(index.get(s));
+		
+		HashMap<State, ArrayList<BitSet>> antichain = new HashMap<State, ArrayList<BitSet>>();
+		LinkedList<InclusionNode> queue = new LinkedList<InclusionNode>();
+		for(State s : other.getInitialStates())
+			if(addToAntichain(antichain, s, initial))
+				queue.add(new InclusionNode(s, initial, null, null));
+		
+		while(!queue.isEmpty()) {
+			InclusionNode top = queue.poll();
+			// The word is not generated by the calling FSM at all (this includes the empty word if it has no initial State)
+			if(!marked && top.set.isEmpty())
+				return top.getWord(null);
+			if(marked && top.state.getStateMarked() && !top.set.intersects(markedStates))
+				return top.getWord(null);
+			
+			for(Transition t : other.transitions.getTransitions(top.state)) {
+				// Find where the calling FSM can go with the same event
+				Event e = t.getTransitionEvent();
+				BitSet next = new BitSet(indexed.size());
+				for(int i = top.set.nextSetBit(0); i >= 0; i = top.set.nextSetBit(i + 1)) {
+					for(T thisT : this.transitions.getTransitions(indexed.get(i)))
+						if(thisT.getTransitionEvent().getEventName().equals(e.getEventName()))
+							for(State to : thisT.getTransitionStates())
+								next.set(index.get(to));
+				}
+				for(State to : t.getTransitionStates())
+					if(addToAntichain(antichain, to, next))
+						queue.add(new InclusionNode(to, next, top, e));
+			} // for every transition of the other FSM
+		} // while queue not empty
+		return null;
+	} // getInclusionCounterexample(FSM, boolean)
+	
+	/**
+	 * This method checks if the language of the provided FSM is included in the language of the calling FSM.
+	 * 
+	 * @param other - FSM object whose language must be included in the language of the calling FSM.
+	 * @param marked - boolean value; true to compare the marked languages, false to compare the generated languages.
+	 * @return - Returns true if the other FSM's language is included in the calling FSM's language, false otherwise.
+	 */
+	
+	public boolean includes(FSM<?> other, boolean marked) {
+		return getInclusionCounterexample(other, marked) == null;
+	}
+	
+	/**
+	 * This method checks if the calling FSM and the provided FSM have the same language, and returns a
+	 * shortest word of one of the languages which is not in the other. See getInclusionCounterexample.
+	 * 
+	 * @param other - FSM object to compare with the calling FSM.
+	 * @param marked - boolean value; true to compare the marked languages, false to compare the generated languages.
+	 * @return - Returns an ArrayList<<r>Event> object holding a word in exactly one of the two languages, or null
+	 * if the languages are equal.
+	 */
+	
+	public ArrayList<Event> getEquivalenceCounterexample(FSM<?> other, boolean marked) {
+		ArrayList<Event> word = getInclusionCounterexample(other, marked);
+		return word != null ? word : other.getInclusionCounterexample(this, marked);
+	}
+	
+	/**
+	 * This method checks if the calling FSM and the provided FSM have the same language.
+	 * 
+	 * @param other - FSM object to compare with the calling FSM.
+	 * @param marked - boolean value; true to compare the marked languages, false to compare the generated languages.
+	 * @return - Returns true if the two FSMs have the same language, false otherwise.
+	 */
+	
+	public boolean equivalent(FSM<?> other, boolean marked) {
+		return getEquivalenceCounterexample(other, marked) == null;
+	}
+	
+	/**
+	 * Helper method for getInclusionCounterexample that adds a set of States to the antichain kept for a State,
+	 * unless a subset of it is already there. Any supersets of the new set are removed from the antichain.
+	 * 
+	 * @param antichain - HashMap<<r>State, ArrayList<<r>BitSet>> object mapping each State to its minimal sets.
+	 * @param state - State object of the other FSM.
+	 * @param set - BitSet object representing the set of the calling FSM's States.
+	 * @return - Returns true if the set was added (and must be explored), false if it was pruned.
+	 */
+	
+	private static boolean addToAntichain(HashMap<State, ArrayList<BitSet>> antichain, State state, BitSet set) {
+		ArrayList<BitSet> sets = antichain.get(state);
+		if(sets == null) {
+			sets = new ArrayList<BitSet>();
+			antichain.put(state, sets);
+		}
+		for(BitSet existing : sets) {
+			BitSet extra = (BitSet)existing.clone();
+			extra.andNot(set);
+			if(extra.isEmpty())
+				return false; // An explored set is a subset of this one
+		}
+		for(int i = sets.size() - 1; i >= 0; i--) {
+			BitSet extra = (BitSet)set.clone();
+			extra.andNot(sets.get(i));
+			if(extra.isEmpty())
+				sets.remove(i);
+		}
+		sets.add(set);
+		return true;
+	} // addToAntichain(HashMap<State, ArrayList<BitSet>>, State, BitSet)
+	
+//---  Support Classes   ----------------------------------------------------------------------
+	
+	/**
+	 * This class models a step of the language inclusion check: a State of the other FSM, the set of
+	 * the calling FSM's States reached by the same word, and how it was reached.
+	 */
+	
+	static class InclusionNode {
+		
+		/** State object of the other FSM.*/
+		State state;
+		/** BitSet object representing the indices of the calling FSM's States reached by the same word.*/
+		BitSet set;
+		/** InclusionNode object this one was reached from, or null if it is initial.*/
+		InclusionNode parent;
+		/** Event object this one was reached by, or null if it is initial.*/
+		Event event;
+		
+		/**
+		 * Constructor for an InclusionNode object.
+		 * 
+		 * @param inState - State object of the other FSM.
+		 * @param inSet - BitSet object representing the indices of the calling FSM's States reached by the same word.
+		 * @param inParent - InclusionNode object this one was reached from, or null if it is initial.
+		 * @param inEvent - Event object this one was reached by, or null if it is initial.
+		 */
+		
+		InclusionNode(State inState, BitSet inSet, InclusionNode inParent, Event inEvent) {
+			state = inState;
+			set = inSet;
+			parent = inParent;
+			event = inEvent;
+		}
+		
+		/**
+		 * This method gets the word which reached this InclusionNode.
+		 * 
+		 * @param last - Event object to append to the word, or null if none.
+		 * @return - Returns an ArrayList<<r>Event> object holding the word, in order.
+		 */
+		
+		ArrayList<Event> getWord(Event last) {
+			ArrayList<Event> word = new ArrayList<Event>();
+			if(last != null)
+				word.add(last);
+			for(InclusionNode curr = this; curr.parent != null; curr = curr.parent)
+				word.add(curr.event);
+			Collections.reverse(word);
+			return word;
+		}
+		
+	}
+	
 } // class FSM
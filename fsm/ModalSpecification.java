@@ -3,11 +3,15 @@ package fsm;
 import support.attribute.EventControllability;
 import support.attribute.EventObservability;
 import support.map.TransitionFunction;
+import support.map.ImageTransitionFunction;
+import support.map.ImageStateMap;
 import support.DisabledEvents;
+import support.StateSpaceExplorer;
 import support.map.StateMap;
 import support.map.EventMap;
 import support.transition.*;
 import support.ReadWrite;
+import support.MachineImage;
 import fsm.attribute.*;
 import graphviz.FSMToDot;
 import support.Event;
@@ -29,7 +33,7 @@ import test.windows;
  * @author Mac Clevinger and Graeme Zinck
  */
 
-public class ModalSpecification extends TransitionSystem<DetTransition> implements Deterministic<DetTransition>,
+public class ModalSpecification extends TransitionSystem<ModalTransition> implements Deterministic<ModalTransition>,
 																				 Observability,
 																				 Controllability,
 																				 OpacityTest{
@@ -38,14 +42,16 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	
 	/** String object constant representing the file extension of a file representing a ModalSpecification object. */
 	public static final String MODAL_EXTENSION = ".mdl";
+	/** String object constant representing the file extension of a ModalSpecification written in the binary format. */
+	public static final String MODAL_BINARY_EXTENSION = ".mdlb";
 	
 //--- Instance Variables  ----------------------------------------------------------------------
 	
 	/** ArrayList<<r>State> object that holds a list of Initial States for this Modal Specification object. */
 	protected State initialState;
-	/** TransitionFunction object mapping states to sets of "must" transitions for the Modal Specification.
-	 * These are transitions which must be present in the controlled FSM in order to satisfy the spec. */
-	protected TransitionFunction<DetTransition> mustTransitions;
+	/** TransitionFunction object mapping states to the must transitions which have no matching may transition (which are
+	 * inconsistent). These are kept out of transitions, which the rest of the fsm package reads as the permitted behaviour. */
+	protected TransitionFunction<ModalTransition> inconsistentTransitions;
 	
 //---  Constructors  --------------------------------------------------------------------------
 	
@@ -61,10 +67,10 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		id = inId;
 		events = new EventMap();
 		states = new StateMap();
-		transitions = new TransitionFunction<DetTransition>(new DetTransition());
-		mustTransitions = new TransitionFunction<DetTransition>(new DetTransition());
+		transitions = new TransitionFunction<ModalTransition>(new ModalTransition());
+		inconsistentTransitions = new TransitionFunction<ModalTransition>(new ModalTransition());
 
-		ReadWrite<DetTransition> redWrt = new ReadWrite<DetTransition>();
+		ReadWrite<ModalTransition> redWrt = new ReadWrite<ModalTransition>();
 		ArrayList<ArrayList<String>> special = redWrt.readFromFile(states, events, transitions, in);
 		
 		if(special.get(0).size() > 0) {
@@ -106,9 +112,14 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 				states.addState(new State(grab[1]));
 			if(events.getEvent(grab[2]) == null)
 				events.addEvent(grab[2]);
-			mustTransitions.addTransitionState(states.getState(grab[0]), events.getEvent(grab[2]), states.getState(grab[1]));
+			// A must line is always a may transition too, as it has been since the format began
 			transitions.addTransitionState(states.getState(grab[0]), events.getEvent(grab[2]), states.getState(grab[1]));
-		}	
+			setMustTransition(states.getState(grab[0]), events.getEvent(grab[2]), states.getState(grab[1]));
+		}
+		for(int i = 0; special.size() > 7 && i < special.get(7).size(); i++) {	//Special ArrayList 7-entry, if any, is Inconsistent Must Transitions
+			String grab[] = special.get(7).get(i).split(" ");
+			setMustTransition(states.addState(grab[0]), events.addEvent(grab[2]), states.addState(grab[1]));
+		}
 	}
 	
 	/**
@@ -124,14 +135,16 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		id = inId;
 		states = new StateMap();
 		events = new EventMap();
-		transitions = new TransitionFunction<DetTransition>(new DetTransition());
+		transitions = new TransitionFunction<ModalTransition>(new ModalTransition());
+		inconsistentTransitions = new TransitionFunction<ModalTransition>(new ModalTransition());
 		
 		copyStates(other); // Add in all the states (also sets up the initial states)
 		copyEvents(other); // Add in all the events
-		copyTransitions(other); // Add in all the transitions
 		
 		if(other instanceof ModalSpecification) 
-			copyMustTransitions((ModalSpecification)other);
+			copyModalTransitions((ModalSpecification)other, new HashSet<String>()); // Keep the modality of each transition
+		else
+			copyTransitions(other); // Add in all the transitions
 	} // ModalSpecification(TransitionSystem, String)
 	
 	/**
@@ -150,26 +163,40 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		id = inId;
 		states = new StateMap();
 		events = new EventMap();
-		transitions = new TransitionFunction<DetTransition>(new DetTransition());
-		mustTransitions = new TransitionFunction<DetTransition>(new DetTransition());
+		transitions = new TransitionFunction<ModalTransition>(new ModalTransition());
+		inconsistentTransitions = new TransitionFunction<ModalTransition>(new ModalTransition());
 		
 		// If the initial state is bad, then we don't do anything
 		initialState = other.getInitialState();
 		copyStates(other, badStates); // Add in all the states NOT in the badStates set
 		copyEvents(other); // Add in all the events
-		// Add in all the transitions (but only take the first state it transitions to) IF NOT in badStates set
-		for(State s : other.states.getStates()) if(!badStates.contains(s.getStateName())) {
-			for(Transition t : other.transitions.getTransitions(s)) {
-				String toStateName = t.getTransitionStates().get(0).getStateName();
-				if(!badStates.contains(toStateName))
-					this.addTransition(s.getStateName(), t.getTransitionEvent().getEventName(), toStateName);
-			} // for every transition
-		} // for every state
-		if(other instanceof ModalSpecification) {
-			copyMustTransitions((ModalSpecification)other, badStates);
-		}
+		copyModalTransitions(other, badStates); // Add in all the transitions IF NOT in badStates set
 	} // ModalSpecification(TransitionSystem, String)
 	
+	/**
+	 * Constructor for a ModalSpecification which reads a binary file in place, for exploring specifications too
+	 * large to load: the States and Transitions stay in the memory-mapped MachineImage and are only made as they
+	 * are used, with the must Transitions taken from the image's must bitmap (and any inconsistent must Transitions
+	 * from its block of must only Transitions). The ModalSpecification is read-only;
+	 * any attempt to change its States or Transitions throws an UnsupportedOperationException.
+	 * 
+	 * @param image - MachineImage object holding the ModalSpecification, as written by toBinaryFile.
+	 * @param inId - String representing the ModalSpecification's id.
+	 */
+	
+	public ModalSpecification(MachineImage image, String inId) {
+		id = inId;
+		ImageStateMap imageStates = new ImageStateMap(image);
+		states = imageStates;
+		events = new EventMap();
+		transitions = new ImageTransitionFunction<ModalTransition>(new ModalTransition(), image, imageStates, events);
+		inconsistentTransitions = new TransitionFunction<ModalTransition>(new ModalTransition());
+		for(int i = 0; i < image.getMustOnlyCount(); i++)
+			setMustTransition(imageStates.getState(image.getMustOnlyState(i)), events.getEvent(image.getEventName(image.getMustOnlyEvent(i))), imageStates.getState(image.getMustOnlyTarget(i)));
+		ArrayList<State> initial = imageStates.getInitialStates();
+		initialState = initial.isEmpty() ? null : initial.get(0);
+	} // ModalSpecification(MachineImage, String)
+	
 	/**
 	 * Constructor for an ModalSpecification object that contains no transitions or states, allowing the
 	 * user to add those elements themselves.
@@ -181,8 +208,8 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		id = inId;
 		events = new EventMap();
 		states = new StateMap();
-		transitions = new TransitionFunction<DetTransition>(new DetTransition());
-		mustTransitions = new TransitionFunction<DetTransition>(new DetTransition());
+		transitions = new TransitionFunction<ModalTransition>(new ModalTransition());
+		inconsistentTransitions = new TransitionFunction<ModalTransition>(new ModalTransition());
 	} // ModalSpecification()
 	
 	/**
@@ -194,8 +221,8 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		id = "";
 		events = new EventMap();
 		states = new StateMap();
-		transitions = new TransitionFunction<DetTransition>(new DetTransition());
-		mustTransitions = new TransitionFunction<DetTransition>(new DetTransition());
+		transitions = new TransitionFunction<ModalTransition>(new ModalTransition());
+		inconsistentTransitions = new TransitionFunction<ModalTransition>(new ModalTransition());
 	} // ModalSpecification()
 	
 //---  Operations   ---------------------------------------------------------------------------
@@ -225,66 +252,90 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	
 	public DetObsContFSM buildOptimalOpaqueController() {
 		DetObsContFSM optimal = new DetObsContFSM();
+		if(getInitialState() == null)
+			return optimal;
+		
+		// Index the states so that the attacker's estimates can be kept as BitSets
+		ArrayList<State> indexed = new ArrayList<State>(getStates());
+		Collections.sort(indexed);
+		HashMap<State, Integer> index = new HashMap<State, Integer>();
+		for(int i = 0; i < indexed.size(); i++)
+			index.put(indexed.get(i), i);
+		BitSet[] reaches = new BitSet[indexed.size()]; // Epsilon reaches, filled in as they are needed
+		
+		// Each macro-state (original state, attacker estimate) is added and expanded exactly once
+		HashMap<MacroState, State> table = new HashMap<MacroState, State>();
+		int initIndex = index.get(getInitialState());
+		MacroState init = new MacroState(initIndex, getEpsilonReach(initIndex, indexed, index, reaches));
+		optimal.addInitialState(addMacroState(optimal, init, indexed, table));
+		
+		new StateSpaceExplorer<MacroState>((top, successors) -> {
+			State from = table.get(top);
+			for(ModalTransition t : getTransitions().getTransitions(indexed.get(top.real))) {
+				int newReal = index.get(t.getTransitionState());
+				BitSet newReach = (BitSet)getEpsilonReach(newReal, indexed, index, reaches).clone();
+				if(!t.getTransitionEvent().getEventAttackerObservability())
+					newReach.or(top.estimate);
+				
+				MacroState next = new MacroState(newReal, newReach);
+				State to = table.get(next);
+				if(to == null) { // Only new macro-states are explored
+					to = addMacroState(optimal, next, indexed, table);
+					successors.accept(next);
+				}
+				optimal.addTransition(from, t.getTransitionEvent(), to);
+			} // for every transition
+		}).explore(init);
 		
-		LinkedList<State> queue = new LinkedList<State>();
-		HashSet<State> initial = epsilonReach(this, getInitialState(), true); 
-		State init = new State(initial.toArray(new State[initial.size()]));
-		init.setStateName(getInitialState().getStateName() + "," + init.getStateName());
-		queue.add(init);
-		optimal.addInitialState(init);
+		return optimal;
+	} // buildOptimalOpaqueController()
+	
+	/**
+	 * Helper method for buildOptimalOpaqueController that adds the State representing a macro-state to
+	 * the controller, recording it in the table of macro-states already built. The State is secret if
+	 * every State in the attacker's estimate is secret.
+	 * 
+	 * @param optimal - DetObsContFSM object representing the controller being built.
+	 * @param macro - MacroState object representing the macro-state to add.
+	 * @param indexed - ArrayList<<r>State> object holding the calling ModalSpecification's States by index.
+	 * @param table - HashMap<<r>MacroState, State> object mapping each macro-state to its State in the controller.
+	 * @return - Returns the State object added to the controller.
+	 */
+	
+	private State addMacroState(DetObsContFSM optimal, MacroState macro, ArrayList<State> indexed, HashMap<MacroState, State> table) {
+		StringBuilder name = new StringBuilder(indexed.get(macro.real).getStateName()).append(",{");
 		boolean secret = true;
-		for(State s : initial) {
-			if(!s.getStatePrivate())
+		for(int i = macro.estimate.nextSetBit(0); i >= 0; i = macro.estimate.nextSetBit(i + 1)) {
+			name.append(indexed.get(i).getStateName()).append(',');
+			if(!indexed.get(i).getStatePrivate())
 				secret = false;
 		}
-		init.setStatePrivate(secret);
-		
-		HashMap<State, HashSet<State>> map = new HashMap<State, HashSet<State>>();
-		HashMap<State, State> original = new HashMap<State, State>();
-		original.put(init, getInitialState());
-		map.put(init, new HashSet<State>(initial));
-		
-		HashSet<State> visited = new HashSet<State>();
-		
-		while(!queue.isEmpty()) {
-			State top = queue.poll();
-			if(visited.contains(top)) {
-				continue;
-			}
-			visited.add(top);
-			
-			State orig = original.get(top);
-			ArrayList<State> components = new ArrayList<State>(map.get(top));
-			Collections.sort(components);
-			
-			secret = true;
-			for(State s : components) {
-				if(!s.getStatePrivate())
-					secret = false;
-			}
-			top.setStatePrivate(secret);
-			
-			for(DetTransition t : getTransitions().getTransitions(orig)) {
-				State newReal = t.getTransitionState();
-				HashSet<State> newReach = epsilonReach(this, newReal, true);
-					
-				if(!t.getTransitionEvent().getEventAttackerObservability()) {
-					newReach.addAll(components);
-				}
-					
-				State added = new State(newReach.toArray(new State[newReach.size()]));
-				added = optimal.addState(newReal.getStateName() + "," + added.getStateName());
-				map.put(added, newReach);
-				original.put(added, newReal);
-				queue.add(added);
-				optimal.addTransition(top, t.getTransitionEvent(), added);
-					
-			}
-			
+		name.setCharAt(name.length() - 1, '}');
+		State added = optimal.addState(name.toString());
+		added.setStatePrivate(secret);
+		table.put(macro, added);
+		return added;
+	} // addMacroState(DetObsContFSM, MacroState, ArrayList<State>, HashMap<MacroState, State>)
+	
+	/**
+	 * Helper method for buildOptimalOpaqueController that gets the epsilon-reach of an indexed State as a BitSet,
+	 * computing it only the first time it is requested.
+	 * 
+	 * @param real - int value representing the index of the State whose epsilon-reach is requested.
+	 * @param indexed - ArrayList<<r>State> object holding the calling ModalSpecification's States by index.
+	 * @param index - HashMap<<r>State, Integer> object mapping each State to its index.
+	 * @param reaches - BitSet[] object holding the epsilon-reaches computed so far.
+	 * @return - Returns a BitSet object representing the epsilon-reach of the State; it must not be modified.
+	 */
+	
+	private BitSet getEpsilonReach(int real, ArrayList<State> indexed, HashMap<State, Integer> index, BitSet[] reaches) {
+		if(reaches[real] == null) {
+			reaches[real] = new BitSet(indexed.size());
+			for(State s : epsilonReach(this, indexed.get(real), true))
+				reaches[real].set(index.get(s));
 		}
-		
-		return optimal;
-	}
+		return reaches[real];
+	} // getEpsilonReach(int, ArrayList<State>, HashMap<State, Integer>, BitSet[])
 
 	/**
 	 * This method finds the epsilon-reach of a given State in a ModalSpecification (can be generalized easily);
@@ -299,23 +350,14 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	
 	public HashSet<State> epsilonReach(ModalSpecification ts, State s, boolean must){
 		HashSet<State> outbound = new HashSet<State>();
-		
-		LinkedList<State> queue = new LinkedList<State>();
-		HashSet<State> visited = new HashSet<State>();
-		queue.add(s);
-		
-		while(!queue.isEmpty()) {
-			State st = queue.poll();
-			if(visited.contains(st))
-				continue;
-			visited.add(st);
+		new StateSpaceExplorer<State>((st, next) -> {
 			outbound.add(st);
 			for(DetTransition t : ts.getTransitions().getTransitions(st)) {
 				if(!t.getTransitionEvent().getEventAttackerObservability()) {
-					queue.add(t.getTransitionState());
+					next.accept(t.getTransitionState());
 				}
 			}
-		}
+		}).explore(s);
 		return outbound;
 	}
 	
@@ -326,7 +368,6 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 			name = id;
 		String truePath = "";
 		truePath = filePath + (filePath.charAt(filePath.length()-1) == '/' ? "" : "/") + name;
-		String special = "7\n";
 		
 		ArrayList<String> init = new ArrayList<String>();
 		ArrayList<String> mark = new ArrayList<String>();
@@ -354,84 +395,68 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 				atta.add(e.getEventName());
 		}
 		
-		for(Map.Entry<State, ArrayList<DetTransition>> map : mustTransitions.getAllTransitions()) {
-			for(DetTransition t : map.getValue()) {
-				must.add(map.getKey() + " " + t.getTransitionState().getStateName() + " " + t.getTransitionEvent().getEventName());
-			}
+		// A must line is read back as a may transition too, so the must transitions with no may transition
+		// are written in a batch of their own, after the others, which older versions do not read
+		ArrayList<String> inconsistent = new ArrayList<String>();
+		for(State s : this.getStates()) {
+			for(ModalTransition t : getMustTransitions(s))
+				(t.getTransitionMay() ? must : inconsistent).add(s.getStateName() + " " + t.getTransitionState().getStateName() + " " + t.getTransitionEvent().getEventName());
 		}
 		
-		special += init.size() + "\n";
-		for(String s : init)
-			special += s + "\n";
-		special += mark.size() + "\n";
-		for(String s : mark)
-			special += s + "\n";
-		special += priv.size() + "\n";
-		for(String s : priv)
-			special += s + "\n";
-		special += unob.size() + "\n";
-		for(String s : unob)
-			special += s + "\n";
-		special += atta.size() + "\n";
-		for(String s : atta)
-			special += s + "\n";
-		special += cont.size() + "\n";
-		for(String s : cont)
-			special += s + "\n";
-		special += must.size() + "\n";
-		for(String s : must)
-			special += s + "\n";
+		// Written in the order the file constructor reads the batches back
+		ArrayList<ArrayList<String>> special = new ArrayList<ArrayList<String>>(Arrays.asList(init, mark, priv, unob, atta, cont, must));
+		if(!inconsistent.isEmpty())
+			special.add(inconsistent);
 
-		ReadWrite<DetTransition> rdWrt = new ReadWrite<DetTransition>();
+		ReadWrite<ModalTransition> rdWrt = new ReadWrite<ModalTransition>();
 		rdWrt.writeToFile(truePath,  special, this.getTransitions(), MODAL_EXTENSION);
 	}
 	
+	@Override
+	public void toBinaryFile(String filePath, String name, boolean compress) {
+		if(name == null)
+			name = id;
+		String truePath = filePath + (filePath.charAt(filePath.length()-1) == '/' ? "" : "/") + name;
+		// The must Transitions are kept in the file's must bitmap rather than as a batch of lines, and the
+		// inconsistent must Transitions (with no may Transition) in its block of must only Transitions
+		new ReadWrite<ModalTransition>().writeToBinaryFile(truePath, states, events, transitions, inconsistentTransitions, MODAL_BINARY_EXTENSION, compress);
+	}
+	
+	@Override
+	public MachineImage toImage(boolean compress) {
+		return new ReadWrite<ModalTransition>().makeImage(states, events, transitions, inconsistentTransitions, compress);
+	}
+	
 	@Override
 	public String makeDotString() {
 		String statesInDot = states.makeDotString();	//Have the StateMap do its thing
-		String transitionsInDot = transitions.makeDotStringExcluding(new TransitionFunction(new DetTransition()));	//Have the TransitionFunction do its thing
-		String mustTransitionsInDot = mustTransitions.makeDotString();
-		return statesInDot + transitionsInDot + mustTransitionsInDot;	//Return 'em all
+		String transitionsInDot = transitions.makeDotString();	//Each ModalTransition draws itself as a may or must transition
+		String inconsistentInDot = inconsistentTransitions.makeDotString();
+		return statesInDot + transitionsInDot + inconsistentInDot;	//Return 'em all
 	}
 
 	@Override
 	public ModalSpecification makeAccessible() {
-		// Make a queue to keep track of states that are accessible and their neighbours.
-		LinkedList<State> queue = new LinkedList<State>();
-		
 		// Initialize a new ModalSpecification with initial states.
 		ModalSpecification newMS = new ModalSpecification(this.id + " Accessible");
 		if(initialState != null) {
 			State newInitial = newMS.addState(initialState);
 			newMS.addInitialState(newInitial);
-			queue.add(initialState);
 			
-			while(!queue.isEmpty()) {
-				State curr = queue.poll();
-				// Go through the transitions
-				ArrayList<DetTransition> currMayTransitions = this.transitions.getTransitions(curr);
-				ArrayList<DetTransition> currMustTransitions = this.mustTransitions.getTransitions(curr);
-				if(currMayTransitions != null) for(DetTransition t : currMayTransitions) {
-					// Add the states; it goes to to the queue if not already present in the newFSM
+			// Explore everything reachable from the initial state, copying it into the newMS
+			new StateSpaceExplorer<State>((curr, next) -> {
+				// Go through the transitions, and the must transitions which have no may transition
+				ArrayList<ModalTransition> currTransitions = new ArrayList<ModalTransition>(this.transitions.getTransitions(curr));
+				currTransitions.addAll(this.inconsistentTransitions.getTransitions(curr));
+				for(ModalTransition t : currTransitions) {
+					// Add the states; the explorer skips those already handled
 					State s = t.getTransitionState();
-					if(!newMS.stateExists(s.getStateName())) {
-						newMS.addState(s);
-						queue.add(s);
-					}
-					// Add the transition by copying the old one.
+					newMS.addState(s);
+					next.accept(s);
+					// Add the transition by copying the old one (along with its modality).
 					newMS.addTransition(newMS.getState(curr), t);
 				}
-				if(currMustTransitions != null) for(DetTransition t : currMustTransitions) {
-					// Add the states; it goes to to the queue if not already present in the newFSM
-					State s = t.getTransitionState();
-					if(!newMS.stateExists(s.getStateName())) {
-						newMS.addState(s);
-						queue.add(s);
-					}
-					// Add the transition by copying the old one.
-					newMS.addMustTransition(newMS.getState(curr), t);
-				}
-			} // while
+			}).setEncoder(State::getStateName).explore(initialState);
 		} // if initial is not null
 		return newMS;	
 	} // makeAccessible()
@@ -501,56 +526,47 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		} // for thisEvent
 		
 		// Go through all the initial states and add everything they connect to with shared events.
-		for(State thisInitial : this.getInitialStates()) {
-			for(State otherInitial : other.getInitialStates()) {
-				// Now, start going through the paths leading out from this new initial state.
-				LinkedList<State> thisNextState = new LinkedList<State>();
-				thisNextState.add(thisInitial);
-				LinkedList<State> otherNextState = new LinkedList<State>();
-				otherNextState.add(otherInitial);
-				
-				while(!thisNextState.isEmpty() && !otherNextState.isEmpty()) { // Go through all the states connected
-					State thisState = thisNextState.poll();
-					State otherState = otherNextState.poll();
-					State newState = newFSM.states.addState(thisState, otherState); // Add the new state
-					if(thisState.getStateInitial() && otherState.getStateInitial())
-						newFSM.addInitialState(newState);
-					
-					newFSM.setStateComposition(newState, thisState, (State)otherState);
-					
-					// Go through all the transitions in each, see what they have in common
-					ArrayList<DetTransition> thisTransitions = this.transitions.getTransitions(thisState);
-					ArrayList<DetTransition> otherTransitions = other.transitions.getTransitions(otherState);
-					if(thisTransitions != null && otherTransitions != null) {
-						for(DetTransition thisTrans : thisTransitions) {
-							for(DetTransition otherTrans : otherTransitions) {
-								
-								// If they share the same event
-								Event thisEvent = thisTrans.getTransitionEvent();
-								if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
+		ArrayList<State[]> initials = new ArrayList<State[]>();
+		for(State thisInitial : this.getInitialStates())
+			for(State otherInitial : other.getInitialStates())
+				initials.add(new State[] {thisInitial, otherInitial});
+		new StateSpaceExplorer<State[]>((pair, next) -> { // Go through all the states connected
+			State thisState = pair[0];
+			State otherState = pair[1];
+			State newState = newFSM.states.addState(thisState, otherState); // Add the new state
+			if(thisState.getStateInitial() && otherState.getStateInitial())
+				newFSM.addInitialState(newState);
+			
+			newFSM.setStateComposition(newState, thisState, (State)otherState);
+			
+			// Go through all the transitions in each, see what they have in common
+			ArrayList<ModalTransition> thisTransitions = this.transitions.getTransitions(thisState);
+			ArrayList<ModalTransition> otherTransitions = other.transitions.getTransitions(otherState);
+			if(thisTransitions != null && otherTransitions != null) {
+				for(DetTransition thisTrans : thisTransitions) {
+					for(DetTransition otherTrans : otherTransitions) {
+						
+						// If they share the same event
+						Event thisEvent = thisTrans.getTransitionEvent();
+						if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
+							
+							// Then create transitions to all the combined neighbours
+							for(State thisToState : thisTrans.getTransitionStates()) {
+								for(State otherToState : otherTrans.getTransitionStates()) {
+									
+									// Queue the state; the explorer skips it if already handled
+									next.accept(new State[] {thisToState, otherToState});
 									
-									// Then create transitions to all the combined neighbours
-									for(State thisToState : thisTrans.getTransitionStates()) {
-										for(State otherToState : otherTrans.getTransitionStates()) {
-											
-											// If the state doesn't exist, add to queue
-											if(!newFSM.stateExists("(" + thisToState.getStateName() + "," + otherToState.getStateName() + ")")) {
-												thisNextState.add(thisToState);
-												otherNextState.add(otherToState);
-											} // if state doesn't exist
-											
-											// Add the state, then add the transition
-											State newToState = newFSM.states.addState(thisToState, otherToState);
-											newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-										} // for every state in other transition
-									} // for every state in this transition
-								} // if they share the event
-							} // for other transitions
-						} // for this transitions
-					} // if transitions not null
-				} // while there are more states connected to the 2-tuple of initial states
-			} // for otherInitial
-		} // for thisInitial
+									// Add the state, then add the transition
+									State newToState = newFSM.states.addState(thisToState, otherToState);
+									newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
+								} // for every state in other transition
+							} // for every state in this transition
+						} // if they share the event
+					} // for other transitions
+				} // for this transitions
+			} // if transitions not null
+		}).setEncoder(pair -> StateMap.getPairName(pair[0], pair[1])).explore(initials);
 		newFSM.addStateComposition(this.getComposedStates());
 		newFSM.addStateComposition(other.getComposedStates());
 	} // productHelper(FSM)
@@ -611,100 +627,84 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 				newFSM.events.addEvent(otherEvent);
 		
 		// Go through all the initial states and add everything they connect to.
-		for(State thisInitial : this.getInitialStates()) {
-			for(State otherInitial : other.getInitialStates()) {
-				
-				// Now, start going through the paths leading out from this new initial state.
-				LinkedList<State> thisNextState = new LinkedList<State>();
-				thisNextState.add(thisInitial);
-				LinkedList<State> otherNextState = new LinkedList<State>();
-				otherNextState.add(otherInitial);
-				
-				while(!thisNextState.isEmpty() && !otherNextState.isEmpty()) { // Go through all the states connected
-					State thisState = thisNextState.poll();
-					State otherState = otherNextState.poll();
-					State newState = newFSM.states.addState(thisState, otherState); // Add the new state
-					if(newState.getStateInitial())
-						newFSM.addInitialState(newState);
-					
-					newFSM.setStateComposition(newState, thisState, (State)otherState);
-					
-					// Go through all the transitions in each, see what they have in common
-					ArrayList<DetTransition> thisTransitions = this.transitions.getTransitions(thisState);
-					ArrayList<DetTransition> otherTransitions = other.transitions.getTransitions(otherState);
-					if(thisTransitions != null && otherTransitions != null) {
-						for(DetTransition thisTrans : thisTransitions) {
-							for(DetTransition otherTrans : otherTransitions) {
-								
-								// If they share the same event
-								Event thisEvent = thisTrans.getTransitionEvent();
-								if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
-									
-									// Then create transitions to all the combined neighbours
-									for(State thisToState : thisTrans.getTransitionStates()) {
-										for(State otherToState : otherTrans.getTransitionStates()) {
-											
-											// If the state doesn't exist, add to queue
-											if(!newFSM.stateExists("(" + thisToState.getStateName() + "," + otherToState.getStateName() + ")")) {
-												thisNextState.add(thisToState);
-												otherNextState.add(otherToState);
-											} // if state doesn't exist
-											
-											// Add the state, then add the transition
-											State newToState = newFSM.states.addState(thisToState, otherToState);
-											newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-										} // for every state in other transition
-									} // for every state in this transition
-								} // if they share the event
-							} // for other transitions
-						} // for this transitions
-					} // if transitions are not null
-					// Go through all the transitions and see what is unique
-					if(thisTransitions != null) {
-						for(DetTransition thisTrans : thisTransitions) {
-							// If it's NOT a common event
-							Event thisEvent = thisTrans.getTransitionEvent();
-							if(!commonEvents.contains(thisTrans.getTransitionEvent().getEventName())) {
-								// Then, add all the transitions
-								for(State thisToState : thisTrans.getTransitionStates()) {
-									
-									// If it doesn't exist, add it to the queue
-									if(!newFSM.stateExists("(" + thisToState.getStateName() + "," + otherState.getStateName() + ")")) {
-										thisNextState.add(thisToState);
-										otherNextState.add(otherState);
-									} // if state doesn't exist
-									
-									// Add the state, then add the transition
-									State newToState = newFSM.states.addState(thisToState, otherState);
-									newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-								} // for the toStates
-							} // if not a common event
-						} // for this transitions
-					} // if transitions are not null
-					if(otherTransitions != null) {
-						for(DetTransition otherTrans : other.transitions.getTransitions(otherState)) {
-							// If it's NOT a common event
-							Event thisEvent = otherTrans.getTransitionEvent();
-							if(!commonEvents.contains(otherTrans.getTransitionEvent().getEventName())) {
-								// Then, add all the transitions
+		ArrayList<State[]> initials = new ArrayList<State[]>();
+		for(State thisInitial : this.getInitialStates())
+			for(State otherInitial : other.getInitialStates())
+				initials.add(new State[] {thisInitial, otherInitial});
+		new StateSpaceExplorer<State[]>((pair, next) -> { // Go through all the states connected
+			State thisState = pair[0];
+			State otherState = pair[1];
+			State newState = newFSM.states.addState(thisState, otherState); // Add the new state
+			if(newState.getStateInitial())
+				newFSM.addInitialState(newState);
+			
+			newFSM.setStateComposition(newState, thisState, (State)otherState);
+			
+			// Go through all the transitions in each, see what they have in common
+			ArrayList<ModalTransition> thisTransitions = this.transitions.getTransitions(thisState);
+			ArrayList<ModalTransition> otherTransitions = other.transitions.getTransitions(otherState);
+			if(thisTransitions != null && otherTransitions != null) {
+				for(DetTransition thisTrans : thisTransitions) {
+					for(DetTransition otherTrans : otherTransitions) {
+						
+						// If they share the same event
+						Event thisEvent = thisTrans.getTransitionEvent();
+						if(thisEvent.getEventName().equals(otherTrans.getTransitionEvent().getEventName())) {
+							
+							// Then create transitions to all the combined neighbours
+							for(State thisToState : thisTrans.getTransitionStates()) {
 								for(State otherToState : otherTrans.getTransitionStates()) {
 									
-									// If it doesn't exist, add it to the queue
-									if(!newFSM.stateExists("(" + thisState.getStateName() + "," + otherToState.getStateName() + ")")) {
-										thisNextState.add(thisState);
-										otherNextState.add(otherToState);
-									} // if state doesn't exist
+									// Queue the state; the explorer skips it if already handled
+									next.accept(new State[] {thisToState, otherToState});
 									
 									// Add the state, then add the transition
-									State newToState = newFSM.states.addState(thisState, otherToState);
+									State newToState = newFSM.states.addState(thisToState, otherToState);
 									newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
-								} // for the toStates
-							} // if not a common event
-						} // for other transitions
-					} // if transitions are not null
-				} // while there are more states connected to the 2-tuple of initial states
-			} // for otherInitial
-		} // for thisInitial
+								} // for every state in other transition
+							} // for every state in this transition
+						} // if they share the event
+					} // for other transitions
+				} // for this transitions
+			} // if transitions are not null
+			// Go through all the transitions and see what is unique
+			if(thisTransitions != null) {
+				for(DetTransition thisTrans : thisTransitions) {
+					// If it's NOT a common event
+					Event thisEvent = thisTrans.getTransitionEvent();
+					if(!commonEvents.contains(thisTrans.getTransitionEvent().getEventName())) {
+						// Then, add all the transitions
+						for(State thisToState : thisTrans.getTransitionStates()) {
+							
+							// Queue the state; the explorer skips it if already handled
+							next.accept(new State[] {thisToState, otherState});
+							
+							// Add the state, then add the transition
+							State newToState = newFSM.states.addState(thisToState, otherState);
+							newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
+						} // for the toStates
+					} // if not a common event
+				} // for this transitions
+			} // if transitions are not null
+			if(otherTransitions != null) {
+				for(DetTransition otherTrans : other.transitions.getTransitions(otherState)) {
+					// If it's NOT a common event
+					Event thisEvent = otherTrans.getTransitionEvent();
+					if(!commonEvents.contains(otherTrans.getTransitionEvent().getEventName())) {
+						// Then, add all the transitions
+						for(State otherToState : otherTrans.getTransitionStates()) {
+							
+							// Queue the state; the explorer skips it if already handled
+							next.accept(new State[] {thisState, otherToState});
+							
+							// Add the state, then add the transition
+							State newToState = newFSM.states.addState(thisState, otherToState);
+							newFSM.addTransition(newState.getStateName(), thisEvent.getEventName(), newToState.getStateName());
+						} // for the toStates
+					} // if not a common event
+				} // for other transitions
+			} // if transitions are not null
+		}).setEncoder(pair -> StateMap.getPairName(pair[0], pair[1])).explore(initials);
 	} // parallelCompositionHelper(FSM)
 	
 //---  Operations for pruning a MS   ----------------------------------------------------------
@@ -739,10 +739,17 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 					badStates.add(s);		//If found bad, add to list, and remove from the Modal Specification entirely.
 					mustIterate = true;		//Requires n-state traversal because we don't have back-referencing.
 					for(State top : composedModal.getStates()) {
-						for(int i = 0; i < composedModal.getTransitions().getTransitions(top).size(); i++){
-							DetTransition t = composedModal.getTransitions().getTransitions(top).get(i);
-							if(s.equals(t.getTransitionState()))
-								composedModal.getTransitions().getTransitions(top).remove(t);
+						ArrayList<ModalTransition> topTrans = composedModal.getTransitions().getTransitions(top);
+						for(int i = 0; i < topTrans.size(); i++){
+							ModalTransition t = topTrans.get(i);
+							if(s.equals(t.getTransitionState())) {
+								topTrans.remove(i);
+								i--;
+								if(t.getTransitionMust()) {	//A must Transition stays behind to make its source inconsistent
+									t.setTransitionMay(false);
+									composedModal.inconsistentTransitions.addTransition(top, t);
+								}
+							}
 						}
 					}
 				}
@@ -751,21 +758,8 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		
 		composedModal.getStateMap().removeStates(badStates);	//Now remove the bad States
 		composedModal.getTransitions().removeStates(badStates);
-		for(State s : composedModal.getStates()) {				//Some retention of bad Transitions; we know the State is good, just remove the Transition.
-			ArrayList<DetTransition> mustTrans = composedModal.getMustTransitions().getTransitions(s);
-			ArrayList<DetTransition> mayTrans = composedModal.getTransitions().getTransitions(s);
-			for(int i = 0; i < mustTrans.size(); i++) {
-				DetTransition t = mustTrans.get(i);
-				if(!mayTrans.contains(t)) {
-					composedModal.getMustTransitions().getTransitions(s).remove(t);
-					i--;
-				}
-			}
-		}
-		for(State s : badStates) {
-			composedModal.getMustTransitions().removeState(s);
-			composedModal.getTransitions().removeState(s);
-		}
+		//Some retention of bad Transitions; we know the remaining States are good, just remove the Transitions.
+		composedModal.inconsistentTransitions = new TransitionFunction<ModalTransition>(new ModalTransition());
 		
 		return composedModal.makeAccessible();		//And some bits will be left in but disjoint, so clean that up.
 	}
@@ -783,26 +777,23 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	 */
 	
 	public boolean stateIsBad(ModalSpecification modal1, ModalSpecification modal2, ModalSpecification composedModal, State s) {
-		ArrayList<DetTransition> mustTrans = composedModal.getMustTransitions().getTransitions(s);
-		ArrayList<DetTransition> mayTrans = composedModal.getTransitions().getTransitions(s);
+		ArrayList<ModalTransition> trans = composedModal.inconsistentTransitions.getTransitions(s);
 		ArrayList<State> compos = composedModal.getStateComposition(s);
 		
 		State modalState1 = compos.get(0);	//Get Transitions of the composed Modal Spec. and a State from one of its forebears
 											//Need to get info on event privacy and a reference into one of the composing Modal Spec.
 		EventMap shared = modal1.getEventMap().getSharedEvents(modal2.getEventMap());
 		
-		for(DetTransition t : mustTrans) {	//For each Must Transition, there needs to be a May as well
-			if(!mayTrans.contains(t)) {		//If there isn't, can it reach via the second approach? (Traverse along invisible events)
-				boolean isBad = true;		//Use reference State from original Modal Spec. to see which events are allowed.
-				if(!modal1.getMustTransitions().getTransitions(modalState1).contains(t)) {
-					isBad = composedModal.privateEventSearch(modal1.getEventMap(), s, shared, t.getTransitionEvent());
-				}
-				else {
-					isBad = composedModal.privateEventSearch(modal2.getEventMap(), s, shared, t.getTransitionEvent());
-				}
-				if(isBad) {					//If the result was a positive, then it's bad (no alternate route), say so.
-					return true;
-				}
+		if(trans != null) for(ModalTransition t : trans) {	//Each of these Must Transitions has no May Transition to go with it
+			boolean isBad = true;		//Can it reach via the second approach? (Traverse along invisible events)
+			if(!modal1.getMustTransitions(modalState1).contains(t)) {	//Use reference State from original Modal Spec. to see which events are allowed.
+				isBad = composedModal.privateEventSearch(modal1.getEventMap(), s, shared, t.getTransitionEvent());
+			}
+			else {
+				isBad = composedModal.privateEventSearch(modal2.getEventMap(), s, shared, t.getTransitionEvent());
+			}
+			if(isBad) {					//If the result was a positive, then it's bad (no alternate route), say so.
+				return true;
 			}
 		}
 		return false;
@@ -822,29 +813,27 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	 */
 	
 	public boolean privateEventSearch(EventMap mod, State modState, EventMap shared, Event e) {
-		LinkedList<State> queue = new LinkedList<State>();
-		HashSet<State> visited = new HashSet<State>();
-		queue.add(modState);
-		boolean isBad = true;
-		bfs:
-		while(!queue.isEmpty()) {	//Breadth-First Search approach
-			State top = queue.poll();
-			if(visited.contains(top)) 
-				continue;
-			visited.add(top);
-			for(DetTransition trans : this.getMustTransitions().getTransitions(top)){	//Find matching Transitions
-				if(this.getTransitions().contains(top, trans)) {						//Either add to queue or finish.
+		StateSpaceExplorer<State> search = new StateSpaceExplorer<State>((top, next) -> {	//Breadth-First Search approach
+			for(ModalTransition trans : this.getTransitions().getTransitions(top)) {	//Follow the private must Transitions
+				if(trans.getTransitionMust() && trans.getTransitionMay()) {
 					if(!shared.contains(trans.getTransitionEvent()) && mod.contains(trans.getTransitionEvent())) {
-						queue.add(trans.getTransitionState());
-					}
-					else if(trans.getTransitionEvent().equals(e)) {
-						isBad = false;
-						break bfs;
+						next.accept(trans.getTransitionState());
 					}
 				}
 			}
-		}
-		return isBad;
+		});
+		search.setStopCondition(top -> {	//Finish at the first State with a matching Transition
+			for(ModalTransition trans : this.getTransitions().getTransitions(top)) {
+				if(trans.getTransitionMust() && trans.getTransitionMay()) {
+					if(!shared.contains(trans.getTransitionEvent()) && mod.contains(trans.getTransitionEvent()))
+						continue;
+					if(trans.getTransitionEvent().equals(e))
+						return true;
+				}
+			}
+			return false;
+		});
+		return search.explore(modState) == null;
 	}
 	
 	/**
@@ -859,7 +848,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 
 	public ModalSpecification prune() {
 		// First, get all the inconsistent states
-		HashSet<String> badStates = transitions.getInconsistentStates(mustTransitions);
+		HashSet<String> badStates = getInconsistentStates();
 		// Now, go through all the states and see if there are must transitions to these inconsistent
 		// states. If there are, those states must be removed (iteratively).
 		while(getBadMustTransitionStates(badStates));
@@ -882,7 +871,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		// Go through all OK nodes, and if there is a state that leads to a badState with a
 		// must transition, add the state to the badStates.
 		for(State curr : states.getStates()) if(!badStates.contains(curr.getStateName())) {
-			for(DetTransition transition : mustTransitions.getTransitions(curr)) {
+			for(ModalTransition transition : getMustTransitions(curr)) {
 				if(badStates.contains(transition.getTransitionState().getStateName())) {
 					badStates.add(curr.getStateName());
 					markedAState = true;
@@ -892,6 +881,22 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		return markedAState;
 	} // getBadMustTransitionStates(HashSet<String>)
 	
+	/**
+	 * Gets all the states that have a must transition without a corresponding may transition,
+	 * making the state inconsistent with the definition of a ModalSpecification.
+	 * 
+	 * @return - Returns a HashSet of Strings representing the States which were found to be inconsistent.
+	 */
+	
+	private HashSet<String> getInconsistentStates() {
+		HashSet<String> badStates = new HashSet<String>();
+		for(Map.Entry<State, ArrayList<ModalTransition>> entry : inconsistentTransitions.getAllTransitions()) {
+			if(!entry.getValue().isEmpty())
+				badStates.add(entry.getKey().getStateName());
+		}
+		return badStates;
+	} // getInconsistentStates()
+	
 //---  Operations for getting the optimal supervisor   ----------------------------------------
 	
 	/**
@@ -984,7 +989,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 			
 			// If a must transition does not exist at the state, mark the state
 			String specStateName = product.getStateComposition(s).get(1).getStateName(); // Gets the specification
-			ArrayList<DetTransition> specTransitions = this.mustTransitions.getTransitions(this.getState(specStateName));
+			ArrayList<ModalTransition> specTransitions = this.getMustTransitions(this.getState(specStateName));
 			if(specTransitions != null) for(DetTransition t : specTransitions) {
 				Event event = t.getTransitionEvent();
 				ArrayList<State> toStates = product.transitions.getTransitionStates(s, product.events.getEvent(event));
@@ -1108,29 +1113,14 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		// Get the name of the state in the right side of the product in the fsm (second part of the state).
 		String name = fsm.getStateComposition(state).get(1).getStateName();
 		if(badStates.contains(name)) return false;
-		if(state.getStateMarked()) return true;
-		
-		HashSet<State> visited = new HashSet<State>();
-		LinkedList<State> queue = new LinkedList<State>();
-		visited.add(state);
-		queue.add(state);
 		
-		while(!queue.isEmpty()) {
-			// Go through all neighbours in BFS
-			State curr = queue.poll();
+		// Go through all neighbours in BFS, stopping at the first marked state (if marked, we're all good!)
+		return new StateSpaceExplorer<State>((curr, next) -> {
 			for(DetTransition t : fsm.transitions.getTransitions(curr)) for(State toState : t.getTransitionStates()) {
-				name = fsm.getStateComposition(toState).get(1).getStateName();
-				if(!badStates.contains(name)) {
-					if(toState.getStateMarked()) return true; // if marked, we're all good!
-					if(!visited.contains(toState)) { // if it hasn't been visited yet, add to queue
-						queue.add(toState);
-						visited.add(toState);
-					} // if not yet visited
-				} // if it's not a bad state
+				if(!badStates.contains(fsm.getStateComposition(toState).get(1).getStateName()))
+					next.accept(toState); // if it's not a bad state
 			} // for every transition state
-		} // while the queue still has stuff in it
-		
-		return false;
+		}).setStopCondition(State::getStateMarked).explore(state) != null;
 	} // canReachMarked(FSM, HashSet)
 	
 //---  Operations for converting the observer view of the fsm at any given state   ------------
@@ -1152,25 +1142,19 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		HashMap<State, HashSet<State>> epsilonReaches = fsm.transitions.getEpsilonReaches(fsm.states.getStates());
 		// Store what the name of any given state's epsilon reach is
 		HashMap<String, String> startingPositions = new HashMap<String, String>();
-		// Store what states still need to be processed
-		LinkedList<State> statesToProcess = new LinkedList<State>();
-		// Keep track of states that were already processed
-		HashSet<State> statesAlreadyCreated = new HashSet<State>();
+		// Store what states need to be processed first
+		ArrayList<State> statesToProcess = new ArrayList<State>();
 		
 		// Go through every single state (each could be initial)
 		for(State state : fsm.states.getStates()) {
 			// Make an initial state from the epsilon reach
 			State newState = addComposedState(newFSM, epsilonReaches.get(state));
-			if(!statesAlreadyCreated.contains(newState)) {
-				statesToProcess.add(newState);
-				statesAlreadyCreated.add(newState);
-			} // if state does not already exist
+			statesToProcess.add(newState);
 			startingPositions.put(state.getStateName(), newState.getStateName());
 		} // for every state in the fsm
 		
-		// Go through all the observer view states that have not been processed.
-		while(!statesToProcess.isEmpty()) {
-			State currState = statesToProcess.poll();
+		// Go through all the observer view states, each processed once.
+		new StateSpaceExplorer<State>((currState, next) -> {
 			// Now, go through all the OBSERVABLE transitions from all of these states
 			HashMap<Event, HashSet<State>> toStates = new HashMap<Event, HashSet<State>>();
 			for(State s : newFSM.getStateComposition(currState)) {
@@ -1201,13 +1185,9 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 				State newState = addComposedState(newFSM, entry.getValue());
 				DetTransition newTransition = new DetTransition(e, newState);
 				newFSM.addTransition(currState, newTransition);
-				
-				if(!statesAlreadyCreated.contains(newState)) {
-					statesToProcess.add(newState);
-					statesAlreadyCreated.add(newState);
-				} // if state does not already exist
+				next.accept(newState);
 			} // for all the observable events (with their accompanying states)
-		}
+		}).explore(statesToProcess);
 		
 		return startingPositions;
 	} // createUniversalObserverView(FSM)
@@ -1288,29 +1268,21 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	private ModalSpecification getPseudoLowerBound(ModalSpecification other) {
 		ModalSpecification newMS = new ModalSpecification(this.id + " Lower Bound");
 		
-		// Also, identify which states are already visited so we don't go in loops
-		HashSet<String> visited = new HashSet<String>();
-		
 		// Start at the beginning of each MS
-		LinkedList<NextStates> next = new LinkedList<NextStates>();
-		if(this.initialState != null && other.initialState != null) { // If one doesn't have an initial, we have a problem.
-			State newInitial = newMS.states.addState(this.initialState, other.initialState);
-			newMS.initialState = newInitial;
-			next.add(new NextStates(this.initialState, other.initialState, newInitial));
-		}
-		while(!next.isEmpty()) {
-			NextStates curr = next.poll();
-			
-			if(visited.contains(curr.stateNew.getStateName()))
-				continue; // If we already added the state, skip this iteration
+		if(this.initialState == null || other.initialState == null) // If one doesn't have an initial, we have a problem.
+			return newMS;
+		State newInitial = newMS.states.addState(this.initialState, other.initialState);
+		newMS.initialState = newInitial;
+		
+		// Identify states by their name in the new MS so we don't go in loops
+		new StateSpaceExplorer<NextStates>((curr, next) -> {
 			curr.addToComposition(newMS);
-			visited.add(curr.stateNew.getStateName());
 			
 			// Go through all the MAY transitions common in both
-			next.addAll(newMS.copyCommonTransitions(curr, this, other));
-			next.addAll(newMS.copyPrivateTransitions(curr, this, other));
-			next.addAll(newMS.copyMustTransitions(curr, this, other));
-		} // while there are states in the queue
+			newMS.copyCommonTransitions(curr, this, other).forEach(next);
+			newMS.copyPrivateTransitions(curr, this, other).forEach(next);
+			newMS.copyMustTransitions(curr, this, other).forEach(next);
+		}).setEncoder(curr -> curr.stateNew.getStateName()).explore(new NextStates(this.initialState, other.initialState, newInitial));
 		return newMS;
 	}
 	
@@ -1328,8 +1300,8 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	 */
 	
 	private LinkedList<NextStates> copyCommonTransitions(NextStates curr, ModalSpecification msA, ModalSpecification msB) {
-		ArrayList<DetTransition> transitionsA = msA.transitions.getSortedTransitions(curr.stateA);
-		ArrayList<DetTransition> transitionsB = msB.transitions.getSortedTransitions(curr.stateB);
+		ArrayList<ModalTransition> transitionsA = msA.transitions.getSortedTransitions(curr.stateA);
+		ArrayList<ModalTransition> transitionsB = msB.transitions.getSortedTransitions(curr.stateB);
 		// Go through all the MAY transitions common in both
 		LinkedList<NextStates> nextStates = new LinkedList<NextStates>();
 		int indexA = 0, indexB = 0;
@@ -1369,8 +1341,8 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		HashSet<String> privateEventsB = msB.events.getPrivateEvents(msA.events);
 		
 		// Now, get the transitions
-		ArrayList<DetTransition> transitionsA = msA.transitions.getSortedTransitions(curr.stateA);
-		ArrayList<DetTransition> transitionsB = msB.transitions.getSortedTransitions(curr.stateB);
+		ArrayList<ModalTransition> transitionsA = msA.transitions.getSortedTransitions(curr.stateA);
+		ArrayList<ModalTransition> transitionsB = msB.transitions.getSortedTransitions(curr.stateB);
 		
 		// Now, just go through all the private events for MAY transitions and add the transitions
 		LinkedList<NextStates> next = new LinkedList<NextStates>();
@@ -1404,8 +1376,10 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		LinkedList<NextStates> next = new LinkedList<NextStates>();
 		
 		// Go through all the MUST transitions in either
-		ArrayList<DetTransition> transitionsA = msA.mustTransitions.getSortedTransitions(curr.stateA);
-		ArrayList<DetTransition> transitionsB = msB.mustTransitions.getSortedTransitions(curr.stateB);
+		ArrayList<ModalTransition> transitionsA = msA.getMustTransitions(curr.stateA);
+		ArrayList<ModalTransition> transitionsB = msB.getMustTransitions(curr.stateB);
+		Collections.sort(transitionsA);
+		Collections.sort(transitionsB);
 		
 		// We are going through by incrementing indices until one ModalSpecification runs out of transitions
 		int msAIndex = 0, msBIndex = 0;
@@ -1420,7 +1394,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 				State bTo = (bToPossible != null && bToPossible.size() > 0) ? bToPossible.get(0) : curr.stateB;
 				
 				State newTo = this.states.addState(aTo, bTo);
-				this.mustTransitions.addTransitionState(curr.stateNew, this.events.addEvent(e), newTo);
+				this.setMustTransition(curr.stateNew, this.events.addEvent(e), newTo);
 				next.add(new NextStates(aTo, bTo, newTo));
 				msAIndex++;
 			} 
@@ -1433,7 +1407,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 				State aTo = (aToPossible != null && aToPossible.size() > 0) ? aToPossible.get(0) : curr.stateA;
 				
 				State newTo = this.states.addState(aTo, bTo);
-				this.mustTransitions.addTransitionState(curr.stateNew, this.events.addEvent(e), newTo);
+				this.setMustTransition(curr.stateNew, this.events.addEvent(e), newTo);
 				next.add(new NextStates(aTo, bTo, newTo));
 				msBIndex++;
 			} 
@@ -1442,7 +1416,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 				State thisTo = transitionsA.get(msAIndex).getTransitionState();
 				State otherTo = transitionsB.get(msBIndex).getTransitionState();
 				State newTo = this.states.addState(thisTo, otherTo);
-				this.mustTransitions.addTransitionState(curr.stateNew, this.events.addEvent(e), newTo);
+				this.setMustTransition(curr.stateNew, this.events.addEvent(e), newTo);
 				next.add(new NextStates(thisTo, otherTo, newTo));
 				msAIndex++;
 				msBIndex++;
@@ -1458,7 +1432,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 			State bTo = (bToPossible != null && bToPossible.size() > 0) ? bToPossible.get(0) : curr.stateB;
 			
 			State newTo = this.states.addState(aTo, bTo);
-			this.mustTransitions.addTransitionState(curr.stateNew, this.events.addEvent(e), newTo);
+			this.setMustTransition(curr.stateNew, this.events.addEvent(e), newTo);
 			next.add(new NextStates(aTo, bTo, newTo));
 			msAIndex++;
 		}
@@ -1471,7 +1445,7 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 			State aTo = (aToPossible != null && aToPossible.size() > 0) ? aToPossible.get(0) : curr.stateA;
 			
 			State newTo = this.states.addState(aTo, bTo);
-			this.mustTransitions.addTransitionState(curr.stateNew, this.events.addEvent(e), newTo);
+			this.setMustTransition(curr.stateNew, this.events.addEvent(e), newTo);
 			next.add(new NextStates(aTo, bTo, newTo));
 			msBIndex++;
 		}
@@ -1480,52 +1454,65 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	} // copyMustTransitions(NextStates, ModalSpeciication, ModalSpecification)
 	
 	/**
-	 * Copies the must transitions of another ModalSpecification into the current ModalSpecification.
+	 * Copies the transitions of another ModalSpecification into the current ModalSpecification, keeping
+	 * the may and must status of each transition and excluding the transitions to or from the HashSet
+	 * of bad states.
 	 * 
 	 * @param other - ModalSpecification object whose transitions are to be copied.
+	 * @param badStates - HashSet of Strings representing the States whose transitions are not copied.
 	 */
 	
-	public void copyMustTransitions(ModalSpecification other) {
-		for(State s : other.states.getStates()) {
-			ArrayList<DetTransition> thisTransitions = other.mustTransitions.getTransitions(s);
-			if(thisTransitions != null)
-				for(DetTransition t : thisTransitions) {
-					// Add the state the transition leads to
-					this.addMustTransition(s.getStateName(), t.getTransitionEvent().getEventName(), t.getTransitionState().getStateName());
-				} // for every transition
+	public void copyModalTransitions(ModalSpecification other, HashSet<String> badStates) {
+		for(State s : other.states.getStates()) if(!badStates.contains(s.getStateName())) {
+			ArrayList<ModalTransition> thisTransitions = other.transitions.getTransitions(s);
+			if(thisTransitions != null) for(ModalTransition t : thisTransitions) {
+				// Add the transition if the state it leads to is not bad
+				if(!badStates.contains(t.getTransitionState().getStateName()))
+					this.addTransition(s, t);
+			} // for every transition
+			ArrayList<ModalTransition> thisInconsistent = other.inconsistentTransitions.getTransitions(s);
+			if(thisInconsistent != null) for(ModalTransition t : thisInconsistent) {
+				if(!badStates.contains(t.getTransitionState().getStateName()))
+					this.addTransition(s, t);
+			} // for every inconsistent transition
 		} // for every state
-	} // copyMustTransitions(ModalSpecification)
+	} // copyModalTransitions(ModalSpecification, HashSet<String>)
+	
+//---  Getter Methods   -----------------------------------------------------------------------
 	
 	/**
-	 * Copies the must transitions of another ModalSpecification into the current ModalSpecification,
-	 * excluding the transitions in the HashSet of bad states.
+	 * Getter method that returns the Must Transitions leading out of the provided State in the
+	 * calling Modal Specification object.
 	 * 
-	 * @param other - ModalSpecification object whose transitions are to be copied.
+	 * @param state - State object whose Must Transitions are requested.
+	 * @return - Returns an ArrayList<<r>ModalTransition> object containing the Must Transitions leading out of the provided State.
 	 */
 	
-	public void copyMustTransitions(ModalSpecification other, HashSet<String> badStates) {
-		for(State s : other.states.getStates()) if(!badStates.contains(s.getStateName())) {
-			ArrayList<DetTransition> thisTransitions = other.mustTransitions.getTransitions(s);
-			if(thisTransitions != null) for(DetTransition t : thisTransitions) {
-				// Add every state the transition leads to
-				String toStateName = t.getTransitionState().getStateName();
-				if(!badStates.contains(toStateName))
-					this.addMustTransition(s.getStateName(), t.getTransitionEvent().getEventName(), toStateName);
-			} // for every transition
-		} // for every state
-	} // copyMustTransitions(ModalSpecification)
-	
-//---  Getter Methods   -----------------------------------------------------------------------
+	public ArrayList<ModalTransition> getMustTransitions(State state) {
+		ArrayList<ModalTransition> outbound = new ArrayList<ModalTransition>();
+		for(ModalTransition t : transitions.getTransitions(state))
+			if(t.getTransitionMust())
+				outbound.add(t);
+		ArrayList<ModalTransition> inconsistent = inconsistentTransitions.getTransitions(state);
+		if(inconsistent != null)
+			outbound.addAll(inconsistent);
+		return outbound;
+	}
 	
 	/**
-	 * Getter method that returns the Transition Function object containing the Must Transitions
-	 * associated to the calling Modal Specification object.
+	 * Getter method that returns the ModalTransition leading from one State to another via the provided Event.
 	 * 
-	 * @return - Returns a TransitionFunction<<r>DetTransition> object containing the Must Transitions associated to this ModalSpecificaiton object.
+	 * @param stateFrom - State object that the transition starts from.
+	 * @param event - Event object associated with the transition.
+	 * @param stateTo - State object that the transition ends at.
+	 * @return - Returns the ModalTransition object, or null if no such transition exists.
 	 */
 	
-	public TransitionFunction<DetTransition> getMustTransitions() {
-		return mustTransitions;
+	private ModalTransition getModalTransition(State stateFrom, Event event, State stateTo) {
+		for(ModalTransition t : transitions.getTransitions(stateFrom))
+			if(t.getTransitionEvent().equals(event) && t.getTransitionState().equals(stateTo))
+				return t;
+		return null;
 	}
 	
 	@Override
@@ -1613,38 +1600,16 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	 */
 	
 	public void addMustTransition(String state1, String eventName, String state2) {
-		// First, add the "may" transition
+		// First, add the "may" transition, then flag it as required
 		addTransition(state1, eventName, state2);
-		
-		// If they do not exist yet, add the states.
-		State s1 = states.addState(state1);
-		State s2 = states.addState(state2);
-		
-		// Get the event or make it
-		Event e = events.addEvent(eventName);
-		
-		// See if there is already a transition with the event...
-		ArrayList<DetTransition> thisTransitions = mustTransitions.getTransitions(s1);
-		if(thisTransitions != null) {
-			for(DetTransition t : thisTransitions) {
-				if(t.getTransitionEvent().equals(e)) {
-					t.setTransitionState(s2);
-					return;
-				} // if equal
-			} // for every transition
-		} // if not null
-		
-		// Otherwise, make a new Transition object
-		DetTransition outbound = transitions.getEmptyTransition();
-		outbound.setTransitionEvent(e);
-		outbound.setTransitionState(s2);
-		mustTransitions.addTransition(s1, outbound);
+		getModalTransition(states.getState(state1), events.getEvent(eventName), states.getState(state2)).setTransitionMust(true);
 	}
 	
 	/**
 	 * This method handles the adding of a new must transition to the calling ModalSpecification by
 	 * passing in a state and transition from another transition system. It copies the pieces into
-	 * the current ModalSpecification.
+	 * the current ModalSpecification. If no may transition exists for it, the transition is
+	 * inconsistent until a may transition is added.
 	 * 
 	 * @param state - State extending object representing the State acquiring a new Transition.
 	 * @param transition - Transition extending object representing the Transition being added to the provided State extending object.
@@ -1653,10 +1618,170 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	public void addMustTransition(State state, DetTransition transition) {
 		State fromState = states.addState(state); // Get the state or make it
 		Event e = events.addEvent(transition.getTransitionEvent()); // Get the event or make it
-		DetTransition outbound = transitions.getEmptyTransition(); // New transition object
-		outbound.setTransitionEvent(e);
-		outbound.setTransitionState(states.addState(transition.getTransitionState()));
-		mustTransitions.addTransition(fromState, outbound);
+		setMustTransition(fromState, e, states.addState(transition.getTransitionState()));
+	}
+	
+	/**
+	 * Helper method that flags the transition from one State to another via the provided Event as a must
+	 * transition. If there is no such may transition, an inconsistent must transition is kept instead,
+	 * apart from the may transitions, until a may transition is added for it.
+	 * All the objects provided must already belong to the calling ModalSpecification.
+	 * 
+	 * @param stateFrom - State object that the transition starts from.
+	 * @param event - Event object associated with the transition.
+	 * @param stateTo - State object that the transition ends at.
+	 */
+	
+	void setMustTransition(State stateFrom, Event event, State stateTo) {
+		ModalTransition t = getModalTransition(stateFrom, event, stateTo);
+		if(t != null) {
+			t.setTransitionMust(true);
+			return;
+		}
+		ArrayList<ModalTransition> inconsistent = inconsistentTransitions.getTransitions(stateFrom);
+		if(inconsistent != null)
+			for(ModalTransition other : inconsistent)
+				if(other.getTransitionEvent().equals(event) && other.getTransitionState().equals(stateTo))
+					return;
+		t = inconsistentTransitions.getEmptyTransition();
+		t.setTransitionEvent(event);
+		t.setTransitionState(stateTo);
+		t.setTransitionMay(false);
+		t.setTransitionMust(true);
+		inconsistentTransitions.addTransition(stateFrom, t);
+	}
+	
+	/**
+	 * Helper method called once a may transition exists from one State to another via the provided Event;
+	 * if an inconsistent must transition was waiting for it, the must transition is removed and the may
+	 * transition is flagged as a must transition in its place.
+	 * 
+	 * @param stateFrom - State object that the transition starts from.
+	 * @param event - Event object associated with the transition.
+	 * @param stateTo - State object that the transition ends at.
+	 */
+	
+	private void resolveInconsistentTransition(State stateFrom, Event event, State stateTo) {
+		ModalTransition t = getModalTransition(stateFrom, event, stateTo);
+		if(t != null && inconsistentTransitions.removeTransition(stateFrom, event, stateTo))
+			t.setTransitionMust(true);
+	}
+	
+	/**
+	 * Helper method called before the may transition leaving a State via the provided Event is pointed at
+	 * another State. The Transition object is reused for the new target, so if it is a must transition its
+	 * flag is cleared here rather than moving to a target that was never declared must.
+	 * 
+	 * @param stateFrom - State object that the transition starts from, or null if it does not exist yet.
+	 * @param event - Event object associated with the transition, or null if it does not exist yet.
+	 * @param stateTo - State object that the transition will end at, or null if it does not exist yet.
+	 * @return - Returns the State object the must transition led to, to be kept as an inconsistent must transition once the target has changed, or null if there is none.
+	 */
+	
+	private State detachMustTransition(State stateFrom, Event event, State stateTo) {
+		if(stateFrom == null || event == null || transitions.getTransitions(stateFrom) == null)
+			return null;
+		for(ModalTransition t : transitions.getTransitions(stateFrom)) {
+			if(t.getTransitionEvent().equals(event) && t.getTransitionMust() && !t.getTransitionState().equals(stateTo)) {
+				t.setTransitionMust(false);
+				return t.getTransitionState();
+			}
+		}
+		return null;
+	}
+	
+	@Override
+	public void addTransition(String state1, String eventName, String state2) {
+		State oldMust = detachMustTransition(states.getState(state1), events.getEvent(eventName), states.getState(state2));
+		super.addTransition(state1, eventName, state2);
+		if(oldMust != null)
+			setMustTransition(states.getState(state1), events.getEvent(eventName), oldMust);
+		resolveInconsistentTransition(states.getState(state1), events.getEvent(eventName), states.getState(state2));
+	}
+	
+	@Override
+	public void addTransition(State state, Event event, State state2) {
+		State oldMust = detachMustTransition(states.getState(state.getStateName()), events.getEvent(event.getEventName()), states.getState(state2.getStateName()));
+		super.addTransition(state, event, state2);
+		State fromState = states.getState(state.getStateName());
+		Event e = events.getEvent(event.getEventName());
+		if(oldMust != null)
+			setMustTransition(fromState, e, oldMust);
+		resolveInconsistentTransition(fromState, e, states.getState(state2.getStateName()));
+	}
+	
+	@Override
+	public void addTransitions(String[] states1, String[] eventNames, String[] states2) {
+		// Clear the must flags the triples could move, remembering where each must transition led
+		IdentityHashMap<ModalTransition, State> detached = new IdentityHashMap<ModalTransition, State>();
+		IdentityHashMap<ModalTransition, State> detachedFrom = new IdentityHashMap<ModalTransition, State>();
+		for(int i = 0; i < states1.length; i++) {
+			State fromState = states.getState(states1[i]);
+			Event e = events.getEvent(eventNames[i]);
+			if(fromState == null || e == null || transitions.getTransitions(fromState) == null)
+				continue;
+			for(ModalTransition t : transitions.getTransitions(fromState)) {
+				if(t.getTransitionEvent().equals(e) && t.getTransitionMust()) {
+					t.setTransitionMust(false);
+					detached.put(t, t.getTransitionState());
+					detachedFrom.put(t, fromState);
+				}
+			}
+		} // for every triple
+		super.addTransitions(states1, eventNames, states2);
+		for(Map.Entry<ModalTransition, State> entry : detached.entrySet()) {
+			ModalTransition t = entry.getKey();
+			if(t.getTransitionState().equals(entry.getValue()))
+				t.setTransitionMust(true);
+			else
+				setMustTransition(detachedFrom.get(t), t.getTransitionEvent(), entry.getValue());
+		}
+		for(int i = 0; i < states1.length; i++)
+			if(inconsistentTransitions.getTransitions(states.getState(states1[i])) != null)
+				resolveInconsistentTransition(states.getState(states1[i]), events.getEvent(eventNames[i]), states.getState(states2[i]));
+	}
+	
+	/**
+	 * This method adds a copy of the provided ModalTransition, keeping its modality. A must transition which is
+	 * not a may transition is kept as an inconsistent must transition. If the may transition already exists, it
+	 * keeps its modality, becoming a must transition if the provided one is.
+	 * 
+	 * @param state - State object representing the State acquiring a new Transition.
+	 * @param transition - ModalTransition object representing the Transition being added to the provided State object.
+	 */
+	
+	@Override
+	public void addTransition(State state, ModalTransition transition) {
+		State fromState = states.addState(state);
+		Event e = events.addEvent(transition.getTransitionEvent());
+		State toState = states.addState(transition.getTransitionState());
+		if(!transition.getTransitionMay()) {
+			if(transition.getTransitionMust())
+				setMustTransition(fromState, e, toState);
+			return;
+		}
+		ModalTransition outbound = getModalTransition(fromState, e, toState);
+		if(outbound == null) {
+			super.addTransition(fromState, transition);
+			outbound = getModalTransition(fromState, e, toState);
+		}
+		if(transition.getTransitionMust())
+			outbound.setTransitionMust(true);
+		resolveInconsistentTransition(fromState, e, toState);
+	}
+
+	@Override
+	public boolean removeState(String stateName) {
+		State theState = states.getState(stateName);
+		if(theState != null)
+			inconsistentTransitions.removeState(theState);
+		return super.removeState(stateName);
+	}
+	
+	@Override
+	public boolean removeTransition(String state1, String eventName, String state2) {
+		boolean removedMust = inconsistentTransitions.removeTransition(getState(state1), getEvent(eventName), getState(state2));
+		return super.removeTransition(state1, eventName, state2) || removedMust;
 	}
 
 	@Override
@@ -1686,11 +1811,6 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		return false;
 	}
 	
-	@Override
-	public boolean removeTransition(String state1, String eventName, String state2) {
-		mustTransitions.removeTransition(getState(state1), getEvent(eventName), getState(state2));
-		return(super.removeTransition(state1, eventName, state2));
-	}
 
 //---  Miscellaneous   ------------------------------------------------------------------------
 	
@@ -1705,7 +1825,10 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 	 */
 	
 	public boolean contains(State s, DetTransition t) {
-		return getTransitions().contains(s, t);
+		for(ModalTransition m : getTransitions().getTransitions(s))
+			if(m.equals(t))
+				return true;
+		return false;
 	}
 	
 //---  Support Classes   ----------------------------------------------------------------------
@@ -1756,6 +1879,49 @@ public class ModalSpecification extends TransitionSystem<DetTransition> implemen
 		
 		}
 	
+	/**
+	 * This class models a macro-state of the optimal opaque controller: the index of the State the
+	 * Modal Specification is really in, paired with the attacker's estimate of the States it could
+	 * be in. Two MacroState objects are equal if both pieces are equal, so they can be used as keys
+	 * to avoid building the same macro-state twice.
+	 * 
+	 * @author Mac Clevinger and Graeme Zinck
+	 */
+	
+	static class MacroState {
+		
+		/** int value representing the index of the State the Modal Specification is really in.*/
+		final int real;
+		/** BitSet object representing the indices of the States in the attacker's estimate.*/
+		final BitSet estimate;
+		
+		/**
+		 * Constructor for a MacroState object.
+		 * 
+		 * @param inReal - int value representing the index of the State the Modal Specification is really in.
+		 * @param inEstimate - BitSet object representing the indices of the States in the attacker's estimate.
+		 */
+		
+		MacroState(int inReal, BitSet inEstimate) {
+			real = inReal;
+			estimate = inEstimate;
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			if(!(other instanceof MacroState))
+				return false;
+			MacroState o = (MacroState)other;
+			return real == o.real && estimate.equals(o.estimate);
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * real + estimate.hashCode();
+		}
+		
+	}
+	
 		
 
 }
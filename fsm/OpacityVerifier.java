@@ -0,0 +1,435 @@
+package fsm;
+
+import support.transition.Transition;
+import support.StateSpaceExplorer;
+import support.Event;
+import java.util.*;
+
+/**
+ * This class verifies the opacity of an FSM without building its full observer. The attacker's
+ * estimates are explored lazily, breadth-first, and the search stops as soon as an estimate reveals
+ * a secret. Because the search is breadth-first, the sequence of observations leading to that estimate
+ * is a shortest witness of the violation.
+ *
+ * Current-State, K-Step and Initial-State Opacity are supported. The verifier works on a TransitionSystemSnapshot,
+ * whose States are already numbered, so the estimates can be kept as BitSets; the attacker sees only those Events
+ * which are attacker-observable. Since the snapshot never changes, several verifiers may run on one snapshot at
+ * once, in different threads, while the FSM it was made from is edited.
+ *
+ * This class is a part of the fsm package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class OpacityVerifier {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** TransitionSystemSnapshot object whose opacity is verified by this OpacityVerifier.*/
+	private TransitionSystemSnapshot snapshot;
+	/** BitSet object holding the indices of all the States which are not secret.*/
+	private BitSet notSecret;
+	/** BitSet[] object holding the unobservable reach of each State, computed as it is needed.*/
+	private BitSet[] reaches;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for an OpacityVerifier object which verifies a snapshot of the provided FSM.
+	 *
+	 * @param inFSM - FSM object whose opacity is to be verified.
+	 */
+
+	public OpacityVerifier(FSM<? extends Transition> inFSM) {
+		this(inFSM.freeze());
+	}
+
+	/**
+	 * Constructor for an OpacityVerifier object which verifies the provided snapshot.
+	 *
+	 * @param inSnapshot - TransitionSystemSnapshot object whose opacity is to be verified.
+	 */
+
+	public OpacityVerifier(TransitionSystemSnapshot inSnapshot) {
+		snapshot = inSnapshot;
+		notSecret = new BitSet(snapshot.getStateCount());
+		for(int i = 0; i < snapshot.getStateCount(); i++)
+			if(!snapshot.isPrivate(i))
+				notSecret.set(i);
+		reaches = new BitSet[snapshot.getStateCount()];
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method verifies the Current-State Opacity of the FSM by exploring the attacker's estimates
+	 * of the current State until one is found which holds only secret States.
+	 *
+	 * @return - Returns an ArrayList<<r>Event> object holding a shortest sequence of observations after which
+	 * the attacker knows the FSM is in a secret State, or null if the FSM is Current-State Opaque.
+	 */
+
+	public ArrayList<Event> verifyCurrentStateOpacity() {
+		BitSet init = getInitialEstimate();
+		if(init.isEmpty())
+			return null;
+		return search(init, new Estimator<BitSet>() {
+			boolean revealsSecret(BitSet estimate) {
+				return isSecret(estimate);
+			}
+			HashMap<String, BitSet> getNext(BitSet estimate) {
+				return getNextEstimates(estimate);
+			}
+		});
+	} // verifyCurrentStateOpacity()
+
+	/**
+	 * This method verifies the K-Step Opacity of the FSM: the attacker must never be sure that the FSM is, or was
+	 * up to K observations ago, in a secret State. The attacker's knowledge is tracked by a bounded-delay estimator
+	 * holding only the last K+1 estimates and the K Events observed between them, from which the smoothed estimate
+	 * of each of those past States is found by working backwards.
+	 *
+	 * @param k - int value representing the number of past observations the secret must be kept for.
+	 * @return - Returns an ArrayList<<r>Event> object holding a shortest sequence of observations after which the
+	 * attacker knows the FSM is or was in a secret State, or null if the FSM is K-Step Opaque.
+	 */
+
+	public ArrayList<Event> verifyKStepOpacity(final int k) {
+		if(k < 0)
+			throw new IllegalArgumentException("K must not be negative.");
+		BitSet init = getInitialEstimate();
+		if(init.isEmpty())
+			return null;
+		return search(new Window(new BitSet[] {init}, new String[0]), new Estimator<Window>() {
+			boolean revealsSecret(Window window) {
+				BitSet smoothed = window.estimates[window.estimates.length - 1];
+				if(isSecret(smoothed))
+					return true;
+				for(int j = window.estimates.length - 2; j >= 0; j--) {
+					smoothed = getSmoothedEstimate(window.estimates[j], window.events[j], smoothed);
+					if(isSecret(smoothed))
+						return true;
+				}
+				return false;
+			}
+			HashMap<String, Window> getNext(Window window) {
+				HashMap<String, Window> next = new HashMap<String, Window>();
+				BitSet current = window.estimates[window.estimates.length - 1];
+				for(Map.Entry<String, BitSet> entry : getNextEstimates(current).entrySet())
+					next.put(entry.getKey(), window.shift(entry.getValue(), entry.getKey(), k + 1));
+				return next;
+			}
+		});
+	} // verifyKStepOpacity(int)
+
+	/**
+	 * This method verifies the Initial-State Opacity of the FSM: the attacker must never be sure that the FSM
+	 * started in a secret State. The estimator tracks which (initial State, current State) pairs are consistent
+	 * with the observations so far, stored in a single BitSet.
+	 *
+	 * @return - Returns an ArrayList<<r>Event> object holding a shortest sequence of observations after which the
+	 * attacker knows the FSM started in a secret State, or null if the FSM is Initial-State Opaque.
+	 */
+
+	public ArrayList<Event> verifyInitialStateOpacity() {
+		final int[] initials = snapshot.getInitialStates();
+		final int n = snapshot.getStateCount();
+		if(initials.length == 0)
+			return null;
+		// Pair (i, j) is the bit i * n + j: the FSM started in initial State i and is now in State j
+		BitSet init = new BitSet(initials.length * n);
+		final BitSet notSecretInitials = new BitSet(initials.length);
+		for(int i = 0; i < initials.length; i++) {
+			BitSet reach = getReach(initials[i]);
+			for(int j = reach.nextSetBit(0); j >= 0; j = reach.nextSetBit(j + 1))
+				init.set(i * n + j);
+			if(!snapshot.isPrivate(initials[i]))
+				notSecretInitials.set(i);
+		}
+		return search(init, new Estimator<BitSet>() {
+			boolean revealsSecret(BitSet pairs) {
+				BitSet starts = new BitSet(initials.length);
+				for(int p = pairs.nextSetBit(0); p >= 0; p = pairs.nextSetBit(p + 1))
+					starts.set(p / n);
+				return !starts.isEmpty() && !starts.intersects(notSecretInitials);
+			}
+			HashMap<String, BitSet> getNext(BitSet pairs) {
+				HashMap<String, BitSet> next = new HashMap<String, BitSet>();
+				for(int p = pairs.nextSetBit(0); p >= 0; p = pairs.nextSetBit(p + 1)) {
+					int start = (p / n) * n;
+					for(int t = 0; t < snapshot.getTransitionCount(p % n); t++) {
+						int event = snapshot.getTransitionEvent(p % n, t);
+						if(!snapshot.isAttackerObservable(event))
+							continue;
+						BitSet to = next.get(snapshot.getEventName(event));
+						if(to == null) {
+							to = new BitSet(pairs.size());
+							next.put(snapshot.getEventName(event), to);
+						}
+						BitSet reach = getReach(snapshot.getTransitionTarget(p % n, t));
+						for(int j = reach.nextSetBit(0); j >= 0; j = reach.nextSetBit(j + 1))
+							to.set(start + j);
+					} // for every transition
+				} // for every pair
+				return next;
+			}
+		});
+	} // verifyInitialStateOpacity()
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that performs the breadth-first search through the estimates produced by the provided
+	 * Estimator, stopping at the first estimate which reveals a secret.
+	 *
+	 * @param init - Object representing the estimate the attacker starts with.
+	 * @param estimator - Estimator object which defines how estimates change and when they reveal a secret.
+	 * @return - Returns an ArrayList<<r>Event> object holding a shortest sequence of Events leading to an estimate
+	 * which reveals a secret, or null if there is no such estimate.
+	 */
+
+	private <K> ArrayList<Event> search(K init, Estimator<K> estimator) {
+		// Remember how each estimate was first reached so the witness can be rebuilt
+		HashMap<K, K> parent = new HashMap<K, K>();
+		HashMap<K, Event> parentEvent = new HashMap<K, Event>();
+		parent.put(init, null);
+
+		K found = new StateSpaceExplorer<K>((top, successors) -> {
+			for(Map.Entry<String, K> next : estimator.getNext(top).entrySet()) {
+				K estimate = next.getValue();
+				if(!parent.containsKey(estimate)) { // Each estimate is only explored once
+					parent.put(estimate, top);
+					parentEvent.put(estimate, snapshot.getEvent(snapshot.getEventIndex(next.getKey())));
+					successors.accept(estimate);
+				}
+			} // for every observable event
+		}).setStopCondition(estimator::revealsSecret).explore(init);
+		return found == null ? null : getWitness(found, parent, parentEvent);
+	} // search(K, Estimator<K>)
+
+	/**
+	 * Helper method that gets the attacker's estimate before anything is observed.
+	 *
+	 * @return - Returns a BitSet object holding every State reachable from an initial State without an observation.
+	 */
+
+	private BitSet getInitialEstimate() {
+		BitSet init = new BitSet(snapshot.getStateCount());
+		for(int s : snapshot.getInitialStates())
+			init.or(getReach(s));
+		return init;
+	} // getInitialEstimate()
+
+	/**
+	 * Helper method that refines a past estimate using the observation which followed it: only those States
+	 * in the past estimate from which the FSM can move unobserved to a State producing the observation, and
+	 * from there end in the (already smoothed) later estimate, are kept.
+	 *
+	 * @param past - BitSet object representing the estimate made before the Event was observed.
+	 * @param eventName - String object representing the name of the Event observed.
+	 * @param later - BitSet object representing the smoothed estimate after the Event was observed.
+	 * @return - Returns a BitSet object representing the smoothed past estimate.
+	 */
+
+	private BitSet getSmoothedEstimate(BitSet past, String eventName, BitSet later) {
+		int event = snapshot.getEventIndex(eventName);
+		// First find the States which produce the observation themselves
+		BitSet producers = new BitSet(snapshot.getStateCount());
+		for(int i = past.nextSetBit(0); i >= 0; i = past.nextSetBit(i + 1)) {
+			for(int s : snapshot.getSuccessors(i, event)) {
+				if(getReach(s).intersects(later)) {
+					producers.set(i);
+					break;
+				}
+			} // for every state the event leads to
+		} // for every state in the past estimate
+		// Then keep those which reach one of them without an observation
+		BitSet smoothed = new BitSet(snapshot.getStateCount());
+		for(int i = past.nextSetBit(0); i >= 0; i = past.nextSetBit(i + 1))
+			if(getReach(i).intersects(producers))
+				smoothed.set(i);
+		return smoothed;
+	} // getSmoothedEstimate(BitSet, String, BitSet)
+
+	/**
+	 * Helper method that gets the estimates the attacker can make from the provided estimate after
+	 * each of the attacker-observable Events possible at it.
+	 *
+	 * @param estimate - BitSet object representing the attacker's estimate of the current State.
+	 * @return - Returns a HashMap<<r>String, BitSet> object mapping each Event's name to the resulting estimate.
+	 */
+
+	private HashMap<String, BitSet> getNextEstimates(BitSet estimate) {
+		HashMap<String, BitSet> next = new HashMap<String, BitSet>();
+		for(int i = estimate.nextSetBit(0); i >= 0; i = estimate.nextSetBit(i + 1)) {
+			for(int t = 0; t < snapshot.getTransitionCount(i); t++) {
+				int event = snapshot.getTransitionEvent(i, t);
+				if(!snapshot.isAttackerObservable(event))
+					continue;
+				String eventName = snapshot.getEventName(event);
+				BitSet to = next.get(eventName);
+				if(to == null) {
+					to = new BitSet(snapshot.getStateCount());
+					next.put(eventName, to);
+				}
+				to.or(getReach(snapshot.getTransitionTarget(i, t)));
+			} // for every transition
+		} // for every state in the estimate
+		return next;
+	} // getNextEstimates(BitSet)
+
+	/**
+	 * Helper method that gets all the States reachable from the indexed State using only Events
+	 * the attacker cannot observe, computing it only the first time it is requested. The cache belongs
+	 * to this verifier rather than the snapshot, so verifiers on one snapshot do not share it.
+	 *
+	 * @param state - int value representing the index of the State to start from.
+	 * @return - Returns a BitSet object representing the reach of the State; it must not be modified.
+	 */
+
+	private BitSet getReach(int state) {
+		if(reaches[state] == null) {
+			BitSet reach = new BitSet(snapshot.getStateCount());
+			LinkedList<Integer> queue = new LinkedList<Integer>();
+			reach.set(state);
+			queue.add(state);
+			while(!queue.isEmpty()) {
+				int top = queue.poll();
+				for(int t = 0; t < snapshot.getTransitionCount(top); t++) {
+					if(snapshot.isAttackerObservable(snapshot.getTransitionEvent(top, t)))
+						continue;
+					int to = snapshot.getTransitionTarget(top, t);
+					if(!reach.get(to)) {
+						reach.set(to);
+						queue.add(to);
+					}
+				} // for every transition
+			} // while queue not empty
+			reaches[state] = reach;
+		}
+		return reaches[state];
+	} // getReach(int)
+
+	/**
+	 * Helper method that checks if an estimate is made up only of secret States.
+	 *
+	 * @param estimate - BitSet object representing the attacker's estimate.
+	 * @return - Returns true if the estimate is not empty and all its States are secret, false otherwise.
+	 */
+
+	private boolean isSecret(BitSet estimate) {
+		return !estimate.isEmpty() && !estimate.intersects(notSecret);
+	}
+
+	/**
+	 * Helper method that rebuilds the sequence of Events which first led to the provided estimate.
+	 *
+	 * @param estimate - Object representing the estimate reached at the end of the sequence.
+	 * @param parent - HashMap<<r>K, K> object mapping each estimate to the one it was first reached from.
+	 * @param parentEvent - HashMap<<r>K, Event> object mapping each estimate to the Event it was first reached by.
+	 * @return - Returns an ArrayList<<r>Event> object holding the sequence of Events, in order.
+	 */
+
+	private <K> ArrayList<Event> getWitness(K estimate, HashMap<K, K> parent, HashMap<K, Event> parentEvent) {
+		ArrayList<Event> witness = new ArrayList<Event>();
+		for(K curr = estimate; parent.get(curr) != null; curr = parent.get(curr))
+			witness.add(parentEvent.get(curr));
+		Collections.reverse(witness);
+		return witness;
+	} // getWitness(K, HashMap<K, K>, HashMap<K, Event>)
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * This class defines one kind of attacker estimate for the search: how the estimate changes with each
+	 * observation and when it reveals a secret. Estimates are used as keys, so they must define equals and
+	 * hashCode by their contents and must not be modified once made.
+	 *
+	 * @param <K> - K being the class used to represent an estimate.
+	 */
+
+	abstract static class Estimator<K> {
+
+		/**
+		 * This method checks if the attacker's estimate reveals a secret.
+		 *
+		 * @param estimate - Object representing the attacker's estimate.
+		 * @return - Returns true if the estimate reveals a secret, false otherwise.
+		 */
+
+		abstract boolean revealsSecret(K estimate);
+
+		/**
+		 * This method gets the estimates the attacker can make after each observable Event possible at the provided estimate.
+		 *
+		 * @param estimate - Object representing the attacker's estimate.
+		 * @return - Returns a HashMap<<r>String, K> object mapping each Event's name to the resulting estimate.
+		 */
+
+		abstract HashMap<String, K> getNext(K estimate);
+
+	}
+
+	/**
+	 * This class models the bounded-delay estimator used for K-Step Opacity: the attacker's estimates after each
+	 * of the last (at most) K+1 observations and the Events observed between them.
+	 */
+
+	static class Window {
+
+		/** BitSet[] object holding the estimates, oldest first.*/
+		final BitSet[] estimates;
+		/** String[] object holding the names of the Events observed between consecutive estimates.*/
+		final String[] events;
+
+		/**
+		 * Constructor for a Window object.
+		 *
+		 * @param inEstimates - BitSet[] object holding the estimates, oldest first.
+		 * @param inEvents - String[] object holding the names of the Events observed between consecutive estimates.
+		 */
+
+		Window(BitSet[] inEstimates, String[] inEvents) {
+			estimates = inEstimates;
+			events = inEvents;
+		}
+
+		/**
+		 * This method makes the Window which follows this one after an observation, dropping the oldest
+		 * estimate if there would be more than the provided size.
+		 *
+		 * @param estimate - BitSet object representing the estimate after the observation.
+		 * @param eventName - String object representing the name of the Event observed.
+		 * @param size - int value representing the largest number of estimates to keep.
+		 * @return - Returns the new Window object.
+		 */
+
+		Window shift(BitSet estimate, String eventName, int size) {
+			int drop = estimates.length + 1 > size ? 1 : 0;
+			BitSet[] newEstimates = new BitSet[estimates.length + 1 - drop];
+			String[] newEvents = new String[newEstimates.length - 1];
+			System.arraycopy(estimates, drop, newEstimates, 0, estimates.length - drop);
+			newEstimates[newEstimates.length - 1] = estimate;
+			if(newEvents.length > 0) {
+				System.arraycopy(events, drop, newEvents, 0, events.length - drop);
+				newEvents[newEvents.length - 1] = eventName;
+			}
+			return new Window(newEstimates, newEvents);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if(!(other instanceof Window))
+				return false;
+			Window o = (Window)other;
+			return Arrays.equals(estimates, o.estimates) && Arrays.equals(events, o.events);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Arrays.hashCode(estimates) + Arrays.hashCode(events);
+		}
+
+	}
+
+} // class OpacityVerifier
@@ -0,0 +1,331 @@
+package fsm;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import support.Event;
+import support.State;
+import java.util.*;
+
+/**
+ * This class lets many threads build one transition system at once. The StateMap, EventMap and TransitionFunction
+ * behind a TransitionSystem are plain HashMaps and ArrayLists, so parallel algorithms could not write their results
+ * into one without a global lock; instead, each thread adding to a TransitionSystemBuilder writes into its own buffer,
+ * and the buffers are merged when the builder is frozen into a normal DetObsContFSM, NonDetObsContFSM or
+ * ModalSpecification.
+ *
+ * The additions of each thread need no synchronization at all. The merge sorts everything by name before adding it,
+ * so the frozen transition system does not depend on how the work was split between threads, with one exception: if
+ * threads give different values to the same attribute of an Event, the value assigned last is kept. freeze() must only be
+ * called once every thread has finished adding (for example, after joining them or after a parallel stream ends),
+ * and no additions are accepted afterwards.
+ *
+ * This class is a part of the fsm package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class TransitionSystemBuilder<TS extends TransitionSystem<?>> {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** Supplier<<r>TS> object which makes the empty transition system the buffers are merged into.*/
+	private Supplier<TS> factory;
+	/** ThreadLocal<<r>Buffer> object holding the buffer of each thread adding to the builder.*/
+	private ThreadLocal<Buffer> buffers;
+	/** ConcurrentLinkedQueue<<r>Buffer> object holding every buffer made, so they can be merged.*/
+	private ConcurrentLinkedQueue<Buffer> allBuffers;
+	/** ConcurrentHashMap<<r>String, Boolean> objects holding the attributes assigned to Events by name.*/
+	private ConcurrentHashMap<String, Boolean> observability, controllability, attackerObservability;
+	/** boolean instance variable representing whether the builder has been frozen.*/
+	private volatile boolean frozen;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a TransitionSystemBuilder object which merges into transition systems made by the
+	 * provided factory, such as DetObsContFSM::new.
+	 *
+	 * @param inFactory - Supplier<<r>TS> object which makes an empty transition system of the desired type.
+	 */
+
+	public TransitionSystemBuilder(Supplier<TS> inFactory) {
+		factory = inFactory;
+		allBuffers = new ConcurrentLinkedQueue<Buffer>();
+		buffers = ThreadLocal.withInitial(() -> {
+			Buffer buffer = new Buffer();
+			allBuffers.add(buffer);
+			return buffer;
+		});
+		observability = new ConcurrentHashMap<String, Boolean>();
+		controllability = new ConcurrentHashMap<String, Boolean>();
+		attackerObservability = new ConcurrentHashMap<String, Boolean>();
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method merges the buffers of every thread into a new transition system. States are added first
+	 * (sorted by name), then their attributes, then the Transitions (sorted by State and Event name, and
+	 * added in bulk), and finally the attributes of the Events.
+	 *
+	 * The order in which Transitions were added is not kept, since the threads adding them have no common order.
+	 * For deterministic transition systems, when several Transitions leave a State by the same Event, only the one
+	 * to the State whose name sorts last is kept; a must Transition is added after all the others, so it replaces
+	 * any of them with the same State and Event.
+	 *
+	 * @return - Returns a TS object holding everything added to the builder.
+	 */
+
+	public TS freeze() {
+		checkNotFrozen();
+		frozen = true;
+
+		TreeSet<String> stateNames = new TreeSet<String>();
+		TreeSet<String> initial = new TreeSet<String>(), marked = new TreeSet<String>(),
+				secret = new TreeSet<String>(), bad = new TreeSet<String>();
+		TreeSet<String[]> transitions = new TreeSet<String[]>(TransitionSystemBuilder::compareTransitions);
+		TreeSet<String[]> mustTransitions = new TreeSet<String[]>(TransitionSystemBuilder::compareTransitions);
+		for(Buffer buffer : allBuffers) {
+			stateNames.addAll(buffer.states);
+			initial.addAll(buffer.initial);
+			marked.addAll(buffer.marked);
+			secret.addAll(buffer.secret);
+			bad.addAll(buffer.bad);
+			transitions.addAll(buffer.transitions);
+			mustTransitions.addAll(buffer.mustTransitions);
+		} // for every thread's buffer
+
+		TS ts = factory.get();
+		for(String name : stateNames)
+			ts.addState(name);
+		for(String name : initial)
+			ts.addInitialState(name);
+		for(String name : marked)
+			ts.getState(name).setStateMarked(true);
+		for(String name : secret)
+			ts.getState(name).setStatePrivate(true);
+		for(String name : bad)
+			ts.getState(name).setStateBad(true);
+		ts.addTransitions(transitions.stream());
+		for(String[] t : mustTransitions) {
+			if(ts instanceof ModalSpecification)
+				((ModalSpecification)ts).addMustTransition(t[0], t[1], t[2]);
+			else
+				ts.addTransition(t[0], t[1], t[2]);
+		} // for every must transition
+
+		observability.forEach((name, value) -> getOrMakeEvent(ts, name).setEventObservability(value));
+		controllability.forEach((name, value) -> getOrMakeEvent(ts, name).setEventControllability(value));
+		attackerObservability.forEach((name, value) -> getOrMakeEvent(ts, name).setEventAttackerObservability(value));
+
+		allBuffers.clear();
+		return ts;
+	} // freeze()
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns whether the builder has been frozen.
+	 *
+	 * @return - Returns a boolean value representing whether freeze() has been called.
+	 */
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+//---  Setter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Setter method that assigns whether an Event is observable.
+	 *
+	 * @param eventName - String object representing the name of the Event.
+	 * @param status - boolean value representing whether the Event is observable.
+	 */
+
+	public void setEventObservability(String eventName, boolean status) {
+		checkNotFrozen();
+		observability.put(eventName, status);
+	}
+
+	/**
+	 * Setter method that assigns whether an Event is controllable.
+	 *
+	 * @param eventName - String object representing the name of the Event.
+	 * @param status - boolean value representing whether the Event is controllable.
+	 */
+
+	public void setEventControllability(String eventName, boolean status) {
+		checkNotFrozen();
+		controllability.put(eventName, status);
+	}
+
+	/**
+	 * Setter method that assigns whether an Event is observable to the attacker.
+	 *
+	 * @param eventName - String object representing the name of the Event.
+	 * @param status - boolean value representing whether the Event is observable to the attacker.
+	 */
+
+	public void setEventAttackerObservability(String eventName, boolean status) {
+		checkNotFrozen();
+		attackerObservability.put(eventName, status);
+	}
+
+//---  Manipulations   ------------------------------------------------------------------------
+
+	/**
+	 * This method adds a State with the given name.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 */
+
+	public void addState(String stateName) {
+		getBuffer().states.add(stateName);
+	}
+
+	/**
+	 * This method adds a State with the given name and makes it initial. A deterministic transition
+	 * system keeps only the last of its initial States, in order of name.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 */
+
+	public void addInitialState(String stateName) {
+		Buffer buffer = getBuffer();
+		buffer.states.add(stateName);
+		buffer.initial.add(stateName);
+	}
+
+	/**
+	 * This method adds a State with the given name and makes it marked.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 */
+
+	public void addMarkedState(String stateName) {
+		Buffer buffer = getBuffer();
+		buffer.states.add(stateName);
+		buffer.marked.add(stateName);
+	}
+
+	/**
+	 * This method adds a State with the given name and makes it private (secret).
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 */
+
+	public void addPrivateState(String stateName) {
+		Buffer buffer = getBuffer();
+		buffer.states.add(stateName);
+		buffer.secret.add(stateName);
+	}
+
+	/**
+	 * This method adds a State with the given name and makes it bad.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 */
+
+	public void addBadState(String stateName) {
+		Buffer buffer = getBuffer();
+		buffer.states.add(stateName);
+		buffer.bad.add(stateName);
+	}
+
+	/**
+	 * This method adds a Transition between two States by an Event, making the States and Event if
+	 * they do not exist yet.
+	 *
+	 * @param state1 - String object representing the name of the State the Transition leaves.
+	 * @param eventName - String object representing the name of the Event.
+	 * @param state2 - String object representing the name of the State the Transition leads to.
+	 */
+
+	public void addTransition(String state1, String eventName, String state2) {
+		getBuffer().transitions.add(new String[] {state1, eventName, state2});
+	}
+
+	/**
+	 * This method adds a must Transition between two States by an Event. When the builder is frozen
+	 * into anything other than a ModalSpecification, it is added as an ordinary Transition.
+	 *
+	 * @param state1 - String object representing the name of the State the Transition leaves.
+	 * @param eventName - String object representing the name of the Event.
+	 * @param state2 - String object representing the name of the State the Transition leads to.
+	 */
+
+	public void addMustTransition(String state1, String eventName, String state2) {
+		getBuffer().mustTransitions.add(new String[] {state1, eventName, state2});
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that gets the calling thread's buffer, making it the first time the thread adds something.
+	 *
+	 * @return - Returns the Buffer object of the calling thread.
+	 */
+
+	private Buffer getBuffer() {
+		checkNotFrozen();
+		return buffers.get();
+	}
+
+	/**
+	 * Helper method that rejects changes once the builder has been frozen.
+	 *
+	 * @throws IllegalStateException - Thrown if the builder has already been frozen.
+	 */
+
+	private void checkNotFrozen() {
+		if(frozen)
+			throw new IllegalStateException("The builder has already been frozen.");
+	}
+
+	/**
+	 * Helper method that gets an Event of the transition system by name, making it if no Transition used it.
+	 *
+	 * @param ts - TransitionSystem object holding the Event.
+	 * @param eventName - String object representing the name of the Event.
+	 * @return - Returns the Event object with the given name.
+	 */
+
+	private static Event getOrMakeEvent(TransitionSystem<?> ts, String eventName) {
+		return ts.getEventMap().addEvent(eventName);
+	}
+
+	/**
+	 * Helper method that orders Transitions, given as (State, Event, State) names, lexicographically.
+	 *
+	 * @param a - String[] object representing the first Transition.
+	 * @param b - String[] object representing the second Transition.
+	 * @return - Returns an int value which is negative, zero or positive as the first Transition comes before, with or after the second.
+	 */
+
+	private static int compareTransitions(String[] a, String[] b) {
+		for(int i = 0; i < 3; i++) {
+			int c = a[i].compareTo(b[i]);
+			if(c != 0)
+				return c;
+		}
+		return 0;
+	}
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * This class holds everything a single thread has added to the builder, so that it can be
+	 * written without synchronization.
+	 */
+
+	private static class Buffer {
+		/** ArrayList<<r>String> objects holding the names of the States added, and of those given each attribute.*/
+		private ArrayList<String> states = new ArrayList<String>(), initial = new ArrayList<String>(),
+				marked = new ArrayList<String>(), secret = new ArrayList<String>(), bad = new ArrayList<String>();
+		/** ArrayList<<r>String[]> objects holding the Transitions added, as (State, Event, State) names.*/
+		private ArrayList<String[]> transitions = new ArrayList<String[]>(), mustTransitions = new ArrayList<String[]>();
+	}
+
+}
@@ -0,0 +1,963 @@
+package fsm;
+
+import support.transition.ModalTransition;
+import support.transition.Transition;
+import support.StronglyConnectedComponents;
+import support.PersistentArray;
+import support.PersistentMap;
+import support.StateSpaceExplorer;
+import support.Event;
+import support.State;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.*;
+
+/**
+ * This class is an immutable, compact snapshot of a TransitionSystem, made by TransitionSystem.freeze(). A
+ * TransitionSystem is shared between the GUI, its viewports and the operations run on it, and some operations
+ * change it while they work, so analyses could not safely run at the same time as each other or as an edit. A
+ * snapshot copies everything it needs when it is made and can never change afterwards, so any number of threads
+ * may read it at once without locking, and later edits to the TransitionSystem do not affect it.
+ *
+ * Snapshots are persistent: "changing" one (with withState, withTransition and so on) makes a new snapshot and
+ * leaves the old one as it was. The States are held in a PersistentArray, each with its own sorted row of
+ * Transitions, so a new snapshot copies only the rows it changes and a few nodes of the array, sharing everything
+ * else with the old one. Copying a snapshot is free, and many variants of one transition system which differ in a
+ * few States cost little more memory than one; thaw() turns any of them back into an ordinary TransitionSystem.
+ * Only snapshots share structure this way: a mutable TransitionSystem, its copy constructors, copyStates,
+ * copyTransitions and getUnderlyingFSM still copy everything.
+ *
+ * A snapshot of a ModalSpecification also records its must Transitions, including those with no may Transition,
+ * and thaw restores them when it makes a ModalSpecification.
+ *
+ * States and Events are numbered in order of name when the snapshot is made, and those added afterwards are
+ * numbered after them in the order they are added. Each State's Transitions are numbered from 0 and sorted by Event
+ * and then by target State.
+ *
+ * Read-only analyses accept snapshots directly (see OpacityVerifier and StronglyConnectedComponents), and a snapshot
+ * answers reachability and blocking queries itself without marking anything as bad: getAccessibleStates,
+ * getCoAccessibleStates, isBlocking, getStronglyConnectedComponents, and makeAccessible, makeCoAccessible and trim,
+ * which return snapshots. The other operations (products, parallel composition, observers, getUnderlyingFSM and the
+ * UStructure) still take a TransitionSystem, which thaw() makes from a snapshot.
+ *
+ * This class is a part of the fsm package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public final class TransitionSystemSnapshot {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** String object representing the id of the TransitionSystem this snapshot was made from.*/
+	private final String id;
+	/** PersistentArray<<r>Row> object holding each State, with its attributes and Transitions, at its number.*/
+	private final PersistentArray<Row> states;
+	/** HashMap<<r>String, Integer> object mapping the name of each State in the original snapshot to its number; shared by every version.*/
+	private final HashMap<String, Integer> stateIndex;
+	/** PersistentMap<<r>String, Integer> object mapping the name of each State added since the original snapshot to its number.*/
+	private final PersistentMap<String, Integer> addedStateIndex;
+	/** String[] object holding the name of each Event, in order.*/
+	private final String[] eventNames;
+	/** HashMap<<r>String, Integer> object mapping each Event's name to its number.*/
+	private final HashMap<String, Integer> eventIndex;
+	/** BitSet objects holding the numbers of the observable, controllable and attacker-observable Events.*/
+	private final BitSet observable, controllable, attackerObservable;
+	/** int value representing the total number of Transitions.*/
+	private final int transitionCount;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a TransitionSystemSnapshot object which copies the provided TransitionSystem.
+	 *
+	 * @param ts - TransitionSystem object to take a snapshot of.
+	 */
+
+	<T extends Transition> TransitionSystemSnapshot(TransitionSystem<T> ts) {
+		id = ts.getId();
+
+		ArrayList<State> sorted = new ArrayList<State>(ts.getStates());
+		Collections.sort(sorted);
+		stateIndex = new HashMap<String, Integer>();
+		addedStateIndex = PersistentMap.empty();
+		for(int i = 0; i < sorted.size(); i++)
+			stateIndex.put(sorted.get(i).getStateName(), i);
+		HashSet<String> initial = new HashSet<String>();
+		for(State s : ts.getInitialStates())
+			if(s != null)
+				initial.add(s.getStateName());
+
+		ArrayList<Event> events = new ArrayList<Event>(ts.getEvents());
+		events.sort((a, b) -> a.getEventName().compareTo(b.getEventName()));
+		eventNames = new String[events.size()];
+		eventIndex = new HashMap<String, Integer>();
+		observable = new BitSet(events.size());
+		controllable = new BitSet(events.size());
+		attackerObservable = new BitSet(events.size());
+		for(int e = 0; e < events.size(); e++) {
+			Event event = events.get(e);
+			eventNames[e] = event.getEventName();
+			eventIndex.put(eventNames[e], e);
+			observable.set(e, event.getEventObservability());
+			controllable.set(e, event.getEventControllability());
+			attackerObservable.set(e, event.getEventAttackerObservability());
+		}
+
+		// Gather each State's (Event, target) pairs, sorted, as packed longs
+		ModalSpecification modal = ts instanceof ModalSpecification ? (ModalSpecification)ts : null;
+		Row[] rows = new Row[sorted.size()];
+		int count = 0;
+		for(int i = 0; i < rows.length; i++) {
+			State s = sorted.get(i);
+			ArrayList<Long> pairs = new ArrayList<Long>();
+			for(T t : ts.getTransitions().getTransitions(s)) {
+				Integer e = eventIndex.get(t.getTransitionEvent().getEventName());
+				for(State to : t.getTransitionStates()) {
+					Integer j = stateIndex.get(to.getStateName());
+					if(e != null && j != null)
+						pairs.add(pack(e, j));
+				}
+			} // for every transition
+			long[] packed = new long[pairs.size()];
+			for(int k = 0; k < packed.length; k++)
+				packed[k] = pairs.get(k);
+			Arrays.sort(packed);
+			long[] must = new long[0];
+			if(modal != null) {
+				ArrayList<ModalTransition> mustTransitions = modal.getMustTransitions(s);
+				must = new long[mustTransitions.size()];
+				for(int k = 0; k < must.length; k++)
+					must[k] = pack(eventIndex.get(mustTransitions.get(k).getTransitionEvent().getEventName()), stateIndex.get(mustTransitions.get(k).getTransitionState().getStateName()));
+				Arrays.sort(must);
+			}
+			rows[i] = new Row(s.getStateName(), initial.contains(s.getStateName()), s.getStateMarked(), s.getStatePrivate(), s.getStateBad(), packed, must);
+			count += packed.length;
+		}
+		states = PersistentArray.of(rows);
+		transitionCount = count;
+	}
+
+	/**
+	 * Constructor for a TransitionSystemSnapshot object which reuses the Events of another version.
+	 *
+	 * @param old - TransitionSystemSnapshot object whose id and Events are reused.
+	 * @param inStates - PersistentArray<<r>Row> object holding the States.
+	 * @param inAddedStateIndex - PersistentMap<<r>String, Integer> object mapping the names of States added since the original snapshot.
+	 * @param inTransitionCount - int value representing the total number of Transitions.
+	 */
+
+	private TransitionSystemSnapshot(TransitionSystemSnapshot old, PersistentArray<Row> inStates, PersistentMap<String, Integer> inAddedStateIndex, int inTransitionCount) {
+		this(old, inStates, inAddedStateIndex, old.eventNames, old.eventIndex, old.observable, old.controllable, old.attackerObservable, inTransitionCount);
+	}
+
+	/**
+	 * Constructor for a TransitionSystemSnapshot object which reuses the id and original State index of another version.
+	 *
+	 * @param old - TransitionSystemSnapshot object whose id and original State index are reused.
+	 * @param inStates - PersistentArray<<r>Row> object holding the States.
+	 * @param inAddedStateIndex - PersistentMap<<r>String, Integer> object mapping the names of States added since the original snapshot.
+	 * @param inEventNames - String[] object holding the name of each Event.
+	 * @param inEventIndex - HashMap<<r>String, Integer> object mapping each Event's name to its number.
+	 * @param inObservable - BitSet object holding the numbers of the observable Events.
+	 * @param inControllable - BitSet object holding the numbers of the controllable Events.
+	 * @param inAttackerObservable - BitSet object holding the numbers of the attacker-observable Events.
+	 * @param inTransitionCount - int value representing the total number of Transitions.
+	 */
+
+	private TransitionSystemSnapshot(TransitionSystemSnapshot old, PersistentArray<Row> inStates, PersistentMap<String, Integer> inAddedStateIndex, String[] inEventNames,
+			HashMap<String, Integer> inEventIndex, BitSet inObservable, BitSet inControllable, BitSet inAttackerObservable, int inTransitionCount) {
+		id = old.id;
+		states = inStates;
+		stateIndex = old.stateIndex;
+		addedStateIndex = inAddedStateIndex;
+		eventNames = inEventNames;
+		eventIndex = inEventIndex;
+		observable = inObservable;
+		controllable = inControllable;
+		attackerObservable = inAttackerObservable;
+		transitionCount = inTransitionCount;
+	}
+
+	/**
+	 * Constructor for a TransitionSystemSnapshot object holding some of the States of another version, renumbered
+	 * in order, with its id and Events.
+	 *
+	 * @param old - TransitionSystemSnapshot object whose id and Events are reused.
+	 * @param rows - Row[] object holding the kept States, in their new order.
+	 * @param inStateIndex - HashMap<<r>String, Integer> object mapping the name of each kept State to its new number.
+	 * @param inTransitionCount - int value representing the total number of Transitions.
+	 */
+
+	private TransitionSystemSnapshot(TransitionSystemSnapshot old, Row[] rows, HashMap<String, Integer> inStateIndex, int inTransitionCount) {
+		id = old.id;
+		states = PersistentArray.of(rows);
+		stateIndex = inStateIndex;
+		addedStateIndex = PersistentMap.empty();
+		eventNames = old.eventNames;
+		eventIndex = old.eventIndex;
+		observable = old.observable;
+		controllable = old.controllable;
+		attackerObservable = old.attackerObservable;
+		transitionCount = inTransitionCount;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method makes a new transition system holding the States, Events and Transitions of the snapshot.
+	 * If it is a ModalSpecification, the must Transitions are restored as well, including those with no
+	 * may Transition; other transition systems have no place for them, so they are left out.
+	 *
+	 * @param factory - Supplier<<r>TS> object which makes an empty transition system of the desired type, such as DetObsContFSM::new.
+	 * @return - Returns a TS object holding a copy of the snapshot.
+	 */
+
+	public <TS extends TransitionSystem<?>> TS thaw(Supplier<TS> factory) {
+		TS ts = factory.get();
+		ts.setId(id);
+		for(int i = 0; i < states.size(); i++) {
+			Row row = states.get(i);
+			State s = ts.addState(row.name);
+			s.setStateMarked(row.marked);
+			s.setStatePrivate(row.secret);
+			s.setStateBad(row.bad);
+			if(row.initial)
+				ts.addInitialState(row.name);
+		}
+		for(int e = 0; e < eventNames.length; e++) {
+			Event event = ts.getEventMap().addEvent(eventNames[e]);
+			event.setEventObservability(observable.get(e));
+			event.setEventControllability(controllable.get(e));
+			event.setEventAttackerObservability(attackerObservable.get(e));
+		}
+		String[] states1 = new String[transitionCount], events = new String[transitionCount], states2 = new String[transitionCount];
+		int k = 0;
+		for(int i = 0; i < states.size(); i++) {
+			Row row = states.get(i);
+			for(long pair : row.transitions) {
+				states1[k] = row.name;
+				events[k] = eventNames[(int)(pair >>> 32)];
+				states2[k++] = states.get((int)pair).name;
+			}
+		}
+		ts.addTransitions(states1, events, states2);
+		if(ts instanceof ModalSpecification) {
+			ModalSpecification modal = (ModalSpecification)ts;
+			for(int i = 0; i < states.size(); i++) {
+				Row row = states.get(i);
+				for(long pair : row.must)
+					modal.setMustTransition(modal.getState(row.name), modal.getEvent(eventNames[(int)(pair >>> 32)]), modal.getState(states.get((int)pair).name));
+			}
+		}
+		return ts;
+	} // thaw(Supplier<TS>)
+
+	/**
+	 * This method finds the States which can be reached from an initial State. Since the snapshot cannot change,
+	 * the States are explored in parallel by a pool of threads, each reading the snapshot without locking.
+	 *
+	 * @return - Returns a BitSet object holding the numbers of the accessible States.
+	 */
+
+	public BitSet getAccessibleStates() {
+		Set<Object> visited = ConcurrentHashMap.newKeySet();
+		ArrayList<Integer> roots = new ArrayList<Integer>();
+		for(int i : getInitialStates())
+			roots.add(i);
+		new StateSpaceExplorer<Integer>((curr, next) -> {
+			for(long pair : states.get(curr).transitions)
+				next.accept((int)pair);
+		}).setOrder(StateSpaceExplorer.Order.PARALLEL).setVisitedBackend(() -> visited).explore(roots);
+		BitSet accessible = new BitSet(states.size());
+		for(Object i : visited)
+			accessible.set((Integer)i);
+		return accessible;
+	} // getAccessibleStates()
+
+	/**
+	 * This method finds the States which can reach a marked State, working backwards from the marked
+	 * States over reversed Transitions. Nothing is changed, unlike TransitionSystem.isBlocking().
+	 *
+	 * @return - Returns a BitSet object holding the numbers of the coaccessible States.
+	 */
+
+	public BitSet getCoAccessibleStates() {
+		int n = states.size();
+		Row[] rows = new Row[n];
+		for(int i = 0; i < n; i++)
+			rows[i] = states.get(i);
+		// Reverse the transitions, in compressed sparse rows
+		int[] reverseOffsets = new int[n + 1];
+		for(Row row : rows)
+			for(long pair : row.transitions)
+				reverseOffsets[(int)pair + 1]++;
+		for(int i = 0; i < n; i++)
+			reverseOffsets[i + 1] += reverseOffsets[i];
+		int[] fill = Arrays.copyOf(reverseOffsets, n);
+		int[] sources = new int[transitionCount];
+		for(int i = 0; i < n; i++)
+			for(long pair : rows[i].transitions)
+				sources[fill[(int)pair]++] = i;
+
+		BitSet coaccessible = new BitSet(n);
+		int[] queue = new int[n];
+		int head = 0, tail = 0;
+		for(int i = 0; i < n; i++) {
+			if(rows[i].marked) {
+				coaccessible.set(i);
+				queue[tail++] = i;
+			}
+		}
+		while(head < tail) {
+			int curr = queue[head++];
+			for(int r = reverseOffsets[curr]; r < reverseOffsets[curr + 1]; r++) {
+				if(!coaccessible.get(sources[r])) {
+					coaccessible.set(sources[r]);
+					queue[tail++] = sources[r];
+				}
+			}
+		} // while there are states to work back from
+		return coaccessible;
+	} // getCoAccessibleStates()
+
+	/**
+	 * This method checks if the transition system was blocking, that is, if some State cannot reach a marked State.
+	 *
+	 * @return - Returns true if some State cannot reach a marked State, false otherwise.
+	 */
+
+	public boolean isBlocking() {
+		return getCoAccessibleStates().cardinality() < states.size();
+	}
+
+	/**
+	 * This method finds the strongly connected components of the snapshot, following only those Transitions
+	 * whose Event passes the filter. The States of the components are copies made by getState(int).
+	 *
+	 * @param eventFilter - Predicate<<r>Event> object which accepts the Events to follow, or null to follow all Events.
+	 * @return - Returns a StronglyConnectedComponents object holding the decomposition of the snapshot.
+	 */
+
+	public StronglyConnectedComponents getStronglyConnectedComponents(Predicate<Event> eventFilter) {
+		int n = states.size();
+		boolean[] follow = new boolean[eventNames.length];
+		for(int e = 0; e < follow.length; e++)
+			follow[e] = eventFilter == null || eventFilter.test(getEvent(e));
+		State[] indexed = new State[n];
+		int[][] adjacency = new int[n][];
+		for(int i = 0; i < n; i++) {
+			indexed[i] = getState(i);
+			long[] pairs = states.get(i).transitions;
+			int size = 0;
+			int[] out = new int[pairs.length];
+			for(long pair : pairs)
+				if(follow[(int)(pair >>> 32)])
+					out[size++] = (int)pair;
+			adjacency[i] = Arrays.copyOf(out, size);
+		}
+		return new StronglyConnectedComponents(indexed, adjacency);
+	} // getStronglyConnectedComponents(Predicate<Event>)
+
+	/**
+	 * This method makes a snapshot holding only the States which can be reached from an initial State,
+	 * with the Transitions between them. The snapshot keeps all of its Events, even those no longer used.
+	 *
+	 * @return - Returns a new TransitionSystemSnapshot object representing the accessible part of this one.
+	 */
+
+	public TransitionSystemSnapshot makeAccessible() {
+		return restrict(getAccessibleStates());
+	}
+
+	/**
+	 * This method makes a snapshot holding only the States which can reach a marked State, with the
+	 * Transitions between them. The snapshot keeps all of its Events, even those no longer used.
+	 *
+	 * @return - Returns a new TransitionSystemSnapshot object representing the coaccessible part of this one.
+	 */
+
+	public TransitionSystemSnapshot makeCoAccessible() {
+		return restrict(getCoAccessibleStates());
+	}
+
+	/**
+	 * This method makes a snapshot holding only the States which can be reached from an initial State and
+	 * can reach a marked State, as TransitionSystem.trim() does.
+	 *
+	 * @return - Returns a new TransitionSystemSnapshot object representing the trimmed version of this one.
+	 */
+
+	public TransitionSystemSnapshot trim() {
+		return makeAccessible().makeCoAccessible();
+	}
+
+//---  Versions   -----------------------------------------------------------------------------
+
+	/**
+	 * This method makes a version of the snapshot holding a State with the given name, adding it if there
+	 * is none yet. The new State has no attributes or Transitions.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 * @return - Returns the new TransitionSystemSnapshot object, or this one if the State already exists.
+	 */
+
+	public TransitionSystemSnapshot withState(String stateName) {
+		if(getStateIndex(stateName) != -1)
+			return this;
+		return new TransitionSystemSnapshot(this, states.add(new Row(stateName, false, false, false, false, new long[0], new long[0])), addedStateIndex.put(stateName, states.size()), transitionCount);
+	}
+
+	/**
+	 * This method makes a version of the snapshot in which a State is initial or not, adding the State if needed.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 * @param status - boolean value representing whether the State is initial.
+	 * @return - Returns the new TransitionSystemSnapshot object.
+	 */
+
+	public TransitionSystemSnapshot withStateInitial(String stateName, boolean status) {
+		TransitionSystemSnapshot out = withState(stateName);
+		int i = out.getStateIndex(stateName);
+		Row r = out.states.get(i);
+		return out.withRow(i, new Row(r.name, status, r.marked, r.secret, r.bad, r.transitions, r.must));
+	}
+
+	/**
+	 * This method makes a version of the snapshot in which a State is marked or not, adding the State if needed.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 * @param status - boolean value representing whether the State is marked.
+	 * @return - Returns the new TransitionSystemSnapshot object.
+	 */
+
+	public TransitionSystemSnapshot withStateMarked(String stateName, boolean status) {
+		TransitionSystemSnapshot out = withState(stateName);
+		int i = out.getStateIndex(stateName);
+		Row r = out.states.get(i);
+		return out.withRow(i, new Row(r.name, r.initial, status, r.secret, r.bad, r.transitions, r.must));
+	}
+
+	/**
+	 * This method makes a version of the snapshot in which a State is private (secret) or not, adding the State if needed.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 * @param status - boolean value representing whether the State is private.
+	 * @return - Returns the new TransitionSystemSnapshot object.
+	 */
+
+	public TransitionSystemSnapshot withStatePrivate(String stateName, boolean status) {
+		TransitionSystemSnapshot out = withState(stateName);
+		int i = out.getStateIndex(stateName);
+		Row r = out.states.get(i);
+		return out.withRow(i, new Row(r.name, r.initial, r.marked, status, r.bad, r.transitions, r.must));
+	}
+
+	/**
+	 * This method makes a version of the snapshot in which a State is bad or not, adding the State if needed.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 * @param status - boolean value representing whether the State is bad.
+	 * @return - Returns the new TransitionSystemSnapshot object.
+	 */
+
+	public TransitionSystemSnapshot withStateBad(String stateName, boolean status) {
+		TransitionSystemSnapshot out = withState(stateName);
+		int i = out.getStateIndex(stateName);
+		Row r = out.states.get(i);
+		return out.withRow(i, new Row(r.name, r.initial, r.marked, r.secret, status, r.transitions, r.must));
+	}
+
+	/**
+	 * This method makes a version of the snapshot holding an Event with the given name and attributes,
+	 * adding it if there is none yet. Since Events are few, their table is copied rather than shared.
+	 *
+	 * @param eventName - String object representing the name of the Event.
+	 * @param cont - boolean value representing whether the Event is controllable.
+	 * @param obs - boolean value representing whether the Event is observable.
+	 * @param atk - boolean value representing whether the Event is observable to the attacker.
+	 * @return - Returns the new TransitionSystemSnapshot object.
+	 */
+
+	public TransitionSystemSnapshot withEvent(String eventName, boolean cont, boolean obs, boolean atk) {
+		int e = getEventIndex(eventName);
+		String[] names = eventNames;
+		HashMap<String, Integer> index = eventIndex;
+		if(e == -1) {
+			e = eventNames.length;
+			names = Arrays.copyOf(eventNames, e + 1);
+			names[e] = eventName;
+			index = new HashMap<String, Integer>(eventIndex);
+			index.put(eventName, e);
+		}
+		BitSet newObservable = (BitSet)observable.clone();
+		BitSet newControllable = (BitSet)controllable.clone();
+		BitSet newAttackerObservable = (BitSet)attackerObservable.clone();
+		newObservable.set(e, obs);
+		newControllable.set(e, cont);
+		newAttackerObservable.set(e, atk);
+		return new TransitionSystemSnapshot(this, states, addedStateIndex, names, index, newObservable, newControllable, newAttackerObservable, transitionCount);
+	}
+
+	/**
+	 * This method makes a version of the snapshot with a Transition between two States by an Event, adding
+	 * the States and Event if needed (a new Event is controllable and observable to all). Only the row of the
+	 * State the Transition leaves is copied.
+	 *
+	 * @param state1 - String object representing the name of the State the Transition leaves.
+	 * @param eventName - String object representing the name of the Event.
+	 * @param state2 - String object representing the name of the State the Transition leads to.
+	 * @return - Returns the new TransitionSystemSnapshot object, or an equal one if the Transition already exists.
+	 */
+
+	public TransitionSystemSnapshot withTransition(String state1, String eventName, String state2) {
+		TransitionSystemSnapshot out = withState(state1).withState(state2);
+		if(out.getEventIndex(eventName) == -1)
+			out = out.withEvent(eventName, true, true, true);
+		int i = out.getStateIndex(state1);
+		Row r = out.states.get(i);
+		long pair = pack(out.getEventIndex(eventName), out.getStateIndex(state2));
+		int at = Arrays.binarySearch(r.transitions, pair);
+		if(at >= 0)
+			return out;
+		at = -at - 1;
+		long[] pairs = new long[r.transitions.length + 1];
+		System.arraycopy(r.transitions, 0, pairs, 0, at);
+		pairs[at] = pair;
+		System.arraycopy(r.transitions, at, pairs, at + 1, r.transitions.length - at);
+		return new TransitionSystemSnapshot(out, out.states.set(i, new Row(r.name, r.initial, r.marked, r.secret, r.bad, pairs, r.must)), out.addedStateIndex, out.transitionCount + 1);
+	}
+
+	/**
+	 * This method makes a version of the snapshot without the Transition between two States by an Event. As
+	 * in ModalSpecification.removeTransition, a must Transition between them is removed too.
+	 *
+	 * @param state1 - String object representing the name of the State the Transition leaves.
+	 * @param eventName - String object representing the name of the Event.
+	 * @param state2 - String object representing the name of the State the Transition leads to.
+	 * @return - Returns the new TransitionSystemSnapshot object, or this one if there is no such Transition.
+	 */
+
+	public TransitionSystemSnapshot withoutTransition(String state1, String eventName, String state2) {
+		int i = getStateIndex(state1), e = getEventIndex(eventName), j = getStateIndex(state2);
+		if(i == -1 || e == -1 || j == -1)
+			return this;
+		Row r = states.get(i);
+		long[] pairs = remove(r.transitions, pack(e, j));
+		long[] must = remove(r.must, pack(e, j));
+		if(pairs == r.transitions && must == r.must)
+			return this;
+		return new TransitionSystemSnapshot(this, states.set(i, new Row(r.name, r.initial, r.marked, r.secret, r.bad, pairs, must)), addedStateIndex, transitionCount - r.transitions.length + pairs.length);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the id of the TransitionSystem this snapshot was made from.
+	 *
+	 * @return - Returns a String object representing the id.
+	 */
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Getter method that returns the number of States.
+	 *
+	 * @return - Returns an int value representing the number of States.
+	 */
+
+	public int getStateCount() {
+		return states.size();
+	}
+
+	/**
+	 * Getter method that returns the name of a State.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @return - Returns a String object representing the name of the State.
+	 */
+
+	public String getStateName(int state) {
+		return states.get(state).name;
+	}
+
+	/**
+	 * Getter method that returns the number of the State with the given name.
+	 *
+	 * @param stateName - String object representing the name of the State.
+	 * @return - Returns an int value representing the number of the State, or -1 if there is no such State.
+	 */
+
+	public int getStateIndex(String stateName) {
+		Integer i = stateIndex.get(stateName);
+		if(i == null)
+			i = addedStateIndex.get(stateName);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * Getter method that returns a new State object with the name and attributes of a State. Changing
+	 * it does not change the snapshot.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @return - Returns a new State object copying the State.
+	 */
+
+	public State getState(int state) {
+		Row r = states.get(state);
+		State copy = new State(r.name);
+		copy.setStateInitial(r.initial);
+		copy.setStateMarked(r.marked);
+		copy.setStatePrivate(r.secret);
+		copy.setStateBad(r.bad);
+		return copy;
+	}
+
+	/**
+	 * Getter method that returns the numbers of the initial States.
+	 *
+	 * @return - Returns an int[] object holding the numbers of the initial States, in increasing order.
+	 */
+
+	public int[] getInitialStates() {
+		int[] initial = new int[states.size()];
+		int size = 0;
+		for(int i = 0; i < states.size(); i++)
+			if(states.get(i).initial)
+				initial[size++] = i;
+		return Arrays.copyOf(initial, size);
+	}
+
+	/**
+	 * Getter method that returns whether a State is initial.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @return - Returns true if the State is initial, false otherwise.
+	 */
+
+	public boolean isInitial(int state) {
+		return states.get(state).initial;
+	}
+
+	/**
+	 * Getter method that returns whether a State is marked.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @return - Returns true if the State is marked, false otherwise.
+	 */
+
+	public boolean isMarked(int state) {
+		return states.get(state).marked;
+	}
+
+	/**
+	 * Getter method that returns whether a State is private (secret).
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @return - Returns true if the State is private, false otherwise.
+	 */
+
+	public boolean isPrivate(int state) {
+		return states.get(state).secret;
+	}
+
+	/**
+	 * Getter method that returns whether a State is bad.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @return - Returns true if the State is bad, false otherwise.
+	 */
+
+	public boolean isBad(int state) {
+		return states.get(state).bad;
+	}
+
+	/**
+	 * Getter method that returns the number of Events.
+	 *
+	 * @return - Returns an int value representing the number of Events.
+	 */
+
+	public int getEventCount() {
+		return eventNames.length;
+	}
+
+	/**
+	 * Getter method that returns the name of an Event.
+	 *
+	 * @param event - int value representing the number of the Event.
+	 * @return - Returns a String object representing the name of the Event.
+	 */
+
+	public String getEventName(int event) {
+		return eventNames[event];
+	}
+
+	/**
+	 * Getter method that returns the number of the Event with the given name.
+	 *
+	 * @param eventName - String object representing the name of the Event.
+	 * @return - Returns an int value representing the number of the Event, or -1 if there is no such Event.
+	 */
+
+	public int getEventIndex(String eventName) {
+		Integer e = eventIndex.get(eventName);
+		return e == null ? -1 : e;
+	}
+
+	/**
+	 * Getter method that returns a new Event object with the name and attributes of an Event. Changing
+	 * it does not change the snapshot.
+	 *
+	 * @param event - int value representing the number of the Event.
+	 * @return - Returns a new Event object copying the Event.
+	 */
+
+	public Event getEvent(int event) {
+		return new Event(eventNames[event], controllable.get(event), observable.get(event), attackerObservable.get(event));
+	}
+
+	/**
+	 * Getter method that returns whether an Event is observable.
+	 *
+	 * @param event - int value representing the number of the Event.
+	 * @return - Returns true if the Event is observable, false otherwise.
+	 */
+
+	public boolean isObservable(int event) {
+		return observable.get(event);
+	}
+
+	/**
+	 * Getter method that returns whether an Event is controllable.
+	 *
+	 * @param event - int value representing the number of the Event.
+	 * @return - Returns true if the Event is controllable, false otherwise.
+	 */
+
+	public boolean isControllable(int event) {
+		return controllable.get(event);
+	}
+
+	/**
+	 * Getter method that returns whether an Event is observable to the attacker.
+	 *
+	 * @param event - int value representing the number of the Event.
+	 * @return - Returns true if the Event is observable to the attacker, false otherwise.
+	 */
+
+	public boolean isAttackerObservable(int event) {
+		return attackerObservable.get(event);
+	}
+
+	/**
+	 * Getter method that returns the total number of Transitions, counting each target State separately.
+	 *
+	 * @return - Returns an int value representing the number of Transitions.
+	 */
+
+	public int getTransitionCount() {
+		return transitionCount;
+	}
+
+	/**
+	 * Getter method that returns the number of Transitions leaving a State, counting each target State separately.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @return - Returns an int value representing the number of the State's Transitions.
+	 */
+
+	public int getTransitionCount(int state) {
+		return states.get(state).transitions.length;
+	}
+
+	/**
+	 * Getter method that returns the Event of one of a State's Transitions.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @param transition - int value representing the number of the Transition among the State's Transitions.
+	 * @return - Returns an int value representing the number of the Transition's Event.
+	 */
+
+	public int getTransitionEvent(int state, int transition) {
+		return (int)(states.get(state).transitions[transition] >>> 32);
+	}
+
+	/**
+	 * Getter method that returns the target State of one of a State's Transitions.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @param transition - int value representing the number of the Transition among the State's Transitions.
+	 * @return - Returns an int value representing the number of the Transition's target State.
+	 */
+
+	public int getTransitionTarget(int state, int transition) {
+		return (int)states.get(state).transitions[transition];
+	}
+
+	/**
+	 * Getter method that returns whether the snapshot of a ModalSpecification requires a Transition; a must
+	 * Transition need not be among the State's Transitions, if it has no may Transition.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @param event - int value representing the number of the Event.
+	 * @param target - int value representing the number of the target State.
+	 * @return - Returns true if the Transition is a must Transition, false otherwise.
+	 */
+
+	public boolean isMustTransition(int state, int event, int target) {
+		return Arrays.binarySearch(states.get(state).must, pack(event, target)) >= 0;
+	}
+
+	/**
+	 * Getter method that returns the States a State leads to by an Event.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @param event - int value representing the number of the Event.
+	 * @return - Returns an int[] object holding the numbers of the target States, in increasing order.
+	 */
+
+	public int[] getSuccessors(int state, int event) {
+		long[] pairs = states.get(state).transitions;
+		if(event < 0)
+			return new int[0];
+		int from = Arrays.binarySearch(pairs, pack(event, 0));
+		if(from < 0)
+			from = -from - 1;
+		int to = from;
+		while(to < pairs.length && (int)(pairs[to] >>> 32) == event)
+			to++;
+		int[] out = new int[to - from];
+		for(int k = from; k < to; k++)
+			out[k - from] = (int)pairs[k];
+		return out;
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that makes a snapshot holding only some of the States, renumbered in order, dropping
+	 * every Transition which leaves or enters a State not kept. Since the kept States stay in the same
+	 * order, each row stays sorted.
+	 *
+	 * @param keep - BitSet object holding the numbers of the States to keep.
+	 * @return - Returns the new TransitionSystemSnapshot object.
+	 */
+
+	private TransitionSystemSnapshot restrict(BitSet keep) {
+		int[] renumber = new int[states.size()];
+		Row[] rows = new Row[keep.cardinality()];
+		HashMap<String, Integer> index = new HashMap<String, Integer>();
+		int next = 0;
+		for(int i = keep.nextSetBit(0); i >= 0; i = keep.nextSetBit(i + 1)) {
+			renumber[i] = next;
+			index.put(states.get(i).name, next++);
+		}
+		int count = 0;
+		next = 0;
+		for(int i = keep.nextSetBit(0); i >= 0; i = keep.nextSetBit(i + 1)) {
+			Row r = states.get(i);
+			long[] pairs = new long[r.transitions.length];
+			int size = 0;
+			for(long pair : r.transitions)
+				if(keep.get((int)pair))
+					pairs[size++] = pack((int)(pair >>> 32), renumber[(int)pair]);
+			long[] must = new long[r.must.length];
+			int mustSize = 0;
+			for(long pair : r.must)
+				if(keep.get((int)pair))
+					must[mustSize++] = pack((int)(pair >>> 32), renumber[(int)pair]);
+			rows[next++] = new Row(r.name, r.initial, r.marked, r.secret, r.bad, Arrays.copyOf(pairs, size), Arrays.copyOf(must, mustSize));
+			count += size;
+		}
+		return new TransitionSystemSnapshot(this, rows, index, count);
+	} // restrict(BitSet)
+
+	/**
+	 * Helper method that makes a version of the snapshot with one State's row replaced.
+	 *
+	 * @param state - int value representing the number of the State.
+	 * @param row - Row object representing the State's new row.
+	 * @return - Returns the new TransitionSystemSnapshot object.
+	 */
+
+	private TransitionSystemSnapshot withRow(int state, Row row) {
+		return new TransitionSystemSnapshot(this, states.set(state, row), addedStateIndex, transitionCount);
+	}
+
+	/**
+	 * Helper method that makes a copy of a sorted row of packed pairs without one of them.
+	 *
+	 * @param pairs - long[] object holding the packed pairs, in increasing order.
+	 * @param pair - long value representing the packed pair to leave out.
+	 * @return - Returns a long[] object holding the other pairs, or the same object if the pair is not among them.
+	 */
+
+	private static long[] remove(long[] pairs, long pair) {
+		int at = Arrays.binarySearch(pairs, pair);
+		if(at < 0)
+			return pairs;
+		long[] out = new long[pairs.length - 1];
+		System.arraycopy(pairs, 0, out, 0, at);
+		System.arraycopy(pairs, at + 1, out, at, out.length - at);
+		return out;
+	}
+
+	/**
+	 * Helper method that packs a Transition's Event and target State into one long, so that the pairs
+	 * sort by Event and then by target State.
+	 *
+	 * @param event - int value representing the number of the Event.
+	 * @param target - int value representing the number of the target State.
+	 * @return - Returns a long value holding both numbers.
+	 */
+
+	private static long pack(int event, int target) {
+		return ((long)event << 32) | target;
+	}
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * This class holds one State of a snapshot: its name, its attributes, and its Transitions (and must
+	 * Transitions) as sorted, packed (Event, target State) pairs. A Row is never changed once made, so it may be
+	 * shared by any number of versions of a snapshot.
+	 */
+
+	private static final class Row {
+		/** String object representing the name of the State.*/
+		private final String name;
+		/** boolean values representing whether the State is initial, marked, private and bad.*/
+		private final boolean initial, marked, secret, bad;
+		/** long[] object holding the State's Transitions, as packed (Event, target State) pairs in increasing order.*/
+		private final long[] transitions;
+		/** long[] object holding the State's must Transitions, packed and sorted in the same way; empty unless the snapshot is of a ModalSpecification.*/
+		private final long[] must;
+
+		/**
+		 * Constructor for a Row object.
+		 *
+		 * @param inName - String object representing the name of the State.
+		 * @param inInitial - boolean value representing whether the State is initial.
+		 * @param inMarked - boolean value representing whether the State is marked.
+		 * @param inSecret - boolean value representing whether the State is private.
+		 * @param inBad - boolean value representing whether the State is bad.
+		 * @param inTransitions - long[] object holding the State's packed Transitions, sorted; it must not be changed afterwards.
+		 * @param inMust - long[] object holding the State's packed must Transitions, sorted; it must not be changed afterwards.
+		 */
+
+		Row(String inName, boolean inInitial, boolean inMarked, boolean inSecret, boolean inBad, long[] inTransitions, long[] inMust) {
+			name = inName;
+			initial = inInitial;
+			marked = inMarked;
+			secret = inSecret;
+			bad = inBad;
+			transitions = inTransitions;
+			must = inMust;
+		}
+	}
+
+}
@@ -7,6 +7,7 @@ import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import javafx.stage.*;
 import java.io.File;
 import fsm.*;
@@ -50,6 +51,8 @@ public class Model {
 	private File workingDirectory;
 	/** String representing the path to the GraphViz configuration file. */
 	private String graphVizConfigPath;
+	/** HashMap mapping the id of each TS read from or saved to a text file to the journal of its edits since. */
+	private HashMap<String, EditJournal> journals;
 	
 //---  Constructors   -------------------------------------------------------------------------
 	
@@ -67,6 +70,7 @@ public class Model {
 		openTSStrings = inOpenTSStrings;
 		workingDirectory = inWorkingDirectory;
 		graphVizConfigPath = inGraphVizConfigPath;
+		journals = new HashMap<String, EditJournal>();
 		openTSTabs = new TabPane();
 		makeOpenTSStrings();
 		
@@ -217,6 +221,17 @@ public class Model {
 		return null;
 	} // getTS(String)
 	
+	/**
+	 * Gets the journal of the edits made to a TransitionSystem since it was read from or saved to a text file.
+	 * 
+	 * @param id - String object representing the id associated with an open TransitionSystem.
+	 * @return - Returns an EditJournal object, or null if the TransitionSystem has no text file.
+	 */
+	
+	public EditJournal getJournal(String id) {
+		return journals.get(id);
+	} // getJournal(String)
+	
 	/**
 	 * Checks if a TransitionSystem with a given id exists in the open TS list.
 	 * 
@@ -323,11 +338,48 @@ public class Model {
 			TransitionSystem<?> curr = openTSs.get(i);
 			if(curr.getId().equals(id)) {
 				openTSs.remove(i);
+				journals.remove(id);
 				return true;
 			} // if
 		} // for
 		return false;
 	} // removeTS(String)
+	
+	/**
+	 * Sets the journal recording the edits made to a TransitionSystem, once it has been read from or saved to a text file.
+	 * 
+	 * @param id - String object representing the id of the TransitionSystem.
+	 * @param journal - EditJournal object for the TransitionSystem's text file.
+	 */
+	
+	public void setJournal(String id, EditJournal journal) {
+		journals.put(id, journal);
+	} // setJournal(String, EditJournal)
+	
+	/**
+	 * Records an edit just made to the current TransitionSystem in its journal, if it has one, so that
+	 * saving it again only appends the edit to the journal.
+	 * 
+	 * @param operation - String object naming the edit, one of the EditJournal constants.
+	 * @param arguments - String[] object holding the edit's arguments.
+	 */
+	
+	public void recordEdit(String operation, String ... arguments) {
+		EditJournal journal = currTS == null ? null : journals.get(currTS.getId());
+		if(journal != null)
+			journal.record(operation, arguments);
+	} // recordEdit(String, String...)
+	
+	/**
+	 * Records that an edit which cannot be journalled was made to the current TransitionSystem, so that
+	 * saving it again rewrites its whole text file.
+	 */
+	
+	public void invalidateJournal() {
+		EditJournal journal = currTS == null ? null : journals.get(currTS.getId());
+		if(journal != null)
+			journal.invalidate();
+	} // invalidateJournal()
 
 //---  Viewport Facilitation   ----------------------------------------------------------------
 
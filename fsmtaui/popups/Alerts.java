@@ -72,6 +72,7 @@ public class Alerts {
 
 	public static final String[] ERROR_FILE_FORMAT = {"File Format Error", "The file you entered was not formatted correctly."};
 	public static final String[] ERROR_FILE_NOT_FOUND = {"File Not Found", "The file path you entered could not be found. Please try another path."};
+	public static final String[] ERROR_FILE_SAVE = {"File Save Error", "The FSM could not be saved to the file you chose."};
 	public static final String[] ERROR_NO_FSM_TYPE = {"No FSM Type", "No FSM type was selected. Please select a type and try again."};
 	public static final String[] ERROR_ILLEGAL_FSM_PARAMETERS = {"Illegal FSM Parameters", "All parameters for generating an FSM must be integers."};
 	
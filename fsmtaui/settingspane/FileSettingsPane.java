@@ -10,8 +10,10 @@ import support.transition.Transition;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.util.SplittableRandom;
 
 import javafx.collections.*;
 import javafx.scene.control.*;
@@ -189,6 +191,12 @@ public class FileSettingsPane extends VBox {
 						// Modal Specification
 						newFSM = new ModalSpecification(file, newFSMName);
 					}
+					// Edits saved to the file's journal since it was last written in full are replayed onto it
+					if(newFSM != null && file.getName().endsWith(EditJournal.getTextExtension(newFSM))) {
+						EditJournal journal = new EditJournal(file, newFSM);
+						journal.replay(newFSM);
+						model.setJournal(newFSMName, journal);
+					}
 					model.addTS(newFSM);
 					tsNameField.setText("");
 				} catch(FileNotFoundException exception) {
@@ -246,32 +254,26 @@ public class FileSettingsPane extends VBox {
 				GenerateFSMDialog dialog = new GenerateFSMDialog(tsClass); // pass boolean of whether the FSM is deterministic or not
 				GenerateFSMDialog.FSMParameters parameters = dialog.getFSMParametersFromUser();
 				if(parameters != null) {
-					File tsFile = new File(model.getWorkingDirectoryString() + "/");
-					tsFile.mkdir();
-					if(tsClass.equals(TS_TYPES.get(2))) {
-						// Modal specification
-						tsFile = new File(GenerateFSM.createModalSpec(
-								parameters.sizeStates, parameters.sizeMarked, parameters.sizeEvents,
-								parameters.sizeMay, parameters.sizeSecret, parameters.sizeUnobserv,
-								parameters.sizeAttacker, parameters.sizeUncontrol,
-								parameters.sizeMust, newTSName, model.getWorkingDirectoryString() + "/"));
-					} else {
-						tsFile = new File(GenerateFSM.createNewFSM(
-								parameters.sizeStates, parameters.sizeMarked, parameters.sizeEvents,
-								parameters.sizePaths, parameters.sizeInitial, parameters.sizeSecret,
-								parameters.sizeUnobserv, parameters.sizeAttacker, parameters.sizeUncontrol,
-								tsClass.equals("Deterministic"), newTSName, model.getWorkingDirectoryString() + "/"));
-					}
+					long seed = new SplittableRandom().nextLong();
 					// If deterministic
 					if(tsClass.equals(TS_TYPES.get(0)))
-						newTS = new DetObsContFSM(tsFile, newTSName);
+						newTS = GenerateFSM.buildDetObsContFSM(
+								parameters.sizeStates, parameters.sizeMarked, parameters.sizeEvents,
+								parameters.sizePaths, parameters.sizeSecret, parameters.sizeUnobserv,
+								parameters.sizeAttacker, parameters.sizeUncontrol, newTSName, seed);
 					// If nondeterministic
 					else	 if(tsClass.equals(TS_TYPES.get(1)))
-						newTS = new NonDetObsContFSM(tsFile, newTSName);
+						newTS = GenerateFSM.buildNonDetObsContFSM(
+								parameters.sizeStates, parameters.sizeMarked, parameters.sizeEvents,
+								parameters.sizePaths, parameters.sizeInitial, parameters.sizeSecret,
+								parameters.sizeUnobserv, parameters.sizeAttacker, parameters.sizeUncontrol, newTSName, seed);
 					// If modal specification
 					else
-						newTS = new ModalSpecification(tsFile, newTSName);
-					tsFile.delete();
+						newTS = GenerateFSM.buildModalSpec(
+								parameters.sizeStates, parameters.sizeMarked, parameters.sizeEvents,
+								parameters.sizeMay, parameters.sizeSecret, parameters.sizeUnobserv,
+								parameters.sizeAttacker, parameters.sizeUncontrol,
+								parameters.sizeMust, newTSName, seed);
 				} // if
 				if(newTS != null) {
 					model.addTS(newTS);
@@ -330,7 +332,19 @@ public class FileSettingsPane extends VBox {
 				Alerts.makeError(Alerts.ERROR_FILE_FORMAT);
 				return;
 			} // if
-			tsToSave.toTextFile(file.getParent(), file.getName());
+			// Saving again to the same file only appends the edits made since to its journal
+			File textFile = EditJournal.getTextFile(file.getParent(), file.getName(), tsToSave);
+			EditJournal journal = model.getJournal(tsId);
+			if(journal == null || !journal.getBaseFile().getAbsoluteFile().equals(textFile.getAbsoluteFile())) {
+				journal = new EditJournal(textFile, tsToSave);
+				model.setJournal(tsId, journal);
+			} // if
+			try {
+				journal.save(tsToSave);
+			} catch(IOException exception) {
+				exception.printStackTrace();
+				Alerts.makeError(Alerts.ERROR_FILE_SAVE);
+			} // try/catch
 		}); // setOnMouseClicked
 		
 		saveJPGBtn.setOnMouseClicked(e -> {
@@ -6,6 +6,7 @@ import javafx.scene.layout.*;
 import fsmtaui.popups.Alerts;
 import support.transition.*;
 import fsm.TransitionSystem;
+import fsm.EditJournal;
 import fsm.attribute.*;
 import fsmtaui.Model;
 
@@ -91,7 +92,9 @@ public class ModifyTSEventPropertiesPane extends VBox {
 					try {
 						Observability<?> currObs = (Observability<?>) model.getCurrTS();
 						// Toggle the observability of the event.
-						currObs.setEventObservability(event, !currObs.getEventObservability(event));
+						boolean observable = !currObs.getEventObservability(event);
+						currObs.setEventObservability(event, observable);
+						model.recordEdit(EditJournal.SET_OBSERVABLE, event, Boolean.toString(observable));
 						eventNameField.setText("");
 						eventNameField.requestFocus();
 						model.refreshViewport();
@@ -129,7 +132,9 @@ public class ModifyTSEventPropertiesPane extends VBox {
 					try {
 						Observability<?> currObs = (Observability<?>) model.getCurrTS();
 						// Toggle the observability of the event.
-						currObs.setEventAttackerObservability(event, !currObs.getEventObservability(event));
+						boolean attackerObservable = !currObs.getEventObservability(event);
+						currObs.setEventAttackerObservability(event, attackerObservable);
+						model.recordEdit(EditJournal.SET_ATTACKER_OBSERVABLE, event, Boolean.toString(attackerObservable));
 						eventNameField.setText("");
 						eventNameField.requestFocus();
 						model.refreshViewport();
@@ -164,7 +169,9 @@ public class ModifyTSEventPropertiesPane extends VBox {
 					try {
 						Controllability<?> currControl = (Controllability<?>) model.getCurrTS();
 						// Toggle the observability of the event.
-						currControl.setEventControllability(event, !currControl.getEventControllability(event));
+						boolean controllable = !currControl.getEventControllability(event);
+						currControl.setEventControllability(event, controllable);
+						model.recordEdit(EditJournal.SET_CONTROLLABLE, event, Boolean.toString(controllable));
 						eventNameField.setText("");
 						eventNameField.requestFocus();
 						model.refreshViewport();
@@ -9,6 +9,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.control.*;
 import fsmtaui.popups.Alerts;
 import fsm.TransitionSystem;
+import fsm.EditJournal;
 import fsmtaui.Model;
 import fsm.ModalSpecification;
 
@@ -119,6 +120,7 @@ public class ModifyTSEventsPane extends VBox {
 						} else {
 							// Then create the event
 							currTS.addTransition(stateFromField.getText(), eventNameField.getText(), stateToField.getText());
+							model.recordEdit(EditJournal.ADD_TRANSITION, stateFromField.getText(), eventNameField.getText(), stateToField.getText());
 							stateFromField.setText("");
 							stateFromField.requestFocus();
 							stateToField.setText("");
@@ -162,6 +164,7 @@ public class ModifyTSEventsPane extends VBox {
 						  else {
 							// Then create the event
 							((ModalSpecification)currTS).addMustTransition(stateFromField.getText(), eventNameField.getText(), stateToField.getText());
+							model.recordEdit(EditJournal.ADD_MUST_TRANSITION, stateFromField.getText(), eventNameField.getText(), stateToField.getText());
 							stateFromField.setText("");
 							stateFromField.requestFocus();
 							stateToField.setText("");
@@ -200,6 +203,7 @@ public class ModifyTSEventsPane extends VBox {
 					} else {
 						// Then remove the event
 						currTS.removeTransition(stateFromField.getText(), eventNameField.getText(), stateToField.getText());
+						model.recordEdit(EditJournal.REMOVE_TRANSITION, stateFromField.getText(), eventNameField.getText(), stateToField.getText());
 						stateFromField.setText("");
 						stateFromField.requestFocus();
 						stateToField.setText("");
@@ -158,11 +158,14 @@ public class ModifyTSStatePropertiesPane extends VBox {
 					if(currTS instanceof NonDeterministic) {
 						if(currTS.hasInitialState(state)) {
 							currTS.removeInitialState(state);
+							model.recordEdit(EditJournal.REMOVE_INITIAL_STATE, state);
 						} else {
 							currTS.addInitialState(state);
+							model.recordEdit(EditJournal.ADD_INITIAL_STATE, state);
 						} // if/else
 					} else {
 						currTS.addInitialState(state);
+						model.recordEdit(EditJournal.ADD_INITIAL_STATE, state);
 					} // if/else
 					stateNameField.setText("");
 					stateNameField.requestFocus();
@@ -192,7 +195,9 @@ public class ModifyTSStatePropertiesPane extends VBox {
 					Alerts.makeError(Alerts.ERROR_TOGGLE_STATE_NO_FSM);
 				} else {
 					// Toggle the marked property
-					currTS.toggleMarkedState(state);
+					Boolean marked = currTS.toggleMarkedState(state);
+					if(marked != null)
+						model.recordEdit(EditJournal.SET_MARKED, state, marked.toString());
 					stateNameField.setText("");
 					stateNameField.requestFocus();
 					model.refreshViewport();
@@ -221,7 +226,9 @@ public class ModifyTSStatePropertiesPane extends VBox {
 					Alerts.makeError(Alerts.ERROR_TOGGLE_STATE_NO_FSM);
 				} else {
 					// Toggle the secret property
-					currTS.toggleSecretState(state);
+					Boolean secret = currTS.toggleSecretState(state);
+					if(secret != null)
+						model.recordEdit(EditJournal.SET_PRIVATE, state, secret.toString());
 					stateNameField.setText("");
 					stateNameField.requestFocus();
 					model.refreshViewport();
@@ -275,6 +282,7 @@ public class ModifyTSStatePropertiesPane extends VBox {
 				Alerts.makeError(Alerts.ERROR_NO_FSM);
 			} else {
 				currTS.markAllStates();
+				model.recordEdit(EditJournal.MARK_ALL_STATES);
 				stateNameField.requestFocus();
 				model.refreshViewport();
 			} // if/else
@@ -297,6 +305,7 @@ public class ModifyTSStatePropertiesPane extends VBox {
 				Alerts.makeError(Alerts.ERROR_NO_FSM);
 			} else {
 				currTS.unmarkAllStates();
+				model.recordEdit(EditJournal.UNMARK_ALL_STATES);
 				stateNameField.requestFocus();
 				model.refreshViewport();
 			} // if/else
@@ -341,6 +350,8 @@ public class ModifyTSStatePropertiesPane extends VBox {
 				Alerts.makeError(Alerts.ERROR_NO_FSM);
 			} else {
 				currTS.removeBadStates();
+				// Removing States with all their Transitions is not journalled, so the next save rewrites the file
+				model.invalidateJournal();
 				stateNameField.requestFocus();
 				model.refreshViewport();
 			} // if/else
@@ -362,6 +373,7 @@ public class ModifyTSStatePropertiesPane extends VBox {
 				Alerts.makeError(Alerts.ERROR_NO_FSM);
 			} else {
 				currTS.renameStates();
+				model.invalidateJournal();
 				stateNameField.requestFocus();
 				model.refreshViewport();
 			} // if/else
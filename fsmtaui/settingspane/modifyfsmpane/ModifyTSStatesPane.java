@@ -9,6 +9,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import fsmtaui.popups.Alerts;
 import fsm.TransitionSystem;
+import fsm.EditJournal;
 import fsmtaui.Model;
 
 /**
@@ -86,6 +87,7 @@ public class ModifyTSStatesPane extends VBox {
 					Alerts.makeError(Alerts.ERROR_ADD_STATE_NO_FSM);
 				} else {
 					currTS.addState(stateToAdd);
+					model.recordEdit(EditJournal.ADD_STATE, stateToAdd);
 					stateNameField.setText("");
 					stateNameField.requestFocus();
 					model.refreshViewport();
@@ -114,6 +116,7 @@ public class ModifyTSStatesPane extends VBox {
 					Alerts.makeError(Alerts.ERROR_REMOVE_STATE_NO_FSM);
 				} else {
 					currTS.removeState(stateToRemove);
+					model.recordEdit(EditJournal.REMOVE_STATE, stateToRemove);
 					stateNameField.setText("");
 					stateNameField.requestFocus();
 					model.refreshViewport();
@@ -0,0 +1,668 @@
+package support;
+
+import fsm.DetObsContFSM;
+import fsm.ModalSpecification;
+import support.map.TransitionFunction;
+import support.transition.DetTransition;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * This class builds families of models from the literature on discrete event systems, each scaled by
+ * a few parameters, so that the algorithms of the fsm package can be timed on machines with the structure
+ * of real models rather than that of the random ones made by GenerateFSM. Every family is built the same
+ * way for the same parameters, and the size of its state space is known in closed form (see the methods
+ * ending in StateCount), so a scaling study can check what it measured.
+ *
+ * The families, and the operations they suit:
+ *  - Dining philosophers: the philosophers and forks as components, for parallelComposition().
+ *  - Transfer lines: machines passing work through buffers; the components for parallelComposition(), and a
+ *    plant whose buffers can overflow with the specification that they do not, for getSupremalControllableSublanguage().
+ *  - Buffers: producers and consumers sharing one buffer; the components for parallelComposition(), and the
+ *    producers and consumers as a plant with the buffer as a ModalSpecification, for makeOptimalSupervisor().
+ *  - Cat and mouse: two animals moving around a ring of rooms; the components for parallelComposition(), and a
+ *    plant with the specification that they never share a room, for getSupremalControllableSublanguage().
+ *  - Multi-agent opacity: agents each switching a flag of their own, with a secret and bad Transitions, for
+ *    UStructure and the opacity tests.
+ *
+ * The plants and specifications are built whole, by exploring the States reachable from the initial one; a
+ * specification is explored from the same initial State as its plant but without its forbidden States, so that
+ * its States have the same names as the plant's, as getSupremalControllableSublanguage() expects. Only the
+ * initial State of each model is marked.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class BenchmarkModels {
+
+//---  Dining Philosophers   ------------------------------------------------------------------
+
+	/**
+	 * This method builds the components of the dining philosophers: philosopher i thinks ("T"), takes its
+	 * left fork i ("L"), then its right fork i+1 to eat ("E"), and puts both forks down. Fork j is free ("F"),
+	 * held by philosopher j ("A"), or held by philosopher j-1 ("B"). Taking a fork ("take<<r>i>_<<r>j>") is
+	 * controllable; putting the forks down ("put<<r>i>") is not.
+	 *
+	 * The parallel composition of the components has getDiningPhilosophersStateCount(n) States, and deadlocks
+	 * once every philosopher holds its left fork.
+	 *
+	 * @param n - int value representing the number of philosophers (and forks), at least 2.
+	 * @return - Returns a DetObsContFSM[] object holding the n philosophers followed by the n forks.
+	 */
+
+	public static DetObsContFSM[] getDiningPhilosophers(int n) {
+		checkAtLeast("number of philosophers", n, 2);
+		DetObsContFSM[] out = new DetObsContFSM[2 * n];
+		for(int i = 0; i < n; i++) {
+			int right = (i + 1) % n;
+			DetObsContFSM philosopher = makeComponent("Philosopher " + i, "T");
+			philosopher.addTransition("T", "take" + i + "_" + i, "L");
+			philosopher.addTransition("L", "take" + i + "_" + right, "E");
+			philosopher.addTransition("E", "put" + i, "T");
+			philosopher.setEventControllability("put" + i, false);
+			out[i] = philosopher;
+		}
+		for(int j = 0; j < n; j++) {
+			int left = (j + n - 1) % n;
+			DetObsContFSM fork = makeComponent("Fork " + j, "F");
+			fork.addTransition("F", "take" + j + "_" + j, "A");
+			fork.addTransition("A", "put" + j, "F");
+			fork.addTransition("F", "take" + left + "_" + j, "B");
+			fork.addTransition("B", "put" + left, "F");
+			fork.setEventControllability("put" + j, false);
+			fork.setEventControllability("put" + left, false);
+			out[n + j] = fork;
+		}
+		return out;
+	}
+
+	/**
+	 * This method gives the number of States reachable in the parallel composition of getDiningPhilosophers(n).
+	 * The forks are decided by the philosophers, and every assignment of "T", "L" or "E" to the philosophers is
+	 * reachable unless an eating philosopher's right fork is also the left fork of a philosopher holding it; the
+	 * assignments are counted as closed walks of length n on the three philosopher States, which is the trace of
+	 * the n-th power of the matrix of allowed neighbours.
+	 *
+	 * @param n - int value representing the number of philosophers, at least 2.
+	 * @return - Returns a long value representing the number of States.
+	 */
+
+	public static long getDiningPhilosophersStateCount(int n) {
+		checkAtLeast("number of philosophers", n, 2);
+		// allowed[a][b] is 1 if philosopher i may be in a while philosopher i+1 is in b (T, L, E)
+		long[][] allowed = {{1, 1, 1}, {1, 1, 1}, {1, 0, 0}};
+		long[][] power = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
+		for(int i = 0; i < n; i++)
+			power = multiply(power, allowed);
+		return power[0][0] + power[1][1] + power[2][2];
+	}
+
+//---  Transfer Lines   -----------------------------------------------------------------------
+
+	/**
+	 * This method builds the components of a transfer line: machine i is idle ("I") until it starts ("start<<r>i>",
+	 * controllable), taking a part from buffer i-1, and works ("W") until it finishes ("finish<<r>i>", uncontrollable),
+	 * putting the part in buffer i. The first machine takes parts from outside and the last sends them out, and
+	 * buffer i counts the parts it holds, from "0" up to its capacity.
+	 *
+	 * The parallel composition of the components has getTransferLineStateCount(machines, capacity) States.
+	 *
+	 * @param machines - int value representing the number of machines, at least 1.
+	 * @param capacity - int value representing the number of parts each buffer holds, at least 1.
+	 * @return - Returns a DetObsContFSM[] object holding the machines followed by the buffers between them.
+	 */
+
+	public static DetObsContFSM[] getTransferLine(int machines, int capacity) {
+		checkAtLeast("number of machines", machines, 1);
+		checkAtLeast("capacity", capacity, 1);
+		DetObsContFSM[] out = new DetObsContFSM[2 * machines - 1];
+		for(int i = 0; i < machines; i++) {
+			DetObsContFSM machine = makeComponent("Machine " + i, "I");
+			machine.addTransition("I", "start" + i, "W");
+			machine.addTransition("W", "finish" + i, "I");
+			machine.setEventControllability("finish" + i, false);
+			out[i] = machine;
+		}
+		for(int i = 0; i < machines - 1; i++) {
+			DetObsContFSM buffer = makeComponent("Buffer " + i, "0");
+			for(int c = 0; c < capacity; c++) {
+				buffer.addTransition(Integer.toString(c), "finish" + i, Integer.toString(c + 1));
+				buffer.addTransition(Integer.toString(c + 1), "start" + (i + 1), Integer.toString(c));
+			}
+			buffer.setEventControllability("finish" + i, false);
+			out[machines + i] = buffer;
+		}
+		return out;
+	}
+
+	/**
+	 * This method builds a transfer line (as in getTransferLine()) as one plant whose buffers hold one part more
+	 * than their capacity; a buffer holding that part has overflowed. The plant has
+	 * getTransferLineStateCount(machines, capacity + 1) States.
+	 *
+	 * @param machines - int value representing the number of machines, at least 1.
+	 * @param capacity - int value representing the number of parts each buffer holds without overflowing, at least 1.
+	 * @return - Returns a DetObsContFSM object holding the plant.
+	 */
+
+	public static DetObsContFSM getTransferLinePlant(int machines, int capacity) {
+		checkAtLeast("number of machines", machines, 1);
+		checkAtLeast("capacity", capacity, 1);
+		return makeTransferLine("Transfer Line Plant", machines, capacity, state -> true);
+	}
+
+	/**
+	 * This method builds the specification of getTransferLinePlant() that no buffer overflows: the part of the
+	 * plant reachable without passing through an overflow, which has getTransferLineStateCount(machines, capacity)
+	 * States. As finishing is uncontrollable, the supremal controllable sublanguage stops a machine starting
+	 * whenever its output buffer could then overflow.
+	 *
+	 * @param machines - int value representing the number of machines, at least 1.
+	 * @param capacity - int value representing the number of parts each buffer holds without overflowing, at least 1.
+	 * @return - Returns a DetObsContFSM object holding the specification.
+	 */
+
+	public static DetObsContFSM getTransferLineSpecification(int machines, int capacity) {
+		checkAtLeast("number of machines", machines, 1);
+		checkAtLeast("capacity", capacity, 1);
+		return makeTransferLine("Transfer Line Specification", machines, capacity, state -> {
+			for(int i = machines; i < state.length; i++)
+				if(state[i] > capacity)
+					return false;
+			return true;
+		});
+	}
+
+	/**
+	 * This method gives the number of States of a transfer line of the given size: every machine may be idle or
+	 * working whatever the buffers hold, giving 2^machines * (capacity + 1)^(machines - 1).
+	 *
+	 * @param machines - int value representing the number of machines, at least 1.
+	 * @param capacity - int value representing the number of parts each buffer holds, at least 1.
+	 * @return - Returns a long value representing the number of States.
+	 */
+
+	public static long getTransferLineStateCount(int machines, int capacity) {
+		checkAtLeast("number of machines", machines, 1);
+		checkAtLeast("capacity", capacity, 1);
+		return pow(2, machines) * pow(capacity + 1, machines - 1);
+	}
+
+//---  Buffers   ------------------------------------------------------------------------------
+
+	/**
+	 * This method builds the components of a shared buffer: producer i is idle ("I") until it produces a part
+	 * ("produce<<r>i>", controllable), then ready ("R") until it puts the part in the buffer ("put<<r>i>",
+	 * uncontrollable); consumer j is idle ("I") until it gets a part from the buffer ("get<<r>j>", controllable),
+	 * then busy ("B") until it has consumed it ("consume<<r>j>", uncontrollable). The buffer counts the parts it
+	 * holds, from "0" up to its capacity.
+	 *
+	 * The parallel composition of the components has getBufferStateCount(producers, consumers, capacity) States.
+	 *
+	 * @param producers - int value representing the number of producers, at least 1.
+	 * @param consumers - int value representing the number of consumers, at least 1.
+	 * @param capacity - int value representing the number of parts the buffer holds, at least 1.
+	 * @return - Returns a DetObsContFSM[] object holding the producers, then the consumers, then the buffer.
+	 */
+
+	public static DetObsContFSM[] getBuffer(int producers, int consumers, int capacity) {
+		checkAtLeast("number of producers", producers, 1);
+		checkAtLeast("number of consumers", consumers, 1);
+		checkAtLeast("capacity", capacity, 1);
+		DetObsContFSM[] out = new DetObsContFSM[producers + consumers + 1];
+		for(int i = 0; i < producers; i++) {
+			DetObsContFSM producer = makeComponent("Producer " + i, "I");
+			producer.addTransition("I", "produce" + i, "R");
+			producer.addTransition("R", "put" + i, "I");
+			producer.setEventControllability("put" + i, false);
+			out[i] = producer;
+		}
+		for(int j = 0; j < consumers; j++) {
+			DetObsContFSM consumer = makeComponent("Consumer " + j, "I");
+			consumer.addTransition("I", "get" + j, "B");
+			consumer.addTransition("B", "consume" + j, "I");
+			consumer.setEventControllability("consume" + j, false);
+			out[producers + j] = consumer;
+		}
+		DetObsContFSM buffer = makeComponent("Buffer", "0");
+		for(int c = 0; c < capacity; c++) {
+			for(int i = 0; i < producers; i++)
+				buffer.addTransition(Integer.toString(c), "put" + i, Integer.toString(c + 1));
+			for(int j = 0; j < consumers; j++)
+				buffer.addTransition(Integer.toString(c + 1), "get" + j, Integer.toString(c));
+		}
+		for(int i = 0; i < producers; i++)
+			buffer.setEventControllability("put" + i, false);
+		out[producers + consumers] = buffer;
+		return out;
+	}
+
+	/**
+	 * This method builds the producers and consumers of getBuffer() as one plant, which does not track the
+	 * buffer and so has 2^(producers + consumers) States.
+	 *
+	 * @param producers - int value representing the number of producers, at least 1.
+	 * @param consumers - int value representing the number of consumers, at least 1.
+	 * @return - Returns a DetObsContFSM object holding the plant.
+	 */
+
+	public static DetObsContFSM getBufferPlant(int producers, int consumers) {
+		checkAtLeast("number of producers", producers, 1);
+		checkAtLeast("number of consumers", consumers, 1);
+		DetObsContFSM plant = explore("Buffer Plant", new int[producers + consumers], (state, add) -> {
+			for(int i = 0; i < state.length; i++) {
+				String event = i < producers ? (state[i] == 0 ? "produce" : "put") + i : (state[i] == 0 ? "get" : "consume") + (i - producers);
+				add.accept(event, set(state, i, 1 - state[i]));
+			}
+		}, state -> true, null);
+		for(int i = 0; i < producers; i++)
+			plant.setEventControllability("put" + i, false);
+		for(int j = 0; j < consumers; j++)
+			plant.setEventControllability("consume" + j, false);
+		return plant;
+	}
+
+	/**
+	 * This method builds the buffer of getBuffer() as a ModalSpecification over the Events of getBufferPlant():
+	 * parts may only be put in the buffer while it has room and taken while it has any, and while the buffer
+	 * holds a part, a consumer must be allowed to get it. Producing and consuming may always happen. The
+	 * specification has capacity + 1 States.
+	 *
+	 * @param producers - int value representing the number of producers, at least 1.
+	 * @param consumers - int value representing the number of consumers, at least 1.
+	 * @param capacity - int value representing the number of parts the buffer holds, at least 1.
+	 * @return - Returns a ModalSpecification object holding the specification.
+	 */
+
+	public static ModalSpecification getBufferSpecification(int producers, int consumers, int capacity) {
+		checkAtLeast("number of producers", producers, 1);
+		checkAtLeast("number of consumers", consumers, 1);
+		checkAtLeast("capacity", capacity, 1);
+		ModalSpecification spec = new ModalSpecification("Buffer Specification");
+		spec.addInitialState("0");
+		spec.toggleMarkedState("0");
+		for(int c = 0; c <= capacity; c++) {
+			String count = Integer.toString(c);
+			for(int i = 0; i < producers; i++) {
+				spec.addTransition(count, "produce" + i, count);
+				if(c < capacity)
+					spec.addTransition(count, "put" + i, Integer.toString(c + 1));
+			}
+			for(int j = 0; j < consumers; j++) {
+				spec.addTransition(count, "consume" + j, count);
+				if(c > 0)
+					spec.addMustTransition(count, "get" + j, Integer.toString(c - 1));
+			}
+		}
+		for(int i = 0; i < producers; i++)
+			spec.setEventControllability("put" + i, false);
+		for(int j = 0; j < consumers; j++)
+			spec.setEventControllability("consume" + j, false);
+		return spec;
+	}
+
+	/**
+	 * This method gives the number of States of the parallel composition of getBuffer(): every producer and
+	 * consumer may be in either State whatever the buffer holds, giving 2^(producers + consumers) * (capacity + 1).
+	 *
+	 * @param producers - int value representing the number of producers, at least 1.
+	 * @param consumers - int value representing the number of consumers, at least 1.
+	 * @param capacity - int value representing the number of parts the buffer holds, at least 1.
+	 * @return - Returns a long value representing the number of States.
+	 */
+
+	public static long getBufferStateCount(int producers, int consumers, int capacity) {
+		checkAtLeast("number of producers", producers, 1);
+		checkAtLeast("number of consumers", consumers, 1);
+		checkAtLeast("capacity", capacity, 1);
+		return pow(2, producers + consumers) * (capacity + 1);
+	}
+
+//---  Cat and Mouse   ------------------------------------------------------------------------
+
+	/**
+	 * This method builds the components of the cat and mouse: each animal moves between neighbouring rooms
+	 * of a ring, through the doors "cat_cw<<r>i>" or "mouse_cw<<r>i>" (from room i to room i+1) and "cat_ccw<<r>i>"
+	 * or "mouse_ccw<<r>i>" (from room i to room i-1). As in the original model of Ramadge and Wonham, one of the
+	 * cat's doors cannot be closed: "cat_cw0", from room 0 to room 1, is uncontrollable, and every other door can
+	 * be closed. The cat starts in room 0 and the mouse in room rooms / 2.
+	 *
+	 * The parallel composition of the components has rooms^2 States.
+	 *
+	 * @param rooms - int value representing the number of rooms, at least 3.
+	 * @return - Returns a DetObsContFSM[] object holding the cat and then the mouse.
+	 */
+
+	public static DetObsContFSM[] getCatAndMouse(int rooms) {
+		checkAtLeast("number of rooms", rooms, 3);
+		DetObsContFSM[] out = new DetObsContFSM[2];
+		String[] animals = {"cat", "mouse"};
+		for(int a = 0; a < 2; a++) {
+			DetObsContFSM animal = makeComponent(animals[a].substring(0, 1).toUpperCase() + animals[a].substring(1), Integer.toString(a == 0 ? 0 : rooms / 2));
+			for(int r = 0; r < rooms; r++) {
+				animal.addTransition(Integer.toString(r), animals[a] + "_cw" + r, Integer.toString((r + 1) % rooms));
+				animal.addTransition(Integer.toString(r), animals[a] + "_ccw" + r, Integer.toString((r + rooms - 1) % rooms));
+			}
+			out[a] = animal;
+		}
+		out[0].setEventControllability("cat_cw0", false);
+		return out;
+	}
+
+	/**
+	 * This method builds the cat and mouse of getCatAndMouse() as one plant, whose rooms^2 States are named
+	 * by the rooms of the cat and the mouse.
+	 *
+	 * @param rooms - int value representing the number of rooms, at least 3.
+	 * @return - Returns a DetObsContFSM object holding the plant.
+	 */
+
+	public static DetObsContFSM getCatAndMousePlant(int rooms) {
+		checkAtLeast("number of rooms", rooms, 3);
+		return makeCatAndMouse("Cat and Mouse Plant", rooms, state -> true);
+	}
+
+	/**
+	 * This method builds the specification of getCatAndMousePlant() that the cat and mouse are never in the same
+	 * room, which has rooms^2 - rooms States. As the cat cannot be stopped from leaving room 0 for room 1, the
+	 * supremal controllable sublanguage keeps the mouse out of room 1 while the cat is in room 0.
+	 *
+	 * @param rooms - int value representing the number of rooms, at least 3.
+	 * @return - Returns a DetObsContFSM object holding the specification.
+	 */
+
+	public static DetObsContFSM getCatAndMouseSpecification(int rooms) {
+		checkAtLeast("number of rooms", rooms, 3);
+		return makeCatAndMouse("Cat and Mouse Specification", rooms, state -> state[0] != state[1]);
+	}
+
+//---  Multi-Agent Opacity   ------------------------------------------------------------------
+
+	/**
+	 * This method builds the plant of the multi-agent opacity scenario: agent i switches a flag of its own on
+	 * ("on<<r>i>", controllable) and off ("off<<r>i>", uncontrollable), so the plant has 2^agents States, named by
+	 * the flags. The States with agent 0's flag on are secret, and the attacker observes only the Events of the
+	 * agents with odd numbers, so the plant is current-state opaque and a verifier must explore all of it.
+	 *
+	 * @param agents - int value representing the number of agents, at least 1.
+	 * @return - Returns a DetObsContFSM object holding the plant.
+	 */
+
+	public static DetObsContFSM getOpacityPlant(int agents) {
+		checkAtLeast("number of agents", agents, 1);
+		DetObsContFSM plant = explore("Opacity Plant", new int[agents], (state, add) -> {
+			for(int i = 0; i < agents; i++)
+				add.accept((state[i] == 0 ? "on" : "off") + i, set(state, i, 1 - state[i]));
+		}, state -> true, state -> state[0] == 1);
+		for(int i = 0; i < agents; i++) {
+			plant.setEventControllability("off" + i, false);
+			plant.setEventAttackerObservability("on" + i, i % 2 == 1);
+			plant.setEventAttackerObservability("off" + i, i % 2 == 1);
+		}
+		return plant;
+	}
+
+	/**
+	 * This method builds the agents of the multi-agent opacity scenario, for UStructure: each agent observes
+	 * only its own Events, and controls switching its own flag on.
+	 *
+	 * @param agents - int value representing the number of agents, at least 1.
+	 * @return - Returns an Agent[] object holding the agents in order.
+	 */
+
+	public static Agent[] getOpacityAgents(int agents) {
+		checkAtLeast("number of agents", agents, 1);
+		Agent[] out = new Agent[agents];
+		for(int i = 0; i < agents; i++)
+			out[i] = new Agent(new Event("on" + i, true, true, i % 2 == 1), new Event("off" + i, false, true, i % 2 == 1));
+		return out;
+	}
+
+	/**
+	 * This method builds the bad Transitions of the multi-agent opacity scenario, for UStructure: the last agent
+	 * must not switch its flag on while every other flag is on, which it cannot tell from its own Events alone.
+	 *
+	 * @param agents - int value representing the number of agents, at least 1.
+	 * @return - Returns a TransitionFunction<<r>DetTransition> object holding the bad Transitions, named as the States of getOpacityPlant().
+	 */
+
+	public static TransitionFunction<DetTransition> getOpacityBadTransitions(int agents) {
+		checkAtLeast("number of agents", agents, 1);
+		int[] from = new int[agents];
+		Arrays.fill(from, 1);
+		from[agents - 1] = 0;
+		TransitionFunction<DetTransition> bad = new TransitionFunction<DetTransition>(new DetTransition());
+		bad.addTransitionState(new State(getStateName(from)), new Event("on" + (agents - 1)), new State(getStateName(set(from, agents - 1, 1))));
+		return bad;
+	}
+
+	/**
+	 * This method gives the number of States of getOpacityPlant(), which is 2^agents.
+	 *
+	 * @param agents - int value representing the number of agents, at least 1.
+	 * @return - Returns a long value representing the number of States.
+	 */
+
+	public static long getOpacityStateCount(int agents) {
+		checkAtLeast("number of agents", agents, 1);
+		return pow(2, agents);
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that builds a transfer line as one machine: the first entries of each State are the
+	 * machines (0 idle, 1 working), and the rest the number of parts in each buffer, which may go one past
+	 * the capacity.
+	 *
+	 * @param id - String object representing the id of the machine.
+	 * @param machines - int value representing the number of machines.
+	 * @param capacity - int value representing the number of parts each buffer holds without overflowing.
+	 * @param allowed - Predicate<<r>int[]> object deciding which States may be reached.
+	 * @return - Returns a DetObsContFSM object holding the transfer line.
+	 */
+
+	private static DetObsContFSM makeTransferLine(String id, int machines, int capacity, Predicate<int[]> allowed) {
+		DetObsContFSM line = explore(id, new int[2 * machines - 1], (state, add) -> {
+			for(int i = 0; i < machines; i++) {
+				if(state[i] == 0 && (i == 0 || state[machines + i - 1] > 0)) {
+					int[] next = set(state, i, 1);
+					if(i > 0)
+						next[machines + i - 1]--;
+					add.accept("start" + i, next);
+				}
+				else if(state[i] == 1 && (i == machines - 1 || state[machines + i] <= capacity)) {
+					int[] next = set(state, i, 0);
+					if(i < machines - 1)
+						next[machines + i]++;
+					add.accept("finish" + i, next);
+				}
+			}
+		}, allowed, null);
+		for(int i = 0; i < machines; i++)
+			line.setEventControllability("finish" + i, false);
+		return line;
+	}
+
+	/**
+	 * Helper method that builds the cat and mouse as one machine, each State holding the rooms of the cat and the mouse.
+	 *
+	 * @param id - String object representing the id of the machine.
+	 * @param rooms - int value representing the number of rooms.
+	 * @param allowed - Predicate<<r>int[]> object deciding which States may be reached.
+	 * @return - Returns a DetObsContFSM object holding the cat and mouse.
+	 */
+
+	private static DetObsContFSM makeCatAndMouse(String id, int rooms, Predicate<int[]> allowed) {
+		String[] animals = {"cat", "mouse"};
+		DetObsContFSM out = explore(id, new int[] {0, rooms / 2}, (state, add) -> {
+			for(int a = 0; a < 2; a++) {
+				add.accept(animals[a] + "_cw" + state[a], set(state, a, (state[a] + 1) % rooms));
+				add.accept(animals[a] + "_ccw" + state[a], set(state, a, (state[a] + rooms - 1) % rooms));
+			}
+		}, allowed, null);
+		out.setEventControllability("cat_cw0", false);
+		return out;
+	}
+
+	/**
+	 * Helper method that builds a machine by exploring, breadth-first, the States reachable from an initial
+	 * State through the allowed States. Each State is an int[] named by getStateName(); the Transitions are
+	 * gathered and added all at once. The initial State is marked.
+	 *
+	 * @param id - String object representing the id of the machine.
+	 * @param initial - int[] object representing the initial State.
+	 * @param successors - Successors object giving the Transitions leaving each State.
+	 * @param allowed - Predicate<<r>int[]> object deciding which States may be reached.
+	 * @param secret - Predicate<<r>int[]> object deciding which States are secret, or null if none are.
+	 * @return - Returns a DetObsContFSM object holding the explored machine.
+	 */
+
+	private static DetObsContFSM explore(String id, int[] initial, Successors successors, Predicate<int[]> allowed, Predicate<int[]> secret) {
+		DetObsContFSM out = new DetObsContFSM(id);
+		HashSet<String> seen = new HashSet<String>();
+		ArrayDeque<int[]> queue = new ArrayDeque<int[]>();
+		ArrayList<String> from = new ArrayList<String>(), events = new ArrayList<String>(), to = new ArrayList<String>();
+		String initialName = getStateName(initial);
+		out.addState(initialName);
+		seen.add(initialName);
+		queue.add(initial);
+		while(!queue.isEmpty()) {
+			int[] state = queue.poll();
+			String name = getStateName(state);
+			if(secret != null && secret.test(state))
+				out.getState(name).setStatePrivate(true);
+			successors.next(state, (event, next) -> {
+				if(!allowed.test(next))
+					return;
+				String nextName = getStateName(next);
+				if(seen.add(nextName)) {
+					out.addState(nextName);
+					queue.add(next);
+				}
+				from.add(name);
+				events.add(event);
+				to.add(nextName);
+			});
+		} // while states left to explore
+		out.addTransitions(from.toArray(new String[from.size()]), events.toArray(new String[events.size()]), to.toArray(new String[to.size()]));
+		out.addInitialState(initialName);
+		out.toggleMarkedState(initialName);
+		return out;
+	}
+
+	/**
+	 * Helper method that makes an empty component with its initial State, which is marked.
+	 *
+	 * @param id - String object representing the id of the component.
+	 * @param initial - String object representing the name of the initial State.
+	 * @return - Returns a DetObsContFSM object holding the component.
+	 */
+
+	private static DetObsContFSM makeComponent(String id, String initial) {
+		DetObsContFSM out = new DetObsContFSM(id);
+		out.addInitialState(initial);
+		out.toggleMarkedState(initial);
+		return out;
+	}
+
+	/**
+	 * Helper method that names a State of an explored machine by its entries, separated by underscores.
+	 *
+	 * @param state - int[] object representing the State.
+	 * @return - Returns a String object representing the name of the State.
+	 */
+
+	private static String getStateName(int[] state) {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < state.length; i++)
+			sb.append(i == 0 ? "" : "_").append(state[i]);
+		return sb.toString();
+	}
+
+	/**
+	 * Helper method that copies a State with one entry changed.
+	 *
+	 * @param state - int[] object representing the State to copy.
+	 * @param index - int value representing the entry to change.
+	 * @param value - int value representing the new value of the entry.
+	 * @return - Returns an int[] object representing the new State.
+	 */
+
+	private static int[] set(int[] state, int index, int value) {
+		int[] out = state.clone();
+		out[index] = value;
+		return out;
+	}
+
+	/**
+	 * Helper method that raises a number to a power, failing if the result does not fit in a long.
+	 *
+	 * @param base - long value representing the base.
+	 * @param exponent - int value representing the exponent, which is not negative.
+	 * @return - Returns a long value representing base^exponent.
+	 * @throws ArithmeticException - Thrown if the result does not fit in a long.
+	 */
+
+	private static long pow(long base, int exponent) {
+		long out = 1;
+		for(int i = 0; i < exponent; i++)
+			out = Math.multiplyExact(out, base);
+		return out;
+	}
+
+	/**
+	 * Helper method that multiplies two square matrices, failing if an entry does not fit in a long.
+	 *
+	 * @param a - long[][] object representing the left matrix.
+	 * @param b - long[][] object representing the right matrix.
+	 * @return - Returns a long[][] object representing the product.
+	 * @throws ArithmeticException - Thrown if an entry does not fit in a long.
+	 */
+
+	private static long[][] multiply(long[][] a, long[][] b) {
+		long[][] out = new long[a.length][a.length];
+		for(int i = 0; i < a.length; i++)
+			for(int j = 0; j < a.length; j++)
+				for(int k = 0; k < a.length; k++)
+					out[i][j] = Math.addExact(out[i][j], Math.multiplyExact(a[i][k], b[k][j]));
+		return out;
+	}
+
+	/**
+	 * Helper method that rejects a parameter below its least allowed value.
+	 *
+	 * @param what - String object naming the parameter (such as "number of machines"), for the error message.
+	 * @param value - int value of the parameter.
+	 * @param least - int value representing the least value allowed.
+	 * @throws IllegalArgumentException - Thrown if the value is less than the least allowed.
+	 */
+
+	private static void checkAtLeast(String what, int value, int least) {
+		if(value < least)
+			throw new IllegalArgumentException("The " + what + " must be at least " + least + ", not " + value + ".");
+	}
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * This interface gives the Transitions leaving a State of a machine being explored.
+	 */
+
+	private interface Successors {
+
+		/**
+		 * This method passes each Transition leaving the State to the provided BiConsumer, as its Event and target State.
+		 *
+		 * @param state - int[] object representing the State; it must not be modified.
+		 * @param add - BiConsumer<<r>String, int[]> object receiving each Transition.
+		 */
+
+		void next(int[] state, BiConsumer<String, int[]> add);
+
+	}
+
+}
@@ -1,27 +1,44 @@
 package support;
 
+import fsm.DetObsContFSM;
+import fsm.ModalSpecification;
+import fsm.NonDetObsContFSM;
+import fsm.TransitionSystem;
 import java.util.*;
+import java.util.stream.IntStream;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This class is used to generate files readable as Finite State Machines to the constructors
  * that accept file input from the classes in the fsm package. It does so randomly with no
  * oversight to handle strange productions.
- * 
+ *
  * The class creates a file in a location defined by a class constant and named howsoever the
  * user of this class wants; any usage of the class' production is then done by accessing that
  * location in your file system, given as a String returned by this method or by directly accessing
  * your file system yourself.
- * 
+ *
  * Important note: Must write to file the following:
  * # of special types
  * # of elements of special type 'n'
  * 	- the elements
  *  - repeat for all special types
  * All transitions (State, State, Event)
- * 
+ *
+ * Every file is made from a seed, and the same seed with the same parameters always makes the same file.
+ * The Transitions leaving each State are drawn from a random sequence of their own, derived from the seed
+ * and the State's index, so they are written straight to the file as they are made and never held in memory;
+ * the attribute batches are sampled without repeats (by Floyd's algorithm) rather than by drawing again
+ * until an unused element turns up, so the number of States and Events may run into the millions. Several
+ * files of a benchmark corpus can be written at once by createNewFSMs() and createModalSpecs().
+ *
+ * The same machines can also be built straight into memory by buildDetObsContFSM(), buildNonDetObsContFSM()
+ * and buildModalSpec(), which make the Transitions of the States in parallel and add them all at once instead
+ * of writing a file to be parsed back; given the same seed, they build what reading the matching file would.
+ *
  * This class is a part of the support package.
- * 
+ *
  * @author Mac Clevinger and Graeme Zinck
  *
  */
@@ -29,39 +46,38 @@ import java.io.*;
 public class GenerateFSM {
 
 //--- Constant Values  ------------------------------------------------------------------------
-	
-	/** String constant referenced for consistent naming practices of States*/
-	private static final String ALPHABET_STATE = "0123456789";
+
 	/** String constants referenced for consistent naming practices of Events*/
 	private static final String ALPHABET_EVENT = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
-	
-//--- Instance Variables  ---------------------------------------------------------------------
-	
-	/** ArrayList<String> used to hold the produced event names for back-referencing when re-using*/
-	private static ArrayList<String> events; 
-	/** ArrayList<String> used to hold the produced state names for back-referencing when re-using*/
-	private static ArrayList<String> states;
-	
+	/** String constant holding the line separator written to the files*/
+	private static final String LINE_SKIP = System.getProperty("os.name").split(" ")[0].equals("Windows") ? (char)13 + "" + (char)10 : (char)10 + "";
+	/** int value representing the size of the buffer the files are written through*/
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** int value representing the number of Events sampled for a State above which a HashSet is used to keep them distinct*/
+	private static final int SMALL_SAMPLE = 16;
+	/** long value used to spread the indices of States and files across the seeds derived from them*/
+	private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
 //--- Operations  -----------------------------------------------------------------------------
-	
+
 	/**
 	 * This method generates a file corresponding to the nomenclature of an FSM's file input via the
 	 * properties described by its parameters: Number of States, Marked States, Unique Events, Paths,
 	 * Initial States, Private States, Unobservable Events, and Uncontrollable Events.
-	 * 
+	 *
 	 * The produced FSM object will be randomized according to the bounds described by the provided arguments,
 	 * saving the produced file to the location described by the input and returning the exact address of this
 	 * new file as a String object.
-	 * 
+	 *
 	 * File type: .fsm
-	 * 
+	 *
 	 * @param sizeStates - int value describing how many States to include in the FSM.
 	 * @param sizeMarked - int value describing how many Marked States to include in the FSM.
 	 * @param sizeEvents - int value describing how many Unique Events to include in the FSM.
 	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in the FSM.
 	 * @param sizeInitial - int value describing how many Initial States to include in the FSM.
 	 * @param sizePrivate - int value describing how many Private States to include in the FSM.
-	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the FSM. 
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the FSM.
 	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in the FSM on top of those to the System.
 	 * @param sizeControl - int value describing how many Events to mark as Uncontrollable in the FSM.
 	 * @param nonDet - boolean value denoting whether or not the FSM is Deterministic or Non-Deterministic.
@@ -71,145 +87,101 @@ public class GenerateFSM {
 	 */
 
 	public static String createNewFSM(int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizeInitial, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, boolean nonDet, String name, String filePath) {
+		return createNewFSM(sizeStates, sizeMarked, sizeEvents, sizePaths, sizeInitial, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, nonDet, name, filePath, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * This method generates a file corresponding to the nomenclature of an FSM's file input, as in
+	 * createNewFSM() above, from the provided seed; calling it again with the same seed and parameters
+	 * writes the same file.
+	 *
+	 * File type: .fsm
+	 *
+	 * @param sizeStates - int value describing how many States to include in the FSM.
+	 * @param sizeMarked - int value describing how many Marked States to include in the FSM.
+	 * @param sizeEvents - int value describing how many Unique Events to include in the FSM.
+	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in the FSM.
+	 * @param sizeInitial - int value describing how many Initial States to include in the FSM.
+	 * @param sizePrivate - int value describing how many Private States to include in the FSM.
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the FSM.
+	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in the FSM on top of those to the System.
+	 * @param sizeControl - int value describing how many Events to mark as Uncontrollable in the FSM.
+	 * @param nonDet - boolean value denoting whether or not the FSM is Deterministic or Non-Deterministic.
+	 * @param name - String object used to denote the title of the File being generated.
+	 * @param filePath - String object specifying where in the file system to place the file.
+	 * @param seed - long value used to seed the random choices made for the FSM.
+	 * @return - Returns a String describing the location of the generated File in the file system.
+	 */
+
+	public static String createNewFSM(int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizeInitial, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, boolean nonDet, String name, String filePath, long seed) {
 		File f = new File(filePath + name + ".fsm");		//Creates a new file with a unique extension
-		f.delete();											//If there already exists a file, remove it.
-		events = new ArrayList<String>();					//Initiates the ArrayLists for usage
-		states = new ArrayList<String>();
-		String os = System.getProperty("os.name").split(" ")[0];
-		String lineSkip = os.equals("Windows") ? (char)13 + "" + (char)10 : (char)10 + "";
-		for(int i = 0; i < sizeEvents; i++) {				//Fills the ArrayList with requested number of Events immediately
-			String newName = "";
-			int copy = i;
-			do {
-				newName = ALPHABET_EVENT.charAt(copy%10) + newName;
-				copy /= 10;
-			} while(copy != 0);
-			events.add(newName);
+		Attributes attributes = new Attributes(sizeStates, sizeMarked, sizeEvents, sizeInitial, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, new SplittableRandom(seed));
+		try(Writer out = openFile(f)) {
+			out.write("6" + LINE_SKIP);			//Initial, Marked, Private, Unobservable, Attacker, Uncontrollable
+			writeAttributes(out, attributes);
+			int[] events = new int[Math.max(sizePaths, 1)];
+			int[] targets = new int[events.length];
+			StringBuilder line = new StringBuilder();
+			for(int i = 0; i < sizeStates; i++) {
+				int count = makeTransitions(seed, i, sizeStates, sizeEvents, sizePaths, !nonDet, events, targets);
+				for(int j = 0; j < count; j++)
+					writeTransition(out, line, i, targets[j], events[j]);
+			}
 		}
-		try{													//To catch IOExceptions
-		  RandomAccessFile raf = new RandomAccessFile(f, "rw");	//Allows us to write to the file
-		  Random rand = new Random();				//Create random object for randomness
-		  raf.writeBytes("6");			//Initial, Marked, Private, Unobservable, TODO: Controllable
-		  raf.writeBytes(lineSkip);
-		  raf.writeBytes(("" + sizeInitial));
-		  raf.writeBytes(lineSkip);
-		  HashSet<Integer> initial = new HashSet<Integer>();
-		  for(int i = 0; i < sizeInitial; i++) {
-			  int rand1 = rand.nextInt(sizeStates);
-			  while(initial.contains(rand1) && sizeInitial <= sizeStates)
-				  rand1 = rand.nextInt(sizeStates);
-			  initial.add(rand1);
-			  raf.writeBytes(rand1+"");		//Pick a state at random to be initial states
-			  raf.writeBytes(lineSkip);										//Again, redundancy!
-		  }
-		  raf.writeBytes(("" + sizeMarked));		//Strings are basically arrays of characters, which can trivially convert
-		  raf.writeBytes(lineSkip);					//to bytes, so pass a String to the writeBytes command to write to file. (write 10 for line return)
-		  HashSet<Integer> marked = new HashSet<Integer>();
-		  for(int i = 0; i < sizeMarked; i++) {		//Now to decide the marked states, again randomly
-			  int rand1 = rand.nextInt(sizeStates);
-			  while(marked.contains(rand1) && sizeMarked <= sizeStates)
-				  rand1 = rand.nextInt(sizeStates);
-			  marked.add(rand1);
-			  raf.writeBytes(rand1+"");		//Pick states at random to be marked
-			  raf.writeBytes(lineSkip);										//This does allow for redundancies, which do nothing but waste space.
-		  }
-		  raf.writeBytes("" + sizePrivate);
-		  raf.writeBytes(lineSkip);
-		  HashSet<Integer> privacy = new HashSet<Integer>();
-		  for(int i = 0; i < sizePrivate; i++) {
-			  int rand1 = rand.nextInt(sizeStates);
-			  while(privacy.contains(rand1) && sizePrivate <= sizeStates)
-				  rand1 = rand.nextInt(sizeStates);
-			  marked.add(rand1);
-			  raf.writeBytes(rand1+"");
-			  raf.writeBytes(lineSkip);
-		  }
-		  
-		  HashSet<String> unsee = new HashSet<String>();
-		  
-		  raf.writeBytes(("" + sizeUnobserv));
-		  raf.writeBytes(lineSkip);
-		  for(int i = 0; i < sizeUnobserv; i++) {
-			  String val = events.get(rand.nextInt(sizeEvents));
-			  while(unsee.contains(val))
-				  val = events.get(rand.nextInt(sizeEvents));
-			  unsee.add(val);
-			  raf.writeBytes(events.get(rand.nextInt(sizeEvents)));
-			  raf.writeBytes(lineSkip);
-		  }
-		  
-		  while(unsee.size() < sizeAttacker + sizeUnobserv) {
-			  String val = events.get(rand.nextInt(sizeEvents));
-			  while(unsee.contains(val))
-				  val = events.get(rand.nextInt(sizeEvents));
-			  unsee.add(val);
-		  }
-		  
-		  raf.writeBytes(("" + (sizeAttacker + sizeUnobserv)));
-		  raf.writeBytes(lineSkip);
-		  for(String s : unsee)
-			  raf.writeBytes(s + lineSkip);
-		  
-		  raf.writeBytes((""+sizeControl));
-		  raf.writeBytes(lineSkip);
-		  for(int i = 0; i < sizeControl; i++) {
-			  raf.writeBytes(events.get(rand.nextInt(sizeEvents)));
-			  raf.writeBytes(lineSkip);
-		  }
-		  for(int i = 0; i < sizeStates; i++) {		//Each state as defined by sizeStates is processed herein
-			  String nom = "";						//Holds the State's name to differentiate between them
-			  int copy = i;							//So that we may manipulate the value but not mess up our loop
-			  do {									//At least once, perform the following operation
-				nom = ALPHABET_STATE.charAt(copy % ALPHABET_STATE.length()) + nom;		//Access the alphabet for the corresponding character
-				copy /= ALPHABET_STATE.length();				//Reduce copy by the division of the length of the alphabet.
-			  } while (copy != 0);					//Until it reaches zero. I promise this makes sense and does work.
-			  int numFriends = 1 + rand.nextInt(sizePaths);	//How many paths leading out? 1 + (0 -> The log-base-2 of the number of States in the Finite State Machine).
-			  states.add(nom);						//Add the new name to the states list for back-referencing
-			  ArrayList<String> usedEvents = new ArrayList<String>();
-			  for(int j = 0; j < numFriends; j++) {	//For as many friends as defined:
-				  String theEvent = events.get(rand.nextInt(sizeEvents));
-				  while(!nonDet && usedEvents.indexOf(theEvent) != -1 && usedEvents.size() < sizeEvents) {
-					  theEvent = events.get(rand.nextInt(sizeEvents));
-				  }
-				  usedEvents.add(theEvent);			//Keep track of used Events for non-replication
-				  if(j == 0) {						//Ensure at least one event-path is not self-referential
-					  String nonSame = nom;
-					  while(nonSame.equals(nom)) {	//So long as they are the same, keep generating States
-						  nonSame = rand.nextInt(sizeStates) + "";
-					  }
-					  raf.writeBytes(nom + " " + nonSame + " " + theEvent);
-				  }
-				  else {
-				      raf.writeBytes(nom + " " + rand.nextInt(sizeStates) + " " + theEvent);	//Add a line of State1 State2 Event(Generated on the spot)
-				  }
-				  raf.writeBytes(lineSkip);					//Line return - For Windows computers, needs to be Carriage Feed + Line Return, 13 10
-			  }
-		  }
-		  raf.close();				//Like a good Girl Scout
-		}
-		catch(Exception e) {			//Probably won't ever come up.
+		catch(IOException e) {
 			e.printStackTrace();
 		}
-		return f.getAbsolutePath();	//For convenience, have the exact file location back in the calling method!		
+		return f.getAbsolutePath();	//For convenience, have the exact file location back in the calling method!
+	}
+
+	/**
+	 * This method generates a corpus of FSM files, as in createNewFSM() above, named by the provided name
+	 * followed by their index; the files are written in parallel, each from its own seed derived from the
+	 * provided one, so the corpus is the same however many threads write it.
+	 *
+	 * File type: .fsm
+	 *
+	 * @param count - int value describing how many FSM files to generate.
+	 * @param sizeStates - int value describing how many States to include in each FSM.
+	 * @param sizeMarked - int value describing how many Marked States to include in each FSM.
+	 * @param sizeEvents - int value describing how many Unique Events to include in each FSM.
+	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in each FSM.
+	 * @param sizeInitial - int value describing how many Initial States to include in each FSM.
+	 * @param sizePrivate - int value describing how many Private States to include in each FSM.
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in each FSM.
+	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in each FSM on top of those to the System.
+	 * @param sizeControl - int value describing how many Events to mark as Uncontrollable in each FSM.
+	 * @param nonDet - boolean value denoting whether or not the FSMs are Deterministic or Non-Deterministic.
+	 * @param name - String object used to denote the title of the Files being generated, before their index.
+	 * @param filePath - String object specifying where in the file system to place the files.
+	 * @param seed - long value used to seed the random choices made for the corpus.
+	 * @return - Returns a String[] describing the locations of the generated Files in the file system, in order of their index.
+	 */
+
+	public static String[] createNewFSMs(int count, int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizeInitial, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, boolean nonDet, String name, String filePath, long seed) {
+		String[] out = new String[count];
+		IntStream.range(0, count).parallel().forEach(i ->
+			out[i] = createNewFSM(sizeStates, sizeMarked, sizeEvents, sizePaths, sizeInitial, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, nonDet, name + i, filePath, deriveSeed(seed, i)));
+		return out;
 	}
 
 	/**
 	 * This method generates a file corresponding to the nomenclature of a ModalSpecification's file input via
 	 * the properties described by its parameters: Number of States, Marked States, Unique Events, Paths,
 	 * Initial States, Private States, Unobservable Events, and Uncontrollable Events.
-	 * 
+	 *
 	 * The produced ModalSpecification object will be randomized according to the bounds described by the provided
 	 * arguments, saving the produced file to the location described by the input and returning the exact address of
 	 * this new file as a String object.
-	 * 
+	 *
 	 * File type: .mdl
-	 * 
+	 *
 	 * @param sizeStates - int value describing how many States to include in the Modal Specification.
 	 * @param sizeMarked - int value describing how many Marked States to include in the Modal Specification.
 	 * @param sizeEvents - int value describing how many Unique Events to include in the Modal Specification.
 	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in the Modal Specification.
 	 * @param sizePrivate - int value describing how many Private States to include in the Modal Specification.
-	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the Modal Specification. 
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the Modal Specification.
 	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in the Modal Specification on top of those to the System.
 	 * @param sizeControl - int value describing how many Uncontrollable States to include in the Modal Specification.
 	 * @param sizeMust - int value describing how many Must Transitions to include in the Modal Specification.
@@ -217,141 +189,572 @@ public class GenerateFSM {
 	 * @param filePath - String object specifying where in the file system to place the file.
 	 * @return - Returns a String describing the location of the generated File in the file system.
 	 */
-	
+
 	public static String createModalSpec(int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, int sizeMust, String name, String filePath) {
+		return createModalSpec(sizeStates, sizeMarked, sizeEvents, sizePaths, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, sizeMust, name, filePath, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * This method generates a file corresponding to the nomenclature of a ModalSpecification's file input, as in
+	 * createModalSpec() above, from the provided seed; calling it again with the same seed and parameters writes
+	 * the same file.
+	 *
+	 * The must Transitions are a sample of the Transitions written; as their batch comes first in the file, the
+	 * Transitions of the States holding them are made twice from their seeds rather than being kept.
+	 *
+	 * File type: .mdl
+	 *
+	 * @param sizeStates - int value describing how many States to include in the Modal Specification.
+	 * @param sizeMarked - int value describing how many Marked States to include in the Modal Specification.
+	 * @param sizeEvents - int value describing how many Unique Events to include in the Modal Specification.
+	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in the Modal Specification.
+	 * @param sizePrivate - int value describing how many Private States to include in the Modal Specification.
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the Modal Specification.
+	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in the Modal Specification on top of those to the System.
+	 * @param sizeControl - int value describing how many Uncontrollable States to include in the Modal Specification.
+	 * @param sizeMust - int value describing how many Must Transitions to include in the Modal Specification.
+	 * @param name - String object used to denote the title of the File being generated.
+	 * @param filePath - String object specifying where in the file system to place the file.
+	 * @param seed - long value used to seed the random choices made for the Modal Specification.
+	 * @return - Returns a String describing the location of the generated File in the file system.
+	 */
+
+	public static String createModalSpec(int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, int sizeMust, String name, String filePath, long seed) {
 		File f = new File(filePath + name + ".mdl");		//Creates a new file with a unique extension
-		f.delete();											//If there already exists a file, remove it.
-		events = new ArrayList<String>();					//Initiates the ArrayLists for usage
-		states = new ArrayList<String>();
-		String os = System.getProperty("os.name").split(" ")[0];
-		String lineSkip = os.equals("Windows") ? (char)13 + "" + (char)10 : (char)10 + "";
-		for(int i = 0; i < sizeEvents; i++) {				//Fills the ArrayList with requested number of Events immediately
-			String newName = "";
-			int copy = i;
-			do {
-				newName = ALPHABET_EVENT.charAt(copy%10) + newName;
-				copy /= 10;
-			} while(copy != 0);
-			events.add(newName);
-		}
-		try{													//To catch IOExceptions
-		  RandomAccessFile raf = new RandomAccessFile(f, "rw");	//Allows us to write to the file
-		  Random rand = new Random();				//Create random object for randomness
-		  raf.writeBytes("7");			//Initial, Marked, Private, Must
-		  raf.writeBytes(lineSkip);
-		  raf.writeBytes(("" + 1));
-		  raf.writeBytes(lineSkip);
-		  HashSet<Integer> initial = new HashSet<Integer>();
-		  for(int i = 0; i < 1; i++) {
-			  int rand1 = rand.nextInt(sizeStates);
-			  while(initial.contains(rand1) && 1 <= sizeStates)
-				  rand1 = rand.nextInt(sizeStates);
-			  initial.add(rand1);
-			  raf.writeBytes(rand1+"");		//Pick a state at random to be initial states
-			  raf.writeBytes(lineSkip);										//Again, redundancy!
-		  }
-		  raf.writeBytes(("" + sizeMarked));		//Strings are basically arrays of characters, which can trivially convert
-		  raf.writeBytes(lineSkip);					//to bytes, so pass a String to the writeBytes command to write to file. (write 10 for line return)
-		  HashSet<Integer> marked = new HashSet<Integer>();
-		  for(int i = 0; i < sizeMarked; i++) {		//Now to decide the marked states, again randomly
-			  int rand1 = rand.nextInt(sizeStates);
-			  while(marked.contains(rand1) && sizeMarked <= sizeStates)
-				  rand1 = rand.nextInt(sizeStates);
-			  marked.add(rand1);
-			  raf.writeBytes(rand1+"");		//Pick states at random to be marked
-			  raf.writeBytes(lineSkip);										//This does allow for redundancies, which do nothing but waste space.
-		  }
-		  raf.writeBytes("" + sizePrivate);
-		  raf.writeBytes(lineSkip);
-		  HashSet<Integer> privacy = new HashSet<Integer>();
-		  for(int i = 0; i < sizePrivate; i++) {
-			  int rand1 = rand.nextInt(sizeStates);
-			  while(privacy.contains(rand1) && sizePrivate <= sizeStates)
-				  rand1 = rand.nextInt(sizeStates);
-			  marked.add(rand1);
-			  raf.writeBytes(rand1+"");
-			  raf.writeBytes(lineSkip);
-		  }
-		  
-		  HashSet<String> unsee = new HashSet<String>();
-		  
-		  raf.writeBytes(("" + sizeUnobserv));
-		  raf.writeBytes(lineSkip);
-		  for(int i = 0; i < sizeUnobserv; i++) {
-			  String val = events.get(rand.nextInt(sizeEvents));
-			  while(unsee.contains(val))
-				  val = events.get(rand.nextInt(sizeEvents));
-			  unsee.add(val);
-			  raf.writeBytes(events.get(rand.nextInt(sizeEvents)));
-			  raf.writeBytes(lineSkip);
-		  }
-		  
-		  while(unsee.size() < sizeUnobserv + sizeAttacker) {
-			  String val = events.get(rand.nextInt(sizeEvents));
-			  while(unsee.contains(val))
-				  val = events.get(rand.nextInt(sizeEvents));
-			  unsee.add(val);
-		  }
-		  
-		  raf.writeBytes(("" + (unsee.size())));
-		  raf.writeBytes(lineSkip);
-		  for(String s : unsee)
-			  raf.writeBytes(s + lineSkip);
-		  
-		  raf.writeBytes((""+sizeControl));
-		  raf.writeBytes(lineSkip);
-		  for(int i = 0; i < sizeControl; i++) {
-			  raf.writeBytes(events.get(rand.nextInt(sizeEvents)));
-			  raf.writeBytes(lineSkip);
-		  }
-		  StringBuilder reference = new StringBuilder();
-		  for(int i = 0; i < sizeStates; i++) {		//Each state as defined by sizeStates is processed herein
-			  String nom = "";						//Holds the State's name to differentiate between them
-			  int copy = i;							//So that we may manipulate the value but not mess up our loop
-			  do {									//At least once, perform the following operation
-				nom = ALPHABET_STATE.charAt(copy % ALPHABET_STATE.length()) + nom;		//Access the alphabet for the corresponding character
-				copy /= ALPHABET_STATE.length();				//Reduce copy by the division of the length of the alphabet.
-			  } while (copy != 0);					//Until it reaches zero. I promise this makes sense and does work.
-			  int numFriends = 1 + rand.nextInt(sizePaths);	//How many paths leading out? 1 + (0 -> The log-base-2 of the number of States in the Finite State Machine).
-			  states.add(nom);						//Add the new name to the states list for back-referencing
-			  ArrayList<String> usedEvents = new ArrayList<String>();
-			  for(int j = 0; j < numFriends; j++) {	//For as many friends as defined:
-				  String theEvent = events.get(rand.nextInt(sizeEvents));
-				  while(usedEvents.indexOf(theEvent) != -1 && usedEvents.size() < sizeEvents) {
-					  theEvent = events.get(rand.nextInt(sizeEvents));
-				  }
-				  usedEvents.add(theEvent);			//Keep track of used Events for non-replication
-				  if(j == 0) {						//Ensure at least one event-path is not self-referential
-					  String nonSame = nom;
-					  while(nonSame.equals(nom)) {	//So long as they are the same, keep generating States
-						  nonSame = rand.nextInt(sizeStates) + "";
-					  }
-					  reference.append(nom + " " + nonSame + " " + theEvent);
-				  }
-				  else {
-				      reference.append(nom + " " + rand.nextInt(sizeStates) + " " + theEvent);	//Add a line of State1 State2 Event(Generated on the spot)
-				  }
-				  if(j + 1 < numFriends || i + 1 < sizeStates)
-					  reference.append(lineSkip);					//Line return - For Windows computers, needs to be Carriage Feed + Line Return, 13 10
-			  }
-		  }
-
-		  raf.writeBytes(("" + sizeMust));
-		  raf.writeBytes(lineSkip);
-		  String[] refe = reference.toString().split("\n\n");
-		  for(int i = 0; i < sizeMust; i++) {
-			  raf.writeBytes(refe[rand.nextInt(refe.length)]);
-			  raf.writeBytes(lineSkip);
-		  }
-		  
-		  raf.writeBytes(reference.toString());
-		  
-		  raf.close();				//Like a good Girl Scout
+		SplittableRandom rand = new SplittableRandom(seed);
+		Attributes attributes = new Attributes(sizeStates, sizeMarked, sizeEvents, 1, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, rand);
+		// Number the Transitions of each State, to find which State each sampled must Transition belongs to
+		long[] firstTransition = numberTransitions(seed, sizeStates, sizeEvents, sizePaths, true);
+		long[] must = sampleLong(sizeMust, firstTransition[sizeStates], rand);
+		try(Writer out = openFile(f)) {
+			out.write("7" + LINE_SKIP);			//Initial, Marked, Private, Unobservable, Attacker, Uncontrollable, Must
+			writeAttributes(out, attributes);
+			int[] events = new int[Math.max(sizePaths, 1)];
+			int[] targets = new int[events.length];
+			StringBuilder line = new StringBuilder();
+			out.write(must.length + LINE_SKIP);
+			int state = -1;
+			int count = 0;
+			for(long index : must) {
+				if(state == -1 || index >= firstTransition[state + 1]) {
+					state = findState(firstTransition, index);
+					count = makeTransitions(seed, state, sizeStates, sizeEvents, sizePaths, true, events, targets);
+				}
+				int j = (int)(index - firstTransition[state]);
+				writeTransition(out, line, state, targets[j], events[j]);
+			}
+			for(int i = 0; i < sizeStates; i++) {
+				count = makeTransitions(seed, i, sizeStates, sizeEvents, sizePaths, true, events, targets);
+				for(int j = 0; j < count; j++)
+					writeTransition(out, line, i, targets[j], events[j]);
+			}
 		}
-		catch(Exception e) {			//Probably won't ever come up.
+		catch(IOException e) {
 			e.printStackTrace();
 		}
 		return f.getAbsolutePath();	//For convenience, have the exact file location back in the calling method!
 	}
-	
+
+	/**
+	 * This method generates a corpus of ModalSpecification files, as in createModalSpec() above, named by the
+	 * provided name followed by their index; the files are written in parallel, each from its own seed derived
+	 * from the provided one.
+	 *
+	 * File type: .mdl
+	 *
+	 * @param count - int value describing how many Modal Specification files to generate.
+	 * @param sizeStates - int value describing how many States to include in each Modal Specification.
+	 * @param sizeMarked - int value describing how many Marked States to include in each Modal Specification.
+	 * @param sizeEvents - int value describing how many Unique Events to include in each Modal Specification.
+	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in each Modal Specification.
+	 * @param sizePrivate - int value describing how many Private States to include in each Modal Specification.
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in each Modal Specification.
+	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in each Modal Specification on top of those to the System.
+	 * @param sizeControl - int value describing how many Uncontrollable States to include in each Modal Specification.
+	 * @param sizeMust - int value describing how many Must Transitions to include in each Modal Specification.
+	 * @param name - String object used to denote the title of the Files being generated, before their index.
+	 * @param filePath - String object specifying where in the file system to place the files.
+	 * @param seed - long value used to seed the random choices made for the corpus.
+	 * @return - Returns a String[] describing the locations of the generated Files in the file system, in order of their index.
+	 */
+
+	public static String[] createModalSpecs(int count, int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, int sizeMust, String name, String filePath, long seed) {
+		String[] out = new String[count];
+		IntStream.range(0, count).parallel().forEach(i ->
+			out[i] = createModalSpec(sizeStates, sizeMarked, sizeEvents, sizePaths, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, sizeMust, name + i, filePath, deriveSeed(seed, i)));
+		return out;
+	}
+
+	/**
+	 * This method builds a random DetObsContFSM in memory, without a file, via the properties described by its
+	 * parameters; it holds the same machine as reading the file written by createNewFSM() with one Initial
+	 * State, the same parameters and the same seed.
+	 *
+	 * @param sizeStates - int value describing how many States to include in the FSM.
+	 * @param sizeMarked - int value describing how many Marked States to include in the FSM.
+	 * @param sizeEvents - int value describing how many Unique Events to include in the FSM.
+	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in the FSM.
+	 * @param sizePrivate - int value describing how many Private States to include in the FSM.
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the FSM.
+	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in the FSM on top of those to the System.
+	 * @param sizeControl - int value describing how many Events to mark as Uncontrollable in the FSM.
+	 * @param id - String object representing the id of the FSM.
+	 * @param seed - long value used to seed the random choices made for the FSM.
+	 * @return - Returns a DetObsContFSM object holding the generated machine.
+	 */
+
+	public static DetObsContFSM buildDetObsContFSM(int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, String id, long seed) {
+		Attributes attributes = new Attributes(sizeStates, sizeMarked, sizeEvents, 1, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, new SplittableRandom(seed));
+		return build(new DetObsContFSM(id), attributes, null, seed, sizeStates, sizeEvents, sizePaths, true);
+	}
+
+	/**
+	 * This method builds a random NonDetObsContFSM in memory, without a file, via the properties described by its
+	 * parameters; it holds the same machine as reading the file written by createNewFSM() for a Non-Deterministic
+	 * FSM with the same parameters and the same seed.
+	 *
+	 * @param sizeStates - int value describing how many States to include in the FSM.
+	 * @param sizeMarked - int value describing how many Marked States to include in the FSM.
+	 * @param sizeEvents - int value describing how many Unique Events to include in the FSM.
+	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in the FSM.
+	 * @param sizeInitial - int value describing how many Initial States to include in the FSM.
+	 * @param sizePrivate - int value describing how many Private States to include in the FSM.
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the FSM.
+	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in the FSM on top of those to the System.
+	 * @param sizeControl - int value describing how many Events to mark as Uncontrollable in the FSM.
+	 * @param id - String object representing the id of the FSM.
+	 * @param seed - long value used to seed the random choices made for the FSM.
+	 * @return - Returns a NonDetObsContFSM object holding the generated machine.
+	 */
+
+	public static NonDetObsContFSM buildNonDetObsContFSM(int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizeInitial, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, String id, long seed) {
+		Attributes attributes = new Attributes(sizeStates, sizeMarked, sizeEvents, sizeInitial, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, new SplittableRandom(seed));
+		return build(new NonDetObsContFSM(id), attributes, null, seed, sizeStates, sizeEvents, sizePaths, false);
+	}
+
+	/**
+	 * This method builds a random ModalSpecification in memory, without a file, via the properties described by
+	 * its parameters; it holds the same machine as reading the file written by createModalSpec() with the same
+	 * parameters and the same seed.
+	 *
+	 * @param sizeStates - int value describing how many States to include in the Modal Specification.
+	 * @param sizeMarked - int value describing how many Marked States to include in the Modal Specification.
+	 * @param sizeEvents - int value describing how many Unique Events to include in the Modal Specification.
+	 * @param sizePaths - int value describing the maximal number of Paths leading out from a given State in the Modal Specification.
+	 * @param sizePrivate - int value describing how many Private States to include in the Modal Specification.
+	 * @param sizeUnobserv - int value describing how many Events to mark as Unobservable to the System in the Modal Specification.
+	 * @param sizeAtacker - int value describing how many Events to mark as Unobservable to the Attacker in the Modal Specification on top of those to the System.
+	 * @param sizeControl - int value describing how many Uncontrollable States to include in the Modal Specification.
+	 * @param sizeMust - int value describing how many Must Transitions to include in the Modal Specification.
+	 * @param id - String object representing the id of the Modal Specification.
+	 * @param seed - long value used to seed the random choices made for the Modal Specification.
+	 * @return - Returns a ModalSpecification object holding the generated machine.
+	 */
+
+	public static ModalSpecification buildModalSpec(int sizeStates, int sizeMarked, int sizeEvents, int sizePaths, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, int sizeMust, String id, long seed) {
+		SplittableRandom rand = new SplittableRandom(seed);
+		Attributes attributes = new Attributes(sizeStates, sizeMarked, sizeEvents, 1, sizePrivate, sizeUnobserv, sizeAttacker, sizeControl, rand);
+		long[] must = sampleLong(sizeMust, numberTransitions(seed, sizeStates, sizeEvents, sizePaths, true)[sizeStates], rand);
+		return build(new ModalSpecification(id), attributes, must, seed, sizeStates, sizeEvents, sizePaths, true);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the name given to the Event with the provided index: the index written in
+	 * base 52 with the letters of ALPHABET_EVENT as digits, so that every index has a distinct name.
+	 *
+	 * @param index - int value representing the index of the Event.
+	 * @return - Returns a String object representing the name of the Event.
+	 */
+
+	public static String getEventName(int index) {
+		char[] name = new char[8];
+		int start = name.length;
+		do {
+			name[--start] = ALPHABET_EVENT.charAt(index % ALPHABET_EVENT.length());
+			index /= ALPHABET_EVENT.length();
+		} while(index != 0);
+		return new String(name, start, name.length - start);
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that fills an empty transition system with a random machine. The Transitions of the States
+	 * are made in parallel, each State from its own random sequence, into arrays numbered as in the file; they
+	 * are then added all at once through the TransitionFunction's bulk addTransitions(), as when a file is read.
+	 *
+	 * @param ts - TS object to fill, which must be empty.
+	 * @param attributes - Attributes object holding the sampled batches of States and Events.
+	 * @param must - long[] object holding the numbers of the Transitions which are must Transitions, or null for none.
+	 * @param seed - long value which the generator was seeded with.
+	 * @param sizeStates - int value describing how many States there are.
+	 * @param sizeEvents - int value describing how many Events there are.
+	 * @param sizePaths - int value describing the maximal number of Transitions leaving a State.
+	 * @param distinct - boolean value denoting whether the Transitions leaving a State must each have a different Event.
+	 * @return - Returns the TS object, holding the machine.
+	 */
+
+	private static <TS extends TransitionSystem<?>> TS build(TS ts, Attributes attributes, long[] must, long seed, int sizeStates, int sizeEvents, int sizePaths, boolean distinct) {
+		long[] firstTransition = numberTransitions(seed, sizeStates, sizeEvents, sizePaths, distinct);
+		int total = Math.toIntExact(firstTransition[sizeStates]);
+		int[] eventOf = new int[total];
+		int[] targetOf = new int[total];
+		IntStream.range(0, sizeStates).parallel().forEach(i -> {
+			int[] events = new int[Math.max(sizePaths, 1)];
+			int[] targets = new int[events.length];
+			int count = makeTransitions(seed, i, sizeStates, sizeEvents, sizePaths, distinct, events, targets);
+			System.arraycopy(events, 0, eventOf, (int)firstTransition[i], count);
+			System.arraycopy(targets, 0, targetOf, (int)firstTransition[i], count);
+		});
+
+		State[] stateAt = new State[sizeStates];
+		for(int i = 0; i < sizeStates; i++)
+			stateAt[i] = ts.addState(Integer.toString(i));
+		for(int i = attributes.initial.nextSetBit(0); i >= 0; i = attributes.initial.nextSetBit(i + 1))
+			ts.addInitialState(stateAt[i]);
+		for(int i = attributes.marked.nextSetBit(0); i >= 0; i = attributes.marked.nextSetBit(i + 1))
+			stateAt[i].setStateMarked(true);
+		for(int i = attributes.secret.nextSetBit(0); i >= 0; i = attributes.secret.nextSetBit(i + 1))
+			stateAt[i].setStatePrivate(true);
+
+		// Only the Events named by a batch or a Transition are made, as when the file is read
+		Event[] eventAt = new Event[sizeEvents];
+		for(int i = attributes.unobserv.nextSetBit(0); i >= 0; i = attributes.unobserv.nextSetBit(i + 1))
+			getEvent(ts, eventAt, i).setEventObservability(false);
+		for(int i = attributes.attacker.nextSetBit(0); i >= 0; i = attributes.attacker.nextSetBit(i + 1))
+			getEvent(ts, eventAt, i).setEventAttackerObservability(false);
+		for(int i = attributes.uncontrol.nextSetBit(0); i >= 0; i = attributes.uncontrol.nextSetBit(i + 1))
+			getEvent(ts, eventAt, i).setEventControllability(false);
+
+		State[] from = new State[total];
+		Event[] on = new Event[total];
+		State[] to = new State[total];
+		for(int i = 0; i < sizeStates; i++) {
+			for(int k = (int)firstTransition[i]; k < firstTransition[i + 1]; k++) {
+				from[k] = stateAt[i];
+				on[k] = getEvent(ts, eventAt, eventOf[k]);
+				to[k] = stateAt[targetOf[k]];
+			}
+		}
+		ts.getTransitions().addTransitions(from, on, to);
+		if(must != null && ts instanceof ModalSpecification)
+			for(long index : must)
+				((ModalSpecification)ts).addMustTransition(from[(int)index].getStateName(), on[(int)index].getEventName(), to[(int)index].getStateName());
+		return ts;
+	}
+
+	/**
+	 * Helper method that gets the Event with the provided index, adding it to the transition system the first time.
+	 *
+	 * @param ts - TransitionSystem object which the Event belongs to.
+	 * @param eventAt - Event[] object holding the Events made so far by their index.
+	 * @param index - int value representing the index of the Event.
+	 * @return - Returns the Event object with the index.
+	 */
+
+	private static Event getEvent(TransitionSystem<?> ts, Event[] eventAt, int index) {
+		if(eventAt[index] == null)
+			eventAt[index] = ts.getEventMap().addEvent(getEventName(index));
+		return eventAt[index];
+	}
+
+	/**
+	 * Helper method that opens a buffered Writer over a new file, replacing any file already there.
+	 *
+	 * @param f - File object to write.
+	 * @return - Returns a Writer object writing to the file.
+	 * @throws IOException - Thrown if the file cannot be opened.
+	 */
+
+	private static Writer openFile(File f) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.US_ASCII), BUFFER_SIZE);
+	}
+
+	/**
+	 * Helper method that writes a batch of States: its size, then each State on its own line.
+	 *
+	 * @param out - Writer object to write the batch to.
+	 * @param states - BitSet object holding the indices of the States in the batch.
+	 * @throws IOException - Thrown if the file cannot be written.
+	 */
+
+	private static void writeStates(Writer out, BitSet states) throws IOException {
+		out.write(states.cardinality() + LINE_SKIP);
+		for(int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1))
+			out.write(i + LINE_SKIP);
+	}
+
+	/**
+	 * Helper method that writes a batch of Events: its size, then each Event on its own line.
+	 *
+	 * @param out - Writer object to write the batch to.
+	 * @param events - BitSet object holding the indices of the Events in the batch.
+	 * @throws IOException - Thrown if the file cannot be written.
+	 */
+
+	private static void writeEvents(Writer out, BitSet events) throws IOException {
+		out.write(events.cardinality() + LINE_SKIP);
+		for(int i = events.nextSetBit(0); i >= 0; i = events.nextSetBit(i + 1))
+			out.write(getEventName(i) + LINE_SKIP);
+	}
+
+	/**
+	 * Helper method that writes the six batches of States and Events sampled for a file: the Initial, Marked
+	 * and Private States, then the Events Unobservable to the System, those Unobservable to the Attacker, and
+	 * the Uncontrollable ones.
+	 *
+	 * @param out - Writer object to write the batches to.
+	 * @param attributes - Attributes object holding the sampled batches.
+	 * @throws IOException - Thrown if the file cannot be written.
+	 */
+
+	private static void writeAttributes(Writer out, Attributes attributes) throws IOException {
+		writeStates(out, attributes.initial);
+		writeStates(out, attributes.marked);
+		writeStates(out, attributes.secret);
+		writeEvents(out, attributes.unobserv);
+		writeEvents(out, attributes.attacker);
+		writeEvents(out, attributes.uncontrol);
+	}
+
+	/**
+	 * Helper method that writes one Transition on its own line as State, State, Event.
+	 *
+	 * @param out - Writer object to write the Transition to.
+	 * @param line - StringBuilder object reused to build the line.
+	 * @param from - int value representing the State the Transition leaves.
+	 * @param to - int value representing the State the Transition reaches.
+	 * @param event - int value representing the index of the Transition's Event.
+	 * @throws IOException - Thrown if the file cannot be written.
+	 */
+
+	private static void writeTransition(Writer out, StringBuilder line, int from, int to, int event) throws IOException {
+		line.setLength(0);
+		line.append(from).append(' ').append(to).append(' ').append(getEventName(event)).append(LINE_SKIP);
+		out.append(line);
+	}
+
+	/**
+	 * Helper method that makes the Transitions leaving a State from the State's own random sequence: between 1
+	 * and sizePaths of them, the first never leading back to the State itself. Making them again from the same
+	 * seed gives the same Transitions.
+	 *
+	 * @param seed - long value which the generator was seeded with.
+	 * @param state - int value representing the index of the State.
+	 * @param sizeStates - int value describing how many States there are.
+	 * @param sizeEvents - int value describing how many Events there are.
+	 * @param sizePaths - int value describing the maximal number of Transitions leaving the State.
+	 * @param distinct - boolean value denoting whether the Transitions must each have a different Event.
+	 * @param events - int[] object which the Transitions' Events are placed in.
+	 * @param targets - int[] object which the Transitions' target States are placed in.
+	 * @return - Returns an int value representing the number of Transitions made.
+	 */
+
+	private static int makeTransitions(long seed, int state, int sizeStates, int sizeEvents, int sizePaths, boolean distinct, int[] events, int[] targets) {
+		SplittableRandom rand = new SplittableRandom(deriveSeed(seed, state));
+		int count = countTransitions(rand, sizeEvents, sizePaths, distinct);
+		if(distinct)
+			sampleDistinct(events, count, sizeEvents, rand);
+		else
+			for(int j = 0; j < count; j++)
+				events[j] = rand.nextInt(sizeEvents);
+		for(int j = 0; j < count; j++) {
+			if(j == 0 && sizeStates > 1) {		//Ensure at least one event-path is not self-referential
+				int target = rand.nextInt(sizeStates - 1);
+				targets[j] = target >= state ? target + 1 : target;
+			}
+			else
+				targets[j] = rand.nextInt(sizeStates);
+		}
+		return count;
+	}
+
+	/**
+	 * Helper method that numbers the Transitions of every State in order, finding how many Transitions
+	 * makeTransitions() makes for each State without making them.
+	 *
+	 * @param seed - long value which the generator was seeded with.
+	 * @param sizeStates - int value describing how many States there are.
+	 * @param sizeEvents - int value describing how many Events there are.
+	 * @param sizePaths - int value describing the maximal number of Transitions leaving a State.
+	 * @param distinct - boolean value denoting whether the Transitions leaving a State must each have a different Event.
+	 * @return - Returns a long[] object holding the number of each State's first Transition, followed by the total number of Transitions.
+	 */
+
+	private static long[] numberTransitions(long seed, int sizeStates, int sizeEvents, int sizePaths, boolean distinct) {
+		long[] out = new long[sizeStates + 1];
+		for(int i = 0; i < sizeStates; i++)
+			out[i + 1] = out[i] + countTransitions(new SplittableRandom(deriveSeed(seed, i)), sizeEvents, sizePaths, distinct);
+		return out;
+	}
+
+	/**
+	 * Helper method that finds the State holding a Transition, given the Transition's number.
+	 *
+	 * @param firstTransition - long[] object holding the number of each State's first Transition, as made by numberTransitions().
+	 * @param index - long value representing the number of the Transition.
+	 * @return - Returns an int value representing the index of the State the Transition leaves.
+	 */
+
+	private static int findState(long[] firstTransition, long index) {
+		int state = Arrays.binarySearch(firstTransition, index);
+		state = state >= 0 ? state : -state - 2;
+		while(firstTransition[state + 1] <= index)		//Skip the States with no Transitions
+			state++;
+		return state;
+	}
+
+	/**
+	 * Helper method that draws the number of Transitions leaving a State, which is the first choice made
+	 * from the State's random sequence.
+	 *
+	 * @param rand - SplittableRandom object holding the State's random sequence.
+	 * @param sizeEvents - int value describing how many Events there are.
+	 * @param sizePaths - int value describing the maximal number of Transitions leaving the State.
+	 * @param distinct - boolean value denoting whether the Transitions must each have a different Event.
+	 * @return - Returns an int value representing the number of Transitions.
+	 */
+
+	private static int countTransitions(SplittableRandom rand, int sizeEvents, int sizePaths, boolean distinct) {
+		if(sizeEvents <= 0 || sizePaths <= 0)
+			return 0;
+		int count = 1 + rand.nextInt(sizePaths);
+		return distinct ? Math.min(count, sizeEvents) : count;
+	}
+
+	/**
+	 * Helper method that samples distinct values from a range by Floyd's algorithm, which makes exactly
+	 * one random choice per value sampled. A sample larger than the range takes the whole range.
+	 *
+	 * @param count - int value describing how many values to sample.
+	 * @param range - int value describing the (exclusive) upper bound of the values.
+	 * @param rand - SplittableRandom object making the choices.
+	 * @return - Returns a BitSet object holding the sampled values.
+	 */
+
+	private static BitSet sample(int count, int range, SplittableRandom rand) {
+		BitSet out = new BitSet(range);
+		count = Math.max(Math.min(count, range), 0);
+		for(int j = range - count; j < range; j++) {
+			int pick = rand.nextInt(j + 1);
+			out.set(out.get(pick) ? j : pick);
+		}
+		return out;
+	}
+
+	/**
+	 * Helper method that samples distinct values from a range of long values by Floyd's algorithm, as for sample().
+	 *
+	 * @param count - int value describing how many values to sample.
+	 * @param range - long value describing the (exclusive) upper bound of the values.
+	 * @param rand - SplittableRandom object making the choices.
+	 * @return - Returns a long[] object holding the sampled values in increasing order.
+	 */
+
+	private static long[] sampleLong(int count, long range, SplittableRandom rand) {
+		HashSet<Long> chosen = new HashSet<Long>();
+		count = (int)Math.max(Math.min(count, range), 0);
+		for(long j = range - count; j < range; j++) {
+			long pick = rand.nextLong(j + 1);
+			chosen.add(chosen.contains(pick) ? j : pick);
+		}
+		long[] out = new long[chosen.size()];
+		int i = 0;
+		for(long value : chosen)
+			out[i++] = value;
+		Arrays.sort(out);
+		return out;
+	}
+
+	/**
+	 * Helper method that samples a few distinct values from a range by Floyd's algorithm, placing them in an
+	 * array; only the values already sampled are searched, so the size of the range does not matter.
+	 *
+	 * @param out - int[] object which the values are placed in.
+	 * @param count - int value describing how many values to sample, no more than the range.
+	 * @param range - int value describing the (exclusive) upper bound of the values.
+	 * @param rand - SplittableRandom object making the choices.
+	 */
+
+	private static void sampleDistinct(int[] out, int count, int range, SplittableRandom rand) {
+		HashSet<Integer> chosen = count > SMALL_SAMPLE ? new HashSet<Integer>() : null;
+		for(int i = 0, j = range - count; j < range; i++, j++) {
+			int pick = rand.nextInt(j + 1);
+			boolean used = false;
+			if(chosen != null)
+				used = !chosen.add(pick);
+			else
+				for(int k = 0; k < i && !used; k++)
+					used = out[k] == pick;
+			if(used) {
+				pick = j;
+				if(chosen != null)
+					chosen.add(pick);
+			}
+			out[i] = pick;
+		}
+	}
+
+	/**
+	 * Helper method that derives the seed of a State's (or a corpus file's) random sequence from the generator's
+	 * seed and its index, scrambling them so that neighbouring indices get unrelated sequences.
+	 *
+	 * @param seed - long value which the generator was seeded with.
+	 * @param index - int value representing the index of the State or file.
+	 * @return - Returns a long value representing the derived seed.
+	 */
+
+	private static long deriveSeed(long seed, int index) {
+		long z = seed + (index + 1L) * SEED_GAMMA;
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * This class holds the batches of States and Events sampled for a machine, drawn in the order they are
+	 * written to its file so that a file and a machine built in memory from the same seed agree.
+	 */
+
+	private static class Attributes {
+
+		/** BitSet objects holding the indices of the Initial, Marked and Private States.*/
+		private BitSet initial, marked, secret;
+		/** BitSet objects holding the indices of the Events Unobservable to the System, Unobservable to the Attacker, and Uncontrollable.*/
+		private BitSet unobserv, attacker, uncontrol;
+
+		/**
+		 * Constructor for an Attributes object which samples every batch from the provided random sequence.
+		 *
+		 * @param sizeStates - int value describing how many States there are.
+		 * @param sizeMarked - int value describing how many Marked States to sample.
+		 * @param sizeEvents - int value describing how many Events there are.
+		 * @param sizeInitial - int value describing how many Initial States to sample.
+		 * @param sizePrivate - int value describing how many Private States to sample.
+		 * @param sizeUnobserv - int value describing how many Events Unobservable to the System to sample.
+		 * @param sizeAttacker - int value describing how many more Events Unobservable to the Attacker to sample.
+		 * @param sizeControl - int value describing how many Uncontrollable Events to sample.
+		 * @param rand - SplittableRandom object making the choices.
+		 */
+
+		Attributes(int sizeStates, int sizeMarked, int sizeEvents, int sizeInitial, int sizePrivate, int sizeUnobserv, int sizeAttacker, int sizeControl, SplittableRandom rand) {
+			initial = sample(sizeInitial, sizeStates, rand);
+			marked = sample(sizeMarked, sizeStates, rand);
+			secret = sample(sizePrivate, sizeStates, rand);
+			attacker = sample(sizeUnobserv + sizeAttacker, sizeEvents, rand);
+			// The Events unobservable to the System are a sample of those unobservable to the Attacker
+			BitSet chosen = sample(sizeUnobserv, attacker.cardinality(), rand);
+			unobserv = new BitSet(sizeEvents);
+			for(int i = attacker.nextSetBit(0), j = 0; i >= 0; i = attacker.nextSetBit(i + 1), j++)
+				if(chosen.get(j))
+					unobserv.set(i);
+			uncontrol = sample(sizeControl, sizeEvents, rand);
+		}
+
+	}
+
 }
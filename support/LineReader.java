@@ -0,0 +1,347 @@
+package support;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.io.IOException;
+
+/**
+ * This class reads a text file line by line straight from its bytes, for the file formats handled by
+ * ReadWrite. Large blocks of the file are read from its channel into one buffer, and each line is found
+ * in place rather than decoded into a String, so that the Transitions of very large files can be split
+ * into tokens without making any garbage; only the tokens not seen before need to become Strings.
+ *
+ * Lines may end with "\n", "\r\n" or "\r". The reader counts the lines it has read, and the IOExceptions
+ * it throws for malformed input say which line was at fault.
+ *
+ * The file is read with positional reads, so several LineReaders may read different parts of one channel
+ * at the same time (as when the Transitions of a large file are parsed in parallel).
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+class LineReader {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value representing the number of bytes read from the file at a time.*/
+	private static final int BLOCK_SIZE = 1 << 20;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** FileChannel object which the file is read from.*/
+	private FileChannel channel;
+	/** long value representing the position in the file of the next byte to be read into the buffer.*/
+	private long filePosition;
+	/** Charset object which the tokens are decoded with.*/
+	private Charset charset;
+	/** byte[] object holding the bytes read from the file but not yet used.*/
+	private byte[] buffer;
+	/** int values representing the position of the next unused byte and the end of the bytes read.*/
+	private int position, limit;
+	/** boolean value representing whether the whole file has been read into the buffer.*/
+	private boolean finished;
+	/** int values representing the start and end (exclusive) of the current line in the buffer.*/
+	private int lineStart, lineEnd;
+	/** int value representing the number of the current line, counting from 1.*/
+	private int lineNumber;
+	/** boolean value representing whether the last line ended with "\r", so a "\n" following it belongs to the same separator.*/
+	private boolean pendingLineFeed;
+	/** boolean value representing whether the current line has been read up to its separator, so reading goes on at the next line.*/
+	private boolean lineFinished = true;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a LineReader object which reads the provided channel from its start, decoding the
+	 * tokens with the default Charset (as Scanner does).
+	 *
+	 * @param inChannel - FileChannel object to read from.
+	 */
+
+	LineReader(FileChannel inChannel) {
+		this(inChannel, 0);
+	}
+
+	/**
+	 * Constructor for a LineReader object which reads the provided channel from the given position.
+	 *
+	 * @param inChannel - FileChannel object to read from.
+	 * @param start - long value representing the position in the file to start reading from.
+	 */
+
+	LineReader(FileChannel inChannel, long start) {
+		channel = inChannel;
+		filePosition = start;
+		charset = Charset.defaultCharset();
+		buffer = new byte[BLOCK_SIZE];
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method moves to the next line, which may then be read through getLineStart(), getLineEnd() and getBuffer().
+	 *
+	 * @return - Returns true if there was another line, false if the file has ended.
+	 * @throws IOException - Thrown if the file cannot be read.
+	 */
+
+	boolean nextLine() throws IOException {
+		skipPendingLineFeed();
+		int end = findLineEnd(position);
+		while(end == -1 && !finished) {
+			int searched = limit - position;
+			fill();
+			end = findLineEnd(position + searched);
+		}
+		if(end == -1) { // The last line has no line separator
+			if(position == limit)
+				return false;
+			end = limit;
+		}
+		lineStart = position;
+		lineEnd = end;
+		lineFinished = true;
+		if(end < limit) {
+			pendingLineFeed = buffer[end] == '\r';
+			position = end + 1;
+		}
+		else
+			position = end;
+		lineNumber++;
+		return true;
+	}
+
+	/**
+	 * This method reads the rest of the current line, or the next line if the current one has been used up.
+	 *
+	 * @param what - String object describing what the line is expected to hold, for the error message.
+	 * @return - Returns a String object holding the line.
+	 * @throws IOException - Thrown if the file has ended or cannot be read.
+	 */
+
+	String readLine(String what) throws IOException {
+		if(!nextLine()) {
+			lineNumber++;
+			throw error("the file ended before " + what);
+		}
+		return decode(lineStart, lineEnd);
+	}
+
+	/**
+	 * This method reads the next whitespace-separated integer, which may be on a later line, leaving the
+	 * rest of its line unread.
+	 *
+	 * @param what - String object describing what the integer represents, for the error message.
+	 * @return - Returns the int value read.
+	 * @throws IOException - Thrown if the next token is not an integer, the file has ended, or it cannot be read.
+	 */
+
+	int readInt(String what) throws IOException {
+		skipPendingLineFeed();
+		if(lineFinished)
+			lineNumber++;
+		lineFinished = false;
+		// Skip whitespace, counting any lines passed over
+		while(true) {
+			if(position == limit && (finished || !fill()))
+				throw error("the file ended before " + what);
+			byte b = buffer[position];
+			if(b != ' ' && b != '\t' && b != '\n' && b != '\r')
+				break;
+			position++;
+			if(b == '\n')
+				lineNumber++;
+			else if(b == '\r') {
+				lineNumber++;
+				pendingLineFeed = true;
+				skipPendingLineFeed();
+			}
+		}
+		int start = position;
+		while(true) {
+			if(position == limit && !finished) {
+				int offset = position - start;
+				position = start;
+				fill();
+				start = position;
+				position = start + offset;
+			}
+			if(position == limit || Character.isWhitespace(buffer[position]))
+				break;
+			position++;
+		}
+		String token = decode(start, position);
+		try {
+			return Integer.parseInt(token);
+		}
+		catch(NumberFormatException e) {
+			throw error("expected " + what + " but found \"" + token + "\"");
+		}
+	}
+
+	/**
+	 * This method discards the rest of the current line.
+	 *
+	 * @throws IOException - Thrown if the file cannot be read.
+	 */
+
+	void skipRestOfLine() throws IOException {
+		int count = lineNumber;
+		nextLine();
+		lineNumber = count;
+	}
+
+	/**
+	 * This method gets the position in the file of the next byte to be read, past the separator of
+	 * the current line.
+	 *
+	 * @return - Returns a long value representing the position in the file.
+	 * @throws IOException - Thrown if the file cannot be read.
+	 */
+
+	long getFilePosition() throws IOException {
+		skipPendingLineFeed();
+		return filePosition - limit + position;
+	}
+
+	/**
+	 * This method makes an exception for malformed input, naming the line at fault.
+	 *
+	 * @param message - String object describing the problem.
+	 * @return - Returns an IOException object whose message starts with the line number.
+	 */
+
+	IOException error(String message) {
+		return new IOException("Line " + Math.max(lineNumber, 1) + ": " + message);
+	}
+
+	/**
+	 * This method decodes part of the buffer into a String.
+	 *
+	 * @param start - int value representing the first byte.
+	 * @param end - int value representing the end (exclusive) of the bytes.
+	 * @return - Returns a String object holding the decoded bytes.
+	 */
+
+	String decode(int start, int end) {
+		return new String(buffer, start, end - start, charset);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the buffer holding the current line; it must not be modified.
+	 *
+	 * @return - Returns a byte[] object holding the current line between getLineStart() and getLineEnd().
+	 */
+
+	byte[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Getter method that returns the position of the current line's first byte in the buffer.
+	 *
+	 * @return - Returns an int value representing the start of the current line.
+	 */
+
+	int getLineStart() {
+		return lineStart;
+	}
+
+	/**
+	 * Getter method that returns the position just after the current line's last byte in the buffer,
+	 * not counting the line separator.
+	 *
+	 * @return - Returns an int value representing the end (exclusive) of the current line.
+	 */
+
+	int getLineEnd() {
+		return lineEnd;
+	}
+
+	/**
+	 * Getter method that returns the position in the file of the current line's first byte.
+	 *
+	 * @return - Returns a long value representing the position in the file of the current line.
+	 */
+
+	long getLineFilePosition() {
+		return filePosition - limit + lineStart;
+	}
+
+	/**
+	 * Getter method that returns the number of the current line.
+	 *
+	 * @return - Returns an int value representing the number of the current line, counting from 1.
+	 */
+
+	int getLineNumber() {
+		return lineNumber;
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that skips the "\n" of a "\r\n" separator whose "\r" ended the last line.
+	 *
+	 * @throws IOException - Thrown if the file cannot be read.
+	 */
+
+	private void skipPendingLineFeed() throws IOException {
+		if(!pendingLineFeed)
+			return;
+		pendingLineFeed = false;
+		if(position == limit && !finished)
+			fill();
+		if(position < limit && buffer[position] == '\n')
+			position++;
+	}
+
+	/**
+	 * Helper method that finds the end of the line starting at the provided position.
+	 *
+	 * @param from - int value representing the position to search from.
+	 * @return - Returns an int value representing the position of the line separator, or -1 if none has been read yet.
+	 */
+
+	private int findLineEnd(int from) {
+		for(int i = from; i < limit; i++)
+			if(buffer[i] == '\n' || buffer[i] == '\r')
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Helper method that moves the unused bytes to the front of the buffer (growing it if they fill it)
+	 * and reads more of the file after them.
+	 *
+	 * @return - Returns true if any bytes were read, false if the file has ended.
+	 * @throws IOException - Thrown if the file cannot be read.
+	 */
+
+	private boolean fill() throws IOException {
+		int unused = limit - position;
+		if(unused == buffer.length) {
+			byte[] bigger = new byte[buffer.length * 2];
+			System.arraycopy(buffer, position, bigger, 0, unused);
+			buffer = bigger;
+		}
+		else
+			System.arraycopy(buffer, position, buffer, 0, unused);
+		position = 0;
+		limit = unused;
+		int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit), filePosition);
+		if(read <= 0) {
+			finished = true;
+			return false;
+		}
+		filePosition += read;
+		limit += read;
+		return true;
+	}
+
+}
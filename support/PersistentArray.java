@@ -0,0 +1,193 @@
+package support;
+
+import java.util.function.Consumer;
+
+/**
+ * PersistentArray is an immutable array which is never changed in place: set and add return a new
+ * PersistentArray, and the old one remains valid. The elements are kept in the leaves of a tree in which
+ * each node holds up to 32 children, so a new version copies only the nodes on the path to the element
+ * changed (at most a handful, even for millions of elements) and shares all the rest with the old version.
+ * Copying a PersistentArray therefore costs nothing, and many versions which differ in a few elements
+ * take little more memory than one.
+ *
+ * Since no version is ever modified, any number of threads may read them at once without locking.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ *
+ * @param <E> - Type of the elements held.
+ */
+
+public final class PersistentArray<E> {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value representing the number of bits of an index used at each level of the tree.*/
+	private static final int BITS = 5;
+	/** int value representing the number of children of each node.*/
+	private static final int WIDTH = 1 << BITS;
+	/** int value used to take the bits of an index used at one level of the tree.*/
+	private static final int MASK = WIDTH - 1;
+	/** PersistentArray object holding no elements.*/
+	@SuppressWarnings("rawtypes")
+	private static final PersistentArray EMPTY = new PersistentArray(0, 0, new Object[WIDTH]);
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** int value representing the number of elements.*/
+	private final int size;
+	/** int value representing how far an index is shifted to find the child of the root holding it.*/
+	private final int shift;
+	/** Object[] object representing the root of the tree; inner nodes are Object[]s as well.*/
+	private final Object[] root;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a PersistentArray object from its tree.
+	 *
+	 * @param inSize - int value representing the number of elements.
+	 * @param inShift - int value representing the shift of the root.
+	 * @param inRoot - Object[] object representing the root of the tree.
+	 */
+
+	private PersistentArray(int inSize, int inShift, Object[] inRoot) {
+		size = inSize;
+		shift = inShift;
+		root = inRoot;
+	}
+
+	/**
+	 * This method gets the PersistentArray holding no elements.
+	 *
+	 * @return - Returns an empty PersistentArray object.
+	 */
+
+	@SuppressWarnings("unchecked")
+	public static <E> PersistentArray<E> empty() {
+		return (PersistentArray<E>)EMPTY;
+	}
+
+	/**
+	 * This method makes a PersistentArray holding the provided elements, in order.
+	 *
+	 * @param elements - E[] object holding the elements.
+	 * @return - Returns a PersistentArray object holding the elements.
+	 */
+
+	public static <E> PersistentArray<E> of(E[] elements) {
+		PersistentArray<E> out = empty();
+		for(E e : elements)
+			out = out.add(e);
+		return out;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method makes a new version of the array with one element replaced, sharing everything
+	 * else with this version.
+	 *
+	 * @param index - int value representing the position of the element to replace.
+	 * @param element - E object representing the new element.
+	 * @return - Returns the new PersistentArray object.
+	 */
+
+	public PersistentArray<E> set(int index, E element) {
+		checkIndex(index);
+		return new PersistentArray<E>(size, shift, setHelper(root, shift, index, element));
+	}
+
+	/**
+	 * This method makes a new version of the array with an element added to the end, sharing
+	 * everything else with this version.
+	 *
+	 * @param element - E object representing the element to add.
+	 * @return - Returns the new PersistentArray object.
+	 */
+
+	public PersistentArray<E> add(E element) {
+		if(size == 1 << (shift + BITS)) { // The tree is full, so grow a new root above it
+			Object[] newRoot = new Object[WIDTH];
+			newRoot[0] = root;
+			return new PersistentArray<E>(size + 1, shift + BITS, setHelper(newRoot, shift + BITS, size, element));
+		}
+		return new PersistentArray<E>(size + 1, shift, setHelper(root, shift, size, element));
+	}
+
+	/**
+	 * This method performs the provided action on each element, in order.
+	 *
+	 * @param action - Consumer<<r>E> object which accepts each element.
+	 */
+
+	public void forEach(Consumer<? super E> action) {
+		for(int i = 0; i < size; i++)
+			action.accept(get(i));
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns an element.
+	 *
+	 * @param index - int value representing the position of the element.
+	 * @return - Returns the E object at the position.
+	 */
+
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		checkIndex(index);
+		Object[] node = root;
+		for(int level = shift; level > 0; level -= BITS)
+			node = (Object[])node[(index >>> level) & MASK];
+		return (E)node[index & MASK];
+	}
+
+	/**
+	 * Getter method that returns the number of elements.
+	 *
+	 * @return - Returns an int value representing the number of elements.
+	 */
+
+	public int size() {
+		return size;
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that copies the path from a node down to the position of an element, placing the
+	 * element at the bottom and making any nodes which do not exist yet.
+	 *
+	 * @param node - Object[] object representing the node to copy, or null if it does not exist yet.
+	 * @param level - int value representing the shift of the node.
+	 * @param index - int value representing the position of the element.
+	 * @param element - Object representing the element to place.
+	 * @return - Returns the copied Object[] node.
+	 */
+
+	private static Object[] setHelper(Object[] node, int level, int index, Object element) {
+		Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+		int slot = (index >>> level) & MASK;
+		if(level == 0)
+			copy[slot] = element;
+		else
+			copy[slot] = setHelper((Object[])copy[slot], level - BITS, index, element);
+		return copy;
+	}
+
+	/**
+	 * Helper method that rejects positions outside the array.
+	 *
+	 * @param index - int value representing the position requested.
+	 * @throws IndexOutOfBoundsException - Thrown if the position is negative or not less than the size.
+	 */
+
+	private void checkIndex(int index) {
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size + ".");
+	}
+
+}
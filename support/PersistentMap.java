@@ -0,0 +1,250 @@
+package support;
+
+/**
+ * PersistentMap is an immutable hash map which is never changed in place: put returns a new PersistentMap,
+ * and the old one remains valid. The entries are kept in a tree in which each node holds up to 32 children,
+ * chosen by 5 bits of the key's hash at each level, and stores only the children it has; a new version
+ * copies only the nodes on the path to the entry changed and shares all the rest with the old version, so
+ * adding an entry takes time proportional to the depth of the tree rather than to the size of the map.
+ *
+ * Keys whose hashes are equal are kept together in a short chain at the bottom of the tree.
+ *
+ * Since no version is ever modified, any number of threads may read them at once without locking.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ *
+ * @param <K> - Type of the keys.
+ * @param <V> - Type of the values.
+ */
+
+public final class PersistentMap<K, V> {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value representing the number of bits of a hash used at each level of the tree.*/
+	private static final int BITS = 5;
+	/** int value used to take the bits of a hash used at one level of the tree.*/
+	private static final int MASK = (1 << BITS) - 1;
+	/** PersistentMap object holding no entries.*/
+	@SuppressWarnings("rawtypes")
+	private static final PersistentMap EMPTY = new PersistentMap(0, new Node(0, new Object[0]));
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** int value representing the number of entries.*/
+	private final int size;
+	/** Node object representing the root of the tree.*/
+	private final Node root;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a PersistentMap object from its tree.
+	 *
+	 * @param inSize - int value representing the number of entries.
+	 * @param inRoot - Node object representing the root of the tree.
+	 */
+
+	private PersistentMap(int inSize, Node inRoot) {
+		size = inSize;
+		root = inRoot;
+	}
+
+	/**
+	 * This method gets the PersistentMap holding no entries.
+	 *
+	 * @return - Returns an empty PersistentMap object.
+	 */
+
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentMap<K, V> empty() {
+		return (PersistentMap<K, V>)EMPTY;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method makes a new version of the map in which the key is mapped to the value, sharing
+	 * everything else with this version.
+	 *
+	 * @param key - K object representing the key; it must not be null.
+	 * @param value - V object representing the value.
+	 * @return - Returns the new PersistentMap object.
+	 */
+
+	public PersistentMap<K, V> put(K key, V value) {
+		boolean[] added = new boolean[1];
+		Node newRoot = putHelper(root, 0, new Entry(key, value, hash(key), null), added);
+		return new PersistentMap<K, V>(added[0] ? size + 1 : size, newRoot);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the value mapped to a key.
+	 *
+	 * @param key - Object representing the key.
+	 * @return - Returns the V object mapped to the key, or null if there is none.
+	 */
+
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int h = hash(key);
+		Node node = root;
+		for(int shift = 0; ; shift += BITS) {
+			int bit = 1 << ((h >>> shift) & MASK);
+			if((node.bitmap & bit) == 0)
+				return null;
+			Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+			if(slot instanceof Node) {
+				node = (Node)slot;
+				continue;
+			}
+			for(Entry e = (Entry)slot; e != null; e = e.next)
+				if(e.hash == h && e.key.equals(key))
+					return (V)e.value;
+			return null;
+		}
+	}
+
+	/**
+	 * Getter method that returns the number of entries.
+	 *
+	 * @return - Returns an int value representing the number of entries.
+	 */
+
+	public int size() {
+		return size;
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that copies the path from a node down to where an entry belongs, placing the entry there.
+	 *
+	 * @param node - Node object representing the node to copy.
+	 * @param shift - int value representing how far the hash is shifted to choose a child of the node.
+	 * @param entry - Entry object holding the key and value to place, with no chain.
+	 * @param added - boolean[] object whose only element is set to true if the key was not in the map.
+	 * @return - Returns the copied Node object.
+	 */
+
+	private static Node putHelper(Node node, int shift, Entry entry, boolean[] added) {
+		int bit = 1 << ((entry.hash >>> shift) & MASK);
+		int at = Integer.bitCount(node.bitmap & (bit - 1));
+		if((node.bitmap & bit) == 0) { // No child here yet, so the entry goes in a new slot
+			Object[] slots = new Object[node.slots.length + 1];
+			System.arraycopy(node.slots, 0, slots, 0, at);
+			slots[at] = entry;
+			System.arraycopy(node.slots, at, slots, at + 1, node.slots.length - at);
+			added[0] = true;
+			return new Node(node.bitmap | bit, slots);
+		}
+		Object[] slots = node.slots.clone();
+		Object slot = slots[at];
+		if(slot instanceof Node)
+			slots[at] = putHelper((Node)slot, shift + BITS, entry, added);
+		else if(((Entry)slot).hash == entry.hash)
+			slots[at] = replaceInChain((Entry)slot, entry, added);
+		else {
+			slots[at] = split((Entry)slot, entry, shift + BITS);
+			added[0] = true;
+		}
+		return new Node(node.bitmap, slots);
+	}
+
+	/**
+	 * Helper method that makes a chain of entries with equal hashes holding the provided entry, replacing
+	 * the entry with the same key if there is one.
+	 *
+	 * @param chain - Entry object representing the first entry of the chain.
+	 * @param entry - Entry object holding the key and value to place, with no chain.
+	 * @param added - boolean[] object whose only element is set to true if the key was not in the chain.
+	 * @return - Returns the first Entry object of the new chain.
+	 */
+
+	private static Entry replaceInChain(Entry chain, Entry entry, boolean[] added) {
+		if(chain == null) {
+			added[0] = true;
+			return entry;
+		}
+		if(chain.key.equals(entry.key))
+			return new Entry(entry.key, entry.value, entry.hash, chain.next);
+		return new Entry(chain.key, chain.value, chain.hash, replaceInChain(chain.next, entry, added));
+	}
+
+	/**
+	 * Helper method that makes a node holding two entries (or chains) with different hashes which were
+	 * chosen for the same slot, adding levels until their hashes tell them apart.
+	 *
+	 * @param a - Entry object already in the slot.
+	 * @param b - Entry object being added.
+	 * @param shift - int value representing how far the hashes are shifted to choose a child of the new node.
+	 * @return - Returns the new Node object.
+	 */
+
+	private static Node split(Entry a, Entry b, int shift) {
+		int slotA = (a.hash >>> shift) & MASK, slotB = (b.hash >>> shift) & MASK;
+		if(slotA == slotB)
+			return new Node(1 << slotA, new Object[] {split(a, b, shift + BITS)});
+		Object[] slots = slotA < slotB ? new Object[] {a, b} : new Object[] {b, a};
+		return new Node((1 << slotA) | (1 << slotB), slots);
+	}
+
+	/**
+	 * Helper method that spreads the bits of a key's hash code, so that keys differing only in their
+	 * high bits are told apart near the root.
+	 *
+	 * @param key - Object representing the key.
+	 * @return - Returns an int value representing the spread hash.
+	 */
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * This class is a node of the tree: the bitmap records which of the 32 possible children are present,
+	 * and the slots hold them in order, each being either a Node or a chain of Entries.
+	 */
+
+	private static final class Node {
+		/** int value whose set bits are the children present.*/
+		private final int bitmap;
+		/** Object[] object holding the children present, in order.*/
+		private final Object[] slots;
+
+		Node(int inBitmap, Object[] inSlots) {
+			bitmap = inBitmap;
+			slots = inSlots;
+		}
+	}
+
+	/**
+	 * This class holds one key and its value, with the next entry whose key has an equal hash.
+	 */
+
+	private static final class Entry {
+		/** Object representing the key.*/
+		private final Object key;
+		/** Object representing the value.*/
+		private final Object value;
+		/** int value representing the spread hash of the key.*/
+		private final int hash;
+		/** Entry object holding the next key with an equal hash, or null.*/
+		private final Entry next;
+
+		Entry(Object inKey, Object inValue, int inHash, Entry inNext) {
+			key = inKey;
+			value = inValue;
+			hash = inHash;
+			next = inNext;
+		}
+	}
+
+}
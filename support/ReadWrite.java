@@ -6,7 +6,15 @@ import support.map.EventMap;
 import support.transition.*;
 import support.Event;
 import support.State;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.stream.IntStream;
 import java.io.*;
 
 /**
@@ -19,54 +27,144 @@ import java.io.*;
 
 public class ReadWrite <T extends Transition>{
 
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** int value representing the number of characters buffered before they are written to a File.*/
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** long value representing the number of bytes of Transitions below which a file is read on one thread.*/
+	private static final long PARALLEL_THRESHOLD = 1 << 23;
+	/** long value representing the fewest bytes of Transitions read as one chunk when a file is read in parallel.*/
+	private static final long MIN_CHUNK_SIZE = 1 << 21;
+	
 //---  Operations   ---------------------------------------------------------------------------
 	
 	/**
-	 * This method converts the data structures configuring the provided FSM to a File format.
+	 * This method writes the provided FSM to a File, streaming it through a buffer as it goes so that
+	 * no more than the buffer is held in memory at once. The special attributes are written as the
+	 * number of batches, then each batch as its size followed by its lines (the format read back by
+	 * readFromFile), and then the Transitions.
 	 * 
-	 * @param - String object representing the File Path to write the converted FSM to.
-	 * @param - String object representing the pre-calculated special attributes that are written before any Transitions.
-	 * @param - TransitionFunction<<r>T> object representing the Transitions that are written after the Special Attributes.
+	 * @param filePath - String object representing the File Path to write the converted FSM to.
+	 * @param special - ArrayList<<r>ArrayList<<r>String>> object holding the batches of special attributes that are written before any Transitions.
+	 * @param transF - TransitionFunction<<r>T> object representing the Transitions that are written after the Special Attributes.
+	 * @param ext - String object representing the extension of the File.
 	 * @return - Returns a boolean value representing the result of this method's attempt to write to the File.
 	 */
 	
-	public boolean writeToFile(String filePath, String special, TransitionFunction<T> transF, String ext) {
-		try {
-			File f = new File(filePath + ext);
-			f.delete();
-			RandomAccessFile raf = new RandomAccessFile(f, "rw");
-			try {
-			  raf.writeBytes(special);
-			  String build = "";
-			  for(State state1 : transF.getStates()) {
-				for(T trans : transF.getTransitions(state1)) {
-					for(State state2 : trans.getTransitionStates()) {
-						build += state1.getStateName() + " " + state2.getStateName() + " " + trans.getTransitionEvent().getEventName() + "\n";
-				  }
+	public boolean writeToFile(String filePath, ArrayList<ArrayList<String>> special, TransitionFunction<T> transF, String ext) {
+		try(Writer out = openWriter(filePath + ext)) {
+			out.write(Integer.toString(special.size()));
+			out.write('\n');
+			for(ArrayList<String> batch : special) {
+				out.write(Integer.toString(batch.size()));
+				out.write('\n');
+				for(String line : batch) {
+					out.write(line);
+					out.write('\n');
 				}
-			  }
-			  if(build.length() > 0)
-			  	build = build.substring(0, build.length()-1);
-			  raf.writeBytes(build);
-			  raf.close();
-			}
-			catch(IOException e1) {
-				e1.printStackTrace();
-				return false;
-			}
+			} // for every batch of special attributes
+			writeTransitions(out, transF);
+			return true;
+		}
+		catch(IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * This method writes the provided FSM in the binary format read by MachineImage, which stores every
+	 * name once and the Transitions as arrays of indices. States and Events named only by Transitions
+	 * are included; must Transitions are recorded if the TransitionFunction holds ModalTransitions.
+	 * 
+	 * @param filePath - String object representing the File Path to write the converted FSM to.
+	 * @param states - StateMap object holding the States and their attributes.
+	 * @param events - EventMap object holding the Events and their attributes.
+	 * @param transF - TransitionFunction<<r>T> object holding the Transitions.
+	 * @param ext - String object representing the extension of the File.
+	 * @param compress - boolean value representing whether the Transitions are compressed (see MachineImage).
+	 * @return - Returns a boolean value representing the result of this method's attempt to write to the File.
+	 */
+	
+	public boolean writeToBinaryFile(String filePath, StateMap states, EventMap events, TransitionFunction<T> transF, String ext, boolean compress) {
+		return writeToBinaryFile(filePath, states, events, transF, null, ext, compress);
+	}
+	
+	/**
+	 * This method writes the provided FSM in the binary format read by MachineImage, together with must
+	 * Transitions that are not among its Transitions (a ModalSpecification's inconsistent Transitions), which
+	 * are read back as an eighth batch of lines "state1 state2 event".
+	 * 
+	 * @param filePath - String object representing the File Path to write the converted FSM to.
+	 * @param states - StateMap object holding the States and their attributes.
+	 * @param events - EventMap object holding the Events and their attributes.
+	 * @param transF - TransitionFunction<<r>T> object holding the Transitions.
+	 * @param mustOnly - TransitionFunction<<r>T> object holding the must only Transitions, or null if there are none.
+	 * @param ext - String object representing the extension of the File.
+	 * @param compress - boolean value representing whether the Transitions are compressed (see MachineImage).
+	 * @return - Returns a boolean value representing the result of this method's attempt to write to the File.
+	 */
+	
+	public boolean writeToBinaryFile(String filePath, StateMap states, EventMap events, TransitionFunction<T> transF, TransitionFunction<T> mustOnly, String ext, boolean compress) {
+		try(OutputStream out = new BufferedOutputStream(new FileOutputStream(filePath + ext), BUFFER_SIZE)) {
+			writeImage(out, states, events, transF, mustOnly, compress);
 			return true;
 		}
-		catch(FileNotFoundException e) {
+		catch(IOException e) {
 			e.printStackTrace();
 			return false;
 		}
 	}
 	
+	/**
+	 * This method makes a MachineImage of the provided FSM held in memory rather than in a File, as
+	 * writeToBinaryFile would write it. The image is made from the FSM's own States and Transitions, which must
+	 * already be on the heap, and may be explored through the constructors taking a MachineImage.
+	 * 
+	 * @param states - StateMap object holding the States and their attributes.
+	 * @param events - EventMap object holding the Events and their attributes.
+	 * @param transF - TransitionFunction<<r>T> object holding the Transitions.
+	 * @param compress - boolean value representing whether the Transitions are compressed.
+	 * @return - Returns a MachineImage object holding the FSM.
+	 */
+	
+	public MachineImage makeImage(StateMap states, EventMap events, TransitionFunction<T> transF, boolean compress) {
+		return makeImage(states, events, transF, null, compress);
+	}
+	
+	/**
+	 * This method makes a MachineImage held in memory, as writeToBinaryFile would write it with the provided
+	 * must only Transitions.
+	 * 
+	 * @param states - StateMap object holding the States and their attributes.
+	 * @param events - EventMap object holding the Events and their attributes.
+	 * @param transF - TransitionFunction<<r>T> object holding the Transitions.
+	 * @param mustOnly - TransitionFunction<<r>T> object holding the must only Transitions, or null if there are none.
+	 * @param compress - boolean value representing whether the Transitions are compressed.
+	 * @return - Returns a MachineImage object holding the FSM.
+	 */
+	
+	public MachineImage makeImage(StateMap states, EventMap events, TransitionFunction<T> transF, TransitionFunction<T> mustOnly, boolean compress) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			writeImage(out, states, events, transF, mustOnly, compress);
+			return MachineImage.wrap(out.toByteArray());
+		}
+		catch(IOException e) {
+			// Nothing is read from or written to a File, so only a machine too large for the format fails
+			throw new UncheckedIOException(e);
+		}
+	}
+	
 	/**
 	 * This method reads from the provided file information that is used to fill the sets of States,
 	 * Events, and Transitions that are passed to this method, returning the additional information
 	 * that each class handles separately. (Initial States, Marked States, etc.)
 	 * 
+	 * Files in the binary format written by writeToBinaryFile are recognized by their first bytes and
+	 * read through MachineImage; the additional information is returned in the same batches as a text
+	 * file's, so either kind may be given to the constructors of the FSM classes.
+	 * 
 	 * @param states - StateMap object that represents the empty set of States to be filled.
 	 * @param events - EventMap object that represents the empty set of Events to be filled.
 	 * @param transitions - TransitionFunction<<r>T> object that represents the empty set of Transitions to be filled.
@@ -75,49 +173,30 @@ public class ReadWrite <T extends Transition>{
 	 */
 	
 	public ArrayList<ArrayList<String>> readFromFile(StateMap states, EventMap events, TransitionFunction<T> transitions, File file){
-		try {
-			Scanner sc = new Scanner(file);
-			int numSpec = sc.nextInt();
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if(MachineImage.isImage(channel))
+				return readFromImage(states, events, transitions, MachineImage.map(file));
+			LineReader in = new LineReader(channel);
+			int numSpec = in.readInt("the number of batches of special attributes");
 			ArrayList<ArrayList<String>> specialInfo = new ArrayList<ArrayList<String>>();
 			for(int i = 0; i < numSpec; i++) {
-				int numIndSpec = sc.nextInt(); sc.nextLine();
+				int numIndSpec = in.readInt("the size of batch " + (i + 1) + " of special attributes");
+				in.skipRestOfLine();
 				ArrayList<String> oneBatch = new ArrayList<String>();
 				for(int j = 0; j < numIndSpec; j++) {
-					oneBatch.add(sc.nextLine());
+					oneBatch.add(in.readLine("the end of batch " + (i + 1) + " of special attributes"));
 				}
 				specialInfo.add(oneBatch);
 			}
-			while(sc.hasNextLine()) {
-				String[] in = sc.nextLine().split(" ");
-				if(in.length < 3)
-					break;
-				State fromState = states.addState(in[0]);
-				State toState = states.addState(in[1]);
-				Event event = events.addEvent(in[2]);
-				
-				// See if there is already a transition with the event...
-				ArrayList<T> thisTransitions = transitions.getTransitions(fromState);
-				boolean foundTransition = false;
-				if(thisTransitions != null) {
-					Iterator<T> itr = thisTransitions.iterator();
-					while(!foundTransition && itr.hasNext()) {
-						T t = itr.next();
-						if(t.getTransitionEvent().equals(event)) {
-							t.setTransitionState(toState);
-							foundTransition = true;
-						} // if equal
-					} // for every transition
-				} // if not null
-				if(!foundTransition) {
-					T outbound = transitions.getEmptyTransition();
-					outbound.setTransitionEvent(event);
-					outbound.setTransitionState(toState);
-					transitions.addTransition(fromState, outbound);
-				} // if did not find transition
-			} // while sc has next line
-			sc.close();
+			TransitionChunk[] chunks = readTransitions(channel, in.getFilePosition(), channel.size());
+			mergeTransitions(chunks, states, events, transitions);
 			return specialInfo;
 		}
+		catch(IOException | UncheckedIOException e) {
+			String message = e instanceof UncheckedIOException ? e.getCause().getMessage() : e.getMessage();
+			System.out.println("Failure during File Reading: " + file.getPath() + ": " + message);
+			return null;
+		}
 		catch(Exception e) {
 			e.printStackTrace();
 			System.out.println("Failure during File Reading");
@@ -126,4 +205,384 @@ public class ReadWrite <T extends Transition>{
 		
 	}
 	
+//---  Helper Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Helper method that numbers the States and Events of an FSM and writes it in the binary format.
+	 * 
+	 * @param stream - OutputStream object to write the image to.
+	 * @param states - StateMap object holding the States and their attributes.
+	 * @param events - EventMap object holding the Events and their attributes.
+	 * @param transF - TransitionFunction<<r>T> object holding the Transitions.
+	 * @param mustOnly - TransitionFunction<<r>T> object holding the must only Transitions, or null if there are none.
+	 * @param compress - boolean value representing whether the Transitions are compressed.
+	 * @throws IOException - Thrown if the image cannot be written.
+	 */
+	
+	private void writeImage(OutputStream stream, StateMap states, EventMap events, TransitionFunction<T> transF, TransitionFunction<T> mustOnly, boolean compress) throws IOException {
+		// Number every State and Event, including any only named by the Transitions
+		LinkedHashMap<String, State> stateOf = new LinkedHashMap<String, State>();
+		LinkedHashMap<String, Event> eventOf = new LinkedHashMap<String, Event>();
+		for(State s : states.getStates())
+			stateOf.put(s.getStateName(), s);
+		for(Event e : events.getEvents())
+			eventOf.put(e.getEventName(), e);
+		int count = 0;
+		for(State state1 : transF.getStates()) {
+			stateOf.putIfAbsent(state1.getStateName(), state1);
+			for(T trans : transF.getTransitions(state1)) {
+				eventOf.putIfAbsent(trans.getTransitionEvent().getEventName(), trans.getTransitionEvent());
+				for(State state2 : trans.getTransitionStates()) {
+					stateOf.putIfAbsent(state2.getStateName(), state2);
+					count++;
+				}
+			}
+		} // for every state with transitions
+		int mustOnlyCount = 0;
+		if(mustOnly != null)
+			for(State state1 : mustOnly.getStates()) {
+				stateOf.putIfAbsent(state1.getStateName(), state1);
+				for(T trans : mustOnly.getTransitions(state1)) {
+					eventOf.putIfAbsent(trans.getTransitionEvent().getEventName(), trans.getTransitionEvent());
+					for(State state2 : trans.getTransitionStates()) {
+						stateOf.putIfAbsent(state2.getStateName(), state2);
+						mustOnlyCount++;
+					}
+				}
+			} // for every state with must only transitions
+		HashMap<String, Integer> stateIndex = new HashMap<String, Integer>();
+		HashMap<String, Integer> eventIndex = new HashMap<String, Integer>();
+		String[] stateNames = stateOf.keySet().toArray(new String[stateOf.size()]);
+		String[] eventNames = eventOf.keySet().toArray(new String[eventOf.size()]);
+		BitSet initial = new BitSet(), marked = new BitSet(), secret = new BitSet();
+		BitSet observable = new BitSet(), attackerObservable = new BitSet(), controllable = new BitSet();
+		for(int i = 0; i < stateNames.length; i++) {
+			State s = stateOf.get(stateNames[i]);
+			stateIndex.put(stateNames[i], i);
+			initial.set(i, s.getStateInitial());
+			marked.set(i, s.getStateMarked());
+			secret.set(i, s.getStatePrivate());
+		}
+		for(int i = 0; i < eventNames.length; i++) {
+			Event e = eventOf.get(eventNames[i]);
+			eventIndex.put(eventNames[i], i);
+			observable.set(i, e.getEventObservability());
+			attackerObservable.set(i, e.getEventAttackerObservability());
+			controllable.set(i, e.getEventControllability());
+		}
+		
+		int[] rows = new int[stateNames.length + 1];
+		int[] transEvents = new int[count];
+		int[] targets = new int[count];
+		BitSet must = transF.getEmptyTransition() instanceof ModalTransition ? new BitSet() : null;
+		int next = 0;
+		for(int i = 0; i < stateNames.length; i++) {
+			rows[i] = next;
+			for(T trans : transF.getTransitions(stateOf.get(stateNames[i]))) {
+				int event = eventIndex.get(trans.getTransitionEvent().getEventName());
+				boolean isMust = must != null && ((ModalTransition)trans).getTransitionMust();
+				for(State state2 : trans.getTransitionStates()) {
+					if(isMust)
+						must.set(next);
+					transEvents[next] = event;
+					targets[next++] = stateIndex.get(state2.getStateName());
+				}
+			}
+		} // for every state
+		rows[stateNames.length] = next;
+		int[] mustOnlyEdges = mustOnlyCount == 0 ? null : new int[3 * mustOnlyCount];
+		next = 0;
+		if(mustOnlyEdges != null)
+			for(State state1 : mustOnly.getStates())
+				for(T trans : mustOnly.getTransitions(state1))
+					for(State state2 : trans.getTransitionStates()) {
+						mustOnlyEdges[next++] = stateIndex.get(state1.getStateName());
+						mustOnlyEdges[next++] = eventIndex.get(trans.getTransitionEvent().getEventName());
+						mustOnlyEdges[next++] = stateIndex.get(state2.getStateName());
+					}
+		MachineImage.write(stream, stateNames, initial, marked, secret, eventNames,
+				observable, attackerObservable, controllable, rows, transEvents, targets, must, mustOnlyEdges, compress);
+	} // writeImage(OutputStream, StateMap, EventMap, TransitionFunction<T>, TransitionFunction<T>, boolean)
+	
+	/**
+	 * Helper method that fills the sets of States, Events, and Transitions from a binary file, returning
+	 * the additional information in the batches a text file holds: Initial, Marked and Private States;
+	 * unobservable, attacker unobservable and uncontrollable Events; and, if the file records them, must
+	 * Transitions as lines "state1 state2 event", followed by the must only Transitions in the same form.
+	 * 
+	 * @param states - StateMap object that represents the empty set of States to be filled.
+	 * @param events - EventMap object that represents the empty set of Events to be filled.
+	 * @param transitions - TransitionFunction<<r>T> object that represents the empty set of Transitions to be filled.
+	 * @param image - MachineImage object reading the binary file.
+	 * @return - Returns an ArrayList<<r>ArrayList<<r>String>> object that contains the additional information about this FSM object.
+	 */
+	
+	private ArrayList<ArrayList<String>> readFromImage(StateMap states, EventMap events, TransitionFunction<T> transitions, MachineImage image) {
+		ArrayList<ArrayList<String>> specialInfo = new ArrayList<ArrayList<String>>();
+		for(int i = 0; i < (image.getMustOnlyCount() > 0 ? 8 : image.hasMustTransitions() ? 7 : 6); i++)
+			specialInfo.add(new ArrayList<String>());
+		State[] stateAt = new State[image.getStateCount()];
+		for(int i = 0; i < stateAt.length; i++) {
+			stateAt[i] = states.addState(image.getStateName(i));
+			if(image.getStateInitial(i))
+				specialInfo.get(0).add(stateAt[i].getStateName());
+			if(image.getStateMarked(i))
+				specialInfo.get(1).add(stateAt[i].getStateName());
+			if(image.getStatePrivate(i))
+				specialInfo.get(2).add(stateAt[i].getStateName());
+		}
+		Event[] eventAt = new Event[image.getEventCount()];
+		for(int i = 0; i < eventAt.length; i++) {
+			eventAt[i] = events.addEvent(image.getEventName(i));
+			if(!image.getEventObservability(i))
+				specialInfo.get(3).add(eventAt[i].getEventName());
+			if(!image.getEventAttackerObservability(i))
+				specialInfo.get(4).add(eventAt[i].getEventName());
+			if(!image.getEventControllability(i))
+				specialInfo.get(5).add(eventAt[i].getEventName());
+		}
+		int total = image.getTransitionCount();
+		State[] fromStates = new State[total];
+		Event[] transEvents = new Event[total];
+		State[] toStates = new State[total];
+		int[] next = new int[1];
+		for(int i = 0; i < stateAt.length; i++) {
+			State from = stateAt[i];
+			image.forEachTransition(i, (event, target, must) -> {
+				int k = next[0]++;
+				fromStates[k] = from;
+				transEvents[k] = eventAt[event];
+				toStates[k] = stateAt[target];
+				if(must)
+					specialInfo.get(6).add(from.getStateName() + " " + toStates[k].getStateName() + " " + transEvents[k].getEventName());
+			});
+		} // for every state
+		transitions.addTransitions(fromStates, transEvents, toStates);
+		for(int i = 0; i < image.getMustOnlyCount(); i++)
+			specialInfo.get(7).add(stateAt[image.getMustOnlyState(i)].getStateName() + " " + stateAt[image.getMustOnlyTarget(i)].getStateName() + " " + eventAt[image.getMustOnlyEvent(i)].getEventName());
+		return specialInfo;
+	} // readFromImage(StateMap, EventMap, TransitionFunction<T>, MachineImage)
+	
+	/**
+	 * Helper method that reads the Transitions making up the rest of a file. A large body is split on
+	 * line boundaries into chunks which are read in parallel, each with its own names; a small one is
+	 * read as a single chunk.
+	 * 
+	 * @param channel - FileChannel object to read the Transitions from.
+	 * @param start - long value representing the position in the file of the first Transition.
+	 * @param end - long value representing the size of the file.
+	 * @return - Returns a TransitionChunk[] object holding the chunks read, in the order they appear in the file.
+	 * @throws IOException - Thrown if the file cannot be read.
+	 */
+	
+	private static TransitionChunk[] readTransitions(FileChannel channel, long start, long end) throws IOException {
+		long length = end - start;
+		if(length < PARALLEL_THRESHOLD)
+			return new TransitionChunk[] {new TransitionChunk(channel, start, end, false)};
+		int count = (int)Math.min(length / MIN_CHUNK_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+		long[] bounds = new long[count + 1];
+		for(int i = 0; i <= count; i++)
+			bounds[i] = start + length * i / count;
+		// A chunk holds the lines starting inside its bounds, so the first starts at the previous byte to find its first whole line
+		return IntStream.range(0, count).parallel().mapToObj(i -> {
+			try {
+				return i == 0 ? new TransitionChunk(channel, start, bounds[1], false) : new TransitionChunk(channel, bounds[i] - 1, bounds[i + 1], true);
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}).toArray(TransitionChunk[]::new);
+	} // readTransitions(FileChannel, long, long)
+	
+	/**
+	 * Helper method that maps the names read into each chunk to the States and Events they name, and then
+	 * adds the Transitions of every chunk, in order, up to the line which ended them.
+	 * 
+	 * @param chunks - TransitionChunk[] object holding the chunks read, in the order they appear in the file.
+	 * @param states - StateMap object that the States named are added to.
+	 * @param events - EventMap object that the Events named are added to.
+	 * @param transitions - TransitionFunction<<r>T> object that the Transitions are added to.
+	 */
+	
+	private void mergeTransitions(TransitionChunk[] chunks, StateMap states, EventMap events, TransitionFunction<T> transitions) {
+		int used = 0;
+		int total = 0;
+		while(used < chunks.length) {
+			total += chunks[used].count;
+			if(chunks[used++].ended)
+				break;
+		}
+		State[] fromStates = new State[total];
+		Event[] transEvents = new Event[total];
+		State[] toStates = new State[total];
+		int next = 0;
+		for(int c = 0; c < used; c++) {
+			TransitionChunk chunk = chunks[c];
+			// Each name is looked up once per chunk rather than once per line
+			State[] chunkStates = new State[chunk.stateNames.size()];
+			for(int i = 0; i < chunkStates.length; i++)
+				chunkStates[i] = states.addState(chunk.stateNames.get(i));
+			Event[] chunkEvents = new Event[chunk.eventNames.size()];
+			for(int i = 0; i < chunkEvents.length; i++)
+				chunkEvents[i] = events.addEvent(chunk.eventNames.get(i));
+			for(int i = 0; i < chunk.count; i++) {
+				fromStates[next] = chunkStates[chunk.lines[3 * i]];
+				toStates[next] = chunkStates[chunk.lines[3 * i + 1]];
+				transEvents[next++] = chunkEvents[chunk.lines[3 * i + 2]];
+			}
+		} // for every chunk up to the one which ended the Transitions
+		// Build all the transitions at once instead of searching the state's transitions for every line
+		transitions.addTransitions(fromStates, transEvents, toStates);
+	} // mergeTransitions(TransitionChunk[], StateMap, EventMap, TransitionFunction<T>)
+	
+	/**
+	 * Helper method that opens a File for writing through a buffered channel, replacing anything the File held.
+	 * 
+	 * @param path - String object representing the path of the File.
+	 * @return - Returns a Writer object which encodes text into the File.
+	 * @throws IOException - Thrown if the File cannot be opened.
+	 */
+	
+	private static Writer openWriter(String path) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		// Like FileWriter, characters the Charset cannot encode are replaced rather than failing the write
+		CharsetEncoder encoder = Charset.defaultCharset().newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		return new BufferedWriter(Channels.newWriter(channel, encoder, -1), BUFFER_SIZE);
+	}
+	
+	/**
+	 * Helper method that writes each Transition as a line "state1 state2 event", straight from the
+	 * TransitionFunction; no newline follows the last one.
+	 * 
+	 * @param out - Writer object to write the Transitions to.
+	 * @param transF - TransitionFunction<<r>T> object holding the Transitions.
+	 * @throws IOException - Thrown if the Transitions cannot be written.
+	 */
+	
+	private void writeTransitions(Writer out, TransitionFunction<T> transF) throws IOException {
+		boolean first = true;
+		for(State state1 : transF.getStates()) {
+			for(T trans : transF.getTransitions(state1)) {
+				for(State state2 : trans.getTransitionStates()) {
+					if(!first)
+						out.write('\n');
+					first = false;
+					out.write(state1.getStateName());
+					out.write(' ');
+					out.write(state2.getStateName());
+					out.write(' ');
+					out.write(trans.getTransitionEvent().getEventName());
+				}
+			}
+		} // for every state
+	} // writeTransitions(Writer, TransitionFunction<T>)
+	
+	/**
+	 * Helper method that finds the first occurrence of a byte in part of a buffer.
+	 * 
+	 * @param buffer - byte[] object to search.
+	 * @param b - byte value to find.
+	 * @param from - int value representing the first position to search.
+	 * @param to - int value representing the end (exclusive) of the search.
+	 * @return - Returns an int value representing the position found, or -1 if the byte does not occur.
+	 */
+	
+	private static int indexOf(byte[] buffer, char b, int from, int to) {
+		for(int i = from; i < to; i++)
+			if(buffer[i] == b)
+				return i;
+		return -1;
+	}
+	
+	/**
+	 * Helper method that checks if part of a buffer holds anything other than spaces, which is what
+	 * String.split(" ") requires to keep the tokens there.
+	 * 
+	 * @param buffer - byte[] object to search.
+	 * @param from - int value representing the first position to search.
+	 * @param to - int value representing the end (exclusive) of the search.
+	 * @return - Returns true if a byte other than a space occurs, false otherwise.
+	 */
+	
+	private static boolean hasToken(byte[] buffer, int from, int to) {
+		for(int i = from; i < to; i++)
+			if(buffer[i] != ' ')
+				return true;
+		return false;
+	}
+	
+//---  Support Classes   ----------------------------------------------------------------------
+	
+	/**
+	 * This class holds the Transitions read from one chunk of a file, as the positions of their names in
+	 * the chunk's own lists of State and Event names; nothing is shared with the other chunks, so each
+	 * may be read on its own thread.
+	 */
+	
+	private static final class TransitionChunk {
+		
+		/** int[] object holding the state1, state2 and event of each Transition read, in turn.*/
+		private int[] lines;
+		/** int value representing the number of Transitions read.*/
+		private int count;
+		/** ArrayList<<r>String> objects holding the State and Event names read, in the order they first appeared.*/
+		private ArrayList<String> stateNames, eventNames;
+		/** boolean value representing whether a line without a third token ended the Transitions in this chunk.*/
+		private boolean ended;
+		
+		/**
+		 * Constructor for a TransitionChunk object which reads the lines starting between the provided positions.
+		 * 
+		 * @param channel - FileChannel object to read the Transitions from.
+		 * @param start - long value representing the position in the file to start reading from.
+		 * @param end - long value representing the position in the file at which the lines of the next chunk start.
+		 * @param skipFirst - boolean value representing whether the line being read at the start belongs to the previous chunk.
+		 * @throws IOException - Thrown if the file cannot be read.
+		 */
+		
+		TransitionChunk(FileChannel channel, long start, long end, boolean skipFirst) throws IOException {
+			lines = new int[3 * 1024];
+			stateNames = new ArrayList<String>();
+			eventNames = new ArrayList<String>();
+			// Each distinct name only becomes a String the first time it is read
+			TokenTable<Integer> stateTokens = new TokenTable<Integer>(name -> addName(stateNames, name));
+			TokenTable<Integer> eventTokens = new TokenTable<Integer>(name -> addName(eventNames, name));
+			LineReader in = new LineReader(channel, start);
+			if(skipFirst)
+				in.nextLine();
+			while(in.nextLine() && in.getLineFilePosition() < end) {
+				// A Transition is "state1 state2 event"; like String.split(" "), a line without a third token ends them
+				byte[] line = in.getBuffer();
+				int lineEnd = in.getLineEnd();
+				int space1 = indexOf(line, ' ', in.getLineStart(), lineEnd);
+				int space2 = space1 == -1 ? -1 : indexOf(line, ' ', space1 + 1, lineEnd);
+				if(space2 == -1 || !hasToken(line, space2 + 1, lineEnd)) {
+					ended = true;
+					break;
+				}
+				int space3 = indexOf(line, ' ', space2 + 1, lineEnd);
+				if(3 * count == lines.length)
+					lines = Arrays.copyOf(lines, lines.length * 2);
+				lines[3 * count] = stateTokens.get(in, in.getLineStart(), space1);
+				lines[3 * count + 1] = stateTokens.get(in, space1 + 1, space2);
+				lines[3 * count + 2] = eventTokens.get(in, space2 + 1, space3 == -1 ? lineEnd : space3);
+				count++;
+			} // while there is another line in this chunk
+		}
+		
+		/**
+		 * Helper method that adds a name seen for the first time to a list of names.
+		 * 
+		 * @param names - ArrayList<<r>String> object to add the name to.
+		 * @param name - String object representing the name.
+		 * @return - Returns an Integer object representing the position of the name in the list.
+		 */
+		
+		private static Integer addName(ArrayList<String> names, String name) {
+			names.add(name);
+			return names.size() - 1;
+		}
+		
+	}
+	
 }
@@ -0,0 +1,330 @@
+package support;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.*;
+
+/**
+ * StateSpaceExplorer is the single engine behind the reachability searches of the fsm package: making a
+ * transition system accessible, building products, compositions and observers, and the searches of the
+ * Modal Specification operations. Each search supplies an Expander, which handles one node (usually by
+ * adding States and Transitions to the object being built) and reports the node's successors; the explorer
+ * takes care of the frontier, the visited set, and stopping.
+ *
+ * Nodes are deduplicated by a key made by an encoder (by default, the node itself), and every node is expanded
+ * at most once. The frontier may be explored breadth-first or depth-first, or in parallel by a work-stealing
+ * pool of threads, in which case the Expander must be safe to call from several threads at once. The visited
+ * set may be replaced to suit the keys (a TreeSet, a set over packed keys, and so on); a concurrent set is
+ * used by default for parallel exploration.
+ *
+ * An optional stop condition ends the search as soon as a node satisfying it is reached, and an optional
+ * progress listener is told how many nodes have been expanded at a fixed interval.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class StateSpaceExplorer<K> {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** Order value representing the order in which nodes in the frontier are expanded.*/
+	public enum Order { BREADTH_FIRST, DEPTH_FIRST, PARALLEL }
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** Expander<<r>K> object which handles each node and reports its successors.*/
+	private Expander<K> expander;
+	/** Function<<r>K, ?> object which makes the key each node is deduplicated by.*/
+	private Function<? super K, ?> encoder;
+	/** Order value representing the order in which nodes are expanded.*/
+	private Order order;
+	/** int value representing the number of threads used when exploring in parallel.*/
+	private int parallelism;
+	/** Supplier<<r>Set<<r>Object>> object which makes the visited set for each exploration.*/
+	private Supplier<Set<Object>> visitedBackend;
+	/** Predicate<<r>K> object which ends the exploration when a node satisfying it is reached.*/
+	private Predicate<? super K> stopCondition;
+	/** LongConsumer object which is told the number of nodes expanded so far.*/
+	private LongConsumer progressListener;
+	/** long value representing the number of nodes expanded between calls to the progress listener.*/
+	private long progressInterval;
+	/** long value representing the number of nodes expanded during the last exploration.*/
+	private long expanded;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a StateSpaceExplorer object which explores breadth-first, deduplicating nodes by
+	 * their own equals and hashCode methods.
+	 *
+	 * @param inExpander - Expander<<r>K> object which handles each node and reports its successors.
+	 */
+
+	public StateSpaceExplorer(Expander<K> inExpander) {
+		expander = inExpander;
+		encoder = Function.identity();
+		order = Order.BREADTH_FIRST;
+		parallelism = Runtime.getRuntime().availableProcessors();
+		progressInterval = 0;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method explores every node reachable from the provided root, expanding each of them once.
+	 *
+	 * @param root - K object representing the node to start from.
+	 * @return - Returns the first node found which satisfies the stop condition, or null if the exploration finished.
+	 */
+
+	public K explore(K root) {
+		return explore(Collections.singletonList(root));
+	}
+
+	/**
+	 * This method explores every node reachable from the provided roots, expanding each of them once.
+	 *
+	 * @param roots - Collection<<r>K> object holding the nodes to start from.
+	 * @return - Returns the first node found which satisfies the stop condition, or null if the exploration finished.
+	 * @throws CancellationException - Thrown if the thread is interrupted while exploring in parallel, as the nodes visited are then only some of those reachable; the thread's interrupt status is kept.
+	 */
+
+	public K explore(Collection<? extends K> roots) {
+		expanded = 0;
+		if(order == Order.PARALLEL)
+			return exploreParallel(roots);
+
+		Set<Object> visited = visitedBackend == null ? new HashSet<Object>() : visitedBackend.get();
+		ArrayDeque<K> frontier = new ArrayDeque<K>();
+		Consumer<K> discover = node -> {
+			if(visited.add(encoder.apply(node)))
+				frontier.add(node);
+		};
+		for(K root : roots)
+			discover.accept(root);
+
+		while(!frontier.isEmpty()) {
+			K node = order == Order.DEPTH_FIRST ? frontier.pollLast() : frontier.pollFirst();
+			if(stopCondition != null && stopCondition.test(node))
+				return node;
+			expander.expand(node, discover);
+			expanded++;
+			if(progressListener != null && expanded % progressInterval == 0)
+				progressListener.accept(expanded);
+		} // while there are nodes to expand
+		return null;
+	} // explore(Collection)
+
+//---  Setter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Setter method that assigns the function making the key each node is deduplicated by; two nodes
+	 * with equal keys are treated as the same node.
+	 *
+	 * @param in - Function<<r>K, ?> object which makes the key of a node.
+	 * @return - Returns this StateSpaceExplorer object, so that calls may be chained.
+	 */
+
+	public StateSpaceExplorer<K> setEncoder(Function<? super K, ?> in) {
+		encoder = in;
+		return this;
+	}
+
+	/**
+	 * Setter method that assigns the order in which nodes are expanded.
+	 *
+	 * @param in - Order value representing the order in which nodes are expanded.
+	 * @return - Returns this StateSpaceExplorer object, so that calls may be chained.
+	 */
+
+	public StateSpaceExplorer<K> setOrder(Order in) {
+		order = in;
+		return this;
+	}
+
+	/**
+	 * Setter method that assigns the number of threads used when exploring in parallel.
+	 *
+	 * @param in - int value representing the number of threads.
+	 * @return - Returns this StateSpaceExplorer object, so that calls may be chained.
+	 */
+
+	public StateSpaceExplorer<K> setParallelism(int in) {
+		parallelism = Math.max(1, in);
+		return this;
+	}
+
+	/**
+	 * Setter method that assigns the supplier of the visited set, which is called once per exploration.
+	 * For parallel exploration the set must be safe to use from several threads.
+	 *
+	 * @param in - Supplier<<r>Set<<r>Object>> object which makes an empty visited set.
+	 * @return - Returns this StateSpaceExplorer object, so that calls may be chained.
+	 */
+
+	public StateSpaceExplorer<K> setVisitedBackend(Supplier<Set<Object>> in) {
+		visitedBackend = in;
+		return this;
+	}
+
+	/**
+	 * Setter method that assigns the condition ending the exploration. It is checked on each node
+	 * before it is expanded.
+	 *
+	 * @param in - Predicate<<r>K> object which accepts the nodes to stop at, or null to never stop early.
+	 * @return - Returns this StateSpaceExplorer object, so that calls may be chained.
+	 */
+
+	public StateSpaceExplorer<K> setStopCondition(Predicate<? super K> in) {
+		stopCondition = in;
+		return this;
+	}
+
+	/**
+	 * Setter method that assigns the listener told of the exploration's progress.
+	 *
+	 * @param listener - LongConsumer object which is given the number of nodes expanded so far.
+	 * @param interval - long value representing the number of nodes expanded between calls to the listener.
+	 * @return - Returns this StateSpaceExplorer object, so that calls may be chained.
+	 */
+
+	public StateSpaceExplorer<K> setProgressListener(LongConsumer listener, long interval) {
+		progressListener = listener;
+		progressInterval = Math.max(1, interval);
+		return this;
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the number of nodes expanded during the last exploration.
+	 *
+	 * @return - Returns a long value representing the number of nodes expanded.
+	 */
+
+	public long getExpandedCount() {
+		return expanded;
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that explores the nodes with a work-stealing pool: each node is a task which expands
+	 * the node and forks a task for each new successor, and idle threads steal tasks from busy ones.
+	 *
+	 * @param roots - Collection<<r>K> object holding the nodes to start from.
+	 * @return - Returns the first node found which satisfies the stop condition, or null if the exploration finished.
+	 * @throws CancellationException - Thrown if the thread is interrupted before the exploration finishes.
+	 */
+
+	private K exploreParallel(Collection<? extends K> roots) {
+		Set<Object> visited = visitedBackend == null ? ConcurrentHashMap.newKeySet() : visitedBackend.get();
+		AtomicReference<K> found = new AtomicReference<K>();
+		AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+		AtomicLong count = new AtomicLong();
+		AtomicLong pending = new AtomicLong();	// Tasks scheduled but not yet finished
+		CountDownLatch done = new CountDownLatch(1);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+		class Task extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final K node;
+
+			Task(K inNode) {
+				node = inNode;
+			}
+
+			@Override
+			protected void compute() {
+				try {
+					expand();
+				} catch(RuntimeException e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					if(pending.decrementAndGet() == 0)
+						done.countDown();
+				}
+			}
+
+			private void expand() {
+				if(found.get() != null || failure.get() != null)
+					return;
+				if(stopCondition != null && stopCondition.test(node)) {
+					found.compareAndSet(null, node);
+					return;
+				}
+				expander.expand(node, next -> {
+					if(visited.add(encoder.apply(next))) { // Forked tasks go on this thread's deque, where idle threads steal them
+						pending.incrementAndGet();
+						new Task(next).fork();
+					}
+				});
+				long expandedSoFar = count.incrementAndGet();
+				if(progressListener != null && expandedSoFar % progressInterval == 0)
+					progressListener.accept(expandedSoFar);
+			}
+		} // class Task
+
+		try {
+			pending.incrementAndGet(); // Held until every root is scheduled
+			for(K root : roots) {
+				if(visited.add(encoder.apply(root))) {
+					pending.incrementAndGet();
+					pool.execute(new Task(root));
+				}
+			}
+			if(pending.decrementAndGet() == 0)
+				done.countDown();
+			done.await();
+		} catch(InterruptedException e) {
+			// The tasks still running are abandoned, so what was built is not the whole search
+			Thread.currentThread().interrupt();
+			expanded = count.get();
+			CancellationException cancelled = new CancellationException("exploration interrupted after " + count.get() + " nodes");
+			cancelled.initCause(e);
+			throw cancelled;
+		} finally {
+			pool.shutdownNow();
+		}
+		expanded = count.get();
+		if(failure.get() != null)
+			throw failure.get();
+		return found.get();
+	} // exploreParallel(Collection)
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * Expander handles a single node of an exploration, reporting each of the node's successors to
+	 * the provided Consumer. Successors already explored are ignored by the explorer, so they may be
+	 * reported freely.
+	 *
+	 * @param <K> - Type of the nodes being explored.
+	 */
+
+	public interface Expander<K> {
+
+		/**
+		 * This method handles a node and reports its successors.
+		 *
+		 * @param node - K object representing the node to expand.
+		 * @param successors - Consumer<<r>K> object which accepts each successor of the node.
+		 */
+
+		public void expand(K node, Consumer<K> successors);
+
+	}
+
+}
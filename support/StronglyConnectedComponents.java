@@ -0,0 +1,269 @@
+package support;
+
+import support.map.TransitionFunction;
+import support.transition.Transition;
+import java.util.function.Predicate;
+import java.util.*;
+
+/**
+ * StronglyConnectedComponents holds the decomposition of a transition system's States into strongly
+ * connected components, along with the condensation of the transition system: the directed acyclic
+ * graph with one node per component and an edge wherever a Transition leads from one component to another.
+ *
+ * The decomposition is found with an iterative version of Tarjan's algorithm, so it does not overflow
+ * the stack on large transition systems. Only Transitions whose Event passes the provided filter are followed
+ * (for example, only unobservable Events), which allows the same decomposition to serve for closures, blocking
+ * and livelock detection, and minimization. The result does not change with the transition system, so it can
+ * be kept and reused by several analyses as long as the transition system is not modified.
+ *
+ * Components are numbered in topological order: every edge of the condensation goes from a lower-numbered
+ * component to a higher-numbered one.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class StronglyConnectedComponents {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** ArrayList<<r>ArrayList<<r>State>> object holding the States of each component.*/
+	private ArrayList<ArrayList<State>> components;
+	/** HashMap<<r>String, Integer> object mapping the name of each State to the component holding it.*/
+	private HashMap<String, Integer> componentOf;
+	/** int[][] object holding, for each component, the components its outgoing edges lead to.*/
+	private int[][] successors;
+	/** boolean[] object holding, for each component, whether it contains a cycle (even a self-loop).*/
+	private boolean[] cyclic;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a StronglyConnectedComponents object which decomposes the provided States.
+	 *
+	 * @param states - Collection<<r>State> object holding the States of the transition system.
+	 * @param transitions - TransitionFunction object holding the Transitions of the transition system.
+	 * @param eventFilter - Predicate<<r>Event> object which accepts the Events to follow, or null to follow all Events.
+	 */
+
+	public <T extends Transition> StronglyConnectedComponents(Collection<State> states, TransitionFunction<T> transitions, Predicate<Event> eventFilter) {
+		// Index the states and build the filtered adjacency lists
+		State[] indexed = states.toArray(new State[states.size()]);
+		HashMap<State, Integer> index = new HashMap<State, Integer>();
+		for(int i = 0; i < indexed.length; i++)
+			index.put(indexed[i], i);
+		int[][] adjacency = new int[indexed.length][];
+		for(int i = 0; i < indexed.length; i++) {
+			ArrayList<Integer> out = new ArrayList<Integer>();
+			for(T t : transitions.getTransitions(indexed[i])) {
+				if(eventFilter != null && !eventFilter.test(t.getTransitionEvent()))
+					continue;
+				for(State to : t.getTransitionStates()) {
+					Integer j = index.get(to);
+					if(j != null)
+						out.add(j);
+				}
+			}
+			adjacency[i] = new int[out.size()];
+			for(int k = 0; k < adjacency[i].length; k++)
+				adjacency[i][k] = out.get(k);
+		}
+		decompose(indexed, adjacency);
+	}
+
+	/**
+	 * Constructor for a StronglyConnectedComponents object which decomposes States already indexed, such
+	 * as those of a TransitionSystemSnapshot, given the indices each State has an edge to.
+	 *
+	 * @param indexed - State[] object holding the States of the transition system at their indices.
+	 * @param adjacency - int[][] object holding, for each State, the indices of the States it has an edge to.
+	 */
+
+	public StronglyConnectedComponents(State[] indexed, int[][] adjacency) {
+		decompose(indexed, adjacency);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the number of strongly connected components.
+	 *
+	 * @return - Returns an int value representing the number of components.
+	 */
+
+	public int getComponentCount() {
+		return components.size();
+	}
+
+	/**
+	 * Getter method that returns the States in a component.
+	 *
+	 * @param component - int value representing the number of the component.
+	 * @return - Returns an ArrayList<<r>State> object holding the States in the component.
+	 */
+
+	public ArrayList<State> getComponent(int component) {
+		return components.get(component);
+	}
+
+	/**
+	 * Getter method that returns the number of the component holding a State.
+	 *
+	 * @param state - State object whose component is requested.
+	 * @return - Returns an int value representing the number of the component, or -1 if the State is unknown.
+	 */
+
+	public int getComponentOf(State state) {
+		Integer c = componentOf.get(state.getStateName());
+		return c == null ? -1 : c;
+	}
+
+	/**
+	 * Getter method that returns the components a component has edges to in the condensation.
+	 *
+	 * @param component - int value representing the number of the component.
+	 * @return - Returns an int[] object holding the numbers of the components, in increasing order.
+	 */
+
+	public int[] getSuccessors(int component) {
+		return successors[component].clone();
+	}
+
+	/**
+	 * Getter method that returns whether a component contains a cycle, that is, if it has more than
+	 * one State or its only State has a Transition to itself.
+	 *
+	 * @param component - int value representing the number of the component.
+	 * @return - Returns true if the component contains a cycle, false otherwise.
+	 */
+
+	public boolean isCyclic(int component) {
+		return cyclic[component];
+	}
+
+	/**
+	 * Getter method that returns whether a component is a sink of the condensation, that is, if no
+	 * edge leaves it.
+	 *
+	 * @param component - int value representing the number of the component.
+	 * @return - Returns true if no edge leaves the component, false otherwise.
+	 */
+
+	public boolean isSink(int component) {
+		return successors[component].length == 0;
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that finds the components of the indexed States and builds the condensation.
+	 *
+	 * @param indexed - State[] object holding the States of the transition system at their indices.
+	 * @param adjacency - int[][] object holding, for each State, the indices of the States it has an edge to.
+	 */
+
+	private void decompose(State[] indexed, int[][] adjacency) {
+		int[] found = tarjan(adjacency);
+
+		// Tarjan's algorithm finishes components in reverse topological order, so flip the numbering
+		int count = 0;
+		for(int c : found)
+			count = Math.max(count, c + 1);
+		components = new ArrayList<ArrayList<State>>();
+		for(int c = 0; c < count; c++)
+			components.add(new ArrayList<State>());
+		componentOf = new HashMap<String, Integer>();
+		int[] comp = new int[indexed.length];
+		for(int i = 0; i < indexed.length; i++) {
+			comp[i] = count - 1 - found[i];
+			components.get(comp[i]).add(indexed[i]);
+			componentOf.put(indexed[i].getStateName(), comp[i]);
+		}
+
+		// Build the condensation
+		ArrayList<TreeSet<Integer>> edges = new ArrayList<TreeSet<Integer>>();
+		for(int c = 0; c < count; c++)
+			edges.add(new TreeSet<Integer>());
+		cyclic = new boolean[count];
+		for(int i = 0; i < indexed.length; i++) {
+			if(components.get(comp[i]).size() > 1)
+				cyclic[comp[i]] = true;
+			for(int j : adjacency[i]) {
+				if(j == i)
+					cyclic[comp[i]] = true;
+				else if(comp[i] != comp[j])
+					edges.get(comp[i]).add(comp[j]);
+			}
+		}
+		successors = new int[count][];
+		for(int c = 0; c < count; c++) {
+			successors[c] = new int[edges.get(c).size()];
+			int k = 0;
+			for(int d : edges.get(c))
+				successors[c][k++] = d;
+		}
+	} // decompose(State[], int[][])
+
+	/**
+	 * Helper method that runs Tarjan's algorithm iteratively, keeping an explicit stack of the nodes
+	 * being visited and how far through their edges each one has gone.
+	 *
+	 * @param adjacency - int[][] object holding the nodes each node has an edge to.
+	 * @return - Returns an int[] object holding the component of each node, numbered in the order they are finished.
+	 */
+
+	private static int[] tarjan(int[][] adjacency) {
+		int n = adjacency.length;
+		int[] order = new int[n];		// Visit order of each node, plus one (0 means unvisited)
+		int[] low = new int[n];
+		int[] component = new int[n];
+		Arrays.fill(component, -1);
+		int[] stack = new int[n];		// Tarjan's stack of nodes not yet in a component
+		int stackSize = 0;
+		int[] callNode = new int[n];	// The explicit call stack: the node and its next edge
+		int[] callEdge = new int[n];
+		int visited = 0, components = 0;
+
+		for(int root = 0; root < n; root++) {
+			if(order[root] != 0)
+				continue;
+			int depth = 0;
+			callNode[0] = root;
+			callEdge[0] = 0;
+			order[root] = low[root] = ++visited;
+			stack[stackSize++] = root;
+
+			while(depth >= 0) {
+				int v = callNode[depth];
+				if(callEdge[depth] < adjacency[v].length) {
+					int w = adjacency[v][callEdge[depth]++];
+					if(order[w] == 0) { // Visit the neighbour as if by a recursive call
+						order[w] = low[w] = ++visited;
+						stack[stackSize++] = w;
+						depth++;
+						callNode[depth] = w;
+						callEdge[depth] = 0;
+					}
+					else if(component[w] == -1) // Still on the stack
+						low[v] = Math.min(low[v], order[w]);
+				}
+				else { // Return from v
+					if(low[v] == order[v]) {
+						int w;
+						do {
+							w = stack[--stackSize];
+							component[w] = components;
+						} while(w != v);
+						components++;
+					}
+					depth--;
+					if(depth >= 0)
+						low[callNode[depth]] = Math.min(low[callNode[depth]], low[v]);
+				}
+			} // while there are nodes being visited
+		} // for every root
+		return component;
+	} // tarjan(int[][])
+
+}
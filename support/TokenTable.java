@@ -0,0 +1,131 @@
+package support;
+
+import java.util.function.Function;
+import java.util.Arrays;
+
+/**
+ * This class interns the tokens read by a LineReader, mapping each distinct run of bytes to a single
+ * object (such as the State or Event named by the token). Looking a token up compares its bytes in
+ * place, so a token seen before costs no allocation at all; only a new token is decoded into a String
+ * and handed to the provided factory.
+ *
+ * The table uses open addressing with linear probing and doubles whenever it becomes half full.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ *
+ * @param <V> - Type of the objects the tokens are mapped to.
+ */
+
+class TokenTable<V> {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** byte[][] object holding the bytes of the token in each slot, or null if the slot is empty.*/
+	private byte[][] keys;
+	/** int[] object holding the hash of the token in each slot.*/
+	private int[] hashes;
+	/** Object[] object holding the value of the token in each slot.*/
+	private Object[] values;
+	/** int value representing the number of tokens held.*/
+	private int size;
+	/** Function<<r>String, V> object which makes the value of a token seen for the first time.*/
+	private Function<String, V> factory;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a TokenTable object which makes the value of each new token with the provided factory.
+	 *
+	 * @param inFactory - Function<<r>String, V> object which is given each new token as a String.
+	 */
+
+	TokenTable(Function<String, V> inFactory) {
+		factory = inFactory;
+		keys = new byte[64][];
+		hashes = new int[64];
+		values = new Object[64];
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * This method gets the value of a token, making it if the token has not been seen before.
+	 *
+	 * @param reader - LineReader object whose buffer holds the token, and which decodes new tokens.
+	 * @param start - int value representing the position of the token's first byte.
+	 * @param end - int value representing the end (exclusive) of the token.
+	 * @return - Returns the V object the token is mapped to.
+	 */
+
+	@SuppressWarnings("unchecked")
+	V get(LineReader reader, int start, int end) {
+		byte[] buffer = reader.getBuffer();
+		int hash = 1;
+		for(int i = start; i < end; i++)
+			hash = 31 * hash + buffer[i];
+		hash ^= hash >>> 16;
+		int mask = keys.length - 1;
+		for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			byte[] key = keys[slot];
+			if(key == null) {
+				V value = factory.apply(reader.decode(start, end));
+				keys[slot] = Arrays.copyOfRange(buffer, start, end);
+				hashes[slot] = hash;
+				values[slot] = value;
+				if(++size * 2 > keys.length)
+					grow();
+				return value;
+			}
+			if(hashes[slot] == hash && matches(key, buffer, start, end))
+				return (V)values[slot];
+		} // for every slot, until the token or an empty one is found
+	} // get(LineReader, int, int)
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that checks if a stored token has the same bytes as part of a buffer.
+	 *
+	 * @param key - byte[] object holding the stored token.
+	 * @param buffer - byte[] object holding the token being looked up.
+	 * @param start - int value representing the position of the token's first byte.
+	 * @param end - int value representing the end (exclusive) of the token.
+	 * @return - Returns true if the bytes are the same, false otherwise.
+	 */
+
+	private static boolean matches(byte[] key, byte[] buffer, int start, int end) {
+		if(key.length != end - start)
+			return false;
+		for(int i = 0; i < key.length; i++)
+			if(key[i] != buffer[start + i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Helper method that doubles the number of slots, moving every token to its slot in the new table.
+	 */
+
+	private void grow() {
+		byte[][] oldKeys = keys;
+		int[] oldHashes = hashes;
+		Object[] oldValues = values;
+		keys = new byte[oldKeys.length * 2][];
+		hashes = new int[keys.length];
+		values = new Object[keys.length];
+		int mask = keys.length - 1;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] == null)
+				continue;
+			int slot = oldHashes[i] & mask;
+			while(keys[slot] != null)
+				slot = (slot + 1) & mask;
+			keys[slot] = oldKeys[i];
+			hashes[slot] = oldHashes[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+}
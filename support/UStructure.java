@@ -1,8 +1,12 @@
 package support;
 
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import fsm.DetObsContFSM;
 import support.Agent;
 import support.map.TransitionFunction;
@@ -12,29 +16,55 @@ import java.util.HashMap;
 public class UStructure {
 
 	private static final String UNOBSERVED_EVENT = "w";
-	
+	/** Index of the unobserved event in the event indexing; the plant's events follow it.*/
+	private static final int UNOBSERVED = 0;
+
 	private DetObsContFSM plantFSM;
 	private Agent[] agents;
-	private HashMap<String, ArrayList<DetTransition>> badTransitions;
 	private DetObsContFSM uStructure;
-	private HashMap<State, State[]> compositeMapping;
 	private HashSet<State> goodBadStates;
 	private HashSet<State> badGoodStates;
-	
+
+	// Compact representation of the plant and agents used while exploring
+	private State[] plantStates;
+	private String[] eventNames;
+	/** next[state][event] is the index of the state reached, or -1 if the event is not possible.*/
+	private int[][] next;
+	/** observable[agent][event] is true if the agent observes the event.*/
+	private boolean[][] observable;
+	/** controllable[agent][event] is true if the agent controls the event.*/
+	private boolean[][] controllable;
+	/** bad[state][event] is true if the event is a bad transition at the state.*/
+	private boolean[][] bad;
+	/** Nodes of the U-Structure, as tuples of plant state indices.*/
+	private TupleTable nodes;
+	/** Joint events of the U-Structure, as vectors of event indices (one per agent), interned.*/
+	private TupleTable jointEvents;
+	/** Transitions of the U-Structure, as {node, joint event, node}.*/
+	private ArrayList<int[]> edges;
+	/** The State made for each node of the U-Structure.*/
+	private State[] nodeStates;
+	/** When only checking for an illegal configuration, the {node, joint event} each node was first reached by.*/
+	private ArrayList<int[]> parents;
+	/** Groups of interchangeable agents (identical observable and controllable events), if symmetry reduction is used.*/
+	private int[][] symmetryClasses;
+
 	public UStructure(DetObsContFSM thePlant, TransitionFunction<DetTransition> theBadTransitions, Agent ... theAgents) {
+		this(thePlant, theBadTransitions, theAgents, true, false);
+	}
+
+	/**
+	 * Builds the U-Structure, optionally using symmetry reduction: agents with identical observable and controllable
+	 * events are interchangeable, so the component states of each group of such agents are kept sorted and only one
+	 * of the permuted nodes is explored. The illegal configurations found are those of the representative nodes.
+	 */
+
+	public UStructure(DetObsContFSM thePlant, TransitionFunction<DetTransition> theBadTransitions, boolean symmetryReduction, Agent ... theAgents) {
+		this(thePlant, theBadTransitions, theAgents, true, symmetryReduction);
+	}
+
+	private UStructure(DetObsContFSM thePlant, TransitionFunction<DetTransition> theBadTransitions, Agent[] theAgents, boolean build, boolean symmetryReduction) {
 		plantFSM = thePlant;
-		badTransitions = new HashMap<String, ArrayList<DetTransition>>();
-		for(State s : theBadTransitions.getStates()) {
-			ArrayList<DetTransition> newTrans = new ArrayList<DetTransition>();
-			for(DetTransition t : theBadTransitions.getTransitions(s)) {
-				newTrans.add(t);
-			}
-			badTransitions.put(s.getStateName(), newTrans);
-		}
-		for(State s : thePlant.getStates()) {
-			if(badTransitions.get(s.getStateName()) == null)
-				badTransitions.put(s.getStateName(), new ArrayList<DetTransition>());
-		}
 		agents = new Agent[theAgents.length + 1];
 		agents[0] = new Agent(thePlant.getEventMap().getEvents().toArray(new Event[thePlant.getEventMap().getEvents().size()]));
 		for(int i = 0; i < theAgents.length; i++)
@@ -48,146 +78,345 @@ public class UStructure {
 			for(String e : allEvents)
 				if(!a.contains(e))
 					a.addNonPresentEvent(e);
-		createUStructure();
-		findIllegalStates();
+		indexPlant(allEvents, theBadTransitions);
+		symmetryClasses = symmetryReduction ? findSymmetryClasses() : new int[0][];
+		if(build) {
+			createUStructure();
+			findIllegalStates();
+		}
 	}
-	
-	public void createUStructure() {
-		uStructure = new DetObsContFSM();
-		compositeMapping = new HashMap<State, State[]>();
-		LinkedList<BatchAgentStates> queue = new LinkedList<BatchAgentStates>();
-		HashSet<State> visited = new HashSet<State>();
-		State[] starting = new State[agents.length];
-		for(int i = 0; i < starting.length; i++)
-			starting[i] = plantFSM.getInitialState();
-		State init = uStructure.addState(starting);
-		uStructure.addInitialState(init);
-		compositeMapping.put(init, starting);
-		queue.add(new BatchAgentStates(starting, uStructure.addState(starting)));
-		while(!queue.isEmpty()) {
-			BatchAgentStates stateSet = queue.poll();
-			if(visited.contains(stateSet.getIdentityState()))
+
+	/**
+	 * Checks whether the U-Structure of the plant and agents has an illegal configuration without building it:
+	 * each joint transition is checked as it is generated, and the search stops at the first violation. Because
+	 * the search is breadth-first, the counterexample is as short as possible. Symmetry reduction is used, as it
+	 * does not change whether an illegal configuration exists; the path found is replayed from the initial node
+	 * so that its joint events name the real agents rather than their positions in the sorted tuples.
+	 *
+	 * @return - Returns an ArrayList<<r>String> holding the joint events (such as <a, w, a>) leading from the initial
+	 * node to the violation, the last being the illegal joint transition itself; or null if there is no illegal configuration.
+	 */
+
+	public static ArrayList<String> findIllegalConfiguration(DetObsContFSM thePlant, TransitionFunction<DetTransition> theBadTransitions, Agent ... theAgents) {
+		return findIllegalConfiguration(thePlant, theBadTransitions, true, theAgents);
+	}
+
+	/**
+	 * Checks whether the U-Structure of the plant and agents has an illegal configuration without building it,
+	 * as above, with or without symmetry reduction; either way gives the same verdict and a counterexample of
+	 * the same length.
+	 *
+	 * @return - Returns an ArrayList<<r>String> holding the joint events leading from the initial node to the
+	 * violation, the last being the illegal joint transition itself; or null if there is no illegal configuration.
+	 */
+
+	public static ArrayList<String> findIllegalConfiguration(DetObsContFSM thePlant, TransitionFunction<DetTransition> theBadTransitions, boolean symmetryReduction, Agent ... theAgents) {
+		UStructure check = new UStructure(thePlant, theBadTransitions, theAgents, false, symmetryReduction);
+		int[] violation = check.explore(true);
+		if(violation == null)
+			return null;
+		ArrayList<int[]> path = new ArrayList<int[]>();
+		path.add(check.jointEvents.get(violation[1]));
+		for(int node = violation[0]; node != 0; node = check.parents.get(node)[0])
+			path.add(check.jointEvents.get(check.parents.get(node)[1]));
+		Collections.reverse(path);
+		return check.replay(path);
+	}
+
+	/**
+	 * Replays a path of joint events found among the canonical nodes from the real initial node. At each step,
+	 * the canonical node is the real one with each group of interchangeable agents sorted, so the joint event
+	 * taken from the canonical node is moved back to the agents whose states were sorted into its positions.
+	 *
+	 * @return - Returns an ArrayList<<r>String> holding the labels of the joint events as taken by the real agents.
+	 */
+
+	private ArrayList<String> replay(ArrayList<int[]> path) {
+		ArrayList<String> labels = new ArrayList<String>();
+		int[] tuple = nodes.get(0).clone();
+		for(int[] canonicalEvent : path) {
+			int[] jointEvent = canonicalEvent.clone();
+			for(int[] members : symmetryClasses) {
+				Integer[] order = new Integer[members.length];
+				for(int k = 0; k < members.length; k++)
+					order[k] = members[k];
+				// Stable, so it matches the sort in canonicalize(); position k of the canonical node is agent order[k]
+				int[] current = tuple;
+				Arrays.sort(order, (a, b) -> Integer.compare(current[a], current[b]));
+				for(int k = 0; k < members.length; k++)
+					jointEvent[order[k]] = canonicalEvent[members[k]];
+			}
+			labels.add(getEventLabel(jointEvent));
+			int[] nextTuple = tuple.clone();
+			for(int i = 0; i < tuple.length; i++)
+				if(jointEvent[i] != UNOBSERVED && next[tuple[i]][jointEvent[i]] != -1)
+					nextTuple[i] = next[tuple[i]][jointEvent[i]];
+			tuple = nextTuple;
+		}
+		return labels;
+	}
+
+	/**
+	 * Indexes the plant's states and all the events so that the U-Structure can be explored
+	 * using int tuples, and precomputes the transitions, observability and bad transitions.
+	 */
+
+	private void indexPlant(HashSet<String> allEvents, TransitionFunction<DetTransition> theBadTransitions) {
+		plantStates = plantFSM.getStates().toArray(new State[plantFSM.getStates().size()]);
+		HashMap<String, Integer> stateIndex = new HashMap<String, Integer>();
+		for(int i = 0; i < plantStates.length; i++)
+			stateIndex.put(plantStates[i].getStateName(), i);
+
+		allEvents.remove(UNOBSERVED_EVENT);
+		eventNames = new String[allEvents.size() + 1];
+		eventNames[UNOBSERVED] = UNOBSERVED_EVENT;
+		HashMap<String, Integer> eventIndex = new HashMap<String, Integer>();
+		int e = UNOBSERVED + 1;
+		for(String eventName : allEvents) {
+			eventNames[e] = eventName;
+			eventIndex.put(eventName, e++);
+		}
+
+		next = new int[plantStates.length][eventNames.length];
+		bad = new boolean[plantStates.length][eventNames.length];
+		for(int i = 0; i < plantStates.length; i++) {
+			Arrays.fill(next[i], -1);
+			for(DetTransition t : plantFSM.getStateTransitions(plantStates[i]))
+				next[i][eventIndex.get(t.getTransitionEvent().getEventName())] = stateIndex.get(t.getTransitionState().getStateName());
+		}
+		for(State s : theBadTransitions.getStates()) {
+			Integer i = stateIndex.get(s.getStateName());
+			if(i != null) for(DetTransition t : theBadTransitions.getTransitions(s)) {
+				Integer badEvent = eventIndex.get(t.getTransitionEvent().getEventName());
+				if(badEvent != null)
+					bad[i][badEvent] = true;
+			}
+		}
+
+		observable = new boolean[agents.length][eventNames.length];
+		controllable = new boolean[agents.length][eventNames.length];
+		for(int i = 0; i < agents.length; i++)
+			for(e = 0; e < eventNames.length; e++) {
+				observable[i][e] = agents[i].getObservable(eventNames[e]);
+				controllable[i][e] = agents[i].getControllable(eventNames[e]);
+			}
+	}
+
+	/**
+	 * Groups the agents (other than the plant, which the illegal configurations single out) which observe
+	 * and control exactly the same events.
+	 */
+
+	private int[][] findSymmetryClasses() {
+		ArrayList<int[]> classes = new ArrayList<int[]>();
+		boolean[] grouped = new boolean[agents.length];
+		for(int i = 1; i < agents.length; i++) {
+			if(grouped[i])
 				continue;
-			visited.add(stateSet.getIdentityState());
-			HashSet<String> viableEvents = new HashSet<String>();
-			for(State s : stateSet.getStates()) {
-				for(DetTransition t : plantFSM.getTransitions().getTransitions(s))
-					viableEvents.add(t.getTransitionEvent().getEventName());
+			ArrayList<Integer> group = new ArrayList<Integer>();
+			for(int j = i; j < agents.length; j++) {
+				if(!grouped[j] && Arrays.equals(observable[i], observable[j]) && Arrays.equals(controllable[i], controllable[j])) {
+					grouped[j] = true;
+					group.add(j);
+				}
+			}
+			if(group.size() > 1) {
+				int[] members = new int[group.size()];
+				for(int k = 0; k < members.length; k++)
+					members[k] = group.get(k);
+				classes.add(members);
 			}
-			for(String s : viableEvents) {
-				boolean[] canAct = new boolean[stateSet.getStates().length];
-				for(int i = 0; i < stateSet.getStates().length; i++) {
-					if(!agents[i].getObservable(s)) {
-						State[] newSet = new State[stateSet.getStates().length];
-						String eventName = "<";
-						for(int j = 0; j < stateSet.getStates().length; j++) {
-							if(i == j) {
-								newSet[j] = stateSet.getStates()[j];
-								for(DetTransition t : plantFSM.getStateTransitions(stateSet.getStates()[j])) {
-									if(t.getTransitionEvent().getEventName().equals(s))
-										newSet[j] = t.getTransitionState();
-								}
-								eventName += s + (j + 1 < stateSet.getStates().length ? ", " : ">");
-							}
-							else {
-								newSet[j] = stateSet.getStates()[j];
-								eventName += "w" + (j + 1 < stateSet.getStates().length ? ", " : ">");
-							}
-						}
-						boolean fail = false;
-						for(State state : newSet)
-							if(state == null)
-								fail = true;
-						if(!fail) {
-							queue.add(new BatchAgentStates(newSet, uStructure.addState(new State(newSet))));
-							uStructure.addTransition(uStructure.addState(new State(stateSet.getStates())), uStructure.getEventMap().addEvent(eventName), uStructure.addState(new State(newSet)));
-							compositeMapping.put(uStructure.addState(new State(newSet)), newSet);
-						}
-					}
-					else {
-						canAct[i] = true;
-					}
+		}
+		return classes.toArray(new int[classes.size()][]);
+	}
+
+	/**
+	 * Puts the tuple in canonical form by sorting the component states of each group of interchangeable agents.
+	 */
+
+	private int[] canonicalize(int[] tuple) {
+		for(int[] members : symmetryClasses) {
+			int[] values = new int[members.length];
+			for(int k = 0; k < members.length; k++)
+				values[k] = tuple[members[k]];
+			Arrays.sort(values);
+			for(int k = 0; k < members.length; k++)
+				tuple[members[k]] = values[k];
+		}
+		return tuple;
+	}
+
+	public void createUStructure() {
+		explore(false);
+
+		// Now, build the U-Structure itself
+		uStructure = new DetObsContFSM();
+		nodeStates = new State[nodes.size()];
+		for(int n = 0; n < nodes.size(); n++) {
+			int[] tuple = nodes.get(n);
+			State[] components = new State[tuple.length];
+			for(int i = 0; i < tuple.length; i++)
+				components[i] = plantStates[tuple[i]];
+			nodeStates[n] = uStructure.addState(new State(components));
+		}
+		uStructure.addInitialState(nodeStates[0]);
+		// Labels are only made for display, once per joint event
+		Event[] labels = new Event[jointEvents.size()];
+		for(int j = 0; j < labels.length; j++)
+			labels[j] = uStructure.getEventMap().addEvent(getEventLabel(jointEvents.get(j)));
+		for(int[] edge : edges)
+			uStructure.addTransition(nodeStates[edge[0]], labels[edge[1]], nodeStates[edge[2]]);
+	}
+
+	/**
+	 * Explores the nodes of the U-Structure one frontier at a time; successors of a frontier are computed
+	 * in parallel, then added to the table of nodes in order. Either all the transitions are kept, or
+	 * only the first transition to each node is kept and the exploration stops at the first illegal configuration.
+	 *
+	 * @return - Returns the {node, joint event} of the first illegal joint transition if stopAtIllegal is true
+	 * and one exists, or null otherwise.
+	 */
+
+	private int[] explore(boolean stopAtIllegal) {
+		nodes = new TupleTable(agents.length);
+		jointEvents = new TupleTable(agents.length);
+		edges = new ArrayList<int[]>();
+		parents = new ArrayList<int[]>();
+		int initial = stateIndex(plantFSM.getInitialState());
+		int[] starting = new int[agents.length];
+		Arrays.fill(starting, initial);
+		nodes.add(starting);
+		parents.add(null);
+
+		int frontierStart = 0, frontierEnd = nodes.size();
+		while(frontierStart < frontierEnd) {
+			List<ArrayList<Successor>> successors = IntStream.range(frontierStart, frontierEnd).parallel()
+					.mapToObj(node -> getSuccessors(nodes.get(node), stopAtIllegal)).collect(Collectors.toList());
+			for(int i = 0; i < successors.size(); i++) {
+				for(Successor s : successors.get(i)) {
+					int to = nodes.add(s.tuple);
+					int event = jointEvents.add(s.jointEvent);
+					event = event < 0 ? -event - 1 : event;
+					if(!stopAtIllegal)
+						edges.add(new int[] {frontierStart + i, event, to < 0 ? -to - 1 : to});
+					else if(s.outcome != 0)
+						return new int[] {frontierStart + i, event};
+					else if(to >= 0)
+						parents.add(new int[] {frontierStart + i, event});
 				}
-				State[] newSet = new State[stateSet.getStates().length];
-				String eventName = "<";
-				for(int i = 0; i < canAct.length; i++) {
-					if(canAct[i]) {
-						eventName += s + (i + 1 < canAct.length ? ", " : ">");
-						for(DetTransition t : plantFSM.getStateTransitions(stateSet.getStates()[i])) {
-							if(t.getTransitionEvent().getEventName().equals(s)){
-								newSet[i] = t.getTransitionState();
-							}
-						}
-					}
-					else {
-						eventName += "w" + (i + 1 < canAct.length ? ", " : ">");
-						newSet[i] = stateSet.getStates()[i];
-					}
+			}
+			frontierStart = frontierEnd;
+			frontierEnd = nodes.size();
+		}
+		return null;
+	}
+
+	/**
+	 * Gets all the joint transitions out of a node of the U-Structure. For every event possible in one
+	 * of the components, each agent that does not observe the event may move alone, and all the agents
+	 * that observe it move together.
+	 */
+
+	private ArrayList<Successor> getSuccessors(int[] tuple, boolean checkIllegal) {
+		ArrayList<Successor> successors = new ArrayList<Successor>();
+		for(int e = UNOBSERVED + 1; e < eventNames.length; e++) {
+			boolean viable = false;
+			for(int i = 0; i < tuple.length && !viable; i++)
+				viable = next[tuple[i]][e] != -1;
+			if(!viable)
+				continue;
+
+			for(int i = 0; i < tuple.length; i++) {
+				if(!observable[i][e]) {
+					int[] newSet = tuple.clone();
+					if(next[tuple[i]][e] != -1)
+						newSet[i] = next[tuple[i]][e];
+					int[] jointEvent = getJointEvent(e, i, i + 1);
+					successors.add(new Successor(canonicalize(newSet), jointEvent, checkIllegal ? getOutcome(tuple, jointEvent) : 0));
 				}
-				boolean fail = false;
-				for(State state : newSet)
-					if(state == null)
-						fail = true;
-				if(!fail) {
-					queue.add(new BatchAgentStates(newSet, uStructure.addState(new State(newSet))));
-					uStructure.addTransition(uStructure.addState(new State(stateSet.getStates())), uStructure.getEventMap().addEvent(eventName), uStructure.addState(new State(newSet)));
-					compositeMapping.put(uStructure.addState(new State(newSet)), newSet);
+			}
+			int[] newSet = tuple.clone();
+			boolean fail = false;
+			for(int i = 0; i < tuple.length; i++) {
+				if(observable[i][e]) {
+					newSet[i] = next[tuple[i]][e];
+					fail |= newSet[i] == -1;
 				}
 			}
+			if(!fail) {
+				int[] jointEvent = getJointEvent(e, 0, tuple.length);
+				successors.add(new Successor(canonicalize(newSet), jointEvent, checkIllegal ? getOutcome(tuple, jointEvent) : 0));
+			}
 		}
+		return successors;
+	}
+
+	/**
+	 * Makes the vector of a joint event in which the event occurs for the agents in [from, to)
+	 * that observe it (or the only agent, if the range is a single agent), and is unobserved otherwise.
+	 */
+
+	private int[] getJointEvent(int e, int from, int to) {
+		int[] jointEvent = new int[agents.length];
+		for(int i = from; i < to; i++)
+			if(to - from == 1 || observable[i][e])
+				jointEvent[i] = e;
+		return jointEvent;
+	}
+
+	/**
+	 * Makes the name of a joint event for display, such as <a, w, a>.
+	 */
+
+	private String getEventLabel(int[] jointEvent) {
+		StringBuilder sb = new StringBuilder("<");
+		for(int i = 0; i < jointEvent.length; i++)
+			sb.append(eventNames[jointEvent[i]]).append(i + 1 < jointEvent.length ? ", " : ">");
+		return sb.toString();
+	}
+
+	private int stateIndex(State state) {
+		for(int i = 0; i < plantStates.length; i++)
+			if(plantStates[i].getStateName().equals(state.getStateName()))
+				return i;
+		return -1;
 	}
 
 	public void findIllegalStates() {
 		goodBadStates = new HashSet<State>();
 		badGoodStates = new HashSet<State>();
-		for(State s : uStructure.getStates()) {
-			for(DetTransition t : uStructure.getStateTransitions(s)) {
-				Event e = t.getTransitionEvent();
-				String[] event = e.getEventName().substring(1, e.getEventName().length()-1).split(", ");
-				State[] states = compositeMapping.get(s);
-				Boolean[] legality = new Boolean[states.length];
-				for(int i = 0; i < states.length; i++) {
-					if(agents[i].getControllable(event[i])) {
-						legality[i] = true;
-						for(DetTransition bad : badTransitions.get(states[i].getStateName())) {
-							if(bad.getTransitionEvent().getEventName().equals(event[i])) {
-								legality[i] = false;
-							}
-						}
-					}
-					else{
-						legality[i] = null;
-					}
-				}
-				Boolean outcome;
-				if(legality[0] == null) {
-					outcome = null;
-				}
-				else {
-					boolean first = legality[0];
-					outcome = first;
-					for(int i = 1; i < legality.length; i++)
-						if(legality[i] == null || legality[i] != first)
-							outcome = outcome;
-						else
-							outcome = null;
-				}
-				if(outcome != null) {
-					if(outcome) {
-						goodBadStates.add(s);
-					}
-					else {
-						badGoodStates.add(s);
-					}
-				}
-			}
+		for(int[] edge : edges) {
+			int outcome = getOutcome(nodes.get(edge[0]), jointEvents.get(edge[1]));
+			if(outcome > 0)
+				goodBadStates.add(nodeStates[edge[0]]);
+			else if(outcome < 0)
+				badGoodStates.add(nodeStates[edge[0]]);
 		}
 	}
-	
+
+	/**
+	 * Checks a joint event at a node for an illegal configuration. Each agent which controls its part of the
+	 * joint event decides whether it is legal from its own component state; the configuration is illegal if
+	 * the plant's decision is not shared by any of the other agents.
+	 *
+	 * @return - Returns 1 if the plant allows the event but no agent does, -1 if the plant disallows the event
+	 * but no agent does, and 0 otherwise.
+	 */
+
+	private int getOutcome(int[] tuple, int[] jointEvent) {
+		if(!controllable[0][jointEvent[0]])
+			return 0;
+		boolean first = !bad[tuple[0]][jointEvent[0]];
+		for(int i = 1; i < tuple.length; i++)
+			if(controllable[i][jointEvent[i]] && !bad[tuple[i]][jointEvent[i]] == first)
+				return 0;
+		return first ? 1 : -1;
+	}
+
 	public DetObsContFSM getUStructure() {
 		return uStructure;
 	}
-		
+
 	public DetObsContFSM getPlantFSM() {
 		return plantFSM;
 	}
@@ -195,49 +424,103 @@ public class UStructure {
 	public HashSet<State> getIllegalConfigOneStates(){
 		return badGoodStates;
 	}
-	
+
 	public HashSet<State> getIllegalConfigTwoStates(){
 		return goodBadStates;
 	}
 }
 
-class BatchAgentStates implements Comparable<BatchAgentStates>{
-	
-	State[] currentStates;
-	State confirmedObject;
-	
-	public BatchAgentStates(State[] states, State identity) {
-		currentStates = states;
-		confirmedObject = identity;
-	}
-	
-	public State[] getStates() {
-		return currentStates;
-	}
-	
-	public void setState(State in) {
-		confirmedObject = in;
-	}
-
-	@Override
-	public int compareTo(BatchAgentStates o) {
-		boolean fail = false;
-		for(int i = 0; i < this.getStates().length; i++)
-			if(!this.getStates()[i].getStateName().equals(o.getStates()[i].getStateName()))
-				fail = true;
-		if(!fail)
-			return 0;
-		else
-			return -1;
+class Successor {
+
+	int[] tuple;
+	int[] jointEvent;
+	int outcome;
+
+	public Successor(int[] theTuple, int[] theJointEvent, int theOutcome) {
+		tuple = theTuple;
+		jointEvent = theJointEvent;
+		outcome = theOutcome;
 	}
-		
-	public State getIdentityState() {
-		return confirmedObject;
+
+}
+
+/**
+ * Open-addressing hash table of fixed-length int tuples, packed into a single int array. Each
+ * tuple added gets the next id, starting from 0.
+ */
+
+class TupleTable {
+
+	private int width;
+	private int size;
+	private int[] tuples;
+	/** Slots hold the id of a tuple plus one, or 0 if empty.*/
+	private int[] slots;
+
+	public TupleTable(int theWidth) {
+		width = theWidth;
+		tuples = new int[width * 16];
+		slots = new int[32];
 	}
-	
-	@Override
-	public boolean equals(Object o1) {
-		return this.confirmedObject.equals(((BatchAgentStates)o1).confirmedObject);
+
+	/**
+	 * Adds the tuple to the table.
+	 *
+	 * @return - Returns the id of the tuple if it was new, or -(id + 1) if it was already present.
+	 */
+
+	public int add(int[] tuple) {
+		int slot = find(tuple);
+		if(slots[slot] != 0)
+			return -slots[slot];
+		if(size * width == tuples.length)
+			tuples = Arrays.copyOf(tuples, tuples.length * 2);
+		System.arraycopy(tuple, 0, tuples, size * width, width);
+		slots[slot] = ++size;
+		if(size * 2 > slots.length)
+			rehash();
+		return size - 1;
 	}
-	
+
+	public int[] get(int id) {
+		return Arrays.copyOfRange(tuples, id * width, (id + 1) * width);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private int find(int[] tuple) {
+		int mask = slots.length - 1;
+		int slot = hash(tuple, 0, tuple.length) & mask;
+		while(slots[slot] != 0 && !matches(slots[slot] - 1, tuple))
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private boolean matches(int id, int[] tuple) {
+		for(int i = 0; i < width; i++)
+			if(tuples[id * width + i] != tuple[i])
+				return false;
+		return true;
+	}
+
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for(int id = 0; id < size; id++) {
+			int slot = hash(tuples, id * width, width) & mask;
+			while(slots[slot] != 0)
+				slot = (slot + 1) & mask;
+			slots[slot] = id + 1;
+		}
+	}
+
+	private static int hash(int[] array, int offset, int length) {
+		int h = 1;
+		for(int i = offset; i < offset + length; i++)
+			h = 31 * h + array[i];
+		return h ^ (h >>> 16);
+	}
+
 }
@@ -0,0 +1,324 @@
+package support.map;
+
+import support.MachineImage;
+import support.State;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * This class is a read-only StateMap whose States live in a memory-mapped MachineImage rather than on the heap.
+ * A State object is only made when it is asked for (by name, or while iterating over getStates()), and is kept
+ * only while something else refers to it: the map holds its States through weak references, so a State which
+ * is no longer used is collected, and a new object is made if it is asked for again. While a State is in use
+ * the map always hands out the same object for it, as States are compared by identity.
+ *
+ * The map cannot be changed; adding a State which already exists returns it, as for a normal StateMap, but any
+ * other addition, removal or renaming throws an UnsupportedOperationException.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class ImageStateMap extends StateMap {
+
+//--- Instance Variables   --------------------------------------------------------------------
+
+	/** MachineImage object holding the States.*/
+	private MachineImage image;
+	/** HashMap<<r>Integer, StateReference> object mapping the index of each State currently made to a reference to it.*/
+	private HashMap<Integer, StateReference> made;
+	/** ReferenceQueue<<r>State> object which receives the references to States that have been collected.*/
+	private ReferenceQueue<State> collected;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for an ImageStateMap object reading the States of the provided MachineImage.
+	 *
+	 * @param inImage - MachineImage object holding the States.
+	 */
+
+	public ImageStateMap(MachineImage inImage) {
+		image = inImage;
+		made = new HashMap<Integer, StateReference>();
+		collected = new ReferenceQueue<State>();
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	@Override
+	public String makeDotString() {
+		StringBuilder sb = new StringBuilder();
+		for(State state : getStates())
+			sb.append(state.makeDotString());
+		return sb.toString();
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that returns the State object for an index of the MachineImage, making it if it is not in use.
+	 *
+	 * @param index - int value representing the index of the State in the MachineImage.
+	 * @return - Returns the State object with that index.
+	 */
+
+	public State getState(int index) {
+		// Forget the States which have been collected since the last call
+		for(StateReference ref = (StateReference)collected.poll(); ref != null; ref = (StateReference)collected.poll())
+			if(made.get(ref.index) == ref)
+				made.remove(ref.index);
+		StateReference ref = made.get(index);
+		State state = ref == null ? null : ref.get();
+		if(state == null) {
+			state = new ImageState(image.getStateName(index), index, this);
+			state.setStateInitial(image.getStateInitial(index));
+			state.setStateMarked(image.getStateMarked(index));
+			state.setStatePrivate(image.getStatePrivate(index));
+			made.put(index, new StateReference(state, index, collected));
+		}
+		return state;
+	}
+
+	/**
+	 * Getter method that returns the index in the MachineImage of one of this map's States.
+	 *
+	 * @param state - State object to find the index of.
+	 * @return - Returns an int value representing the index of the State, or -1 if the State was not made by this map.
+	 */
+
+	public int getStateIndex(State state) {
+		if(state instanceof ImageState && ((ImageState)state).owner == this)
+			return ((ImageState)state).index;
+		return -1;
+	}
+
+	/**
+	 * Getter method that returns the initial States, found from the MachineImage's bitmap.
+	 *
+	 * @return - Returns an ArrayList<<r>State> object holding the initial States.
+	 */
+
+	public ArrayList<State> getInitialStates() {
+		ArrayList<State> out = new ArrayList<State>();
+		for(int i = 0; i < image.getStateCount(); i++)
+			if(image.getStateInitial(i))
+				out.add(getState(i));
+		return out;
+	}
+
+	@Override
+	public State getState(String stateName) {
+		int index = image.getStateIndex(stateName);
+		return index == -1 ? null : getState(index);
+	}
+
+	@Override
+	public State getState(State state) {
+		int index = getStateIndex(state);
+		return index != -1 ? state : getState(state.getStateName());
+	}
+
+	@Override
+	public boolean stateExists(String stateName) {
+		return image.getStateIndex(stateName) != -1;
+	}
+
+	/**
+	 * Getter method that returns the States held; the Collection makes each State only as it is reached.
+	 *
+	 * @return - Returns a Collection<<r>State> object over the States of the MachineImage.
+	 */
+
+	@Override
+	public Collection<State> getStates() {
+		return new AbstractCollection<State>() {
+			@Override
+			public Iterator<State> iterator() {
+				return new Iterator<State>() {
+					private int next;
+
+					@Override
+					public boolean hasNext() {
+						return next < image.getStateCount();
+					}
+
+					@Override
+					public State next() {
+						if(!hasNext())
+							throw new NoSuchElementException();
+						return getState(next++);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return image.getStateCount();
+			}
+		};
+	}
+
+//---  Setter Methods   -----------------------------------------------------------------------
+
+	@Override
+	public void setStateMapStates(HashMap<String, State> inHash) {
+		throw readOnly();
+	}
+
+	@Override
+	public void setCompositionStates(HashMap<State, ArrayList<State>> newComposed) {
+		throw readOnly();
+	}
+
+	@Override
+	public void setStateComposition(State keyState, ArrayList<State> composedStates) {
+		throw readOnly();
+	}
+
+//---  Manipulations   ------------------------------------------------------------------------
+
+	@Override
+	public boolean renameState(State state, String newName) {
+		throw readOnly();
+	}
+
+	@Override
+	public void renameStates() {
+		throw readOnly();
+	}
+
+	@Override
+	public State addState(State state) {
+		return existing(state.getStateName());
+	}
+
+	@Override
+	public State addState(State state, String prefix) {
+		return existing(prefix + state.getStateName());
+	}
+
+	@Override
+	public State addState(State state1, State state2) {
+		return existing(getPairName(state1, state2));
+	}
+
+	@Override
+	public State addState(String stateName) {
+		return existing(stateName);
+	}
+
+	@Override
+	public State addState(State ... providedStates) {
+		return existing(new State(providedStates).getStateName());
+	}
+
+	@Override
+	public void removeState(State state) {
+		throw readOnly();
+	}
+
+	@Override
+	public void removeState(String stateName) {
+		throw readOnly();
+	}
+
+	@Override
+	public void removeStates(ArrayList<State> inStates) {
+		throw readOnly();
+	}
+
+	@Override
+	public void removeStates(HashSet<State> inStates) {
+		throw readOnly();
+	}
+
+	@Override
+	public String toString() {
+		return "ImageStateMap of " + image.getStateCount() + " States";
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that returns the State an addition names, which must already exist as the map cannot change.
+	 *
+	 * @param stateName - String object representing the name of the State being added.
+	 * @return - Returns the existing State object with that name.
+	 * @throws UnsupportedOperationException - Thrown if there is no such State.
+	 */
+
+	private State existing(String stateName) {
+		State state = getState(stateName);
+		if(state == null)
+			throw readOnly();
+		return state;
+	}
+
+	/**
+	 * Helper method that makes the exception thrown by any attempt to change the map.
+	 *
+	 * @return - Returns an UnsupportedOperationException object to throw.
+	 */
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("The States of a MachineImage cannot be changed.");
+	}
+
+//---  Support Classes   ----------------------------------------------------------------------
+
+	/**
+	 * This class is a State made from a MachineImage, which remembers its index and the map which made it.
+	 */
+
+	private static final class ImageState extends State {
+
+		/** int value representing the index of the State in the MachineImage.*/
+		private final int index;
+		/** ImageStateMap object which made the State.*/
+		private final ImageStateMap owner;
+
+		/**
+		 * Constructor for an ImageState object.
+		 *
+		 * @param name - String object representing the name of the State.
+		 * @param inIndex - int value representing the index of the State in the MachineImage.
+		 * @param inOwner - ImageStateMap object which made the State.
+		 */
+
+		ImageState(String name, int inIndex, ImageStateMap inOwner) {
+			super(name);
+			index = inIndex;
+			owner = inOwner;
+		}
+
+	}
+
+	/**
+	 * This class is a weak reference to a State made by the map, which remembers the State's index so its
+	 * entry can be removed once the State has been collected.
+	 */
+
+	private static final class StateReference extends WeakReference<State> {
+
+		/** int value representing the index of the State in the MachineImage.*/
+		private final int index;
+
+		/**
+		 * Constructor for a StateReference object.
+		 *
+		 * @param state - State object referred to.
+		 * @param inIndex - int value representing the index of the State in the MachineImage.
+		 * @param queue - ReferenceQueue<<r>State> object to receive the reference once the State is collected.
+		 */
+
+		StateReference(State state, int inIndex, ReferenceQueue<State> queue) {
+			super(state, queue);
+			index = inIndex;
+		}
+
+	}
+
+}
@@ -0,0 +1,311 @@
+package support.map;
+
+import support.transition.ModalTransition;
+import support.transition.Transition;
+import support.MachineImage;
+import support.Event;
+import support.State;
+import java.util.*;
+
+/**
+ * This class is a read-only TransitionFunction whose Transitions stay in a memory-mapped MachineImage. A State's
+ * Transitions are only built, from its row of the image, when they are asked for; the rows of the States used
+ * most recently are kept, so that an algorithm returning to the same States does not rebuild them, but the heap
+ * otherwise holds nothing of the Transitions.
+ *
+ * The Transitions cannot be changed: every method which would add or remove one throws an
+ * UnsupportedOperationException.
+ *
+ * This class is a part of the support package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ * @param <T> - T being a class in the Transitions hierarchy from support.transition package
+ */
+
+public class ImageTransitionFunction<T extends Transition> extends TransitionFunction<T> {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value representing the number of States whose Transitions are kept after being built.*/
+	private static final int CACHE_SIZE = 1024;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** MachineImage object holding the Transitions.*/
+	private MachineImage image;
+	/** ImageStateMap object which makes the States of the image.*/
+	private ImageStateMap states;
+	/** Event[] object holding the Event with each index of the image.*/
+	private Event[] eventAt;
+	/** LinkedHashMap<<r>State, ArrayList<<r>T>> object holding the Transitions built most recently, eldest first.*/
+	private LinkedHashMap<State, ArrayList<T>> recent;
+	/** int value representing the number of States which have Transitions, or -1 until it is first counted.*/
+	private int statesWithTransitions;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for an ImageTransitionFunction object reading the Transitions of the provided MachineImage.
+	 * The Events of the image are added to the provided EventMap with their attributes.
+	 *
+	 * @param obj - Object of the type T that extends Transition<<r>S, E> to provide to the TransitionFunction object.
+	 * @param inImage - MachineImage object holding the Transitions.
+	 * @param inStates - ImageStateMap object which makes the States of the same image.
+	 * @param events - EventMap object that the Events of the image are added to.
+	 */
+
+	public ImageTransitionFunction(T obj, MachineImage inImage, ImageStateMap inStates, EventMap events) {
+		super(obj);
+		image = inImage;
+		states = inStates;
+		eventAt = new Event[image.getEventCount()];
+		for(int i = 0; i < eventAt.length; i++) {
+			eventAt[i] = events.addEvent(image.getEventName(i));
+			eventAt[i].setEventObservability(image.getEventObservability(i));
+			eventAt[i].setEventAttackerObservability(image.getEventAttackerObservability(i));
+			eventAt[i].setEventControllability(image.getEventControllability(i));
+		}
+		recent = new LinkedHashMap<State, ArrayList<T>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<State, ArrayList<T>> eldest) {
+				return size() > CACHE_SIZE;
+			}
+		};
+		statesWithTransitions = -1;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	@Override
+	public String makeDotString() {
+		StringBuilder sb = new StringBuilder();
+		for(Map.Entry<State, ArrayList<T>> entry : getAllTransitions())
+			for(T aTransition : entry.getValue())
+				sb.append(aTransition.makeDotString(entry.getKey()));
+		return sb.toString();
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	@Override
+	public ArrayList<T> getTransitions(State state) {
+		int index = states.getStateIndex(state);
+		if(index == -1)
+			return new ArrayList<T>();
+		ArrayList<T> out = recent.get(state);
+		if(out == null) {
+			out = buildTransitions(state, index);
+			recent.put(state, out);
+		}
+		return out;
+	}
+
+	@Override
+	public ArrayList<T> getSortedTransitions(State state) {
+		ArrayList<T> out = getTransitions(state);
+		Collections.sort(out);
+		return out;
+	}
+
+	/**
+	 * Getter method that returns every State with Transitions paired with its Transitions; the Set builds
+	 * each State's Transitions only as it is reached.
+	 *
+	 * @return - Returns a Set of map entries with State objects and an ArrayList of the Transitions. (Set<<r>Map, Entry<<r>S, ArrayList<<r>T>>>)
+	 */
+
+	@Override
+	public Set<Map.Entry<State, ArrayList<T>>> getAllTransitions() {
+		return new AbstractSet<Map.Entry<State, ArrayList<T>>>() {
+			@Override
+			public Iterator<Map.Entry<State, ArrayList<T>>> iterator() {
+				Iterator<State> from = getStates().iterator();
+				return new Iterator<Map.Entry<State, ArrayList<T>>>() {
+					@Override
+					public boolean hasNext() {
+						return from.hasNext();
+					}
+
+					@Override
+					public Map.Entry<State, ArrayList<T>> next() {
+						State state = from.next();
+						return new AbstractMap.SimpleImmutableEntry<State, ArrayList<T>>(state, getTransitions(state));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return countStatesWithTransitions();
+			}
+		};
+	}
+
+	/**
+	 * Getter method that returns the States which have Transitions; the Collection makes each State only as it is reached.
+	 *
+	 * @return - Returns a Collection<<r>State> object containing all the States in this TransitionFunction which have Transitions.
+	 */
+
+	@Override
+	public Collection<State> getStates() {
+		return new AbstractCollection<State>() {
+			@Override
+			public Iterator<State> iterator() {
+				return new Iterator<State>() {
+					private int next = skipEmptyRows(0);
+
+					@Override
+					public boolean hasNext() {
+						return next < image.getStateCount();
+					}
+
+					@Override
+					public State next() {
+						if(!hasNext())
+							throw new NoSuchElementException();
+						State state = states.getState(next);
+						next = skipEmptyRows(next + 1);
+						return state;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return countStatesWithTransitions();
+			}
+		};
+	}
+
+	@Override
+	public boolean eventExists(State state, Event event) {
+		for(T t : getTransitions(state))
+			if(t.getTransitionEvent().equals(event))
+				return true;
+		return false;
+	}
+
+	@Override
+	public ArrayList<State> getTransitionStates(State state, Event event) {
+		for(T t : getTransitions(state))
+			if(t.getTransitionEvent().equals(event))
+				return t.getTransitionStates();
+		return null;
+	}
+
+//---  Setter Methods   -----------------------------------------------------------------------
+
+	@Override
+	public void putTransitions(State state, ArrayList<T> inTransitions) {
+		throw readOnly();
+	}
+
+//---  Manipulations   ------------------------------------------------------------------------
+
+	@Override
+	public void addTransition(State state, T transition) {
+		throw readOnly();
+	}
+
+	@Override
+	public void addTransitions(State[] states1, Event[] events, State[] states2) {
+		throw readOnly();
+	}
+
+	@Override
+	public void addTransitionState(State inState, Event event, State outState) {
+		throw readOnly();
+	}
+
+	@Override
+	public void removeState(State state) {
+		throw readOnly();
+	}
+
+	@Override
+	public void removeStates(Collection<State> badStates) {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean removeTransition(State stateFrom, Event event, State stateTo) {
+		throw readOnly();
+	}
+
+//---  Helper Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Helper method that builds the Transitions of a State from its row of the image, with one Transition
+	 * per Event in the order the Events first appear; a must edge of the image makes a must ModalTransition.
+	 *
+	 * @param state - State object whose Transitions are built.
+	 * @param index - int value representing the index of the State in the image.
+	 * @return - Returns an ArrayList<<r>T> object holding the State's Transitions.
+	 */
+
+	private ArrayList<T> buildTransitions(State state, int index) {
+		LinkedHashMap<Integer, ArrayList<State>> targetsOf = new LinkedHashMap<Integer, ArrayList<State>>();
+		HashSet<Integer> mustEvents = new HashSet<Integer>();
+		image.forEachTransition(index, (event, target, must) -> {
+			ArrayList<State> targets = targetsOf.get(event);
+			if(targets == null) {
+				targets = new ArrayList<State>();
+				targetsOf.put(event, targets);
+			}
+			targets.add(states.getState(target));
+			if(must)
+				mustEvents.add(event);
+		});
+		ArrayList<T> out = new ArrayList<T>();
+		for(Map.Entry<Integer, ArrayList<State>> entry : targetsOf.entrySet()) {
+			T trans = getEmptyTransition();
+			trans.setTransitionEvent(eventAt[entry.getKey()]);
+			trans.setTransitionStates(entry.getValue());
+			if(mustEvents.contains(entry.getKey()) && trans instanceof ModalTransition)
+				((ModalTransition)trans).setTransitionMust(true);
+			out.add(trans);
+		}
+		return out;
+	}
+
+	/**
+	 * Helper method that finds the first State with Transitions at or after an index.
+	 *
+	 * @param from - int value representing the index to start from.
+	 * @return - Returns an int value representing the index of the State, or the number of States if there is none.
+	 */
+
+	private int skipEmptyRows(int from) {
+		while(from < image.getStateCount() && !image.hasTransitions(from))
+			from++;
+		return from;
+	}
+
+	/**
+	 * Helper method that counts the States with Transitions, the first time they are needed.
+	 *
+	 * @return - Returns an int value representing the number of States with Transitions.
+	 */
+
+	private int countStatesWithTransitions() {
+		if(statesWithTransitions == -1) {
+			int count = 0;
+			for(int i = skipEmptyRows(0); i < image.getStateCount(); i = skipEmptyRows(i + 1))
+				count++;
+			statesWithTransitions = count;
+		}
+		return statesWithTransitions;
+	}
+
+	/**
+	 * Helper method that makes the exception thrown by any attempt to change the Transitions.
+	 *
+	 * @return - Returns an UnsupportedOperationException object to throw.
+	 */
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("The Transitions of a MachineImage cannot be changed.");
+	}
+
+}
@@ -236,6 +236,19 @@ public class StateMap {
 		return newState;
 	}
 	
+	/**
+	 * This method gives the name of the State made from two States by addState(State, State), so that
+	 * a pair of States may be identified before the hybrid State is made.
+	 * 
+	 * @param state1 - The first State object of the pair.
+	 * @param state2 - The second State object of the pair.
+	 * @return - Returns a String object representing the name of the hybrid State.
+	 */
+	
+	public static String getPairName(State state1, State state2) {
+		return "(" + state1.getStateName() + "," + state2.getStateName() + ")";
+	}
+	
 	/**
 	 * Adds a state to the mapping that is a hybrid of the two input states, combining their names. 
 	 * 
@@ -245,7 +258,7 @@ public class StateMap {
 	 */
 	
 	public State addState(State state1, State state2) {
-		String stateName = "(" + state1.getStateName() + "," + state2.getStateName() + ")";
+		String stateName = getPairName(state1, state2);
 		if(states.containsKey(stateName))
 			return states.get(stateName);
 		State newState = state1.makeStateWith(state2); // TODO: fix the generic types here
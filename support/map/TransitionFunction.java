@@ -1,8 +1,8 @@
 package support.map;
 
-import support.transition.DetTransition;
 import support.transition.Transition;
 import support.attribute.*;
+import support.StateSpaceExplorer;
 import support.Event;
 import support.State;
 import java.util.*;
@@ -60,34 +60,6 @@ public class TransitionFunction <T extends Transition>{
 		return sb.toString();
 	}
 	
-	/**
-	 * This method converts the information stored in this TransitionFunction object into the dot-form
-	 * representation for use with GraphViz. It excludes the transitions which are present in the other
-	 * transition function passed as a parameter.
-	 * 
-	 * @param other - TransitionFunction which uses the same FSM's states mapping to different things.
-	 * @return - Returns a String object representing the dot-form version of the information stored by
-	 * this TransitionFunction object, excluding any transitions in the other transition function.
-	 */
-	
-	public String makeDotStringExcluding(TransitionFunction<T> other) {
-		StringBuilder sb = new StringBuilder();
-		for(Map.Entry<State, ArrayList<T>> entry : transitions.entrySet()) {
-			State firstState = entry.getKey();
-			ArrayList<T> thisTransitions = entry.getValue();
-			for(T aTransition : thisTransitions) {
-				ArrayList<State> otherTransitionStates = other.getTransitionStates(firstState, aTransition.getTransitionEvent());
-				if(otherTransitionStates == null || otherTransitionStates.size() == 0) {
-					if(aTransition instanceof DetTransition)
-						sb.append(((DetTransition)aTransition).makeDotStringMayTransition(firstState)); // only append if the transition does not exist in other.
-					else
-						sb.append(aTransition.makeDotString(firstState));
-				} // if
-			} // for aTransition
-		} // for entry
-		return sb.toString();
-	}
-	
 	/**
 	 * This gets the epsilon reaches of all each state, mapping the state to a set
 	 * of states which are reachable with unobservable events.
@@ -100,65 +72,21 @@ public class TransitionFunction <T extends Transition>{
 		HashMap<State, HashSet<State>> epsilonReach = new HashMap<State, HashSet<State>>();	//Maps a State to all States it is attached to
 		for(State s : fsmStates) {						//For all States in the FSM:
 			HashSet<State> thisSet = new HashSet<State>();			//Keeps track of all States attached to this State
-			thisSet.add(s);										//Add the original State as one in the group
-			LinkedList<State> queue = new LinkedList<State>();		//Queue to process all States connected via Unobservable Events
-			queue.add(s);											//First Queue entry is the original State
-			HashSet<State> visited = new HashSet<State>();			//Keeps track of revisited States
-			// Go through all the states connected by unobservable events
-			while(!queue.isEmpty()) {
-				State top = queue.poll();					//Get the next State
-				if(visited.contains(top))					//If already processed, don't re-process the State
-					continue;
-				visited.add(top);							//Mark it as visited
+			// Go through all the states connected by unobservable events, starting from the original State
+			new StateSpaceExplorer<State>((top, next) -> {
+				thisSet.add(top);							//Each State is processed once, as a part of the new aggregated State
 				for(T t : this.getTransitions(top)) {	//Process all the State's Transitions
 					// If it's an unobservable event, go through all transition states
 					if(!((EventObservability)t.getTransitionEvent()).getEventObservability()) 
-						for(State sr : t.getTransitionStates()) {
-							if(!thisSet.contains(sr)) {
-								thisSet.add(sr); //If the Event is unobservable and has not yet been seen, add the State
-								queue.add(sr); //As the State is a part of the new aggregated State, check its transitions too
-						} // if it doesn't contain it
-					} // if we have an unobservable event, go through all the transition states
+						for(State sr : t.getTransitionStates())
+							next.accept(sr);
 				} // for each transition
-			} // while queue not empty
+			}).explore(s);
 			epsilonReach.put(s, thisSet);
 		} // for each state
 		return epsilonReach;
 	} // getEpsilonReaches(Collection<S>)
 	
-	/**
-	 * Method to be called on the may transition function with a must transition function passed
-	 * in (for all the transitions which must occur). It returns all the states that have transitions
-	 * that exist in the mustTransitionFunction but not in the calling function, making the state
-	 * inconsistent with the definition of a ModalSpecification.
-	 * 
-	 * @param mustTransitionFunction - TransitionFunction with the transitions that must occur for
-	 * the TransitionSystem.
-	 * @return - HashSet of all the States which were found to be inconsistent.
-	 */
-
-	public HashSet<String> getInconsistentStates(TransitionFunction<T> mustTransitionFunction) {
-		// This is the must transitions; we want all the states where there is no transition in
-		// other that corresponds to the one in this.
-		HashSet<String> badStates = new HashSet<String>();
-		
-		for(State fromState : mustTransitionFunction.transitions.keySet()) {
-			// Get the corresponding sorted transitions from each
-			ArrayList<T> mustTransitions = mustTransitionFunction.getSortedTransitions(fromState);
-			ArrayList<T> mayTransitions = this.getSortedTransitions(fromState);
-			int mustIndex = 0, mayIndex = 0;
-			while(mustIndex < mustTransitions.size() && mayIndex < mayTransitions.size()) {
-				// Find the matching may transition
-				while(mayIndex < mayTransitions.size() && !mustTransitions.get(mustIndex).equals(mayTransitions.get(mayIndex))) mayIndex++;
-				// If there is no corresponding may transition, we have a bad state.
-				if(mayIndex >= mayTransitions.size()) badStates.add(fromState.getStateName());
-				mustIndex++;
-			}
-			if(mustIndex < mustTransitions.size()) badStates.add(fromState.getStateName());
-		}
-		return badStates;
-	} // getInconsistentStates(TransitionFunction<T>)
-	
 //---  Getter Methods   -----------------------------------------------------------------------
 	
 	/**
@@ -315,6 +243,95 @@ public class TransitionFunction <T extends Transition>{
 			currT.add(transition);
 	}
 	
+	/**
+	 * This method adds many Transitions at once, given as the triples (states1[i], events[i], states2[i]);
+	 * each has the same effect as finding the leading State's Transition with that Event (or making one) and
+	 * calling setTransitionState on it, so later triples replace earlier ones in deterministic Transitions.
+	 * 
+	 * Rather than searching the leading State's Transitions for every triple, the triples are grouped once by
+	 * leading State (with a counting sort, so each group keeps the order of its triples) and then by Event, the
+	 * target States of each (State, Event) pair are deduplicated together, and each Transition is built and stored
+	 * directly. A State's new Transitions are added in the order their Events first appear, as when adding the
+	 * triples one at a time.
+	 * 
+	 * @param states1 - State[] object holding the leading State of each triple.
+	 * @param events - Event[] object holding the Event of each triple.
+	 * @param states2 - State[] object holding the target State of each triple.
+	 */
+	
+	public void addTransitions(State[] states1, Event[] events, State[] states2) {
+		// Number the leading States in order of appearance and count their triples
+		HashMap<State, Integer> groupOf = new HashMap<State, Integer>();
+		int[] group = new int[states1.length];
+		int[] starts = new int[states1.length + 1];
+		for(int i = 0; i < states1.length; i++) {
+			Integer g = groupOf.get(states1[i]);
+			if(g == null) {
+				g = groupOf.size();
+				groupOf.put(states1[i], g);
+			}
+			group[i] = g;
+			starts[g + 1]++;
+		}
+		for(int g = 0; g < groupOf.size(); g++)
+			starts[g + 1] += starts[g];
+		int[] order = new int[states1.length];
+		int[] fill = Arrays.copyOf(starts, groupOf.size());
+		for(int i = 0; i < states1.length; i++)
+			order[fill[group[i]]++] = i;
+		
+		for(int g = 0; g < groupOf.size(); g++) {
+			State from = states1[order[starts[g]]];
+			ArrayList<T> currT = transitions.get(from);
+			if(currT == null) {
+				currT = new ArrayList<T>();
+				transitions.put(from, currT);
+			}
+			// Gather the targets of each Event, in the order the Events first appear
+			LinkedHashMap<String, LinkedHashSet<State>> targetsOf = new LinkedHashMap<String, LinkedHashSet<State>>();
+			HashMap<String, Event> eventOf = new HashMap<String, Event>();
+			for(int k = starts[g]; k < starts[g + 1]; k++) {
+				int i = order[k];
+				String name = events[i].getEventName();
+				LinkedHashSet<State> targets = targetsOf.get(name);
+				if(targets == null) {
+					targets = new LinkedHashSet<State>();
+					targetsOf.put(name, targets);
+					eventOf.put(name, events[i]);
+				}
+				targets.remove(states2[i]); // A repeated State moves to the end, as the latest to be set
+				targets.add(states2[i]);
+			} // for every triple of this State
+			
+			// Index any Transitions already present so that they are extended rather than duplicated
+			HashMap<String, T> existing = new HashMap<String, T>();
+			for(T t : currT)
+				existing.put(t.getTransitionEvent().getEventName(), t);
+			for(Map.Entry<String, LinkedHashSet<State>> entry : targetsOf.entrySet()) {
+				T trans = existing.get(entry.getKey());
+				if(trans == null) {
+					trans = getEmptyTransition();
+					trans.setTransitionEvent(eventOf.get(entry.getKey()));
+					currT.add(trans);
+				}
+				trans.setTransitionStates(entry.getValue());
+			} // for every Event of this State
+		} // for every leading State
+	} // addTransitions(State[], Event[], State[])
+	
+	/**
+	 * This method adds many Transitions at once, given as the triples (states1.get(i), events.get(i), states2.get(i)),
+	 * as addTransitions(State[], Event[], State[]) does; it suits algorithms which gather their results as they explore.
+	 * 
+	 * @param states1 - List<<r>State> object holding the leading State of each triple.
+	 * @param events - List<<r>Event> object holding the Event of each triple.
+	 * @param states2 - List<<r>State> object holding the target State of each triple.
+	 */
+	
+	public void addTransitions(List<State> states1, List<Event> events, List<State> states2) {
+		addTransitions(states1.toArray(new State[states1.size()]), events.toArray(new Event[events.size()]), states2.toArray(new State[states2.size()]));
+	}
+	
 	/**
 	 * This method adds a new Transition to the TransitionFunction in a format defined as State1, Event, State2;
 	 * State1 leading to State2 via the Event. It creates a new Transition object and appends it to the
@@ -397,6 +414,8 @@ public class TransitionFunction <T extends Transition>{
 	
 	public boolean removeTransition(State stateFrom, Event event, State stateTo) {
 		ArrayList<T> thisTransitions = transitions.get(stateFrom);
+		if(thisTransitions == null)
+			return false;
 		for(T transition : thisTransitions) {
 			if(transition.getTransitionEvent().equals(event)) {
 				if(transition.stateExists(stateTo)) {
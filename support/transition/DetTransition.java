@@ -165,6 +165,12 @@ public class DetTransition implements Transition {
 		state = in;
 	}
 	
+	@Override
+	public void setTransitionStates(Collection<State> inStates) {
+		for(State in : inStates) // Like repeated calls to setTransitionState, the last State wins
+			state = in;
+	}
+	
 //---  Manipulations   -----------------------------------------------------------------------
 
 	@Override
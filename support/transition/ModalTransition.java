@@ -0,0 +1,123 @@
+package support.transition;
+
+import support.State;
+import support.Event;
+
+/**
+ * This class models a path in a Modal Specification, storing an Event and the single State that
+ * it leads to alongside the modality of that path: whether the path is permitted (a "may" transition)
+ * and whether the path is required (a "must" transition). Storing both modalities on one object lets a
+ * Modal Specification keep a single TransitionFunction instead of a separate map for its must transitions.
+ *
+ * A transition which is a must transition but not a may transition is inconsistent; these only exist
+ * while a Modal Specification is being built and pruned, and are kept apart from its may transitions.
+ *
+ * This class is a part of the support.transition package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class ModalTransition extends DetTransition {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** boolean instance variable representing the status of this Transition's being permitted (a "may" transition)*/
+	private boolean may;
+	/** boolean instance variable representing the status of this Transition's being required (a "must" transition)*/
+	private boolean must;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for a ModalTransition object, assigning the provided Event and State to their corresponding instance
+	 * variables. The Transition is always a may transition, and is also a must transition if inMust is true.
+	 *
+	 * @param inEvent - Event object representing the Event associated to this Transition
+	 * @param inState - State object representing the State being led to by the Event of this Transition
+	 * @param inMust - boolean value representing the status of this Transition's being a must transition.
+	 */
+
+	public ModalTransition(Event inEvent, State inState, boolean inMust) {
+		super(inEvent, inState);
+		may = true;
+		must = inMust;
+	}
+
+	/**
+	 * Constructor for a ModalTransition object, assigning the event and state null values until later
+	 * manipulation. The Transition defaults to being a may transition only.
+	 */
+
+	public ModalTransition() {
+		super();
+		may = true;
+		must = false;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	@Override
+	public String makeDotString(State firstState) {
+		// Must transitions are solid lines, transitions which are only allowed are dotted
+		if(must)
+			return super.makeDotString(firstState);
+		return makeDotStringMayTransition(firstState);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method to request the status of this Transition being a may transition (being permitted).
+	 *
+	 * @return - Returns a boolean value representing the status of this Transition being a may transition.
+	 */
+
+	public boolean getTransitionMay() {
+		return may;
+	}
+
+	/**
+	 * Getter method to request the status of this Transition being a must transition (being required).
+	 *
+	 * @return - Returns a boolean value representing the status of this Transition being a must transition.
+	 */
+
+	public boolean getTransitionMust() {
+		return must;
+	}
+
+//---  Setter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Setter method to assign a new boolean value to this Transition's status of being a may transition.
+	 *
+	 * @param in - boolean value representing the new status of this Transition's being a may transition.
+	 */
+
+	public void setTransitionMay(boolean in) {
+		may = in;
+	}
+
+	/**
+	 * Setter method to assign a new boolean value to this Transition's status of being a must transition.
+	 *
+	 * @param in - boolean value representing the new status of this Transition's being a must transition.
+	 */
+
+	public void setTransitionMust(boolean in) {
+		must = in;
+	}
+
+//---  Manipulations   -----------------------------------------------------------------------
+
+	@Override
+	public ModalTransition generateTransition(){
+		ModalTransition outbound = new ModalTransition();
+		return outbound;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + (must ? " (must)" : "") + (may ? "" : " (not allowed)");
+	}
+}
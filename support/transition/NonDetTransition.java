@@ -126,6 +126,14 @@ public class NonDetTransition implements Transition {
 			states.add(in);
 	}
 	
+	@Override
+	public void setTransitionStates(Collection<State> inStates) {
+		HashSet<State> present = new HashSet<State>(states);
+		for(State in : inStates)
+			if(present.add(in))
+				states.add(in);
+	}
+	
 	@Override
 	public void setTransitionEvent(Event in) {
 		event = in;
@@ -107,6 +107,16 @@ public interface Transition extends Comparable<Transition> {
 	
 	public boolean addTransitionState(State state);
 	
+	/**
+	 * This method assigns several target States to the Transition object at once, with the same effect
+	 * as calling setTransitionState on each of them in order, but without searching the Transition's
+	 * States again for every one of them.
+	 * 
+	 * @param inStates - Collection<<r>State> object holding the States to be led to by the Transition object's Event, in order.
+	 */
+	
+	public void setTransitionStates(Collection<State> inStates);
+	
 	/**
 	 * This method removes a State from the Transition object as described by a provided String; or, if the
 	 * State is the only item in the Transition object (as it is for the base Transition object), it returns
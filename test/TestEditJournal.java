@@ -0,0 +1,76 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Test;
+import fsm.*;
+
+/**
+ * This class tests that a transition system saved through an EditJournal reads back as it was saved.
+ *
+ * This class is a part of the test package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class TestEditJournal {
+
+	/**
+	 * A State with no Transitions or attributes is not written to the text file; editing it afterwards
+	 * must not leave a journal that cannot be replayed.
+	 */
+
+	@Test
+	public void testIsolatedStateSurvivesSaves() throws IOException {
+		File folder = Files.createTempDirectory("journal").toFile();
+		DetObsContFSM fsm = new DetObsContFSM("m");
+		fsm.addInitialState("A");
+		fsm.addTransition("A", "a", "B");
+		fsm.addState("Z");
+		File base = EditJournal.getTextFile(folder.getPath(), "m", fsm);
+		EditJournal journal = new EditJournal(base, fsm);
+		journal.save(fsm);
+		fsm.getState("Z").setStatePrivate(true);
+		journal.record(EditJournal.SET_PRIVATE, "Z", "true");
+		journal.save(fsm);
+		fsm.getState("Z").setStatePrivate(false);
+		journal.record(EditJournal.SET_PRIVATE, "Z", "false");
+		journal.save(fsm);
+
+		DetObsContFSM read = new DetObsContFSM(base, "m");
+		new EditJournal(base, read).replay(read);
+		assertNotNull(read.getState("Z"));
+		assertFalse(read.getState("Z").getStatePrivate());
+
+		assertTrue(journal.compact());
+		read = new DetObsContFSM(base, "m");
+		new EditJournal(base, read).replay(read);
+		assertNotNull(read.getState("Z"));
+		assertNotNull(read.getState("B"));
+	}
+
+	/**
+	 * A journal naming a State the text file does not hold, as one written before isolated States were
+	 * kept would, still replays.
+	 */
+
+	@Test
+	public void testUnknownStateReplays() throws IOException {
+		File folder = Files.createTempDirectory("journal").toFile();
+		DetObsContFSM fsm = new DetObsContFSM("m");
+		fsm.addInitialState("A");
+		File base = EditJournal.getTextFile(folder.getPath(), "m", fsm);
+		EditJournal journal = new EditJournal(base, fsm);
+		journal.save(fsm);
+		try(Writer out = new OutputStreamWriter(new FileOutputStream(journal.getJournalFile(), true), StandardCharsets.UTF_8)) {
+			out.write(EditJournal.SET_MARKED + " Y true\n");
+		}
+
+		DetObsContFSM read = new DetObsContFSM(base, "m");
+		assertEquals(1, new EditJournal(base, read).replay(read));
+		assertTrue(read.getState("Y").getStateMarked());
+	}
+
+}
@@ -0,0 +1,144 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import org.junit.Test;
+import fsm.*;
+import support.MachineImage;
+import support.transition.ModalTransition;
+
+/**
+ * This class tests that a ModalSpecification keeps its must transitions where they were declared.
+ *
+ * This class is a part of the test package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class TestModalSpecification {
+
+	/**
+	 * Pointing a may transition at another State must not carry the must flag along to it; the must
+	 * transition stays on its old target, now with no may transition, until one is added back.
+	 */
+
+	@Test
+	public void testRetargetKeepsMustOnItsTarget() {
+		ModalSpecification spec = new ModalSpecification("m");
+		spec.addMustTransition("A", "x", "B");
+		spec.addTransition("A", "x", "C");
+		ArrayList<ModalTransition> must = spec.getMustTransitions(spec.getState("A"));
+		assertEquals(1, must.size());
+		assertEquals("B", must.get(0).getTransitionState().getStateName());
+		assertFalse(must.get(0).getTransitionMay());
+
+		spec.addTransition("A", "x", "B");
+		must = spec.getMustTransitions(spec.getState("A"));
+		assertEquals(1, must.size());
+		assertTrue(must.get(0).getTransitionMay());
+	}
+
+	/**
+	 * The same holds when the Transitions are added in bulk.
+	 */
+
+	@Test
+	public void testBulkRetargetKeepsMustOnItsTarget() {
+		ModalSpecification spec = new ModalSpecification("m");
+		spec.addMustTransition("A", "x", "B");
+		spec.addTransitions(new String[] {"A"}, new String[] {"x"}, new String[] {"C"});
+		ArrayList<ModalTransition> must = spec.getMustTransitions(spec.getState("A"));
+		assertEquals(1, must.size());
+		assertEquals("B", must.get(0).getTransitionState().getStateName());
+		assertFalse(must.get(0).getTransitionMay());
+	}
+
+	/**
+	 * A must line in a .mdl file is a may transition too, even with no matching transition line, as it
+	 * always has been; must transitions with no may transition are written in a batch of their own.
+	 */
+
+	@Test
+	public void testTextFileMustLines() throws IOException {
+		File folder = Files.createTempDirectory("modal").toFile();
+		File file = new File(folder, "hand" + ModalSpecification.MODAL_EXTENSION);
+		Files.write(file.toPath(), "7\n1\nA\n0\n0\n0\n0\n0\n1\nA B x\n".getBytes(StandardCharsets.UTF_8));
+		ModalSpecification spec = new ModalSpecification(file, "hand");
+		assertEquals(1, spec.getTransitions().getTransitions(spec.getState("A")).size());
+		assertTrue(spec.getMustTransitions(spec.getState("A")).get(0).getTransitionMay());
+
+		spec.addMustTransition("A", "y", "C");
+		spec.addTransition("A", "y", "D");
+		spec.toTextFile(folder.getPath(), "round");
+		ModalSpecification read = new ModalSpecification(new File(folder, "round" + ModalSpecification.MODAL_EXTENSION), "round");
+		HashSet<String> must = new HashSet<String>();
+		for(ModalTransition t : read.getMustTransitions(read.getState("A")))
+			must.add(t.getTransitionEvent().getEventName() + " " + t.getTransitionState().getStateName() + " " + t.getTransitionMay());
+		assertEquals(new HashSet<String>(Arrays.asList("x B true", "y C false")), must);
+	}
+
+	/**
+	 * The binary format keeps must transitions with no may transition as well, whether the file is read
+	 * back in full, compressed, or explored in place through a MachineImage.
+	 */
+
+	@Test
+	public void testBinaryFileKeepsInconsistentMust() throws IOException {
+		File folder = Files.createTempDirectory("modal").toFile();
+		ModalSpecification spec = new ModalSpecification("bin");
+		spec.addMustTransition("A", "x", "B");
+		spec.addMustTransition("A", "y", "C");
+		spec.addTransition("A", "y", "D");
+		HashSet<String> expected = new HashSet<String>(Arrays.asList("x B true", "y C false"));
+		for(boolean compress : new boolean[] {false, true}) {
+			spec.toBinaryFile(folder.getPath(), "bin", compress);
+			ModalSpecification read = new ModalSpecification(new File(folder, "bin" + ModalSpecification.MODAL_BINARY_EXTENSION), "bin");
+			assertEquals(expected, describeMust(read, "A"));
+			assertEquals(expected, describeMust(new ModalSpecification(MachineImage.map(new File(folder, "bin" + ModalSpecification.MODAL_BINARY_EXTENSION)), "bin"), "A"));
+			assertEquals(expected, describeMust(new ModalSpecification(spec.toImage(compress), "bin"), "A"));
+		}
+	}
+
+	/**
+	 * A snapshot of a ModalSpecification keeps its must transitions, so that thawing it gives back the
+	 * same specification rather than one whose transitions are all may transitions.
+	 */
+
+	@Test
+	public void testFreezeThawKeepsModality() {
+		ModalSpecification spec = new ModalSpecification("frozen");
+		spec.addMustTransition("A", "x", "B");
+		spec.addTransition("A", "z", "E");
+		spec.addMustTransition("A", "y", "C");
+		spec.addTransition("A", "y", "D");
+		TransitionSystemSnapshot snapshot = spec.freeze();
+		int a = snapshot.getStateIndex("A");
+		assertTrue(snapshot.isMustTransition(a, snapshot.getEventIndex("x"), snapshot.getStateIndex("B")));
+		assertTrue(snapshot.isMustTransition(a, snapshot.getEventIndex("y"), snapshot.getStateIndex("C")));
+		assertFalse(snapshot.isMustTransition(a, snapshot.getEventIndex("z"), snapshot.getStateIndex("E")));
+
+		ModalSpecification thawed = snapshot.thaw(ModalSpecification::new);
+		assertEquals(new HashSet<String>(Arrays.asList("x B true", "y C false")), describeMust(thawed, "A"));
+		assertEquals(3, thawed.getTransitions().getTransitions(thawed.getState("A")).size());
+		assertEquals(new HashSet<String>(Arrays.asList("y C false")), describeMust(snapshot.withoutTransition("A", "x", "B").thaw(ModalSpecification::new), "A"));
+	}
+
+	/**
+	 * Helper method that describes the must transitions leaving a State as "event target may".
+	 *
+	 * @param spec - ModalSpecification object to read.
+	 * @param state - String object representing the name of the State.
+	 * @return - Returns a HashSet<<r>String> object holding the description of each must transition.
+	 */
+
+	private static HashSet<String> describeMust(ModalSpecification spec, String state) {
+		HashSet<String> must = new HashSet<String>();
+		for(ModalTransition t : spec.getMustTransitions(spec.getState(state)))
+			must.add(t.getTransitionEvent().getEventName() + " " + t.getTransitionState().getStateName() + " " + t.getTransitionMay());
+		return must;
+	}
+
+}
@@ -0,0 +1,52 @@
+package test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import fsm.*;
+
+/**
+ * This class tests the OpacityVerifier on small FSMs whose opacity is known.
+ *
+ * This class is a part of the test package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class TestOpacityVerifier {
+
+	/**
+	 * A -u-> B -a-> C with u hidden from the attacker and B secret: after seeing a, the attacker cannot tell
+	 * whether the FSM was in A or B before it, since A reaches B unobserved, so the FSM is 1-Step Opaque.
+	 */
+
+	@Test
+	public void testUnobservedMovesBeforeObservation() {
+		DetObsContFSM fsm = new DetObsContFSM("k");
+		fsm.addInitialState("A");
+		fsm.addTransition("A", "u", "B");
+		fsm.addTransition("B", "a", "C");
+		fsm.getState("B").setStatePrivate(true);
+		fsm.setEventAttackerObservability("u", false);
+		OpacityVerifier verifier = new OpacityVerifier(fsm);
+		assertNull(verifier.verifyCurrentStateOpacity());
+		assertNull(verifier.verifyKStepOpacity(0));
+		assertNull(verifier.verifyKStepOpacity(1));
+	}
+
+	/**
+	 * A -a-> B -b-> C with B secret and everything observed: the attacker knows the FSM was in B one
+	 * observation after it left, so the FSM is not 1-Step Opaque.
+	 */
+
+	@Test
+	public void testObservedSecretIsRevealed() {
+		DetObsContFSM fsm = new DetObsContFSM("k");
+		fsm.addInitialState("A");
+		fsm.addTransition("A", "a", "B");
+		fsm.addTransition("B", "b", "C");
+		fsm.getState("B").setStatePrivate(true);
+		OpacityVerifier verifier = new OpacityVerifier(fsm);
+		assertEquals(1, verifier.verifyKStepOpacity(1).size());
+	}
+
+}
@@ -0,0 +1,39 @@
+package test;
+
+import static org.junit.Assert.*;
+import java.util.concurrent.CancellationException;
+import org.junit.Test;
+import support.StateSpaceExplorer;
+
+/**
+ * This class tests that a StateSpaceExplorer does not pass off an unfinished search as a finished one.
+ *
+ * This class is a part of the test package.
+ *
+ * @author Mac Clevinger and Graeme Zinck
+ */
+
+public class TestStateSpaceExplorer {
+
+	/**
+	 * Interrupting a parallel exploration must not return as if every reachable node had been visited.
+	 */
+
+	@Test
+	public void testInterruptedParallelExploreThrows() {
+		StateSpaceExplorer<Long> explorer = new StateSpaceExplorer<Long>((node, successors) -> successors.accept(node + 1))
+				.setOrder(StateSpaceExplorer.Order.PARALLEL);
+		Thread.currentThread().interrupt();
+		try {
+			explorer.explore(0L);
+			fail("an interrupted exploration returned");
+		}
+		catch(CancellationException e) {
+			assertTrue(Thread.currentThread().isInterrupted());
+		}
+		finally {
+			Thread.interrupted();
+		}
+	}
+
+}